@@ -45,4 +45,28 @@ public interface IndexedMap <K,V> extends Map<K,V> {
 	 * @return The removed value
 	 */
 	public V removeAt(int index);
+	
+	/**
+	 * Returns the position of the element with the given key
+	 * @param key Key
+	 * @return Position or -1 if the key is not in the map
+	 */
+	public int indexOf(Object key);
+	
+	/**
+	 * Inserts an element at the given position. If the key is already in the map, 
+	 * the old entry is removed first.
+	 * @param index Position (0 to size)
+	 * @param key Key
+	 * @param value Value
+	 * @return The previous value for the key or <code>null</code>
+	 */
+	public V putAt(int index, K key, V value);
+	
+	/**
+	 * Moves an element to another position
+	 * @param fromIndex Current position
+	 * @param toIndex New position
+	 */
+	public void move(int fromIndex, int toIndex);
 }
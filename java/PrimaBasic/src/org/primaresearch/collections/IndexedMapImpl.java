@@ -15,31 +15,47 @@
  */
 package org.primaresearch.collections;
 
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.List;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
  * Map that supports indexed access.<br>
- * This implementation internally used a LinkedHashMap and an ArrayList.
- * 
+ * This implementation internally uses a HashMap (key to entry) and an ArrayList (position to entry).
+ * Each entry knows its position, which is updated whenever entries are inserted or removed before it.
+ * Access by key or position is O(1), inserting and removing O(n - position).<br>
+ * <br>
+ * Iteration over keys, values and entries is in positional order (insertion order unless
+ * {@link #putAt(int, Object, Object)} or {@link #move(int, int)} is used).
+ *
  * @author Christian Clausner
  *
- * @param <K> Key type 
+ * @param <K> Key type
  * @param <V> Value type
  */
 public class IndexedMapImpl<K,V> implements IndexedMap<K,V>{
-	
-	private Map<K,V> map = new LinkedHashMap<K, V>();
-	private List<V> list = null;
+
+	private Map<K, IndexedEntry<K,V>> map = new HashMap<K, IndexedEntry<K,V>>();
+	private ArrayList<IndexedEntry<K,V>> list = new ArrayList<IndexedEntry<K,V>>();
+	/** Incremented with each structural change (for fail-fast iterators) */
+	private int modCount = 0;
+
+	private Set<Entry<K,V>> entrySet = null;
+	private Set<K> keySet = null;
+	private Collection<V> values = null;
 
 	@Override
 	public void clear() {
 		map.clear();
-		list = null;
+		list.clear();
+		modCount++;
 	}
 
 	@Override
@@ -49,34 +65,69 @@ public class IndexedMapImpl<K,V> implements IndexedMap<K,V>{
 
 	@Override
 	public boolean containsValue(Object val) {
-		return map.containsValue(val);
+		for (int i=0; i<list.size(); i++) {
+			V v = list.get(i).value;
+			if (val == null ? v == null : val.equals(v))
+				return true;
+		}
+		return false;
 	}
 
 	@Override
 	public Set<java.util.Map.Entry<K, V>> entrySet() {
-		return map.entrySet();
+		if (entrySet == null) {
+			entrySet = new AbstractSet<Entry<K,V>>() {
+				@Override
+				public Iterator<Entry<K, V>> iterator() {
+					return new IndexedIterator<Entry<K,V>>() {
+						@Override
+						Entry<K, V> get(IndexedEntry<K, V> entry) {
+							return entry;
+						}
+					};
+				}
+				@Override
+				public int size() {
+					return list.size();
+				}
+				@Override
+				public boolean contains(Object o) {
+					if (!(o instanceof Entry))
+						return false;
+					IndexedEntry<K,V> entry = map.get(((Entry<?,?>)o).getKey());
+					return entry != null && entry.equals(o);
+				}
+				@Override
+				public boolean remove(Object o) {
+					if (!contains(o))
+						return false;
+					IndexedMapImpl.this.remove(((Entry<?,?>)o).getKey());
+					return true;
+				}
+				@Override
+				public void clear() {
+					IndexedMapImpl.this.clear();
+				}
+			};
+		}
+		return entrySet;
 	}
 
 	@Override
 	public V get(Object key) {
-		return map.get(key);
+		IndexedEntry<K,V> entry = map.get(key);
+		return entry != null ? entry.value : null;
 	}
-	
+
 	@Override
 	public V getAt(int index) {
-		List<V> list = getList();
-		return list.get(index);
+		return list.get(index).value;
 	}
-	
-	/**
-	 * Returns the internal list of values. If the list doesn't exist, it will be created and filled from the map.
-	 */
-	private List<V> getList() {
-		if (list == null) {
-			list = new ArrayList<V>(this.size());
-			list.addAll(map.values());
-		}
-		return list;
+
+	@Override
+	public int indexOf(Object key) {
+		IndexedEntry<K,V> entry = map.get(key);
+		return entry != null ? entry.index : -1;
 	}
 
 	@Override
@@ -86,31 +137,88 @@ public class IndexedMapImpl<K,V> implements IndexedMap<K,V>{
 
 	@Override
 	public Set<K> keySet() {
-		return map.keySet();
+		if (keySet == null) {
+			keySet = new AbstractSet<K>() {
+				@Override
+				public Iterator<K> iterator() {
+					return new IndexedIterator<K>() {
+						@Override
+						K get(IndexedEntry<K, V> entry) {
+							return entry.key;
+						}
+					};
+				}
+				@Override
+				public int size() {
+					return list.size();
+				}
+				@Override
+				public boolean contains(Object o) {
+					return map.containsKey(o);
+				}
+				@Override
+				public boolean remove(Object o) {
+					if (!map.containsKey(o))
+						return false;
+					IndexedMapImpl.this.remove(o);
+					return true;
+				}
+				@Override
+				public void clear() {
+					IndexedMapImpl.this.clear();
+				}
+			};
+		}
+		return keySet;
 	}
 
 	@Override
 	public V put(K key, V val) {
-		if (list != null) {
-			boolean hadKey = containsKey(key);
-			if (!hadKey)
-				list.add(val); //When adding to the map, we have to add to the list as well, but only if not re-inserted
+		IndexedEntry<K,V> entry = map.get(key);
+		if (entry != null) { //Re-inserted (position stays the same)
+			V old = entry.value;
+			entry.value = val;
+			return old;
+		}
+		entry = new IndexedEntry<K,V>(key, val, list.size());
+		map.put(key, entry);
+		list.add(entry);
+		modCount++;
+		return null;
+	}
+
+	@Override
+	public V putAt(int index, K key, V val) {
+		V old = null;
+		IndexedEntry<K,V> existing = map.get(key);
+		if (existing != null) {
+			old = existing.value;
+			removeEntry(existing);
 		}
-		V v = map.put(key, val);
-		return v;
+		if (index < 0 || index > list.size())
+			throw new IndexOutOfBoundsException("Index: "+index+", Size: "+list.size());
+		IndexedEntry<K,V> entry = new IndexedEntry<K,V>(key, val, index);
+		map.put(key, entry);
+		list.add(index, entry);
+		updateIndexes(index + 1, list.size() - 1);
+		modCount++;
+		return old;
 	}
 
 	@Override
 	public void putAll(Map<? extends K, ? extends V> otherMap) {
-		map.putAll(otherMap);
-		list = null;	//List will be rebuilt on next indexed operation
+		list.ensureCapacity(list.size() + otherMap.size());
+		for (Entry<? extends K, ? extends V> entry : otherMap.entrySet())
+			put(entry.getKey(), entry.getValue());
 	}
 
 	@Override
 	public V remove(Object key) {
-		V v = map.remove(key);
-		list = null;	//List will be rebuilt on next indexed operation
-		return v;
+		IndexedEntry<K,V> entry = map.get(key);
+		if (entry == null)
+			return null;
+		removeEntry(entry);
+		return entry.value;
 	}
 
 	@Override
@@ -120,31 +228,180 @@ public class IndexedMapImpl<K,V> implements IndexedMap<K,V>{
 
 	@Override
 	public Collection<V> values() {
-		return map.values();
+		if (values == null) {
+			values = new AbstractCollection<V>() {
+				@Override
+				public Iterator<V> iterator() {
+					return new IndexedIterator<V>() {
+						@Override
+						V get(IndexedEntry<K, V> entry) {
+							return entry.value;
+						}
+					};
+				}
+				@Override
+				public int size() {
+					return list.size();
+				}
+				@Override
+				public boolean contains(Object o) {
+					return containsValue(o);
+				}
+				@Override
+				public void clear() {
+					IndexedMapImpl.this.clear();
+				}
+			};
+		}
+		return values;
 	}
 
 	/**
 	 * Removes the entry at the specified index from the map.
-	 * Note that entries with value 'null' will cannot be removed using this method. Use remove(key) instead.
 	 */
 	@Override
 	public V removeAt(int index) {
-		List<V> list = getList();
-		V v = list.get(index);
-		if (v != null) { //We cannot delete values which are null (there could be many entries in the map having value null)
-			list.remove(index);
-			//We have to find the value in the map now
-			K k = null;
-			for (Entry<K, V> entry : map.entrySet()) {
-		         if (v.equals(entry.getValue())) {
-		             k = entry.getKey();
-		             break;
-		         }
-		    }
-			if (k != null)
-				map.remove(k);
-		}
-		return v;
+		IndexedEntry<K,V> entry = list.get(index);
+		removeEntry(entry);
+		return entry.value;
+	}
+
+	@Override
+	public void move(int fromIndex, int toIndex) {
+		if (toIndex < 0 || toIndex >= list.size())
+			throw new IndexOutOfBoundsException("Index: "+toIndex+", Size: "+list.size());
+		IndexedEntry<K,V> entry = list.get(fromIndex);
+		if (fromIndex == toIndex)
+			return;
+		//Shift the entries in between by one
+		if (fromIndex < toIndex) {
+			for (int i=fromIndex; i<toIndex; i++)
+				list.set(i, list.get(i+1));
+		} else {
+			for (int i=fromIndex; i>toIndex; i--)
+				list.set(i, list.get(i-1));
+		}
+		list.set(toIndex, entry);
+		updateIndexes(Math.min(fromIndex, toIndex), Math.max(fromIndex, toIndex));
+		modCount++;
+	}
+
+	private void removeEntry(IndexedEntry<K,V> entry) {
+		map.remove(entry.key);
+		int index = entry.index;
+		list.remove(index);
+		updateIndexes(index, list.size() - 1);
+		entry.index = -1;
+		modCount++;
+	}
+
+	/**
+	 * Sets the position of the entries in the given range to their current list index
+	 */
+	private void updateIndexes(int from, int to) {
+		for (int i=from; i<=to; i++)
+			list.get(i).index = i;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder str = new StringBuilder("{");
+		for (int i=0; i<list.size(); i++) {
+			if (i > 0)
+				str.append(", ");
+			IndexedEntry<K,V> entry = list.get(i);
+			str.append(entry.key).append('=').append(entry.value);
+		}
+		return str.append('}').toString();
+	}
+
+
+	/**
+	 * Map entry that knows its position
+	 */
+	private static final class IndexedEntry<K,V> implements Entry<K,V> {
+		final K key;
+		V value;
+		int index;
+
+		IndexedEntry(K key, V value, int index) {
+			this.key = key;
+			this.value = value;
+			this.index = index;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			V old = this.value;
+			this.value = value;
+			return old;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Entry))
+				return false;
+			Entry<?,?> other = (Entry<?,?>)o;
+			return (key == null ? other.getKey() == null : key.equals(other.getKey()))
+					&& (value == null ? other.getValue() == null : value.equals(other.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
 	}
 
+	/**
+	 * Iterator in positional order (supports remove)
+	 */
+	private abstract class IndexedIterator<T> implements Iterator<T> {
+		private int next = 0;
+		private IndexedEntry<K,V> last = null;
+		private int expectedModCount = modCount;
+
+		abstract T get(IndexedEntry<K,V> entry);
+
+		@Override
+		public boolean hasNext() {
+			return next < list.size();
+		}
+
+		@Override
+		public T next() {
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if (next >= list.size())
+				throw new NoSuchElementException();
+			last = list.get(next++);
+			return get(last);
+		}
+
+		@Override
+		public void remove() {
+			if (last == null)
+				throw new IllegalStateException();
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			removeEntry(last);
+			next--;
+			last = null;
+			expectedModCount = modCount;
+		}
+	}
 }
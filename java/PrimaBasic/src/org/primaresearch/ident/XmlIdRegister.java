@@ -15,29 +15,54 @@
  */
 package org.primaresearch.ident;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
- * IdRegister implementation for XML conform IDs.
+ * IdRegister implementation for XML conform IDs.<br>
+ * <br>
+ * For each prefix that has been used for generating IDs, the register keeps track of the numbers in use
+ * (IDs of the form prefix + number), so that a new ID can be generated without probing all existing IDs.<br>
+ * <br>
+ * In trusted input mode (fast path for loading), registered IDs are assumed to be unique. They are only collected
+ * in a list (no uniqueness checks, no hashing). This mode is intended for pages that are loaded from valid documents.
+ * Duplicate IDs are not detected and generated IDs are not checked against registered IDs while the mode is active.
+ * After {@link #finishTrustedInput()} has been called (end of document), the register switches to the regular
+ * mode with the first ID operation that follows (e.g. when the page is edited). All IDs collected so far are
+ * recorded then, so that generated IDs are unique again.
  * 
  * @author Christian Clausner
  *
  */
 public class XmlIdRegister implements IdRegister {
 
+	/** Default ID prefix */
+	public static final String DEFAULT_PREFIX = "i";
+	
+	/** Numbers up to this limit are tracked per prefix (higher numbers are checked against the register) */
+	private static final int MAX_TRACKED_NUMBER = 1 << 24;
+
 	private Set<Id> usedIds = new HashSet<Id>(); 
 	private String defaultPrefix;	//XML IDs need a non-numeric prefix (see XML schema documentation for detailed rules)#
 	/** Map with [prefix, counter] */
-	private Map<String, Integer> counters = new HashMap<String, Integer>(); 
+	private Map<String, PrefixCounter> counters = new HashMap<String, PrefixCounter>(); 
+	private boolean trustedInput;
+	/** IDs collected in trusted input mode (recorded when switching to regular mode) */
+	private List<Id> trustedIds = null;
+	/** Set when the trusted input is complete (switch to regular mode on the next ID operation) */
+	private boolean trustedInputFinished = false;
 
 	/**
 	 * Default constructor using a predefined ID prefix.
 	 */
 	public XmlIdRegister() {
-		this("i");
+		this(DEFAULT_PREFIX);
 	}
 	
 	/**
@@ -45,25 +70,85 @@ public class XmlIdRegister implements IdRegister {
 	 * @param defaultIdPrefix XML ID prefix (must not start with a digit; see XML schema documentation for detailed rules). 
 	 */
 	public XmlIdRegister(String defaultIdPrefix) {
+		this(defaultIdPrefix, false);
+	}
+
+	/**
+	 * Constructor with prefix specification and mode.
+	 * @param defaultIdPrefix XML ID prefix (must not start with a digit; see XML schema documentation for detailed rules). 
+	 * @param trustedInput If set to <code>true</code>, registered IDs are not checked for uniqueness until 
+	 *                     {@link #finishTrustedInput()} is called (fast path for loading)
+	 */
+	public XmlIdRegister(String defaultIdPrefix, boolean trustedInput) {
 		this.defaultPrefix = defaultIdPrefix;
+		this.trustedInput = trustedInput;
+		if (trustedInput)
+			trustedIds = new ArrayList<Id>();
+	}
+	
+	/**
+	 * Returns <code>true</code> if the register is in trusted input mode (no uniqueness bookkeeping).
+	 */
+	public boolean isTrustedInput() {
+		return trustedInput;
+	}
+
+	/**
+	 * Marks the end of the trusted input (e.g. the document has been read completely).
+	 * The register switches to regular mode with the next ID operation (generating, registering or unregistering an ID).
+	 * Has no effect if the register is not in trusted input mode.
+	 */
+	public void finishTrustedInput() {
+		if (trustedInput)
+			trustedInputFinished = true;
 	}
 
 	/**
-	 * Returns the counter that corresponds to the given ID prefix
+	 * Switches from trusted input mode to regular mode if the trusted input is complete.
+	 * Records all IDs that have been collected (duplicates are ignored).
+	 */
+	private void checkTrustedInput() {
+		if (!trustedInput || !trustedInputFinished)
+			return;
+		trustedInput = false;
+		usedIds.addAll(trustedIds);
+		trustedIds = null;
+		for (PrefixCounter counter : counters.values()) {
+			for (Id id : usedIds)
+				counter.setUsed(id.toString(), true);
+		}
+	}
+
+	/**
+	 * Returns the counter that corresponds to the given ID prefix (creates the counter if it doesn't exist yet).
 	 * @param prefix ID prefix
-	 * @param increment If set to <code>true</code>, the counter will also be incremented (+1)
-	 * @return The current counter value (before increment)
 	 */
-	private int getCounter(String prefix, boolean increment) {
-		Integer counter = counters.get(prefix);
+	private PrefixCounter getCounter(String prefix) {
+		PrefixCounter counter = counters.get(prefix);
 		if (counter == null) {
-			counter = Integer.valueOf(1);
+			counter = new PrefixCounter(prefix);
 			counters.put(prefix, counter);
+			//Record the numbers of the IDs that are in use already
+			for (Id id : usedIds)
+				counter.setUsed(id.toString(), true);
 		}
-		int ret = counter.intValue();
-		if (increment)
-			counters.put(prefix, Integer.valueOf(ret+1));
-		return ret;
+		return counter;
+	}
+
+	/**
+	 * Updates the used numbers of all prefix counters
+	 * @param id ID that has been registered or unregistered 
+	 * @param used <code>true</code> if registered, <code>false</code> if unregistered
+	 */
+	private void updateCounters(Id id, boolean used) {
+		if (counters.isEmpty())
+			return;
+		String str = id.toString();
+		char last = str.charAt(str.length()-1);
+		if (last < '0' || last > '9')
+			return;
+		for (PrefixCounter counter : counters.values())
+			counter.setUsed(str, used);
 	}
 
 	@Override
@@ -77,10 +162,21 @@ public class XmlIdRegister implements IdRegister {
 	
 	@Override
 	public Id generateId(String prefix) throws InvalidIdException {
-		XmlId newId;
-		do {
-			newId = new XmlId(prefix + getCounter(prefix, true));
-		} while (hasId(newId));
+		checkTrustedInput();
+		PrefixCounter counter = getCounter(prefix);
+		if (trustedInput) {
+			Id id = new XmlId(prefix + counter.next++);
+			trustedIds.add(id); //Might stay in use
+			return id;
+		}
+		
+		int number = counter.next;
+		if (number < MAX_TRACKED_NUMBER)
+			number = counter.usedNumbers.nextClearBit(number);
+		XmlId newId = new XmlId(prefix + number);
+		while (number >= MAX_TRACKED_NUMBER && hasId(newId)) 
+			newId = new XmlId(prefix + (++number));
+		counter.next = number + 1;
 		return newId;
 	}
 
@@ -92,15 +188,15 @@ public class XmlIdRegister implements IdRegister {
 	
 	@Override
 	public void registerId(Id id, Id oldIdToUnregister) throws InvalidIdException {
-		
+		checkTrustedInput();
 		if (id.equals(oldIdToUnregister)) //New and old are the same -> we don't have to do anything
 			return;
+		if (trustedInput) {
+			trustedIds.add(id);
+			return;
+		}
 
-		if (hasId(id))
-			throw new InvalidIdException("ID already in use: "+id);
-		if (oldIdToUnregister != null)
-			unregisterId(oldIdToUnregister);
-		usedIds.add(id);
+		add(id, oldIdToUnregister);
 	}
 	
 	@Override
@@ -111,25 +207,71 @@ public class XmlIdRegister implements IdRegister {
 	@Override
 	public Id registerId(String id, Id oldIdToUnregister) throws InvalidIdException {
 		Id xmlId = new XmlId(id);
-
+		checkTrustedInput();
 		if (xmlId.equals(oldIdToUnregister)) //New and old are the same -> we don't have to do anything
 			return xmlId;
+		if (trustedInput) {
+			trustedIds.add(xmlId);
+			return xmlId;
+		}
+		
+		add(xmlId, oldIdToUnregister);
+		return xmlId;
+	}
+	
+	/**
+	 * Registers the given IDs in one go. Either all IDs are registered or none.<br>
+	 * Intended for callers that know all IDs in advance. The PAGE readers do not use this method,
+	 * as they register the IDs one by one while parsing (use trusted input mode for fast loading instead).
+	 * 
+	 * @param ids ID strings
+	 * @return List with ID objects (in the same order as the given strings)
+	 * @throws InvalidIdException An ID is malformed, in use already or contained more than once.
+	 */
+	public List<Id> registerIds(Collection<String> ids) throws InvalidIdException {
+		List<Id> ret = new ArrayList<Id>(ids.size());
+		for (String id : ids)
+			ret.add(new XmlId(id));
+		checkTrustedInput();
+		if (trustedInput) {
+			trustedIds.addAll(ret);
+			return ret;
+		}
 		
-		if (hasId(xmlId))
+		Set<Id> newIds = new HashSet<Id>(ret);
+		if (newIds.size() < ret.size())
+			throw new InvalidIdException("Duplicate ID in list");
+		for (Id id : ret) {
+			if (hasId(id))
+				throw new InvalidIdException("ID already in use: "+id);
+		}
+		usedIds.addAll(newIds);
+		for (Id id : ret)
+			updateCounters(id, true);
+		return ret;
+	}
+	
+	/**
+	 * Adds the given ID to the set of used IDs
+	 * @param oldIdToUnregister (optional) ID to remove if the new ID could be added 
+	 */
+	private void add(Id id, Id oldIdToUnregister) throws InvalidIdException {
+		if (!usedIds.add(id))
 			throw new InvalidIdException("ID already in use: "+id);
+		updateCounters(id, true);
 		if (oldIdToUnregister != null)
 			unregisterId(oldIdToUnregister);
-		usedIds.add(xmlId);
-		return xmlId;
 	}
 
 	@Override
 	public void unregisterId(Id id) {
-		if (hasId(id))
-			usedIds.remove(id);
+		checkTrustedInput();
+		if (id != null && usedIds.remove(id))
+			updateCounters(id, false);
 	}
 	
 	private boolean hasId(Id id) {
+		checkTrustedInput();
 		if (id == null)
 			return false;
 		return usedIds.contains(id);
@@ -184,6 +326,52 @@ public class XmlIdRegister implements IdRegister {
 	}
 
 	
+	/**
+	 * Counter for generating IDs with a specific prefix. Keeps track of the numbers in use.
+	 * 
+	 * @author Christian Clausner
+	 *
+	 */
+	private static class PrefixCounter {
+		private String prefix;
+		/** Next number to try */
+		private int next = 1;
+		/** Numbers of registered IDs of the form prefix + number (up to MAX_TRACKED_NUMBER) */
+		private BitSet usedNumbers = new BitSet();
+		
+		public PrefixCounter(String prefix) {
+			this.prefix = prefix;
+		}
+		
+		/**
+		 * Marks the number of the given ID as used or unused (if the ID is of the form prefix + number).
+		 */
+		public void setUsed(String id, boolean used) {
+			int number = getNumber(id);
+			if (number > 0 && number < MAX_TRACKED_NUMBER)
+				usedNumbers.set(number, used);
+		}
+		
+		/**
+		 * Returns the number part of the given ID, if it consists of the prefix of this counter and a number
+		 * without leading zeros (the format of generated IDs), otherwise -1.
+		 */
+		private int getNumber(String id) {
+			int start = prefix.length();
+			int length = id.length();
+			if (length <= start || length - start > 8 || id.charAt(start) == '0' || !id.startsWith(prefix))
+				return -1;
+			int number = 0;
+			for (int i=start; i<length; i++) {
+				char c = id.charAt(i);
+				if (c < '0' || c > '9')
+					return -1;
+				number = number * 10 + (c - '0');
+			}
+			return number;
+		}
+	}
+	
 	/**
 	 * Implementation of Id intended for XML id convention. This class does some basic checks for ID validity.  
 	 * 
@@ -26,50 +26,186 @@ import java.util.Map;
 import org.primaresearch.shared.variable.Variable.WrongVariableTypeException;
 
 /**
- * Indexed map of Variables.
- * 
+ * Indexed map of Variables.<br>
+ * <br>
+ * A map can be created as compact copy-on-write instance of a shared template (see {@link #createCopyOnWriteInstance()}).
+ * Such a map only stores the values that have been set (sparse). Integer, double and boolean values are kept
+ * in primitive slots, identified by the index (ordinal) of the variable within the template.
+ * Variable objects are created on demand as views on these slots when requested via {@link #get(int)} or
+ * {@link #get(String)} (the caller might change them). {@link #peek(int)} and {@link #peek(String)} only create
+ * a view if the variable has its own value. The typed accessors (e.g. {@link #getDouble(String)}) and
+ * {@link #getValue(int)} never create views.<br>
+ * Adding, replacing or removing variables turns the map into a regular map with its own variables.
+ *
  * @author Christian Clausner
  *
  */
 public class VariableMap implements Serializable {
 
 	private static final long serialVersionUID = 1L;
-	
+
+	/** Kinds of template variables (value storage) */
+	private static final byte KIND_OTHER = 0;
+	private static final byte KIND_INTEGER = 1;
+	private static final byte KIND_DOUBLE = 2;
+	private static final byte KIND_BOOLEAN = 3;
+	private static final byte KIND_STRING = 4;
+
+	/** Slot content for values that have been set to <code>null</code> */
+	private static final NullValue NULL_VALUE = new NullValue();
+
 	private List<Variable> variables = new ArrayList<Variable>();
 	private Map<String, Variable> nameMap = new HashMap<String, Variable>();
 	private String type = null;
 	private String name = null;
-	
+
+	/** Shared template (copy-on-write instances only, otherwise null) */
+	private VariableMap template = null;
+	/** Template indexes of the variables with own value (copy-on-write instances only) */
+	private int[] slotIndexes = null;
+	/** Integer, double and boolean values of the slots (boolean as 0 or 1) */
+	private double[] slotNumbers = null;
+	/** Non-primitive values of the slots (or NullValue); null for primitive values */
+	private Object[] slotObjects = null;
+	private int slotCount = 0;
+	/** Variables (views or private copies) handed out by this copy-on-write map, by template index */
+	private Variable[] views = null;
+
+	/** Set for maps that are used as shared template (cannot be modified anymore) */
+	private volatile boolean shared = false;
+	/** Map [variable name, index] (shared templates only) */
+	private Map<String, Integer> nameIndexMap = null;
+	/** Map [variable ID, index of first variable with that ID] (shared templates only) */
+	private Map<Integer, Integer> idIndexMap = null;
+	/** Value storage kind for each variable (shared templates only) */
+	private byte[] kinds = null;
+
 	private VariableComparator sortIndexComparator = null;
-	
+
 	public VariableMap() {
 	}
-	
+
+	/**
+	 * Constructor for copy-on-write instances
+	 * @param template Shared template
+	 */
+	private VariableMap(VariableMap template) {
+		this.template = template;
+		this.type = template.type;
+		this.name = template.name;
+		this.variables = null;
+		this.nameMap = null;
+	}
+
+	/**
+	 * Creates a new map that uses this map as shared template (copy-on-write).
+	 * This map cannot be modified anymore after calling this method.
+	 * @return New map with the same type, name and variables as this map
+	 */
+	public VariableMap createCopyOnWriteInstance() {
+		if (!shared) {
+			synchronized (this) {
+				if (!shared) {
+					nameIndexMap = new HashMap<String, Integer>();
+					idIndexMap = new HashMap<Integer, Integer>();
+					kinds = new byte[variables.size()];
+					for (int i=0; i<variables.size(); i++) {
+						Variable v = variables.get(i);
+						nameIndexMap.put(v.getName(), i);
+						if (!idIndexMap.containsKey(v.getId()))
+							idIndexMap.put(v.getId(), i);
+						kinds[i] = getKind(v);
+					}
+					shared = true;
+				}
+			}
+		}
+		return new VariableMap(this);
+	}
+
+	/**
+	 * Determines how values of the given variable can be stored.
+	 * Only the standard variable types (no subclasses) are stored in slots.
+	 */
+	private static byte getKind(Variable v) {
+		if (v.getClass() == IntegerVariable.class)
+			return KIND_INTEGER;
+		if (v.getClass() == DoubleVariable.class)
+			return KIND_DOUBLE;
+		if (v.getClass() == BooleanVariable.class)
+			return KIND_BOOLEAN;
+		if (v.getClass() == StringVariable.class)
+			return KIND_STRING;
+		return KIND_OTHER;
+	}
+
 	/**
 	 * Creates a deep copy of this map.
 	 */
 	public VariableMap clone() {
+		//Copy-on-write (copy only own values and variables)
+		if (template != null) {
+			VariableMap copy = new VariableMap(template);
+			copy.setType(type);
+			copy.setName(name);
+			if (slotCount > 0) {
+				copy.slotIndexes = new int[slotCount];
+				copy.slotNumbers = new double[slotCount];
+				copy.slotObjects = new Object[slotCount];
+				for (int s=0; s<slotCount; s++) {
+					copy.slotIndexes[s] = slotIndexes[s];
+					copy.slotNumbers[s] = slotNumbers[s];
+					copy.slotObjects[s] = slotObjects[s] instanceof VariableValue 
+											? copyValue((VariableValue)slotObjects[s]) 
+											: slotObjects[s];
+				}
+				copy.slotCount = slotCount;
+			}
+			if (views != null) {
+				copy.views = new Variable[views.length];
+				for (int i=0; i<views.length; i++) {
+					if (views[i] instanceof SlotVariable)
+						copy.views[i] = ((SlotVariable)views[i]).createView(copy);
+					else if (views[i] != null)
+						copy.views[i] = views[i].clone();
+				}
+			}
+			return copy;
+		}
+
 		VariableMap copy = new VariableMap();
-		
+
 		copy.setType(type);
 		copy.setName(name);
-		
+
 		for (Iterator<Variable> it = variables.iterator(); it.hasNext(); ) {
 			copy.add(it.next().clone());
 		}
-		
+
 		return copy;
 	}
-	
+
 	/**
-	 * Copies the values of the variables of the given map to the 
+	 * Copies the values of the variables of the given map to the
 	 * variables with the same name of this map.
 	 */
 	public void copyValuesByName(VariableMap source) {
 		if (source == null)
 			return;
+
+		//Same template and no variables handed out -> Copy slots
+		if (template != null && source.template == template && views == null && source.views == null) {
+			slotIndexes = null;
+			slotNumbers = null;
+			slotObjects = null;
+			slotCount = 0;
+			for (int s=0; s<source.slotCount; s++)
+				storeValue(source.slotIndexes[s], copyValue(source.getStoredValue(source.slotIndexes[s])));
+			return;
+		}
+
 		for (int i=0; i<source.getSize(); i++) {
-			Variable sourceVar = source.get(i);
+			Variable sourceVar = source.peek(i);
 			if (sourceVar.getName() != null) { //has name?
 				Variable target = this.get(sourceVar.getName());
 				if (target != null)	{
@@ -94,7 +230,7 @@ public class VariableMap implements Serializable {
 			}
 		}
 	}
-	
+
 	/**
 	 * Return the first variable of this map with the given name.
 	 * @return A variable or null.
@@ -108,55 +244,340 @@ public class VariableMap implements Serializable {
 		}
 		return ret;
 	}*/
-	
+
 	/**
 	 * Returns the variable at the given index.
-	 * @throws IndexOutOfBoundsException  
+	 * @throws IndexOutOfBoundsException
 	 */
 	public Variable get(int index) {
+		if (template != null) {
+			if (views == null)
+				views = new Variable[template.getSize()];
+			Variable v = views[index];
+			if (v == null) {
+				v = createView(index);
+				views[index] = v;
+			}
+			return v;
+		}
 		return variables.get(index);
 	}
-	
+
 	/**
-	 * Returns the variable with the given name. 
+	 * Returns the variable with the given name.
 	 * @return The variable or null if there is no variable with the specified name.
 	 */
 	public Variable get(String name) {
+		if (template != null) {
+			Integer index = template.nameIndexMap.get(name);
+			return index != null ? get(index.intValue()) : null;
+		}
+		return nameMap.get(name);
+	}
+
+	/**
+	 * Returns the variable at the given index for reading only.
+	 * In contrast to {@link #get(int)}, copy-on-write maps return the shared template variable
+	 * if the variable has no own value. The returned variable must therefore not be modified.
+	 * @throws IndexOutOfBoundsException
+	 */
+	public Variable peek(int index) {
+		if (template != null) {
+			if (views != null && views[index] != null)
+				return views[index];
+			if (findSlot(index) >= 0)
+				return get(index);
+			return template.variables.get(index);
+		}
+		return variables.get(index);
+	}
+
+	/**
+	 * Returns the variable with the given name for reading only (see {@link #peek(int)}).
+	 * @return The variable or null if there is no variable with the specified name.
+	 */
+	public Variable peek(String name) {
+		if (template != null) {
+			Integer index = template.nameIndexMap.get(name);
+			return index != null ? peek(index.intValue()) : null;
+		}
 		return nameMap.get(name);
 	}
-	
+
+	/**
+	 * Returns the index of the variable with the given name.
+	 * For copy-on-write maps, this is the same for all maps sharing a template.
+	 * @return Index or -1 if there is no variable with the specified name
+	 */
+	public int indexOf(String name) {
+		if (template != null) {
+			Integer index = template.nameIndexMap.get(name);
+			return index != null ? index.intValue() : -1;
+		}
+		Variable v = nameMap.get(name);
+		if (v != null) {
+			for (int i=0; i<variables.size(); i++)
+				if (variables.get(i) == v)
+					return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the name of the variable at the given index (without creating any variable views)
+	 * @throws IndexOutOfBoundsException
+	 */
+	public String getVariableName(int index) {
+		if (template != null) {
+			if (views != null && views[index] != null)
+				return views[index].getName();
+			return template.variables.get(index).getName();
+		}
+		return variables.get(index).getName();
+	}
+
+	/**
+	 * Returns the value of the variable at the given index (without creating any variable views).
+	 * @return Value object or <code>null</code> if not set
+	 * @throws IndexOutOfBoundsException
+	 */
+	public VariableValue getValue(int index) {
+		if (template != null) {
+			if (views != null && views[index] != null)
+				return views[index].getValue();
+			return getStoredValue(index);
+		}
+		return variables.get(index).getValue();
+	}
+
+	/**
+	 * Returns the value of the variable with the given name.
+	 * @return Value object or <code>null</code> if not set or if there is no such variable
+	 */
+	public VariableValue getValue(String name) {
+		if (template != null) {
+			Integer index = template.nameIndexMap.get(name);
+			return index != null ? getValue(index.intValue()) : null;
+		}
+		Variable v = nameMap.get(name);
+		return v != null ? v.getValue() : null;
+	}
+
+	/**
+	 * Returns the value of the integer variable at the given index.
+	 * @return The value or <code>null</code> if not set
+	 */
+	public Integer getInteger(int index) {
+		if (template != null && !hasOwnVariable(index)) {
+			int slot = findSlot(index);
+			if (slot >= 0 && slotObjects[slot] == null)
+				return Integer.valueOf((int)slotNumbers[slot]);
+		}
+		VariableValue value = getValue(index);
+		return value != null ? Integer.valueOf(((IntegerValue)value).val) : null;
+	}
+
+	/**
+	 * Returns the value of the integer variable with the given name.
+	 * @return The value or <code>null</code> if not set or if there is no such variable
+	 */
+	public Integer getInteger(String name) {
+		if (template == null) { //Materialised map (name lookup via hash map)
+			VariableValue value = getValue(name);
+			return value != null ? Integer.valueOf(((IntegerValue)value).val) : null;
+		}
+		int index = indexOf(name);
+		return index >= 0 ? getInteger(index) : null;
+	}
+
+	/**
+	 * Returns the value of the double variable at the given index.
+	 * @return The value or <code>null</code> if not set
+	 */
+	public Double getDouble(int index) {
+		if (template != null && !hasOwnVariable(index)) {
+			int slot = findSlot(index);
+			if (slot >= 0 && slotObjects[slot] == null)
+				return Double.valueOf(slotNumbers[slot]);
+		}
+		VariableValue value = getValue(index);
+		return value != null ? Double.valueOf(((DoubleValue)value).val) : null;
+	}
+
+	/**
+	 * Returns the value of the double variable with the given name.
+	 * @return The value or <code>null</code> if not set or if there is no such variable
+	 */
+	public Double getDouble(String name) {
+		if (template == null) { //Materialised map (name lookup via hash map)
+			VariableValue value = getValue(name);
+			return value != null ? Double.valueOf(((DoubleValue)value).val) : null;
+		}
+		int index = indexOf(name);
+		return index >= 0 ? getDouble(index) : null;
+	}
+
+	/**
+	 * Returns the value of the boolean variable at the given index.
+	 * @return The value or <code>null</code> if not set
+	 */
+	public Boolean getBoolean(int index) {
+		if (template != null && !hasOwnVariable(index)) {
+			int slot = findSlot(index);
+			if (slot >= 0 && slotObjects[slot] == null)
+				return Boolean.valueOf(slotNumbers[slot] != 0.0);
+		}
+		VariableValue value = getValue(index);
+		return value != null ? Boolean.valueOf(((BooleanValue)value).val) : null;
+	}
+
+	/**
+	 * Returns the value of the boolean variable with the given name.
+	 * @return The value or <code>null</code> if not set or if there is no such variable
+	 */
+	public Boolean getBoolean(String name) {
+		if (template == null) { //Materialised map (name lookup via hash map)
+			VariableValue value = getValue(name);
+			return value != null ? Boolean.valueOf(((BooleanValue)value).val) : null;
+		}
+		int index = indexOf(name);
+		return index >= 0 ? getBoolean(index) : null;
+	}
+
+	/**
+	 * Returns the value of the string variable at the given index.
+	 * @return The value or <code>null</code> if not set
+	 */
+	public String getString(int index) {
+		VariableValue value = getValue(index);
+		return value != null ? ((StringValue)value).val : null;
+	}
+
+	/**
+	 * Returns the value of the string variable with the given name.
+	 * @return The value or <code>null</code> if not set or if there is no such variable
+	 */
+	public String getString(String name) {
+		if (template == null) { //Materialised map (name lookup via hash map)
+			VariableValue value = getValue(name);
+			return value != null ? ((StringValue)value).val : null;
+		}
+		int index = indexOf(name);
+		return index >= 0 ? getString(index) : null;
+	}
+
+	/**
+	 * Sets the value of the variable at the given index by parsing the given string
+	 * (see {@link Variable#parseValue(String)}). Copy-on-write maps store the value without creating a variable view
+	 * (unless the variable has a constraint).
+	 * @throws IndexOutOfBoundsException
+	 */
+	public void parseValue(int index, String valueInTextForm) {
+		if (template == null || hasOwnVariable(index)
+				|| template.kinds[index] == KIND_OTHER || template.variables.get(index).getConstraint() != null) {
+			get(index).parseValue(valueInTextForm);
+			return;
+		}
+		switch (template.kinds[index]) {
+			case KIND_INTEGER:
+				int intVal;
+				try {
+					intVal = Integer.parseInt(valueInTextForm);
+				} catch (NumberFormatException e) {
+					intVal = 0;
+				}
+				storeNumber(index, intVal);
+				break;
+			case KIND_DOUBLE:
+				double doubleVal;
+				try {
+					doubleVal = Double.parseDouble(valueInTextForm);
+				} catch (NumberFormatException e) {
+					doubleVal = 0.0;
+				}
+				storeNumber(index, doubleVal);
+				break;
+			case KIND_BOOLEAN:
+				storeNumber(index, Boolean.parseBoolean(valueInTextForm) ? 1.0 : 0.0);
+				break;
+			default:
+				storeValue(index, new StringValue(valueInTextForm));
+		}
+	}
+
+	/**
+	 * Sets the value of the variable at the given index (see {@link Variable#setValue(VariableValue)}).
+	 * Copy-on-write maps store the value without creating a variable view
+	 * (unless the variable has a constraint).
+	 * @throws WrongVariableTypeException Value type doesn't match the variable type
+	 * @throws IndexOutOfBoundsException
+	 */
+	public void setValue(int index, VariableValue value) throws WrongVariableTypeException {
+		if (template == null || hasOwnVariable(index)
+				|| template.kinds[index] == KIND_OTHER || template.variables.get(index).getConstraint() != null) {
+			get(index).setValue(value);
+			return;
+		}
+		switch (template.kinds[index]) {
+			case KIND_INTEGER:
+				if (value != null && !(value instanceof IntegerValue))
+					throw new WrongVariableTypeException("Wrong variable type. Expected: Integer;  Actual: "+value.getType());
+				break;
+			case KIND_DOUBLE:
+				if (value != null && !(value instanceof DoubleValue))
+					throw new WrongVariableTypeException("Wrong variable type. Expected: Double;  Actual: "+value.getType());
+				break;
+			case KIND_BOOLEAN:
+				if (value != null && !(value instanceof BooleanValue))
+					throw new WrongVariableTypeException("Wrong variable type. Expected: Boolean;  Actual: "+value.getType());
+				break;
+			default:
+				if (value != null && !(value instanceof StringValue))
+					throw new WrongVariableTypeException("Wrong variable type. Expected: String;  Actual: "+value.getType());
+		}
+		storeValue(index, value);
+	}
+
 	/**
 	 * Return the first variable of this map with the given id number.
 	 * @return A variable or <code>null</code>.
 	 */
 	public Variable getById(int id) {
+		if (template != null && views == null) {
+			Integer index = template.idIndexMap.get(id);
+			return index != null ? get(index.intValue()) : null;
+		}
 		for (int i=0; i<getSize(); i++) {
-			Variable curr = get(i);
+			Variable curr = template != null && views[i] == null ? template.variables.get(i) : peek(i);
 			if (id == curr.getId())
-				return curr;
+				return get(i);
 		}
 		return null;
 	}
-	
+
 	/**
-	 * Returns the number of variables in this map. 
+	 * Returns the number of variables in this map.
 	 */
 	public int getSize() {
+		if (template != null)
+			return template.getSize();
 		return variables.size();
 	}
-	
+
 	/**
 	 * Adds a variable to the map.
 	 */
 	public void add(Variable v) {
+		prepareModification();
 		variables.add(v);
 		nameMap.put(v.getName(), v);
 	}
-	
+
 	/**
 	 * Replaces the variable at the given index with the given variable.
 	 */
 	public void setAt(int index, Variable v) {
+		prepareModification();
 		//Remove old variable at the given position from the name map
 		Variable old = variables.get(index);
 		nameMap.remove(old.getName());
@@ -167,18 +588,20 @@ public class VariableMap implements Serializable {
 	}
 
 	/**
-	 * Removes the variable at the given index from the map. 
+	 * Removes the variable at the given index from the map.
 	 */
 	public void remove(int index) {
+		prepareModification();
 		Variable v = variables.get(index);
 		variables.remove(index);
 		nameMap.remove(v.getName());
 	}
-	
+
 	/**
-	 * Removes the variable with the given name from the map. 
+	 * Removes the variable with the given name from the map.
 	 */
 	public void remove(String name) {
+		prepareModification();
 		Variable v = nameMap.get(name);
 		if (v != null) {
 			nameMap.remove(v.getName());
@@ -191,7 +614,7 @@ public class VariableMap implements Serializable {
 			}
 		}
 	}
-	
+
 	public String getType() {
 		return type;
 	}
@@ -207,11 +630,12 @@ public class VariableMap implements Serializable {
 	public void setName(String name) {
 		this.name = name;
 	}
-	
+
 	/**
 	 * Removes all variables from this map.
 	 */
 	public void clear() {
+		prepareModification();
 		variables.clear();
 		nameMap.clear();
 	}
@@ -220,10 +644,458 @@ public class VariableMap implements Serializable {
 	 * Sorts the variables by sort index
 	 */
 	public void sort() {
+		prepareModification();
 		if (sortIndexComparator == null)
 			sortIndexComparator = new VariableComparator();
 		Collections.sort(variables, sortIndexComparator);
 	}
 
-	
+	/**
+	 * Checks that this map is not a shared template and, for copy-on-write maps,
+	 * creates variables for all template variables (existing views are kept but detached from the slots).
+	 * @throws UnsupportedOperationException Map is a shared template
+	 */
+	private void prepareModification() {
+		if (shared)
+			throw new UnsupportedOperationException("Shared variable map template cannot be modified");
+		if (template == null)
+			return;
+		int size = template.getSize();
+		List<Variable> newVariables = new ArrayList<Variable>(size);
+		nameMap = new HashMap<String, Variable>();
+		for (int i=0; i<size; i++) {
+			Variable v = get(i);
+			if (v instanceof SlotVariable)
+				((SlotVariable)v).detach(copyValue(getStoredValue(i)));
+			newVariables.add(v);
+			nameMap.put(v.getName(), v);
+		}
+		variables = newVariables;
+		template = null;
+		views = null;
+		slotIndexes = null;
+		slotNumbers = null;
+		slotObjects = null;
+		slotCount = 0;
+	}
+
+	/**
+	 * Checks if a variable view or private variable has been created for the given index
+	 */
+	private boolean hasOwnVariable(int index) {
+		return views != null && views[index] != null;
+	}
+
+	/**
+	 * Creates a variable view (or private copy for non-standard variable types) for the given template index
+	 */
+	private Variable createView(int index) {
+		Variable templateVar = template.variables.get(index);
+		switch (template.kinds[index]) {
+			case KIND_INTEGER:	return new IntegerView(this, index, (IntegerVariable)templateVar);
+			case KIND_DOUBLE:	return new DoubleView(this, index, (DoubleVariable)templateVar);
+			case KIND_BOOLEAN:	return new BooleanView(this, index, (BooleanVariable)templateVar);
+			case KIND_STRING:	return new StringView(this, index, (StringVariable)templateVar);
+			default:			return templateVar.clone();
+		}
+	}
+
+	/**
+	 * Returns the slot position for the given template index
+	 * @return Position or -1 if the variable has no own value
+	 */
+	private int findSlot(int index) {
+		for (int s=0; s<slotCount; s++)
+			if (slotIndexes[s] == index)
+				return s;
+		return -1;
+	}
+
+	/**
+	 * Returns the slot position for the given template index (adds a slot if necessary)
+	 */
+	private int getOrAddSlot(int index) {
+		int slot = findSlot(index);
+		if (slot >= 0)
+			return slot;
+		if (slotIndexes == null || slotCount == slotIndexes.length) {
+			int capacity = slotIndexes == null ? 2 : slotIndexes.length * 2;
+			int[] newIndexes = new int[capacity];
+			double[] newNumbers = new double[capacity];
+			Object[] newObjects = new Object[capacity];
+			for (int s=0; s<slotCount; s++) {
+				newIndexes[s] = slotIndexes[s];
+				newNumbers[s] = slotNumbers[s];
+				newObjects[s] = slotObjects[s];
+			}
+			slotIndexes = newIndexes;
+			slotNumbers = newNumbers;
+			slotObjects = newObjects;
+		}
+		slotIndexes[slotCount] = index;
+		return slotCount++;
+	}
+
+	private void storeNumber(int index, double value) {
+		int slot = getOrAddSlot(index);
+		slotNumbers[slot] = value;
+		slotObjects[slot] = null;
+	}
+
+	/**
+	 * Stores the given value in the slot for the given template index
+	 */
+	private void storeValue(int index, VariableValue value) {
+		if (value == null) {
+			int slot = getOrAddSlot(index); //Note: Might replace the slot arrays
+			slotObjects[slot] = NULL_VALUE;
+			return;
+		}
+		byte kind = template.kinds[index];
+		if (kind == KIND_INTEGER && value instanceof IntegerValue)
+			storeNumber(index, ((IntegerValue)value).val);
+		else if (kind == KIND_DOUBLE && value instanceof DoubleValue)
+			storeNumber(index, ((DoubleValue)value).val);
+		else if (kind == KIND_BOOLEAN && value instanceof BooleanValue)
+			storeNumber(index, ((BooleanValue)value).val ? 1.0 : 0.0);
+		else {
+			int slot = getOrAddSlot(index);
+			slotObjects[slot] = value;
+		}
+	}
+
+	/**
+	 * Returns the value from the slot for the given template index or the template value if there is no slot.
+	 * Integer, double and boolean values are returned as new value objects.
+	 */
+	private VariableValue getStoredValue(int index) {
+		int slot = findSlot(index);
+		if (slot < 0) {
+			VariableValue templateValue = template.variables.get(index).getValue();
+			if (templateValue instanceof IntegerValue || templateValue instanceof DoubleValue || templateValue instanceof BooleanValue)
+				return copyValue(templateValue);
+			return templateValue;
+		}
+		Object obj = slotObjects[slot];
+		if (obj instanceof NullValue)
+			return null;
+		if (obj != null)
+			return (VariableValue)obj;
+		switch (template.kinds[index]) {
+			case KIND_INTEGER:	return new IntegerValue((int)slotNumbers[slot]);
+			case KIND_DOUBLE:	return new DoubleValue(slotNumbers[slot]);
+			default:			return new BooleanValue(slotNumbers[slot] != 0.0);
+		}
+	}
+
+	/**
+	 * Creates a copy of the given value object (standard types only, other values are returned as they are)
+	 */
+	private static VariableValue copyValue(VariableValue value) {
+		if (value instanceof IntegerValue)
+			return new IntegerValue(((IntegerValue)value).val);
+		if (value instanceof DoubleValue)
+			return new DoubleValue(((DoubleValue)value).val);
+		if (value instanceof BooleanValue)
+			return new BooleanValue(((BooleanValue)value).val);
+		if (value instanceof StringValue)
+			return new StringValue(((StringValue)value).val);
+		return value;
+	}
+
+
+	/**
+	 * Slot content for values that have been set to <code>null</code>
+	 */
+	private static final class NullValue implements Serializable {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Variable that keeps its value in the slots of a copy-on-write map
+	 */
+	private static interface SlotVariable {
+		/** Stores the given value in the variable itself (the map is not used anymore) */
+		void detach(VariableValue value);
+		/** Creates a view with the same properties for another map */
+		Variable createView(VariableMap map);
+	}
+
+	/**
+	 * Integer variable view
+	 */
+	private static final class IntegerView extends IntegerVariable implements SlotVariable {
+		private static final long serialVersionUID = 1L;
+		private VariableMap map;
+		private int index;
+
+		@SuppressWarnings("unused")
+		IntegerView() { //Only for GWT
+		}
+
+		IntegerView(VariableMap map, int index, IntegerVariable other) {
+			super(other.getName(), null);
+			this.map = map;
+			this.index = index;
+			copyFrom(other);
+			setStep(other.getStep());
+		}
+
+		@Override
+		public VariableValue getValue() {
+			return map != null ? map.getStoredValue(index) : super.getValue();
+		}
+
+		@Override
+		public void setValue(VariableValue value) throws WrongVariableTypeException, IllegalArgumentException {
+			if (map == null) {
+				super.setValue(value);
+				return;
+			}
+			checkValueAgainstConstraint(value);
+			VariableValue val = getValueComplyingWithConstraint(value);
+			if (val != null && !(val instanceof IntegerValue))
+				throw new WrongVariableTypeException("Wrong variable type. Expected: Integer;  Actual: "+value.getType());
+			map.storeValue(index, val);
+		}
+
+		@Override
+		public void parseValue(String valueInTextForm) {
+			if (map == null) {
+				super.parseValue(valueInTextForm);
+				return;
+			}
+			try {
+				setValue(new IntegerValue(Integer.parseInt(valueInTextForm)));
+			} catch (NumberFormatException e) {
+				map.storeValue(index, new IntegerValue(0));
+			} catch (WrongVariableTypeException e) {
+				//Cannot happen
+				e.printStackTrace();
+			}
+		}
+
+		@Override
+		public Variable clone() {
+			IntegerVariable var = new IntegerVariable(name, (IntegerValue)copyValue(getValue()));
+			var.copyFrom(this);
+			var.setStep(getStep());
+			return var;
+		}
+
+		@Override
+		public void detach(VariableValue value) {
+			map = null;
+			try {
+				super.setValue(value);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		@Override
+		public Variable createView(VariableMap map) {
+			return new IntegerView(map, index, this);
+		}
+	}
+
+	/**
+	 * Double variable view
+	 */
+	private static final class DoubleView extends DoubleVariable implements SlotVariable {
+		private static final long serialVersionUID = 1L;
+		private VariableMap map;
+		private int index;
+
+		@SuppressWarnings("unused")
+		DoubleView() { //Only for GWT
+		}
+
+		DoubleView(VariableMap map, int index, DoubleVariable other) {
+			super(other.getName(), null);
+			this.map = map;
+			this.index = index;
+			copyFrom(other);
+			setStep(other.getStep());
+		}
+
+		@Override
+		public VariableValue getValue() {
+			return map != null ? map.getStoredValue(index) : super.getValue();
+		}
+
+		@Override
+		public void setValue(VariableValue value) throws WrongVariableTypeException, IllegalArgumentException {
+			if (map == null) {
+				super.setValue(value);
+				return;
+			}
+			checkValueAgainstConstraint(value);
+			VariableValue val = getValueComplyingWithConstraint(value);
+			if (val != null && !(val instanceof DoubleValue))
+				throw new WrongVariableTypeException("Wrong variable type. Expected: Double;  Actual: "+value.getType());
+			map.storeValue(index, val);
+		}
+
+		@Override
+		public void parseValue(String valueInTextForm) {
+			if (map == null) {
+				super.parseValue(valueInTextForm);
+				return;
+			}
+			try {
+				setValue(new DoubleValue(Double.parseDouble(valueInTextForm)));
+			} catch (NumberFormatException e) {
+				map.storeValue(index, new DoubleValue(0.0));
+			} catch (WrongVariableTypeException e) {
+				//Cannot happen
+				e.printStackTrace();
+			}
+		}
+
+		@Override
+		public Variable clone() {
+			DoubleVariable var = new DoubleVariable(name, (DoubleValue)copyValue(getValue()));
+			var.copyFrom(this);
+			var.setStep(getStep());
+			return var;
+		}
+
+		@Override
+		public void detach(VariableValue value) {
+			map = null;
+			try {
+				super.setValue(value);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		@Override
+		public Variable createView(VariableMap map) {
+			return new DoubleView(map, index, this);
+		}
+	}
+
+	/**
+	 * Boolean variable view
+	 */
+	private static final class BooleanView extends BooleanVariable implements SlotVariable {
+		private static final long serialVersionUID = 1L;
+		private VariableMap map;
+		private int index;
+
+		@SuppressWarnings("unused")
+		BooleanView() { //Only for GWT
+		}
+
+		BooleanView(VariableMap map, int index, BooleanVariable other) {
+			super(other.getName(), null);
+			this.map = map;
+			this.index = index;
+			copyFrom(other);
+		}
+
+		@Override
+		public VariableValue getValue() {
+			return map != null ? map.getStoredValue(index) : super.getValue();
+		}
+
+		@Override
+		public void setValue(VariableValue value) throws WrongVariableTypeException, IllegalArgumentException {
+			if (map == null) {
+				super.setValue(value);
+				return;
+			}
+			checkValueAgainstConstraint(value);
+			VariableValue val = getValueComplyingWithConstraint(value);
+			if (val != null && !(val instanceof BooleanValue))
+				throw new WrongVariableTypeException("Wrong variable type. Expected: Boolean;  Actual: "+value.getType());
+			map.storeValue(index, val);
+		}
+
+		@Override
+		public Variable clone() {
+			BooleanVariable var = new BooleanVariable(name, (BooleanValue)copyValue(getValue()));
+			var.copyFrom(this);
+			return var;
+		}
+
+		@Override
+		public void detach(VariableValue value) {
+			map = null;
+			try {
+				super.setValue(value);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		@Override
+		public Variable createView(VariableMap map) {
+			return new BooleanView(map, index, this);
+		}
+	}
+
+	/**
+	 * String variable view
+	 */
+	private static final class StringView extends StringVariable implements SlotVariable {
+		private static final long serialVersionUID = 1L;
+		private VariableMap map;
+		private int index;
+
+		@SuppressWarnings("unused")
+		StringView() { //Only for GWT
+		}
+
+		StringView(VariableMap map, int index, StringVariable other) {
+			super(other.getName(), null);
+			this.map = map;
+			this.index = index;
+			copyFrom(other);
+			setTextType(other.getTextType());
+		}
+
+		@Override
+		public VariableValue getValue() {
+			return map != null ? map.getStoredValue(index) : super.getValue();
+		}
+
+		@Override
+		public void setValue(VariableValue value) throws WrongVariableTypeException, IllegalArgumentException {
+			if (map == null) {
+				super.setValue(value);
+				return;
+			}
+			checkValueAgainstConstraint(value);
+			VariableValue val = getValueComplyingWithConstraint(value);
+			if (val != null && !(val instanceof StringValue))
+				throw new WrongVariableTypeException("Wrong variable type. Expected: String;  Actual: "+value.getType());
+			map.storeValue(index, val);
+		}
+
+		@Override
+		public Variable clone() {
+			StringVariable var = new StringVariable(name, (StringValue)copyValue(getValue()));
+			var.copyFrom(this);
+			var.setTextType(getTextType());
+			return var;
+		}
+
+		@Override
+		public void detach(VariableValue value) {
+			map = null;
+			try {
+				super.setValue(value);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		@Override
+		public Variable createView(VariableMap map) {
+			return new StringView(map, index, this);
+		}
+	}
 }
@@ -279,4 +279,79 @@ public class IndexedMapImplTest {
 		assertEquals(0, map.size());
 	}
 
+	@Test
+	public void testIndexOf() {
+		IndexedMap<Integer, Double> map = new IndexedMapImpl<Integer, Double>();
+		assertEquals(-1, map.indexOf(Integer.valueOf(1)));
+		map.put(1, 1.0);
+		map.put(2, 2.0);
+		map.put(3, 3.0);
+		assertEquals(0, map.indexOf(Integer.valueOf(1)));
+		assertEquals(2, map.indexOf(Integer.valueOf(3)));
+		map.remove(Integer.valueOf(1));
+		assertEquals(1, map.indexOf(Integer.valueOf(3)));
+		assertEquals(-1, map.indexOf(Integer.valueOf(1)));
+		
+		//Re-inserting keeps the position but updates the value
+		map.put(2, 4.0);
+		assertEquals(0, map.indexOf(Integer.valueOf(2)));
+		assertEquals(Double.valueOf(4.0), map.getAt(0));
+	}
+
+	@Test
+	public void testPutAtAndMove() {
+		IndexedMap<Integer, Double> map = new IndexedMapImpl<Integer, Double>();
+		map.put(1, 1.0);
+		map.put(2, 2.0);
+		map.put(3, 3.0);
+		
+		assertNull(map.putAt(0, 0, 0.0));
+		assertEquals(Double.valueOf(0.0), map.getAt(0));
+		assertEquals(3, map.indexOf(Integer.valueOf(3)));
+		
+		//Existing key
+		assertEquals(Double.valueOf(3.0), map.putAt(1, 3, 3.5));
+		assertEquals(4, map.size());
+		assertEquals(1, map.indexOf(Integer.valueOf(3)));
+		assertEquals(3, map.indexOf(Integer.valueOf(2)));
+		
+		//Order now 0, 3, 1, 2
+		map.move(0, 3);
+		assertEquals(Integer.valueOf(3), map.keySet().iterator().next());
+		assertEquals(3, map.indexOf(Integer.valueOf(0)));
+		map.move(3, 1);
+		assertEquals(1, map.indexOf(Integer.valueOf(0)));
+		assertEquals(Double.valueOf(2.0), map.getAt(3));
+		
+		try { 
+			map.putAt(5, 5, 5.0);
+			fail("IndexOutOfBoundsException was expected");
+		} catch (IndexOutOfBoundsException exc) {
+			//Expected exception
+		}
+	}
+
+	@Test
+	public void testIteratorRemove() {
+		IndexedMap<Integer, Double> map = new IndexedMapImpl<Integer, Double>();
+		for (int i=0; i<10; i++)
+			map.put(i, (double)i);
+		for (Iterator<Integer> it = map.keySet().iterator(); it.hasNext(); ) {
+			if (it.next() % 2 == 0)
+				it.remove();
+		}
+		assertEquals(5, map.size());
+		assertEquals(Double.valueOf(1.0), map.getAt(0));
+		assertEquals(4, map.indexOf(Integer.valueOf(9)));
+		
+		map.values().remove(Double.valueOf(3.0));
+		assertEquals(1, map.indexOf(Integer.valueOf(5)));
+		
+		//Null values
+		map.put(20, null);
+		assertTrue(map.containsValue(null));
+		assertNull(map.removeAt(map.size()-1));
+		assertFalse(map.containsKey(Integer.valueOf(20)));
+	}
+
 }
@@ -17,6 +17,9 @@ package org.primaresearch.ident;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 import org.primaresearch.ident.IdRegister.InvalidIdException;
 
@@ -101,4 +104,97 @@ public class XmlIdRegisterTest {
 		}
 	}
 
+	@Test
+	public void testGenerateId() throws Exception {
+		XmlIdRegister register = new XmlIdRegister("r");
+		for (int i=1; i<=1000; i++)
+			register.registerId("r"+i);
+		assertEquals("r1001", register.generateId().toString());
+		
+		//Free numbers below the counter are not reused
+		register.unregisterId(register.getId("r5"));
+		assertEquals("r1002", register.generateId().toString());
+		
+		//IDs registered after the counter has been created are skipped
+		register.registerId("r1003");
+		register.registerId("r1004");
+		assertEquals("r1005", register.generateId().toString());
+		
+		//Non-canonical numbers don't block generated IDs
+		register.registerId("r01006");
+		assertEquals("r1006", register.generateId().toString());
+		
+		//Separate counter per prefix (IDs shorter than the prefix are ignored)
+		register.registerId("w1");
+		assertEquals("lay1", register.generateId("lay").toString());
+		assertEquals("w2", register.generateId("w").toString());
+	}
+
+	@Test
+	public void testRegisterIds() throws Exception {
+		XmlIdRegister register = new XmlIdRegister("r");
+		register.registerId("r1");
+		
+		List<Id> ids = register.registerIds(Arrays.asList("r2", "r3", "l1"));
+		assertEquals(3, ids.size());
+		assertEquals("r3", ids.get(1).toString());
+		assertEquals("r4", register.generateId().toString());
+		
+		//Duplicate within the list
+		try {
+			register.registerIds(Arrays.asList("r10", "r10"));
+			fail("Exception expected");
+		} catch (InvalidIdException e) {
+		}
+		//ID in use already
+		try {
+			register.registerIds(Arrays.asList("r11", "r2"));
+			fail("Exception expected");
+		} catch (InvalidIdException e) {
+		}
+		//Nothing registered
+		assertEquals("r10", register.registerOrCreateNewId("r10").toString());
+		assertEquals("r11", register.registerOrCreateNewId("r11").toString());
+	}
+
+	@Test
+	public void testTrustedInput() throws Exception {
+		XmlIdRegister register = new XmlIdRegister("r", true);
+		assertTrue(register.isTrustedInput());
+		register.registerId("r1");
+		register.registerId("r1");
+		assertEquals(2, register.registerIds(Arrays.asList("r2", "r2")).size());
+		assertEquals("r1", register.generateId().toString());
+		assertEquals("r2", register.generateId().toString());
+	}
+
+	@Test
+	public void testFinishTrustedInput() throws Exception {
+		XmlIdRegister register = new XmlIdRegister("r", true);
+		Id temp = register.generateId();
+		register.registerId("r1", temp);
+		register.registerId("r2");
+		register.registerId("r4");
+		register.finishTrustedInput();
+		assertTrue(register.isTrustedInput());
+
+		//Regular mode: IDs from the input are checked
+		assertEquals("r3", register.generateId().toString());
+		assertFalse(register.isTrustedInput());
+		assertEquals("r5", register.generateId().toString());
+		try {
+			register.registerId("r4");
+			fail("Duplicate ID not detected");
+		} catch (InvalidIdException exc) {
+		}
+		register.unregisterId(register.getId("r2"));
+		assertEquals("r2", register.registerId("r2").toString());
+
+		//Not trusted
+		register = new XmlIdRegister("r");
+		register.finishTrustedInput();
+		register.registerId("r1");
+		assertEquals("r2", register.generateId().toString());
+	}
+
 }
@@ -28,6 +28,7 @@ import org.primaresearch.shared.variable.StringValue;
 import org.primaresearch.shared.variable.StringVariable;
 import org.primaresearch.shared.variable.Variable;
 import org.primaresearch.shared.variable.VariableMap;
+import org.primaresearch.shared.variable.Variable.WrongVariableTypeException;
 
 public class VariableMapTest {
 
@@ -141,4 +142,132 @@ public class VariableMapTest {
 		assertTrue("Empty cleared map", map.getSize() == 0);
 	}
 
+	@Test
+	public void testCopyOnWrite() throws Exception {
+		VariableMap template = new VariableMap();
+		template.setType("type");
+		template.add(new BooleanVariable("v1", null));
+		template.add(new IntegerVariable("v2", new IntegerValue(10)));
+		template.add(new StringVariable("v3", null));
+
+		VariableMap map1 = template.createCopyOnWriteInstance();
+		VariableMap map2 = template.createCopyOnWriteInstance();
+		assertEquals(3, map1.getSize());
+		assertEquals("type", map1.getType());
+
+		//Read-only access returns the shared variables
+		assertSame(template.get(1), map1.peek("v2"));
+		assertSame(map1.peek(1), map2.peek(1));
+		assertNull(map1.peek("x"));
+
+		//Write access creates a private copy
+		Variable v1 = map1.get("v1");
+		assertNotSame(template.get(0), v1);
+		assertSame(v1, map1.get(0));
+		assertSame(v1, map1.peek("v1"));
+		v1.setValue(new BooleanValue(true));
+		assertNull(template.get(0).getValue());
+		assertNull(map2.get("v1").getValue());
+		assertEquals(new IntegerValue(10), map2.get("v2").getValue());
+
+		//Clone
+		VariableMap clone = map1.clone();
+		assertNotSame(v1, clone.get("v1"));
+		assertEquals(new BooleanValue(true), clone.get("v1").getValue());
+
+		//Copy values
+		map2.copyValuesByName(map1);
+		assertEquals(new BooleanValue(true), map2.get("v1").getValue());
+
+		//Structural change
+		map1.add(new DoubleVariable("v4", new DoubleValue(0.5)));
+		assertEquals(4, map1.getSize());
+		assertSame(v1, map1.get("v1"));
+		assertEquals(3, template.getSize());
+		map1.remove("v2");
+		assertNull(map1.get("v2"));
+		assertNotNull(map2.get("v2"));
+
+		//Template cannot be modified
+		try {
+			template.add(new BooleanVariable("v5"));
+			fail("Exception expected");
+		} catch (UnsupportedOperationException exc) {
+		}
+	}
+
+	@Test
+	public void testCompactStorage() throws Exception {
+		VariableMap template = new VariableMap();
+		template.add(new IntegerVariable("int", null));
+		template.add(new DoubleVariable("double", null));
+		template.add(new BooleanVariable("bool", null));
+		template.add(new StringVariable("str", new StringValue("default")));
+
+		VariableMap map = template.createCopyOnWriteInstance();
+		assertEquals(1, map.indexOf("double"));
+		assertEquals(-1, map.indexOf("x"));
+		assertNull(map.getDouble("double"));
+		assertEquals("default", map.getString("str"));
+		assertNull(map.getDouble("x"));
+
+		//Parse without variable views
+		map.parseValue(0, "42");
+		map.parseValue(1, "1.5");
+		map.parseValue(2, "true");
+		map.parseValue(3, "abc");
+		assertEquals(Integer.valueOf(42), map.getInteger("int"));
+		assertEquals(Double.valueOf(1.5), map.getDouble(1));
+		assertEquals(Boolean.TRUE, map.getBoolean("bool"));
+		assertEquals("abc", map.getString(3));
+		assertEquals("double", map.getVariableName(1));
+		assertEquals(new DoubleValue(1.5), map.getValue(1));
+		map.parseValue(0, "no number");
+		assertEquals(Integer.valueOf(0), map.getInteger(0));
+
+		//Views
+		Variable v = map.get("double");
+		assertTrue(v instanceof DoubleVariable);
+		assertEquals(new DoubleValue(1.5), v.getValue());
+		v.setValue(new DoubleValue(2.5));
+		assertEquals(Double.valueOf(2.5), map.getDouble("double"));
+		v.setValue(null);
+		assertNull(map.getDouble("double"));
+		assertNull(map.peek(1).getValue());
+		map.get("str").setValue(null);
+		assertNull(map.getString("str"));
+		assertEquals(new StringValue("default"), template.get(3).getValue());
+		try {
+			v.setValue(new IntegerValue(1));
+			fail("Exception expected");
+		} catch (WrongVariableTypeException exc) {
+		}
+		assertSame(map.get("int"), map.getById(0));
+
+		//Clone
+		map.get("bool").setValue(new BooleanValue(false));
+		VariableMap clone = map.clone();
+		map.parseValue(0, "7");
+		assertEquals(Integer.valueOf(0), clone.getInteger("int"));
+		assertEquals(Boolean.FALSE, clone.getBoolean("bool"));
+		Variable clonedView = clone.get("bool");
+		assertNotSame(map.get("bool"), clonedView);
+		clonedView.setValue(new BooleanValue(true));
+		assertEquals(Boolean.FALSE, map.getBoolean("bool"));
+
+		//Regular map after structural change (views keep their values)
+		Variable intVar = map.get("int");
+		map.add(new StringVariable("new", null));
+		assertSame(intVar, map.get("int"));
+		assertEquals(new IntegerValue(7), intVar.getValue());
+		intVar.setValue(new IntegerValue(8));
+		assertEquals(Integer.valueOf(8), map.getInteger("int"));
+		assertEquals(Boolean.FALSE, map.getBoolean("bool"));
+		assertNull(map.getDouble("double"));
+		assertNull(map.getString("new"));
+		assertNull(map.getInteger("x"));
+		assertEquals(5, map.getSize());
+		assertEquals(4, template.getSize());
+	}
+
 }
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.PageReader;
+import org.primaresearch.dla.page.io.PageWriter;
+import org.primaresearch.dla.page.io.binary.BinaryPageFormat;
+import org.primaresearch.dla.page.io.binary.BinaryPageReader;
+import org.primaresearch.dla.page.io.binary.BinaryPageWriter;
+import org.primaresearch.dla.page.io.json.GoogleJsonPageReader;
+import org.primaresearch.dla.page.io.xml.PageXmlInputOutput;
+import org.primaresearch.dla.page.io.xml.StreamTarget;
+import org.primaresearch.dla.page.io.xml.XmlPageWriter_Alto;
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.converter.ConverterHub;
+import org.primaresearch.dla.page.layout.logical.Group;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.impl.Glyph;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
+import org.primaresearch.dla.page.layout.physical.text.impl.Word;
+import org.primaresearch.io.xml.XmlFormatVersion;
+import org.primaresearch.maths.geometry.Polygon;
+import org.primaresearch.maths.geometry.Rect;
+
+/**
+ * Creates synthetic pages of a given size and serialises them in all supported input formats.<br>
+ * <br>
+ * Every tenth region is an image region, all others are text regions with the requested
+ * number of text lines, words and glyphs (boxes in a regular grid, text on all levels).
+ * 
+ * @author Christian Clausner
+ *
+ */
+public final class BenchmarkPages {
+
+	/** Prefix of PAGE XML formats (followed by the schema version, e.g. PAGE-2019-07-15) */
+	public static final String FORMAT_PAGE_PREFIX = "PAGE-";
+	public static final String FORMAT_ALTO = "ALTO";
+	public static final String FORMAT_HOCR = "HOCR";
+	public static final String FORMAT_ABBYY = "ABBYY-FR10";
+	public static final String FORMAT_GOOGLE_JSON = "GOOGLE-JSON";
+	public static final String FORMAT_BINARY = "BINARY";
+
+	private static final int MARGIN = 50;
+	private static final int GLYPH_WIDTH = 20;
+	private static final int GLYPH_HEIGHT = 30;
+	private static final int WORD_SPACING = 10;
+	private static final int LINE_HEIGHT = 40;
+	private static final int REGION_PADDING = 10;
+	private static final int REGION_SPACING = 30;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private BenchmarkPages() {
+	}
+
+	/**
+	 * Creates a page with the given number of objects per level.
+	 * @param regions Number of top-level regions
+	 * @param linesPerRegion Number of text lines in each text region
+	 * @param wordsPerLine Number of words in each text line
+	 * @param glyphsPerWord Number of glyphs in each word
+	 */
+	public static Page createPage(int regions, int linesPerRegion, int wordsPerLine, int glyphsPerWord) {
+		Page page = new Page(PageXmlInputOutput.getLatestSchemaModel());
+		page.setImageFilename("benchmark.png");
+		PageLayout layout = page.getLayout();
+		
+		int wordWidth = Math.max(1, glyphsPerWord) * GLYPH_WIDTH;
+		int regionWidth = Math.max(1, wordsPerLine) * (wordWidth + WORD_SPACING) + 2 * REGION_PADDING;
+		int regionHeight = Math.max(1, linesPerRegion) * LINE_HEIGHT + 2 * REGION_PADDING;
+		layout.setSize(regionWidth + 2 * MARGIN, regions * (regionHeight + REGION_SPACING) + 2 * MARGIN);
+
+		layout.createReadingOrder();
+		Group readingOrder = layout.getReadingOrder().getRoot();
+		
+		for (int r=0; r<regions; r++) {
+			int top = MARGIN + r * (regionHeight + REGION_SPACING);
+			
+			if (r % 10 == 9) {
+				Region image = layout.createRegion(RegionType.ImageRegion);
+				image.setCoords(box(MARGIN, top, MARGIN + regionWidth - 1, top + regionHeight - 1));
+				continue;
+			}
+			
+			TextRegion region = (TextRegion)layout.createRegion(RegionType.TextRegion);
+			region.setCoords(box(MARGIN, top, MARGIN + regionWidth - 1, top + regionHeight - 1));
+			readingOrder.addRegionRef(region.getId().toString());
+			
+			StringBuilder regionText = new StringBuilder();
+			for (int l=0; l<linesPerRegion; l++) {
+				int lineTop = top + REGION_PADDING + l * LINE_HEIGHT;
+				TextLine line = region.createTextLine();
+				line.setCoords(box(MARGIN + REGION_PADDING, lineTop, MARGIN + regionWidth - REGION_PADDING - 1, lineTop + GLYPH_HEIGHT - 1));
+				
+				StringBuilder lineText = new StringBuilder();
+				for (int w=0; w<wordsPerLine; w++) {
+					int wordLeft = MARGIN + REGION_PADDING + w * (wordWidth + WORD_SPACING);
+					Word word = line.createWord();
+					word.setCoords(box(wordLeft, lineTop, wordLeft + wordWidth - 1, lineTop + GLYPH_HEIGHT - 1));
+					
+					StringBuilder wordText = new StringBuilder();
+					for (int g=0; g<glyphsPerWord; g++) {
+						int glyphLeft = wordLeft + g * GLYPH_WIDTH;
+						Glyph glyph = word.createGlyph();
+						glyph.setCoords(box(glyphLeft, lineTop, glyphLeft + GLYPH_WIDTH - 1, lineTop + GLYPH_HEIGHT - 1));
+						String c = String.valueOf((char)('a' + (w + g) % 26));
+						glyph.setText(c);
+						wordText.append(c);
+					}
+					word.setText(wordText.toString());
+					if (w > 0)
+						lineText.append(' ');
+					lineText.append(wordText);
+				}
+				line.setText(lineText.toString());
+				if (l > 0)
+					regionText.append('\n');
+				regionText.append(lineText);
+			}
+			region.setText(regionText.toString());
+		}
+		return page;
+	}
+	
+	private static Polygon box(int left, int top, int right, int bottom) {
+		Polygon polygon = new Polygon();
+		polygon.addPoint(left, top);
+		polygon.addPoint(right, top);
+		polygon.addPoint(right, bottom);
+		polygon.addPoint(left, bottom);
+		return polygon;
+	}
+	
+	/**
+	 * Returns a copy of the page, converted to the PAGE format version of the given format 
+	 * (the page itself is returned for other formats or if it is in the right version already).
+	 * @param format Format ID (e.g. PAGE-2013-07-15)
+	 */
+	public static Page convertForFormat(Page page, String format) throws Exception {
+		if (!format.startsWith(FORMAT_PAGE_PREFIX))
+			return page;
+		XmlFormatVersion version = new XmlFormatVersion(format.substring(FORMAT_PAGE_PREFIX.length()));
+		if (version.equals(page.getFormatVersion()))
+			return page;
+		Page copy = new BinaryPageReader().decode(new BinaryPageWriter().encode(page), BinaryPageFormat.SECTION_ALL);
+		ConverterHub.convert(copy, PageXmlInputOutput.getInstance().getFormatModel(version));
+		return copy;
+	}
+	
+	/**
+	 * Returns <code>true</code> if the given format can be written by the library (PAGE, ALTO and binary)
+	 */
+	public static boolean isWritable(String format) {
+		return format.startsWith(FORMAT_PAGE_PREFIX) || FORMAT_ALTO.equals(format) || FORMAT_BINARY.equals(format);
+	}
+	
+	/**
+	 * Returns a writer for the given format (PAGE, ALTO or binary).
+	 * @throws IllegalArgumentException Format cannot be written by the library
+	 */
+	public static PageWriter getWriter(String format) throws Exception {
+		if (format.startsWith(FORMAT_PAGE_PREFIX))
+			return PageXmlInputOutput.getWriter(new XmlFormatVersion(format.substring(FORMAT_PAGE_PREFIX.length())));
+		if (FORMAT_ALTO.equals(format))
+			return new XmlPageWriter_Alto(null);
+		if (FORMAT_BINARY.equals(format))
+			return new BinaryPageWriter();
+		throw new IllegalArgumentException("No writer for format " + format);
+	}
+
+	/**
+	 * Returns a reader for the given format.
+	 */
+	public static PageReader getReader(String format) {
+		if (FORMAT_GOOGLE_JSON.equals(format))
+			return new GoogleJsonPageReader();
+		if (FORMAT_BINARY.equals(format))
+			return new BinaryPageReader();
+		return PageXmlInputOutput.getReader();
+	}
+	
+	/**
+	 * Returns the file extension for documents of the given format.
+	 */
+	public static String getFileExtension(String format) {
+		if (FORMAT_GOOGLE_JSON.equals(format))
+			return ".json";
+		if (FORMAT_BINARY.equals(format))
+			return ".bin";
+		if (FORMAT_HOCR.equals(format))
+			return ".html";
+		return ".xml";
+	}
+	
+	/**
+	 * Serialises the given page in the specified format (PAGE XML in older versions is written from a converted copy).
+	 * @return Document content
+	 */
+	public static byte[] serialize(Page page, String format) throws Exception {
+		if (FORMAT_HOCR.equals(format))
+			return toHocr(page).getBytes(UTF8);
+		if (FORMAT_ABBYY.equals(format))
+			return toAbbyyFineReader10(page).getBytes(UTF8);
+		if (FORMAT_GOOGLE_JSON.equals(format))
+			return toGoogleJson(page).getBytes(UTF8);
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		if (!getWriter(format).write(convertForFormat(page, format), new StreamTarget(out)))
+			throw new IOException("Could not write page as " + format);
+		return out.toByteArray();
+	}
+	
+	/**
+	 * Writes the given document to a temporary file (deleted on exit).
+	 */
+	public static File writeTempFile(byte[] data, String format) throws IOException {
+		File file = File.createTempFile("prima-benchmark", getFileExtension(format));
+		file.deleteOnExit();
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(data);
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+	
+	/**
+	 * Serialises the page as hOCR (text regions only).
+	 */
+	static String toHocr(Page page) {
+		PageLayout layout = page.getLayout();
+		StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		sb.append("<html xmlns=\"http://www.w3.org/1999/xhtml\"><head><title></title>");
+		sb.append("<meta name=\"ocr-system\" content=\"prima-benchmark\"/></head><body>\n");
+		sb.append("<div class=\"ocr_page\" id=\"page_1\" title=\"image &quot;").append(page.getImageFilename())
+			.append("&quot;; bbox 0 0 ").append(layout.getWidth()).append(' ').append(layout.getHeight()).append("\">\n");
+		for (int r=0; r<layout.getRegionCount(); r++) {
+			if (!(layout.getRegion(r) instanceof TextRegion))
+				continue;
+			TextRegion region = (TextRegion)layout.getRegion(r);
+			sb.append("<div class=\"ocr_carea\" id=\"block_").append(r).append("\" title=\"").append(hocrBox(region.getCoords())).append("\">");
+			sb.append("<p class=\"ocr_par\" id=\"par_").append(r).append("\" title=\"").append(hocrBox(region.getCoords())).append("\">");
+			for (int l=0; l<region.getTextObjectCount(); l++) {
+				TextLine line = (TextLine)region.getTextObject(l);
+				sb.append("<span class=\"ocr_line\" id=\"line_").append(r).append('_').append(l)
+					.append("\" title=\"").append(hocrBox(line.getCoords())).append("\">");
+				for (int w=0; w<line.getTextObjectCount(); w++) {
+					Word word = (Word)line.getTextObject(w);
+					sb.append("<span class=\"ocrx_word\" id=\"word_").append(r).append('_').append(l).append('_').append(w)
+						.append("\" title=\"").append(hocrBox(word.getCoords())).append("; x_wconf 95\">")
+						.append(word.getText()).append("</span>");
+				}
+				sb.append("</span>\n");
+			}
+			sb.append("</p></div>\n");
+		}
+		sb.append("</div></body></html>\n");
+		return sb.toString();
+	}
+	
+	private static String hocrBox(Polygon coords) {
+		Rect box = coords.getBoundingBox();
+		return "bbox " + box.left + " " + box.top + " " + box.right + " " + box.bottom;
+	}
+	
+	/**
+	 * Serialises the page as ABBYY FineReader 10 XML (one character parameter element per glyph and per space between words).
+	 */
+	static String toAbbyyFineReader10(Page page) {
+		PageLayout layout = page.getLayout();
+		StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		sb.append("<document xmlns=\"http://www.abbyy.com/FineReader_xml/FineReader10-schema-v1.xml\" version=\"1.0\" producer=\"prima-benchmark\">\n");
+		sb.append("<page width=\"").append(layout.getWidth()).append("\" height=\"").append(layout.getHeight())
+			.append("\" resolution=\"300\" originalCoords=\"1\">\n");
+		for (int r=0; r<layout.getRegionCount(); r++) {
+			Region region = layout.getRegion(r);
+			boolean text = region instanceof TextRegion;
+			sb.append("<block blockType=\"").append(text ? "Text" : "Picture").append("\" ").append(abbyyBox(region.getCoords())).append(">");
+			sb.append("<region><rect ").append(abbyyBox(region.getCoords())).append("/></region>");
+			if (text) {
+				TextRegion textRegion = (TextRegion)region;
+				sb.append("<text><par>");
+				for (int l=0; l<textRegion.getTextObjectCount(); l++) {
+					TextLine line = (TextLine)textRegion.getTextObject(l);
+					sb.append("<line ").append(abbyyBox(line.getCoords())).append("><formatting lang=\"English\">");
+					Rect previous = null;
+					for (int w=0; w<line.getTextObjectCount(); w++) {
+						Word word = (Word)line.getTextObject(w);
+						Rect wordBox = word.getCoords().getBoundingBox();
+						if (previous != null) //Space between words (spans the gap)
+							sb.append("<charParams ").append(abbyyBox(previous.right + 1, wordBox.top, wordBox.left - 1, wordBox.bottom))
+								.append("> </charParams>");
+						for (int g=0; g<word.getTextObjectCount(); g++) {
+							Glyph glyph = (Glyph)word.getTextObject(g);
+							sb.append("<charParams ").append(abbyyBox(glyph.getCoords())).append(" wordStart=\"")
+								.append(g == 0 ? "1" : "0").append("\" charConfidence=\"95\">").append(glyph.getText()).append("</charParams>");
+						}
+						previous = wordBox;
+					}
+					sb.append("</formatting></line>");
+				}
+				sb.append("</par></text>");
+			}
+			sb.append("</block>\n");
+		}
+		sb.append("</page>\n</document>\n");
+		return sb.toString();
+	}
+
+	private static String abbyyBox(Polygon coords) {
+		Rect box = coords.getBoundingBox();
+		return abbyyBox(box.left, box.top, box.right, box.bottom);
+	}
+
+	private static String abbyyBox(int left, int top, int right, int bottom) {
+		return "l=\"" + left + "\" t=\"" + top + "\" r=\"" + right + "\" b=\"" + bottom + "\"";
+	}
+	
+	/**
+	 * Serialises the page as Google Cloud Vision JSON (one paragraph per text region, one symbol per glyph).
+	 */
+	static String toGoogleJson(Page page) {
+		PageLayout layout = page.getLayout();
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"responses\":[{\"fullTextAnnotation\":{\"pages\":[{\"width\":").append(layout.getWidth())
+			.append(",\"height\":").append(layout.getHeight()).append(",\"blocks\":[\n");
+		for (int r=0; r<layout.getRegionCount(); r++) {
+			Region region = layout.getRegion(r);
+			if (r > 0)
+				sb.append(",\n");
+			if (!(region instanceof TextRegion)) {
+				sb.append("{\"blockType\":\"PICTURE\",").append(googleBox(region.getCoords())).append('}');
+				continue;
+			}
+			TextRegion textRegion = (TextRegion)region;
+			sb.append("{\"blockType\":\"TEXT\",").append(googleBox(region.getCoords()))
+				.append(",\"paragraphs\":[{").append(googleBox(region.getCoords())).append(",\"words\":[");
+			boolean firstWord = true;
+			for (int l=0; l<textRegion.getTextObjectCount(); l++) {
+				TextLine line = (TextLine)textRegion.getTextObject(l);
+				for (int w=0; w<line.getTextObjectCount(); w++) {
+					Word word = (Word)line.getTextObject(w);
+					if (!firstWord)
+						sb.append(',');
+					firstWord = false;
+					sb.append('{').append(googleBox(word.getCoords())).append(",\"symbols\":[");
+					for (int g=0; g<word.getTextObjectCount(); g++) {
+						Glyph glyph = (Glyph)word.getTextObject(g);
+						if (g > 0)
+							sb.append(',');
+						sb.append("{\"text\":\"").append(glyph.getText()).append("\",").append(googleBox(glyph.getCoords()));
+						if (g == word.getTextObjectCount() - 1) {
+							String breakType = w == line.getTextObjectCount() - 1 ? "EOL_SURE_SPACE" : "SPACE";
+							sb.append(",\"property\":{\"detectedBreak\":{\"type\":\"").append(breakType).append("\"}}");
+						}
+						sb.append('}');
+					}
+					sb.append("]}");
+				}
+			}
+			sb.append("]}]}");
+		}
+		sb.append("\n]}]}}]}\n");
+		return sb.toString();
+	}
+	
+	private static String googleBox(Polygon coords) {
+		Rect box = coords.getBoundingBox();
+		return "\"boundingBox\":{\"vertices\":[{\"x\":" + box.left + ",\"y\":" + box.top + "},{\"x\":" + box.right + ",\"y\":" + box.top 
+				+ "},{\"x\":" + box.right + ",\"y\":" + box.bottom + "},{\"x\":" + box.left + ",\"y\":" + box.bottom + "}]}";
+	}
+}
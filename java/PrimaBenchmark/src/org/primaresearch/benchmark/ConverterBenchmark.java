@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.binary.BinaryPageFormat;
+import org.primaresearch.dla.page.io.binary.BinaryPageReader;
+import org.primaresearch.dla.page.io.binary.BinaryPageWriter;
+import org.primaresearch.dla.page.io.xml.PageXmlInputOutput;
+import org.primaresearch.dla.page.layout.converter.ConversionMessage;
+import org.primaresearch.dla.page.layout.converter.ConverterHub;
+import org.primaresearch.io.FormatModel;
+import org.primaresearch.io.xml.XmlFormatVersion;
+
+/**
+ * Converting a page (latest PAGE format) to older PAGE format versions.<br>
+ * <br>
+ * The conversion modifies the page, so a fresh copy is decoded (binary format) before each invocation.
+ * 
+ * @author Christian Clausner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterBenchmark extends PageSizeState {
+
+	@Param({ "2010-03-19", "2013-07-15", "2016-07-15", "2017-07-15", "2018-07-15" })
+	public String targetVersion;
+	
+	private byte[] encodedPage;
+	private BinaryPageReader decoder;
+	private FormatModel targetModel;
+	private Page page;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		encodedPage = new BinaryPageWriter().encode(createPage());
+		decoder = new BinaryPageReader();
+		targetModel = PageXmlInputOutput.getInstance().getFormatModel(new XmlFormatVersion(targetVersion));
+	}
+	
+	@Setup(Level.Invocation)
+	public void copyPage() throws Exception {
+		page = decoder.decode(encodedPage, BinaryPageFormat.SECTION_ALL);
+	}
+
+	@Benchmark
+	public List<ConversionMessage> convert() {
+		return ConverterHub.convert(page, targetModel);
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.FileInput;
+import org.primaresearch.dla.page.io.PageReader;
+
+/**
+ * Reading a page document from file, for all supported input formats.
+ * 
+ * @author Christian Clausner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageReadBenchmark extends PageSizeState {
+
+	@Param({ "PAGE-2010-03-19", "PAGE-2013-07-15", "PAGE-2016-07-15", "PAGE-2017-07-15", "PAGE-2018-07-15", "PAGE-2019-07-15", 
+			"ALTO", "HOCR", "ABBYY-FR10", "GOOGLE-JSON", "BINARY" })
+	public String format;
+	
+	private File document;
+	private PageReader reader;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		document = BenchmarkPages.writeTempFile(BenchmarkPages.serialize(createPage(), format), format);
+		reader = BenchmarkPages.getReader(format);
+		if (read() == null)
+			throw new IllegalStateException("Could not read generated " + format + " document");
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		document.delete();
+	}
+
+	@Benchmark
+	public Page read() throws Exception {
+		return reader.read(new FileInput(document));
+	}
+}
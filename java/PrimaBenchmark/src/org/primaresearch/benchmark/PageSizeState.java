@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.primaresearch.dla.page.Page;
+
+/**
+ * Base class for benchmark states with parameterised page size
+ * (override with -p regions=... etc. on the command line).
+ * 
+ * @author Christian Clausner
+ *
+ */
+@State(Scope.Benchmark)
+public abstract class PageSizeState {
+
+	/** Number of top-level regions (every tenth is an image region) */
+	@Param({ "10", "100" })
+	public int regions;
+
+	/** Number of text lines per text region */
+	@Param({ "10" })
+	public int linesPerRegion;
+
+	/** Number of words per text line */
+	@Param({ "8" })
+	public int wordsPerLine;
+
+	/** Number of glyphs per word */
+	@Param({ "5" })
+	public int glyphsPerWord;
+	
+	/**
+	 * Creates a synthetic page of the current size
+	 */
+	protected Page createPage() {
+		return BenchmarkPages.createPage(regions, linesPerRegion, wordsPerLine, glyphsPerWord);
+	}
+}
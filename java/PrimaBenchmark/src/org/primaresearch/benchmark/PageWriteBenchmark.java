@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.PageWriter;
+import org.primaresearch.dla.page.io.xml.StreamTarget;
+
+/**
+ * Writing a page to memory, for all formats the library can write.<br>
+ * <br>
+ * For older PAGE versions, the page is converted to the respective version beforehand.
+ * 
+ * @author Christian Clausner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageWriteBenchmark extends PageSizeState {
+
+	@Param({ "PAGE-2010-03-19", "PAGE-2013-07-15", "PAGE-2016-07-15", "PAGE-2017-07-15", "PAGE-2018-07-15", "PAGE-2019-07-15", 
+			"ALTO", "BINARY" })
+	public String format;
+	
+	private Page page;
+	private PageWriter writer;
+	private ByteArrayOutputStream out;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		page = BenchmarkPages.convertForFormat(createPage(), format);
+		writer = BenchmarkPages.getWriter(format);
+		out = new ByteArrayOutputStream(1 << 20);
+		if (write() == 0)
+			throw new IllegalStateException("Could not write page as " + format);
+	}
+
+	/**
+	 * Writes the page and returns the document size in bytes
+	 */
+	@Benchmark
+	public int write() throws Exception {
+		out.reset();
+		writer.write(page, new StreamTarget(out));
+		return out.size();
+	}
+}
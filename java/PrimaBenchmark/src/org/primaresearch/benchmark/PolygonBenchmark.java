@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.primaresearch.maths.geometry.Polygon;
+import org.primaresearch.maths.geometry.Rect;
+
+/**
+ * Point-in-polygon test for polygons with different numbers of vertices.<br>
+ * <br>
+ * The polygon is star-shaped (concave), the test points are spread over its bounding box.
+ * 
+ * @author Christian Clausner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolygonBenchmark {
+
+	private static final int POINTS = 1024;
+	
+	@Param({ "4", "32", "256", "2048" })
+	public int vertices;
+	
+	private Polygon polygon;
+	private int[] xs = new int[POINTS];
+	private int[] ys = new int[POINTS];
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		polygon = new Polygon(vertices);
+		for (int i=0; i<vertices; i++) {
+			double angle = 2.0 * Math.PI * i / vertices;
+			int radius = i % 2 == 0 ? 1000 : 600;
+			polygon.addPoint(1000 + (int)(radius * Math.cos(angle)), 1000 + (int)(radius * Math.sin(angle)));
+		}
+		Rect box = polygon.getBoundingBox();
+		Random random = new Random(42);
+		for (int i=0; i<POINTS; i++) {
+			xs[i] = box.left + random.nextInt(box.right - box.left + 1);
+			ys[i] = box.top + random.nextInt(box.bottom - box.top + 1);
+		}
+	}
+	
+	/**
+	 * Tests all points and returns the number of points inside the polygon
+	 */
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public int isPointInside() {
+		int inside = 0;
+		for (int i=0; i<POINTS; i++) {
+			if (polygon.isPointInside(xs[i], ys[i]))
+				inside++;
+		}
+		return inside;
+	}
+}
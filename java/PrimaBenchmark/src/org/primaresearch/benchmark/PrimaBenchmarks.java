@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the PRImA core library benchmarks.<br>
+ * <br>
+ * Accepts the usual JMH command line options (e.g. a benchmark name pattern, -p regions=1000).
+ * Unless specified otherwise, the GC profiler is enabled (allocation rates) and the results
+ * are written to 'prima-benchmark-results.json' in JMH's JSON format.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class PrimaBenchmarks {
+
+	/** Default file for the results */
+	public static final String DEFAULT_RESULT_FILE = "prima-benchmark-results.json";
+	
+	public static void main(String[] args) {
+		try {
+			CommandLineOptions commandLine = new CommandLineOptions(args);
+			ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+			if (commandLine.getProfilers().isEmpty())
+				options.addProfiler(GCProfiler.class);
+			if (!commandLine.getResultFormat().hasValue())
+				options.resultFormat(ResultFormatType.JSON);
+			if (!commandLine.getResult().hasValue())
+				options.result(DEFAULT_RESULT_FILE);
+			
+			new Runner(options.build()).run();
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+}
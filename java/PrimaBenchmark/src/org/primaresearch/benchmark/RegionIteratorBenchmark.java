@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.logical.Layer;
+import org.primaresearch.dla.page.layout.physical.ContentIterator;
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+
+/**
+ * Iterating over the content objects of a page (with and without type/layer filter).<br>
+ * <br>
+ * The layer contains every second region of the page.
+ * 
+ * @author Christian Clausner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionIteratorBenchmark extends PageSizeState {
+
+	private PageLayout layout;
+	private Layer layer;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		layout = createPage().getLayout();
+		layout.createLayers();
+		layer = layout.getLayers().createLayer();
+		for (int i=0; i<layout.getRegionCount(); i+=2)
+			layer.addRegionRef(layout.getRegion(i).getId().toString());
+	}
+	
+	@Benchmark
+	public void allRegions(Blackhole blackhole) {
+		consume(layout.iterator(null), blackhole);
+	}
+	
+	@Benchmark
+	public void textRegions(Blackhole blackhole) {
+		consume(layout.iterator(RegionType.TextRegion), blackhole);
+	}
+
+	@Benchmark
+	public void textRegionsInLayer(Blackhole blackhole) {
+		consume(layout.iterator(RegionType.TextRegion, layer), blackhole);
+	}
+
+	@Benchmark
+	public void words(Blackhole blackhole) {
+		consume(layout.iterator(LowLevelTextType.Word), blackhole);
+	}
+
+	@Benchmark
+	public void glyphsInLayer(Blackhole blackhole) {
+		consume(layout.iterator(LowLevelTextType.Glyph, layer), blackhole);
+	}
+
+	@Benchmark
+	public long glyphsParallelStream() {
+		return layout.stream(LowLevelTextType.Glyph).parallel().count();
+	}
+	
+	private static void consume(ContentIterator it, Blackhole blackhole) {
+		while (it.hasNext())
+			blackhole.consume(it.next());
+	}
+}
@@ -19,6 +19,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.primaresearch.dla.page.frozen.FrozenPage;
 import org.primaresearch.dla.page.io.xml.PageXmlInputOutput;
 import org.primaresearch.dla.page.layout.PageLayout;
 import org.primaresearch.dla.page.layout.converter.ConversionMessage;
@@ -99,13 +100,8 @@ public class Page implements AttributeContainer, HasLabels, Serializable {
 	}
 
 	private AttributeFactory createAttributeFactory(FormatModel formatModel) {
-		AttributeFactory attribFactory = null;
-		if (formatModel != null) {
-			attribFactory = new DefaultAttributeFactory(formatModel);
-		} else {
-			attribFactory = new DefaultAttributeFactory();
-		}		
-		return attribFactory;
+		//One factory per format model (shares the attribute templates)
+		return DefaultAttributeFactory.getInstance(formatModel);
 	}
 
 	/**
@@ -136,7 +132,16 @@ public class Page implements AttributeContainer, HasLabels, Serializable {
 	 * @param formatModel Model for dynamic format
 	 */
 	public Page(FormatModel formatModel) {
-		this.idRegister = new XmlIdRegister();
+		this(formatModel, new XmlIdRegister());
+	}
+
+	/**
+	 * Constructor using dynamic page format and a specific ID register.
+	 * @param formatModel Model for dynamic format
+	 * @param idRegister Register for the IDs of all objects of the page (e.g. an XmlIdRegister in trusted input mode for read-only pages)
+	 */
+	public Page(FormatModel formatModel, IdRegister idRegister) {
+		this.idRegister = idRegister;
 		this.formatVersion = formatModel.getVersion();
 		AttributeFactory attrFactory = createAttributeFactory(formatModel);
 		contentFactory = new ContentFactory(idRegister, attrFactory);
@@ -280,6 +285,15 @@ public class Page implements AttributeContainer, HasLabels, Serializable {
 
 
 
+	/**
+	 * Creates an immutable snapshot of this page that can be shared between threads without locking.
+	 * Later changes of this page do not affect the snapshot.
+	 * @return New snapshot
+	 */
+	public FrozenPage freeze() {
+		return new FrozenPage(this);
+	}
+
 	@Override
 	public Labels getLabels() {
 		return labels;
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.frozen;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.primaresearch.dla.page.layout.physical.ContentObject;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.shared.ContentType;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextContainer;
+import org.primaresearch.dla.page.layout.physical.text.TextObject;
+import org.primaresearch.maths.geometry.Polygon;
+import org.primaresearch.maths.geometry.Rect;
+import org.primaresearch.shared.variable.VariableMap;
+import org.primaresearch.shared.variable.VariableValue;
+
+/**
+ * Immutable snapshot of a region or low-level text object (see {@link FrozenPage}).<br>
+ * <br>
+ * Coordinates, bounding box, text, attributes and child objects are copied when the snapshot is
+ * created. Nothing is calculated lazily, so all methods can be called from multiple threads without locking.
+ * Returned collections and polygons throw an UnsupportedOperationException on modification. 
+ * 
+ * @author Christian Clausner
+ *
+ */
+public final class FrozenContentObject {
+
+	private static final FrozenContentObject[] NO_CHILDREN = new FrozenContentObject[0];
+
+	private final String id;
+	private final ContentType type;
+	private final Polygon coords;
+	private final long boundingBoxArea;
+	private final String text;
+	private final Map<String, String> attributes;
+	private final FrozenContentObject parent;
+	private final FrozenContentObject[] children;
+	private final List<FrozenContentObject> childList;
+
+	/**
+	 * Constructor (copies the given object and all its children)
+	 * @param obj Region or low-level text object
+	 * @param parent Snapshot of the parent object (<code>null</code> for top-level regions)
+	 */
+	FrozenContentObject(ContentObject obj, FrozenContentObject parent) {
+		this.id = obj.getId() != null ? obj.getId().toString() : null;
+		this.type = obj.getType();
+		this.coords = obj.getCoords() != null ? obj.getCoords().immutableCopy() : null;
+		if (coords != null) {
+			Rect box = coords.getBoundingBox();
+			boundingBoxArea = (long)box.getWidth() * (long)box.getHeight();
+		} else
+			boundingBoxArea = 0L;
+		this.text = obj instanceof TextObject ? ((TextObject)obj).getText() : null;
+		this.attributes = copyAttributes(obj.getAttributes());
+		this.parent = parent;
+		
+		//Children (nested regions first, then text objects)
+		int regionCount = obj instanceof Region ? ((Region)obj).getRegionCount() : 0;
+		int textObjectCount = obj instanceof LowLevelTextContainer ? ((LowLevelTextContainer)obj).getTextObjectCount() : 0;
+		if (regionCount + textObjectCount == 0)
+			children = NO_CHILDREN;
+		else {
+			children = new FrozenContentObject[regionCount + textObjectCount];
+			for (int i=0; i<regionCount; i++)
+				children[i] = new FrozenContentObject(((Region)obj).getRegion(i), this);
+			for (int i=0; i<textObjectCount; i++)
+				children[regionCount + i] = new FrozenContentObject(((LowLevelTextContainer)obj).getTextObject(i), this);
+		}
+		childList = Collections.unmodifiableList(Arrays.asList(children));
+	}
+	
+	/**
+	 * Copies all attributes that have a value
+	 * @return Unmodifiable map (attribute name, value in text form)
+	 */
+	static Map<String, String> copyAttributes(VariableMap attrs) {
+		if (attrs == null || attrs.getSize() == 0)
+			return Collections.emptyMap();
+		Map<String, String> copy = new LinkedHashMap<String, String>();
+		for (int i=0; i<attrs.getSize(); i++) {
+			VariableValue value = attrs.getValue(i);
+			if (value != null)
+				copy.put(attrs.getVariableName(i), value.toString());
+		}
+		return Collections.unmodifiableMap(copy);
+	}
+
+	/**
+	 * Returns the ID of the object
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the type of the object (region type or low-level text type)
+	 */
+	public ContentType getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the outline of the object (immutable polygon)
+	 * @return Polygon or <code>null</code>
+	 */
+	public Polygon getCoords() {
+		return coords;
+	}
+
+	/**
+	 * Returns the bounding box of the outline (calculated in advance, a new rectangle is returned with every call).
+	 * @return Rectangle or <code>null</code> if the object has no outline
+	 */
+	public Rect getBoundingBox() {
+		return coords != null ? coords.getBoundingBox() : null;
+	}
+
+	/**
+	 * Returns width times height of the bounding box
+	 * @return Area (0 if the object has no outline)
+	 */
+	long getBoundingBoxArea() {
+		return boundingBoxArea;
+	}
+	
+	/**
+	 * Checks if the given point is inside the outline of this object
+	 */
+	public boolean isPointInside(int x, int y) {
+		return coords != null && coords.getSize() > 2 && coords.isPointInside(x, y);
+	}
+
+	/**
+	 * Returns the text content (first text variant) 
+	 * @return Text or <code>null</code> if not a text object or no text set
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Returns all attributes that have a value
+	 * @return Unmodifiable map (attribute name, value in text form)
+	 */
+	public Map<String, String> getAttributes() {
+		return attributes;
+	}
+
+	/**
+	 * Returns the value of the specified attribute in text form
+	 * @return Value or <code>null</code> if the attribute doesn't exist or has no value
+	 */
+	public String getAttribute(String name) {
+		return attributes.get(name);
+	}
+
+	/**
+	 * Returns the parent object 
+	 * @return Snapshot of parent region or text object or <code>null</code> for top-level regions
+	 */
+	public FrozenContentObject getParent() {
+		return parent;
+	}
+
+	/**
+	 * Returns the number of child objects (nested regions and low-level text objects)
+	 */
+	public int getChildCount() {
+		return children.length;
+	}
+
+	/**
+	 * Returns the child object at the given index (nested regions come before low-level text objects)
+	 * @throws IndexOutOfBoundsException
+	 */
+	public FrozenContentObject getChild(int index) {
+		return children[index];
+	}
+
+	/**
+	 * Returns all child objects (nested regions come before low-level text objects)
+	 * @return Unmodifiable list
+	 */
+	public List<FrozenContentObject> getChildren() {
+		return childList;
+	}
+	
+	@Override
+	public String toString() {
+		return type.getName() + " " + id;
+	}
+}
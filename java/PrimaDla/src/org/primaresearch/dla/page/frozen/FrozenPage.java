@@ -0,0 +1,249 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.frozen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.logical.Group;
+import org.primaresearch.dla.page.layout.logical.GroupMember;
+import org.primaresearch.dla.page.layout.logical.ReadingOrder;
+import org.primaresearch.dla.page.layout.logical.RegionRef;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.shared.GeometricObject;
+import org.primaresearch.maths.geometry.Polygon;
+
+/**
+ * Immutable snapshot of a page (see {@link Page#freeze()}).<br>
+ * <br>
+ * The snapshot contains the page properties, the region hierarchy down to glyph level (see {@link FrozenContentObject}),
+ * border, print space and the reading order in flattened form. All data is copied and all derived data
+ * (bounding boxes, child arrays, ID index) is calculated when the snapshot is created. The snapshot
+ * can therefore be shared between threads without any locking. It is not affected by later changes
+ * of the source page and all modification attempts (of returned lists, maps and polygons) throw an
+ * UnsupportedOperationException.<br>
+ * <br>
+ * Metadata, layers, relations, labels and text content variants are not part of the snapshot.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public final class FrozenPage {
+
+	private final String gtsId;
+	private final String formatVersion;
+	private final String imageFilename;
+	private final int width;
+	private final int height;
+	private final Polygon border;
+	private final Polygon printSpace;
+	private final Map<String, String> attributes;
+	private final FrozenContentObject[] regions;
+	private final List<FrozenContentObject> regionList;
+	private final Map<String, FrozenContentObject> index;
+	private final List<String> readingOrder;
+
+	/**
+	 * Creates a snapshot of the given page.<br>
+	 * The page must not be modified by other threads while the snapshot is created.
+	 * @param page Source page
+	 */
+	public FrozenPage(Page page) {
+		gtsId = page.getGtsId() != null ? page.getGtsId().toString() : null;
+		formatVersion = page.getFormatVersion() != null ? page.getFormatVersion().toString() : null;
+		imageFilename = page.getImageFilename();
+		attributes = FrozenContentObject.copyAttributes(page.getAttributes());
+
+		PageLayout layout = page.getLayout();
+		width = layout.getWidth();
+		height = layout.getHeight();
+		border = copyCoords(layout.getBorder());
+		printSpace = copyCoords(layout.getPrintSpace());
+		
+		//Regions
+		regions = new FrozenContentObject[layout.getRegionCount()];
+		for (int i=0; i<regions.length; i++)
+			regions[i] = new FrozenContentObject(layout.getRegion(i), null);
+		regionList = Collections.unmodifiableList(Arrays.asList(regions));
+		
+		//ID index
+		Map<String, FrozenContentObject> index = new HashMap<String, FrozenContentObject>();
+		for (int i=0; i<regions.length; i++)
+			addToIndex(regions[i], index);
+		this.index = Collections.unmodifiableMap(index);
+		
+		//Reading order
+		List<String> readingOrder = new ArrayList<String>();
+		ReadingOrder ro = layout.getReadingOrder();
+		if (ro != null && ro.getRoot() != null)
+			flatten(ro.getRoot(), readingOrder);
+		this.readingOrder = Collections.unmodifiableList(readingOrder);
+	}
+	
+	private static Polygon copyCoords(GeometricObject obj) {
+		if (obj == null || obj.getCoords() == null)
+			return null;
+		return obj.getCoords().immutableCopy();
+	}
+	
+	private static void addToIndex(FrozenContentObject obj, Map<String, FrozenContentObject> index) {
+		if (obj.getId() != null)
+			index.put(obj.getId(), obj);
+		for (int i=0; i<obj.getChildCount(); i++)
+			addToIndex(obj.getChild(i), index);
+	}
+	
+	/**
+	 * Adds the region references of the given group (and all nested groups) in depth-first order
+	 */
+	private static void flatten(Group group, List<String> regionIds) {
+		if (group.getRegionRef() != null)
+			regionIds.add(group.getRegionRef().toString());
+		for (int i=0; i<group.getSize(); i++) {
+			GroupMember member = group.getMember(i);
+			if (member instanceof Group)
+				flatten((Group)member, regionIds);
+			else if (member instanceof RegionRef && ((RegionRef)member).getRegionId() != null)
+				regionIds.add(((RegionRef)member).getRegionId().toString());
+		}
+	}
+
+	/**
+	 * Returns the ID of the page (pcGtsId)
+	 * @return ID or <code>null</code>
+	 */
+	public String getGtsId() {
+		return gtsId;
+	}
+
+	/**
+	 * Returns the format version of the source page in text form (e.g. "2019-07-15")
+	 */
+	public String getFormatVersion() {
+		return formatVersion;
+	}
+
+	/**
+	 * Returns the filename of the document image
+	 */
+	public String getImageFilename() {
+		return imageFilename;
+	}
+
+	/**
+	 * Returns the page width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the page height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the outline of the page border
+	 * @return Immutable polygon or <code>null</code>
+	 */
+	public Polygon getBorder() {
+		return border;
+	}
+
+	/**
+	 * Returns the outline of the print space
+	 * @return Immutable polygon or <code>null</code>
+	 */
+	public Polygon getPrintSpace() {
+		return printSpace;
+	}
+
+	/**
+	 * Returns all page attributes that have a value
+	 * @return Unmodifiable map (attribute name, value in text form)
+	 */
+	public Map<String, String> getAttributes() {
+		return attributes;
+	}
+
+	/**
+	 * Returns the number of top-level regions
+	 */
+	public int getRegionCount() {
+		return regions.length;
+	}
+
+	/**
+	 * Returns the top-level region at the given index
+	 * @throws IndexOutOfBoundsException
+	 */
+	public FrozenContentObject getRegion(int index) {
+		return regions[index];
+	}
+
+	/**
+	 * Returns all top-level regions
+	 * @return Unmodifiable list
+	 */
+	public List<FrozenContentObject> getRegions() {
+		return regionList;
+	}
+
+	/**
+	 * Returns the object with the given ID (regions including nested regions and low-level text objects)
+	 * @return Object or <code>null</code> if not found
+	 */
+	public FrozenContentObject getObject(String id) {
+		return index.get(id);
+	}
+
+	/**
+	 * Returns the region at the given position (including nested regions).
+	 * @return If several regions contain the point, the one with the smallest bounding box is returned. <code>null</code> if no region was found.
+	 */
+	public FrozenContentObject getRegionAt(int x, int y) {
+		FrozenContentObject best = null;
+		for (int i=0; i<regions.length; i++)
+			best = findRegionAt(regions[i], x, y, best);
+		return best;
+	}
+	
+	private static FrozenContentObject findRegionAt(FrozenContentObject obj, int x, int y, FrozenContentObject best) {
+		if (!(obj.getType() instanceof RegionType))
+			return best;
+		if (obj.isPointInside(x, y) && (best == null || obj.getBoundingBoxArea() < best.getBoundingBoxArea()))
+			best = obj;
+		for (int i=0; i<obj.getChildCount(); i++)
+			best = findRegionAt(obj.getChild(i), x, y, best);
+		return best;
+	}
+	
+	/**
+	 * Returns the IDs of all regions in the reading order (depth-first traversal of the reading order groups)
+	 * @return Unmodifiable list (empty if there is no reading order)
+	 */
+	public List<String> getReadingOrder() {
+		return readingOrder;
+	}
+}
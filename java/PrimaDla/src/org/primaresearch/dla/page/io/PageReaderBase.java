@@ -21,6 +21,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.primaresearch.dla.page.io.archive.ArchiveInput;
 import org.primaresearch.dla.page.io.xml.PageErrorHandler;
 import org.primaresearch.io.xml.IOError;
 
@@ -29,13 +30,23 @@ public class PageReaderBase {
 	protected PageErrorHandler lastErrors;
 
 	protected InputStream getInputStream(InputSource source) {
+		return getInputStream(source, lastErrors);
+	}
+
+	/**
+	 * Opens a stream for the given source
+	 * @param source File or URL input
+	 * @param errorHandler Receives an error if the stream cannot be opened 
+	 * @return Input stream or <code>null</code>
+	 */
+	protected InputStream getInputStream(InputSource source, PageErrorHandler errorHandler) {
 		if (source instanceof FileInput) {
 			File f = ((FileInput)source).getFile();
 			try {
 				return new FileInputStream(f);
 			} catch (FileNotFoundException e) {
 				e.printStackTrace();
-				lastErrors.getErrors().add(new IOError("Could not open stream from file: "+e.getMessage()));
+				errorHandler.getErrors().add(new IOError("Could not open stream from file: "+e.getMessage()));
 			} 
 		} 
 		else if (source instanceof UrlInput) {
@@ -43,11 +54,19 @@ public class PageReaderBase {
 				return ((UrlInput)source).getUrl().openStream();
 			} catch (IOException e) {
 				e.printStackTrace();
-				lastErrors.getErrors().add(new IOError("Could not open stream from URL: "+e.getMessage()));
+				errorHandler.getErrors().add(new IOError("Could not open stream from URL: "+e.getMessage()));
+			}
+		}
+		else if (source instanceof ArchiveInput) {
+			try {
+				return ((ArchiveInput)source).openStream();
+			} catch (IOException e) {
+				e.printStackTrace();
+				errorHandler.getErrors().add(new IOError("Could not open stream from page archive: "+e.getMessage()));
 			}
 		}
 		else 
-			throw new IllegalArgumentException("Only FileInput and UrlInput allowed for XmlPageReader");
+			throw new IllegalArgumentException("Only FileInput, UrlInput and ArchiveInput allowed for XmlPageReader");
 		return null;
 	}
 }
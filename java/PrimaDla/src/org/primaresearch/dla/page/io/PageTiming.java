@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io;
+
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.layout.physical.ContentIterator;
+import org.primaresearch.dla.page.layout.physical.ContentObject;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextContainer;
+import org.primaresearch.io.timing.PhaseTiming;
+
+/**
+ * Helpers for reporting the phases of reading, writing and converting pages (see {@link PhaseTiming}).
+ * 
+ * @author Christian Clausner
+ *
+ */
+public final class PageTiming {
+
+	private PageTiming() {
+	}
+	
+	/**
+	 * Reports a completed phase with the number of content objects of the given page
+	 * (the objects are only counted if timing is enabled).
+	 * @param phase Phase ID (see constants in {@link PhaseTiming})
+	 * @param startTime Time returned by {@link PhaseTiming#start()}
+	 * @param bytes Number of bytes read or written (0 if not applicable)
+	 * @param page Processed page (can be <code>null</code>)
+	 */
+	public static void finish(int phase, long startTime, long bytes, Page page) {
+		if (startTime == PhaseTiming.OFF)
+			return;
+		long end = System.nanoTime();
+		PhaseTiming.report(phase, startTime, end - startTime, bytes, countContentObjects(page));
+	}
+	
+	/**
+	 * Returns the number of regions (including nested regions) and text objects (lines, words and glyphs) of the given page
+	 */
+	public static long countContentObjects(Page page) {
+		if (page == null || page.getLayout() == null)
+			return 0L;
+		long count = 0;
+		for (ContentIterator it = page.getLayout().iterator(null); it.hasNext(); ) {
+			ContentObject region = it.next();
+			count++;
+			if (region instanceof LowLevelTextContainer)
+				count += countTextObjects((LowLevelTextContainer)region);
+		}
+		return count;
+	}
+	
+	private static long countTextObjects(LowLevelTextContainer container) {
+		long count = container.getTextObjectCount();
+		for (int i=0; i<container.getTextObjectCount(); i++) {
+			if (container.getTextObject(i) instanceof LowLevelTextContainer)
+				count += countTextObjects((LowLevelTextContainer)container.getTextObject(i));
+		}
+		return count;
+	}
+}
@@ -27,7 +27,9 @@ import org.primaresearch.io.UnsupportedFormatVersionException;
 public interface PageWriter {
 
 	/**
-	 * Writes the given Page object to an output target.
+	 * Writes the given Page object to an output target.<br>
+	 * Writers that validate the output do not write invalid pages (existing target files 
+	 * stay unchanged and nothing is written to stream targets).
 	 *  
 	 * @return Returns true if written successfully, false otherwise.
 	 */
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.archive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.primaresearch.dla.page.io.InputSource;
+
+/**
+ * Input source for a single page document within a page archive.
+ * The document is read from a memory-mapped region of the archive file,
+ * so that only the bytes of the page are loaded.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class ArchiveInput implements InputSource {
+
+	private PageArchive archive;
+	private PageArchiveEntry entry;
+
+	/**
+	 * Constructor
+	 * @param archive Opened archive
+	 * @param entry Index entry of the page
+	 */
+	public ArchiveInput(PageArchive archive, PageArchiveEntry entry) {
+		this.archive = archive;
+		this.entry = entry;
+	}
+
+	public PageArchive getArchive() {
+		return archive;
+	}
+
+	public PageArchiveEntry getEntry() {
+		return entry;
+	}
+
+	/**
+	 * Maps the page document into memory.
+	 * @return Read-only buffer with the document
+	 * @throws IOException Archive closed or file not readable
+	 */
+	public ByteBuffer getData() throws IOException {
+		return archive.map(entry);
+	}
+
+	/**
+	 * Opens a stream for the page document.
+	 * @throws IOException Archive closed or file not readable
+	 */
+	public InputStream openStream() throws IOException {
+		return new ByteBufferInputStream(getData());
+	}
+
+	/**
+	 * Input stream reading from a byte buffer
+	 */
+	private static final class ByteBufferInputStream extends InputStream {
+
+		private ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() throws IOException {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return 0;
+			if (!buffer.hasRemaining())
+				return -1;
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+			return len;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			int count = (int)Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + count);
+			return count;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return buffer.remaining();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+import org.primaresearch.dla.page.io.xml.StreamTarget;
+
+/**
+ * Output target for a single page document within a page archive.
+ * Targets are created by {@link PageArchiveWriter#addPage(String, org.primaresearch.dla.page.Page, org.primaresearch.dla.page.io.PageWriter)}.
+ * The document is appended to the end of the archive file.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class ArchiveTarget extends StreamTarget {
+
+	private PageArchiveEntry entry;
+
+	/**
+	 * Constructor
+	 * @param file Archive file (positioned at the start of the new document)
+	 * @param entry Index entry of the new page
+	 */
+	ArchiveTarget(RandomAccessFile file, PageArchiveEntry entry) {
+		super(new BufferedOutputStream(new EntryOutputStream(file), 64 * 1024));
+		this.entry = entry;
+	}
+
+	/**
+	 * Returns the index entry of the page
+	 */
+	public PageArchiveEntry getEntry() {
+		return entry;
+	}
+
+	/**
+	 * Stream writing to the archive file (closing the stream does not close the file)
+	 */
+	private static final class EntryOutputStream extends OutputStream {
+
+		private RandomAccessFile file;
+
+		EntryOutputStream(RandomAccessFile file) {
+			this.file = file;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			file.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			file.write(b, off, len);
+		}
+	}
+}
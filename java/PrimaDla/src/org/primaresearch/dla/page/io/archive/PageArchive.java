@@ -0,0 +1,312 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.InputSource;
+import org.primaresearch.dla.page.io.binary.BinaryPageReader;
+import org.primaresearch.dla.page.io.xml.PageXmlInputOutput;
+import org.primaresearch.io.UnsupportedFormatVersionException;
+
+/**
+ * Single-file container for many page documents (e.g. all pages of a book or newspaper issue).<br>
+ * <br>
+ * Layout of an archive file:
+ * <ul>
+ * <li>Header (magic number 'P', 'G', 'A', 'R' and format version)</li>
+ * <li>Page documents (PAGE XML or binary snapshots), one after the other</li>
+ * <li>Index (page ID, image filename, type, offset and length of each document)</li>
+ * <li>Trailer (offset and length of the index, magic number)</li>
+ * </ul>
+ * Opening an archive only reads the index. Page documents are accessed via memory-mapped
+ * regions of the file (see {@link ArchiveInput}). Use {@link PageArchiveWriter} to create archives
+ * or to append pages.<br>
+ * <br>
+ * The archive can be used by multiple threads.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class PageArchive implements Closeable {
+
+	static final int MAGIC = 0x50474152; //'PGAR'
+	static final int FORMAT_VERSION = 1;
+	static final int HEADER_SIZE = 8;
+	static final int TRAILER_SIZE = 16;
+
+	private File file;
+	private FileChannel channel;
+	private List<PageArchiveEntry> entries;
+	private Map<String, PageArchiveEntry> entriesById;
+	private Map<String, PageArchiveEntry> entriesByImage;
+
+	/**
+	 * Opens an archive for reading
+	 * @param file Archive file
+	 * @throws IOException File not found or not a valid archive
+	 */
+	public PageArchive(File file) throws IOException {
+		this.file = file;
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			entries = Collections.unmodifiableList(readIndex(channel));
+		} catch (IOException exc) {
+			channel.close();
+			throw exc;
+		}
+		entriesById = new HashMap<String, PageArchiveEntry>();
+		entriesByImage = new HashMap<String, PageArchiveEntry>();
+		for (PageArchiveEntry entry : entries) {
+			entriesById.put(entry.getPageId(), entry);
+			if (entry.getImageFilename() != null)
+				entriesByImage.put(entry.getImageFilename(), entry);
+		}
+	}
+
+	/**
+	 * Returns the archive file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns all index entries (in the order the pages were added)
+	 */
+	public List<PageArchiveEntry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Returns the number of pages
+	 */
+	public int getSize() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the IDs of all pages (in the order the pages were added)
+	 */
+	public List<String> getPageIds() {
+		List<String> ids = new ArrayList<String>(entries.size());
+		for (PageArchiveEntry entry : entries)
+			ids.add(entry.getPageId());
+		return ids;
+	}
+
+	/**
+	 * Returns the index entry of the page with the given ID
+	 * @return Entry or <code>null</code>
+	 */
+	public PageArchiveEntry getEntry(String pageId) {
+		return entriesById.get(pageId);
+	}
+
+	/**
+	 * Returns the index entry of the page with the given image filename
+	 * @return Entry or <code>null</code>
+	 */
+	public PageArchiveEntry getEntryForImage(String imageFilename) {
+		return entriesByImage.get(imageFilename);
+	}
+
+	/**
+	 * Returns an input source for the page with the given ID
+	 * @return Input source or <code>null</code> if there is no such page
+	 */
+	public ArchiveInput getInput(String pageId) {
+		PageArchiveEntry entry = getEntry(pageId);
+		return entry != null ? new ArchiveInput(this, entry) : null;
+	}
+
+	/**
+	 * Returns input sources for all pages (in the order the pages were added),
+	 * analogous to {@link org.primaresearch.dla.page.io.xml.MetsMultiPageReader#readPageSources(InputSource)}.
+	 */
+	public List<InputSource> getPageSources() {
+		List<InputSource> sources = new ArrayList<InputSource>(entries.size());
+		for (PageArchiveEntry entry : entries)
+			sources.add(new ArchiveInput(this, entry));
+		return sources;
+	}
+
+	/**
+	 * Reads the page with the given ID (using the PAGE XML or binary reader, depending on the document type).
+	 * @return Page object or <code>null</code> if there is no such page or it could not be read
+	 */
+	public Page readPage(String pageId) throws UnsupportedFormatVersionException {
+		PageArchiveEntry entry = getEntry(pageId);
+		if (entry == null)
+			return null;
+		ArchiveInput input = new ArchiveInput(this, entry);
+		if (PageArchiveEntry.MIME_TYPE_BINARY.equals(entry.getMimeType()))
+			return new BinaryPageReader().read(input);
+		return PageXmlInputOutput.getReader().read(input);
+	}
+
+	/**
+	 * Maps the document of the given entry into memory
+	 */
+	ByteBuffer map(PageArchiveEntry entry) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, entry.getOffset(), entry.getLength());
+	}
+
+	/**
+	 * Closes the archive file. Input sources of the archive cannot be used anymore.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Reads the index of an archive file.<br>
+	 * If the archive has not been closed properly (e.g. the process died while pages were appended),
+	 * the last complete index in the file is used. 
+	 * @return Entries in the order of the index
+	 * @throws IOException Not a valid archive
+	 */
+	static List<PageArchiveEntry> readIndex(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size < HEADER_SIZE + TRAILER_SIZE)
+			throw new IOException("Not a page archive");
+
+		//Header
+		ByteBuffer header = read(channel, 0, HEADER_SIZE);
+		if (header.getInt() != MAGIC)
+			throw new IOException("Not a page archive");
+		int version = header.getInt();
+		if (version != FORMAT_VERSION)
+			throw new IOException("Unsupported page archive version: "+version);
+
+		//Trailer at the end of the file
+		List<PageArchiveEntry> entries = readIndex(channel, size);
+		if (entries != null)
+			return entries;
+		
+		//Search backwards for the last complete trailer (ends with the magic number)
+		final int chunkSize = 64 * 1024;
+		long chunkEnd = size - 1;
+		while (chunkEnd >= HEADER_SIZE + TRAILER_SIZE) {
+			long chunkStart = Math.max(HEADER_SIZE, chunkEnd - chunkSize);
+			ByteBuffer chunk = read(channel, chunkStart, (int)(Math.min(chunkEnd + 3, size) - chunkStart));
+			for (int i=chunk.limit()-4; i>=0; i--) {
+				long trailerEnd = chunkStart + i + 4;
+				if (chunk.getInt(i) == MAGIC && trailerEnd >= HEADER_SIZE + TRAILER_SIZE) {
+					entries = readIndex(channel, trailerEnd);
+					if (entries != null)
+						return entries;
+				}
+			}
+			chunkEnd = chunkStart;
+		}
+		throw new IOException("Page archive index not found");
+	}
+	
+	/**
+	 * Reads the index belonging to the trailer that ends at the given position
+	 * @return Entries or <code>null</code> if there is no valid trailer and index
+	 */
+	private static List<PageArchiveEntry> readIndex(FileChannel channel, long trailerEnd) throws IOException {
+		ByteBuffer trailer = read(channel, trailerEnd - TRAILER_SIZE, TRAILER_SIZE);
+		long indexOffset = trailer.getLong();
+		int indexLength = trailer.getInt();
+		if (trailer.getInt() != MAGIC || indexOffset < HEADER_SIZE || indexLength < 4 
+				|| indexOffset + indexLength != trailerEnd - TRAILER_SIZE)
+			return null;
+
+		//Index
+		ByteBuffer indexBuffer = read(channel, indexOffset, indexLength);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(indexBuffer.array()));
+		try {
+			int count = in.readInt();
+			if (count < 0)
+				return null;
+			List<PageArchiveEntry> entries = new ArrayList<PageArchiveEntry>(Math.min(count, indexLength / 20));
+			for (int i=0; i<count; i++) {
+				String pageId = in.readUTF();
+				String imageFilename = in.readBoolean() ? in.readUTF() : null;
+				String mimeType = in.readUTF();
+				long offset = in.readLong();
+				long length = in.readLong();
+				if (offset < HEADER_SIZE || length < 0 || offset + length > indexOffset)
+					return null;
+				entries.add(new PageArchiveEntry(pageId, imageFilename, mimeType, offset, length));
+			}
+			if (in.available() > 0)
+				return null;
+			return entries;
+		} catch (IOException exc) { //Malformed index
+			return null;
+		}
+	}
+
+	/**
+	 * Reads a part of the archive file (without mapping it)
+	 */
+	private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				throw new IOException("Unexpected end of page archive");
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Encodes the index and the trailer
+	 * @param entries Index entries
+	 * @param indexOffset Position of the index in the archive file
+	 * @return Index followed by trailer
+	 */
+	static byte[] encodeIndex(List<PageArchiveEntry> entries, long indexOffset) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * entries.size() + TRAILER_SIZE + 4);
+		DataOutputStream out = new DataOutputStream(buffer);
+		out.writeInt(entries.size());
+		for (PageArchiveEntry entry : entries) {
+			out.writeUTF(entry.getPageId());
+			out.writeBoolean(entry.getImageFilename() != null);
+			if (entry.getImageFilename() != null)
+				out.writeUTF(entry.getImageFilename());
+			out.writeUTF(entry.getMimeType());
+			out.writeLong(entry.getOffset());
+			out.writeLong(entry.getLength());
+		}
+		int indexLength = out.size();
+		out.writeLong(indexOffset);
+		out.writeInt(indexLength);
+		out.writeInt(MAGIC);
+		out.flush();
+		return buffer.toByteArray();
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.archive;
+
+/**
+ * Index entry of a page archive (location of one page document within the archive file).
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class PageArchiveEntry {
+
+	/** MIME type for PAGE XML documents */
+	public static final String MIME_TYPE_XML = "application/xml";
+	/** MIME type for binary page snapshots */
+	public static final String MIME_TYPE_BINARY = "application/octet-stream";
+
+	private String pageId;
+	private String imageFilename;
+	private String mimeType;
+	private long offset;
+	private long length;
+
+	/**
+	 * Constructor
+	 * @param pageId ID of the page within the archive
+	 * @param imageFilename Image filename of the page (can be <code>null</code>)
+	 * @param mimeType Type of the page document (e.g. MIME_TYPE_XML)
+	 * @param offset Start position of the document in the archive file
+	 * @param length Number of bytes of the document
+	 */
+	PageArchiveEntry(String pageId, String imageFilename, String mimeType, long offset, long length) {
+		this.pageId = pageId;
+		this.imageFilename = imageFilename;
+		this.mimeType = mimeType;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * Returns the ID of the page within the archive
+	 */
+	public String getPageId() {
+		return pageId;
+	}
+
+	/**
+	 * Returns the image filename of the page
+	 * @return Filename or <code>null</code>
+	 */
+	public String getImageFilename() {
+		return imageFilename;
+	}
+
+	/**
+	 * Returns the type of the page document (MIME_TYPE_XML or MIME_TYPE_BINARY)
+	 */
+	public String getMimeType() {
+		return mimeType;
+	}
+
+	/**
+	 * Returns the start position of the document in the archive file
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Returns the number of bytes of the document
+	 */
+	public long getLength() {
+		return length;
+	}
+	
+	void setLength(long length) {
+		this.length = length;
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.archive;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.PageWriter;
+import org.primaresearch.dla.page.io.binary.BinaryPageWriter;
+import org.primaresearch.io.UnsupportedFormatVersionException;
+
+/**
+ * Creates page archives or appends pages to existing archives (see {@link PageArchive}).<br>
+ * <br>
+ * New documents are written to the end of the archive file, behind the old index and trailer.
+ * A new index and trailer are written when the writer is closed. The documents and the index already
+ * in the archive are never overwritten and the file is never truncated. If appending is interrupted
+ * (e.g. the process dies before {@link #close()}), the archive can still be opened with the previous index
+ * (see {@link PageArchive}). The old indexes, replaced pages and documents of failed writes remain in the
+ * file as unused space. The writer is not thread-safe.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class PageArchiveWriter implements Closeable {
+
+	private RandomAccessFile file;
+	private List<PageArchiveEntry> entries;
+	private long endOfData;
+
+	/**
+	 * Opens the given archive for appending (creates a new archive if the file doesn't exist or is empty).
+	 * @param archiveFile Archive file
+	 * @throws IOException Not a valid archive or file not writable
+	 */
+	public PageArchiveWriter(File archiveFile) throws IOException {
+		file = new RandomAccessFile(archiveFile, "rw");
+		try {
+			if (file.length() == 0) { //New archive
+				entries = new ArrayList<PageArchiveEntry>();
+				file.writeInt(PageArchive.MAGIC);
+				file.writeInt(PageArchive.FORMAT_VERSION);
+				endOfData = PageArchive.HEADER_SIZE;
+			} else { //Existing archive
+				entries = PageArchive.readIndex(file.getChannel());
+				endOfData = file.length();
+			}
+		} catch (IOException exc) {
+			file.close();
+			throw exc;
+		}
+	}
+
+	/**
+	 * Returns the number of pages in the archive (including the pages that have been added)
+	 */
+	public int getSize() {
+		return entries.size();
+	}
+
+	/**
+	 * Writes the given page into the archive. A page with the same ID that is already in the archive is replaced.
+	 * @param pageId ID of the page within the archive
+	 * @param page Page object
+	 * @param writer Writer for the document format (e.g. PAGE XML writer or {@link BinaryPageWriter})
+	 * @return <code>true</code> if written successfully, <code>false</code> otherwise (e.g. validation error)
+	 * @throws IOException Error writing the archive
+	 */
+	public boolean addPage(String pageId, Page page, PageWriter writer) throws IOException, UnsupportedFormatVersionException {
+		if (pageId == null)
+			throw new IllegalArgumentException("Page ID required");
+		String mimeType = writer instanceof BinaryPageWriter ? PageArchiveEntry.MIME_TYPE_BINARY : PageArchiveEntry.MIME_TYPE_XML;
+		PageArchiveEntry entry = new PageArchiveEntry(pageId, page.getImageFilename(), mimeType, endOfData, 0);
+
+		file.seek(endOfData);
+		ArchiveTarget target = new ArchiveTarget(file, entry);
+		boolean success = false;
+		try {
+			success = writer.write(page, target);
+			target.getOutputStream().flush();
+		} finally {
+			if (success) {
+				entry.setLength(file.getFilePointer() - endOfData);
+				endOfData = file.getFilePointer();
+				for (int i=0; i<entries.size(); i++) {
+					if (entries.get(i).getPageId().equals(pageId)) {
+						entries.remove(i);
+						break;
+					}
+				}
+				entries.add(entry);
+			}
+			else //Skip partially written document (the file is not truncated)
+				endOfData = file.length();
+		}
+		return success;
+	}
+
+	/**
+	 * Writes the index and closes the archive file.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			file.seek(endOfData);
+			file.write(PageArchive.encodeIndex(entries, endOfData));
+		} finally {
+			file.close();
+		}
+	}
+}
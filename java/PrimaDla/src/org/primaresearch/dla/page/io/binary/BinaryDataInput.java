@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.binary;
+
+import java.io.IOException;
+
+/**
+ * Reads the primitive types of the binary page format from a byte array.
+ * 
+ * @author Christian Clausner
+ *
+ */
+class BinaryDataInput {
+
+	private final byte[] buffer;
+	private int position;
+	private int limit;
+
+	BinaryDataInput(byte[] buffer, int offset, int length) {
+		this.buffer = buffer;
+		this.position = offset;
+		this.limit = offset + length;
+	}
+
+	int getPosition() {
+		return position;
+	}
+
+	byte[] getBuffer() {
+		return buffer;
+	}
+
+	private void check(int count) throws IOException {
+		if (position + count > limit)
+			throw new IOException("Unexpected end of binary page data");
+	}
+
+	void skip(int count) throws IOException {
+		check(count);
+		position += count;
+	}
+
+	int readByte() throws IOException {
+		check(1);
+		return buffer[position++];
+	}
+
+	boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			check(1);
+			byte b = buffer[position++];
+			value |= (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+		}
+		throw new IOException("Malformed variable-length integer");
+	}
+
+	int readSignedVarInt() throws IOException {
+		int value = readVarInt();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	long readLong() throws IOException {
+		check(8);
+		long value = 0;
+		for (int i=0; i<8; i++)
+			value = (value << 8) | (buffer[position++] & 0xFF);
+		return value;
+	}
+
+	double readDouble() throws IOException {
+		return Double.longBitsToDouble(readLong());
+	}
+
+	String readUtf8() throws IOException {
+		int length = readVarInt();
+		check(length);
+		String str = new String(buffer, position, length, BinaryDataOutput.UTF8);
+		position += length;
+		return str;
+	}
+}
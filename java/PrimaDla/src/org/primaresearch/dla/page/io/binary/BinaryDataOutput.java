@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.binary;
+
+import java.nio.charset.Charset;
+
+/**
+ * Growable byte buffer with methods for writing the primitive types of the binary page format.
+ * 
+ * @author Christian Clausner
+ *
+ */
+class BinaryDataOutput {
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private byte[] buffer;
+	private int size = 0;
+
+	BinaryDataOutput(int initialCapacity) {
+		buffer = new byte[Math.max(16, initialCapacity)];
+	}
+
+	int size() {
+		return size;
+	}
+
+	byte[] getBuffer() {
+		return buffer;
+	}
+
+	private void ensureCapacity(int additional) {
+		if (size + additional > buffer.length) {
+			byte[] newBuffer = new byte[Math.max(buffer.length * 2, size + additional)];
+			System.arraycopy(buffer, 0, newBuffer, 0, size);
+			buffer = newBuffer;
+		}
+	}
+
+	void writeByte(int b) {
+		ensureCapacity(1);
+		buffer[size++] = (byte)b;
+	}
+
+	void writeBoolean(boolean b) {
+		writeByte(b ? 1 : 0);
+	}
+
+	void writeBytes(byte[] bytes, int offset, int length) {
+		ensureCapacity(length);
+		System.arraycopy(bytes, offset, buffer, size, length);
+		size += length;
+	}
+
+	/**
+	 * Writes a non-negative integer using 1 to 5 bytes (7 bits per byte)
+	 */
+	void writeVarInt(int value) {
+		ensureCapacity(5);
+		while ((value & ~0x7F) != 0) {
+			buffer[size++] = (byte)((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[size++] = (byte)value;
+	}
+
+	/**
+	 * Writes a signed integer (zigzag encoding, small absolute values use few bytes)
+	 */
+	void writeSignedVarInt(int value) {
+		writeVarInt((value << 1) ^ (value >> 31));
+	}
+
+	void writeLong(long value) {
+		ensureCapacity(8);
+		for (int i=7; i>=0; i--)
+			buffer[size++] = (byte)(value >>> (i * 8));
+	}
+
+	void writeDouble(double value) {
+		writeLong(Double.doubleToLongBits(value));
+	}
+
+	/**
+	 * Writes a string with length (UTF-8)
+	 */
+	void writeUtf8(String str) {
+		byte[] bytes = str.getBytes(UTF8);
+		writeVarInt(bytes.length);
+		writeBytes(bytes, 0, bytes.length);
+	}
+}
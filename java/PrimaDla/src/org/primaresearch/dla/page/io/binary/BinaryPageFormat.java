@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.binary;
+
+/**
+ * Constants of the binary page snapshot format.<br>
+ * <br>
+ * Layout of a snapshot:
+ * <ul>
+ * <li>Magic number 'P', 'G', 'B', 'S'</li>
+ * <li>Codec version (variable-length integer)</li>
+ * <li>Format version of the page (e.g. 2019-07-15)</li>
+ * <li>Section table (number of sections, then ID and byte length of each section)</li>
+ * <li>Section data (string dictionary first)</li>
+ * </ul>
+ * All strings (IDs, attribute names and values, text) are stored once in the dictionary
+ * and referenced by index. Polygon coordinates are delta-encoded.
+ * Sections can be skipped without decoding them (see {@link BinaryPageReader#read(org.primaresearch.dla.page.io.InputSource, int)}).
+ * 
+ * @author Christian Clausner
+ *
+ */
+public final class BinaryPageFormat {
+
+	/** Magic number at the start of each snapshot */
+	static final byte[] MAGIC = new byte[] { 'P', 'G', 'B', 'S' };
+
+	/** Current version of the codec (incremented with each incompatible change of the format) */
+	public static final int CODEC_VERSION = 1;
+
+	/** Section with string dictionary (always read) */
+	static final int SECTION_STRINGS = 0;
+	/** Section with metadata (creator, comments, metadata items, ...) */
+	public static final int SECTION_METADATA = 1;
+	/** Section with page properties (ID, image, size, attributes, border, print space, ...) */
+	public static final int SECTION_PAGE = 1 << 1;
+	/** Section with regions and their text objects */
+	public static final int SECTION_REGIONS = 1 << 2;
+	/** Section with the reading order */
+	public static final int SECTION_READING_ORDER = 1 << 3;
+	/** Section with layers */
+	public static final int SECTION_LAYERS = 1 << 4;
+	/** Section with relations between content objects (requires regions) */
+	public static final int SECTION_RELATIONS = 1 << 5;
+	/** All sections */
+	public static final int SECTION_ALL = SECTION_METADATA | SECTION_PAGE | SECTION_REGIONS 
+										| SECTION_READING_ORDER | SECTION_LAYERS | SECTION_RELATIONS;
+
+	/** Value types */
+	static final byte VALUE_NULL = 0;
+	static final byte VALUE_INTEGER = 1;
+	static final byte VALUE_DOUBLE = 2;
+	static final byte VALUE_BOOLEAN = 3;
+	static final byte VALUE_STRING = 4;
+
+	/** Types of group members */
+	static final byte MEMBER_REGION_REF = 0;
+	static final byte MEMBER_GROUP = 1;
+
+	/** Types of grapheme elements */
+	static final byte GRAPHEME = 0;
+	static final byte GRAPHEME_GROUP = 1;
+	static final byte NON_PRINTING_CHARACTER = 2;
+
+	private BinaryPageFormat() {
+	}
+}
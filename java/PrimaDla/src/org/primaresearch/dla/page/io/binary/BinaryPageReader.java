@@ -0,0 +1,736 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.primaresearch.dla.page.AlternativeImage;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.InputSource;
+import org.primaresearch.dla.page.io.PageReader;
+import org.primaresearch.dla.page.io.PageReaderBase;
+import org.primaresearch.dla.page.io.xml.PageErrorHandler;
+import org.primaresearch.dla.page.io.xml.PageXmlInputOutput;
+import org.primaresearch.dla.page.layout.GeometricObjectImpl;
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.logical.ContentObjectRelation;
+import org.primaresearch.dla.page.layout.logical.ContentObjectRelation.RelationType;
+import org.primaresearch.dla.page.layout.logical.Group;
+import org.primaresearch.dla.page.layout.logical.Layer;
+import org.primaresearch.dla.page.layout.logical.Layers;
+import org.primaresearch.dla.page.layout.logical.ReadingOrder;
+import org.primaresearch.dla.page.layout.logical.Relations;
+import org.primaresearch.dla.page.layout.physical.ContentObject;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.RegionContainer;
+import org.primaresearch.dla.page.layout.physical.impl.TableGrid;
+import org.primaresearch.dla.page.layout.physical.impl.TableGrid.TableGridRow;
+import org.primaresearch.dla.page.layout.physical.impl.TableRegion;
+import org.primaresearch.dla.page.layout.physical.role.RegionRole;
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.shared.RoleType;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
+import org.primaresearch.dla.page.layout.physical.text.TextContent;
+import org.primaresearch.dla.page.layout.physical.text.TextContentVariants;
+import org.primaresearch.dla.page.layout.physical.text.graphemes.Grapheme;
+import org.primaresearch.dla.page.layout.physical.text.graphemes.GraphemeElement;
+import org.primaresearch.dla.page.layout.physical.text.graphemes.GraphemeGroup;
+import org.primaresearch.dla.page.layout.physical.text.impl.Glyph;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
+import org.primaresearch.dla.page.layout.physical.text.impl.Word;
+import org.primaresearch.dla.page.metadata.MetaData;
+import org.primaresearch.dla.page.metadata.MetadataItem;
+import org.primaresearch.ident.Identifiable;
+import org.primaresearch.io.UnsupportedFormatVersionException;
+import org.primaresearch.io.xml.IOError;
+import org.primaresearch.io.xml.XmlFormatVersion;
+import org.primaresearch.labels.HasLabels;
+import org.primaresearch.labels.LabelGroup;
+import org.primaresearch.labels.LabelImpl;
+import org.primaresearch.labels.Labels;
+import org.primaresearch.maths.geometry.Polygon;
+import org.primaresearch.shared.variable.BooleanValue;
+import org.primaresearch.shared.variable.BooleanVariable;
+import org.primaresearch.shared.variable.DoubleValue;
+import org.primaresearch.shared.variable.DoubleVariable;
+import org.primaresearch.shared.variable.IntegerValue;
+import org.primaresearch.shared.variable.IntegerVariable;
+import org.primaresearch.shared.variable.StringValue;
+import org.primaresearch.shared.variable.StringVariable;
+import org.primaresearch.shared.variable.Variable;
+import org.primaresearch.shared.variable.Variable.WrongVariableTypeException;
+import org.primaresearch.shared.variable.VariableMap;
+import org.primaresearch.shared.variable.VariableValue;
+
+/**
+ * Reads page snapshots that have been written by {@link BinaryPageWriter}.<br>
+ * <br>
+ * Strings are decoded on first use and sections that are not requested are skipped
+ * without decoding them. The reader is not thread-safe (use one reader per thread).
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class BinaryPageReader extends PageReaderBase implements PageReader {
+
+	private static final Map<String, RegionType> standardRegionTypes = new HashMap<String, RegionType>();
+	static {
+		RegionType[] types = new RegionType[] {	RegionType.TextRegion, RegionType.ImageRegion, RegionType.GraphicRegion,
+												RegionType.LineDrawingRegion, RegionType.ChartRegion, RegionType.TableRegion,
+												RegionType.MathsRegion, RegionType.SeparatorRegion, RegionType.AdvertRegion,
+												RegionType.ChemRegion, RegionType.MusicRegion, RegionType.MapRegion,
+												RegionType.NoiseRegion, RegionType.UnknownRegion, RegionType.CustomRegion };
+		for (RegionType type : types)
+			standardRegionTypes.put(type.getName(), type);
+	}
+
+	private PageErrorHandler lastWarnings;
+
+	//Decoding state (per read)
+	private byte[] data;
+	private int[] stringOffsets;
+	private String[] strings;
+	private Page page;
+	private PageLayout layout;
+	private boolean[] assignedAttributes = new boolean[64];
+
+	/**
+	 * Constructor
+	 */
+	public BinaryPageReader() {
+		lastErrors = new PageErrorHandler();
+		lastWarnings = new PageErrorHandler();
+	}
+
+	/**
+	 * Reads the complete snapshot.
+	 * @param source FileInput or UrlInput
+	 * @return Page object or <code>null</code> if the snapshot could not be read (see {@link #getErrors()}).
+	 */
+	@Override
+	public Page read(InputSource source) throws UnsupportedFormatVersionException {
+		return read(source, BinaryPageFormat.SECTION_ALL);
+	}
+
+	/**
+	 * Reads the selected sections of a snapshot.
+	 * @param source FileInput or UrlInput
+	 * @param sections Combination of section flags (e.g. <code>BinaryPageFormat.SECTION_PAGE | BinaryPageFormat.SECTION_REGIONS</code>).
+	 * 				Relations are only read together with the regions.
+	 * @return Page object or <code>null</code> if the snapshot could not be read (see {@link #getErrors()}).
+	 * @throws UnsupportedFormatVersionException Snapshot written with an unknown codec version or page format
+	 */
+	public Page read(InputSource source, int sections) throws UnsupportedFormatVersionException {
+		lastErrors = new PageErrorHandler();
+		lastWarnings = new PageErrorHandler();
+		InputStream inputStream = getInputStream(source);
+		if (inputStream == null)
+			return null;
+		try {
+			return decode(readFully(inputStream), sections);
+		} catch (IOException e) {
+			e.printStackTrace();
+			lastErrors.getErrors().add(new IOError("Could not read page snapshot: "+e.getMessage()));
+		} finally {
+			try {
+				inputStream.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Decodes the selected sections of the given snapshot data.
+	 * @param data Complete snapshot
+	 * @param sections Combination of section flags (see {@link BinaryPageFormat})
+	 * @return Page object
+	 * @throws IOException Corrupt data
+	 * @throws UnsupportedFormatVersionException Snapshot written with an unknown codec version or page format
+	 */
+	public Page decode(byte[] data, int sections) throws IOException, UnsupportedFormatVersionException {
+		try {
+			this.data = data;
+			BinaryDataInput in = new BinaryDataInput(data, 0, data.length);
+
+			//Header
+			for (int i=0; i<BinaryPageFormat.MAGIC.length; i++)
+				if (in.readByte() != BinaryPageFormat.MAGIC[i])
+					throw new IOException("Not a page snapshot");
+			int codecVersion = in.readVarInt();
+			if (codecVersion != BinaryPageFormat.CODEC_VERSION)
+				throw new UnsupportedFormatVersionException("Unsupported snapshot codec version: "+codecVersion);
+			String formatVersion = in.readUtf8();
+
+			//Section table
+			int sectionCount = in.readVarInt();
+			int[] ids = new int[sectionCount];
+			int[] lengths = new int[sectionCount];
+			for (int i=0; i<sectionCount; i++) {
+				ids[i] = in.readVarInt();
+				lengths[i] = in.readVarInt();
+			}
+
+			//Page
+			page = createPage(formatVersion);
+			layout = page.getLayout();
+
+			if ((sections & BinaryPageFormat.SECTION_REGIONS) == 0)
+				sections &= ~BinaryPageFormat.SECTION_RELATIONS;
+
+			int offset = in.getPosition();
+			for (int i=0; i<sectionCount; i++) {
+				if (ids[i] == BinaryPageFormat.SECTION_STRINGS || (ids[i] & sections) != 0)
+					decodeSection(ids[i], new BinaryDataInput(data, offset, lengths[i]));
+				else if ((ids[i] & BinaryPageFormat.SECTION_ALL) == 0) //Section of a newer codec
+					lastWarnings.getWarnings().add(new IOError("Unknown snapshot section skipped: "+ids[i]));
+				offset += lengths[i];
+			}
+			return page;
+		} finally {
+			this.data = null;
+			stringOffsets = null;
+			strings = null;
+			page = null;
+			layout = null;
+		}
+	}
+
+	/**
+	 * Returns errors of the last read operation
+	 */
+	public PageErrorHandler getErrors() {
+		return lastErrors;
+	}
+
+	/**
+	 * Returns warnings of the last read operation (e.g. skipped unknown sections; see {@link PageErrorHandler#getWarnings()})
+	 */
+	public PageErrorHandler getWarnings() {
+		return lastWarnings;
+	}
+
+	private static byte[] readFully(InputStream inputStream) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+		byte[] buffer = new byte[16 * 1024];
+		int count;
+		while ((count = inputStream.read(buffer)) > 0)
+			out.write(buffer, 0, count);
+		return out.toByteArray();
+	}
+
+	private static Page createPage(String formatVersion) throws UnsupportedFormatVersionException {
+		if (formatVersion.isEmpty())
+			return new Page();
+		org.primaresearch.io.xml.SchemaModelParser model = null;
+		try {
+			model = PageXmlInputOutput.getSchemaModel(new XmlFormatVersion(formatVersion));
+		} catch (Exception exc) {
+			exc.printStackTrace();
+		}
+		if (model == null)
+			throw new UnsupportedFormatVersionException("Unsupported page format version: "+formatVersion);
+		return new Page(model);
+	}
+
+	private void decodeSection(int id, BinaryDataInput in) throws IOException {
+		switch (id) {
+			case BinaryPageFormat.SECTION_STRINGS:
+				decodeStrings(in);
+				break;
+			case BinaryPageFormat.SECTION_METADATA:
+				readMetaData(in, page.getMetaData());
+				break;
+			case BinaryPageFormat.SECTION_PAGE:
+				readPage(in);
+				break;
+			case BinaryPageFormat.SECTION_REGIONS:
+				int count = in.readVarInt();
+				for (int i=0; i<count; i++)
+					readRegion(in, null);
+				break;
+			case BinaryPageFormat.SECTION_READING_ORDER:
+				readReadingOrder(in);
+				break;
+			case BinaryPageFormat.SECTION_LAYERS:
+				readLayers(in);
+				break;
+			case BinaryPageFormat.SECTION_RELATIONS:
+				readRelations(in);
+				break;
+			default: //Unknown section (ignore)
+		}
+	}
+
+	/**
+	 * Indexes the string dictionary (the strings are decoded when needed)
+	 */
+	private void decodeStrings(BinaryDataInput in) throws IOException {
+		int count = in.readVarInt();
+		stringOffsets = new int[count + 1];
+		strings = new String[count + 1];
+		for (int i=1; i<=count; i++) {
+			stringOffsets[i] = in.getPosition();
+			int length = in.readVarInt();
+			in.skip(length);
+		}
+	}
+
+	private String readString(BinaryDataInput in) throws IOException {
+		int index = in.readVarInt();
+		if (index == 0)
+			return null;
+		if (strings == null || index >= strings.length)
+			throw new IOException("Invalid string reference: "+index);
+		String str = strings[index];
+		if (str == null) {
+			BinaryDataInput stringInput = new BinaryDataInput(data, stringOffsets[index], data.length - stringOffsets[index]);
+			str = stringInput.readUtf8();
+			strings[index] = str;
+		}
+		return str;
+	}
+
+	private static Double readNullableDouble(BinaryDataInput in) throws IOException {
+		if (!in.readBoolean())
+			return null;
+		return in.readDouble();
+	}
+
+	private static Polygon readPolygon(BinaryDataInput in) throws IOException {
+		int size = in.readVarInt() - 1;
+		if (size < 0)
+			return null;
+		int[] points = new int[size * 2];
+		int x = 0, y = 0;
+		for (int i=0; i<size; i++) {
+			x += in.readSignedVarInt();
+			y += in.readSignedVarInt();
+			points[i*2] = x;
+			points[i*2+1] = y;
+		}
+		Polygon polygon = new Polygon(points, 0, size);
+		polygon.setConfidence(readNullableDouble(in));
+		return polygon;
+	}
+
+	private VariableValue readValue(BinaryDataInput in) throws IOException {
+		int type = in.readByte();
+		switch (type) {
+			case BinaryPageFormat.VALUE_NULL:
+				return null;
+			case BinaryPageFormat.VALUE_INTEGER:
+				return new IntegerValue(in.readSignedVarInt());
+			case BinaryPageFormat.VALUE_DOUBLE:
+				return new DoubleValue(in.readDouble());
+			case BinaryPageFormat.VALUE_BOOLEAN:
+				return new BooleanValue(in.readBoolean());
+			case BinaryPageFormat.VALUE_STRING:
+				return new StringValue(readString(in));
+			default:
+				throw new IOException("Invalid value type: "+type);
+		}
+	}
+
+	/**
+	 * Reads attribute values into the given map. Variables that have no value in the snapshot
+	 * are cleared (the map may contain default values).
+	 */
+	private void readAttributes(BinaryDataInput in, VariableMap attributes) throws IOException {
+		int count = in.readVarInt();
+		int size = attributes != null ? attributes.getSize() : 0;
+		if (assignedAttributes.length < size)
+			assignedAttributes = new boolean[size];
+		for (int i=0; i<size; i++)
+			assignedAttributes[i] = false;
+
+		for (int i=0; i<count; i++) {
+			String name = readString(in);
+			VariableValue value = readValue(in);
+			int index = attributes != null ? attributes.indexOf(name) : -1;
+			if (index < 0)
+				continue;
+			assignedAttributes[index] = true;
+			try {
+				attributes.setValue(index, value);
+			} catch (WrongVariableTypeException e) {
+				attributes.parseValue(index, value.toString());
+			}
+		}
+
+		//Remove default values
+		for (int i=0; i<size; i++) {
+			if (!assignedAttributes[i] && attributes.getValue(i) != null) {
+				try {
+					attributes.setValue(i, null);
+				} catch (WrongVariableTypeException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads user-defined attributes
+	 * @return Map with attributes or <code>null</code>
+	 */
+	private VariableMap readUserDefinedAttributes(BinaryDataInput in) throws IOException {
+		int count = in.readVarInt() - 1;
+		if (count < 0)
+			return null;
+		VariableMap attributes = new VariableMap();
+		for (int i=0; i<count; i++) {
+			int type = in.readByte();
+			String name = readString(in);
+			String description = readString(in);
+			VariableValue value = readValue(in);
+			Variable v;
+			try {
+				if (type == BinaryPageFormat.VALUE_INTEGER)
+					v = new IntegerVariable(name, (IntegerValue)value);
+				else if (type == BinaryPageFormat.VALUE_DOUBLE)
+					v = new DoubleVariable(name, (DoubleValue)value);
+				else if (type == BinaryPageFormat.VALUE_BOOLEAN)
+					v = new BooleanVariable(name, (BooleanValue)value);
+				else
+					v = new StringVariable(name, (StringValue)value);
+			} catch (ClassCastException e) {
+				throw new IOException("Invalid user-defined attribute: "+name);
+			}
+			if (description != null)
+				v.setDescription(description);
+			attributes.add(v);
+		}
+		return attributes;
+	}
+
+	private void readLabels(BinaryDataInput in, HasLabels obj) throws IOException {
+		int groupCount = in.readVarInt() - 1;
+		if (groupCount < 0)
+			return;
+		Labels labels = new Labels();
+		for (int i=0; i<groupCount; i++) {
+			LabelGroup group = new LabelGroup(readString(in));
+			group.setExternalId(readString(in));
+			group.setPrefix(readString(in));
+			group.setComments(readString(in));
+			labels.addGroup(group);
+			int labelCount = in.readVarInt();
+			for (int j=0; j<labelCount; j++) {
+				String value = readString(in);
+				String type = readString(in);
+				String comments = readString(in);
+				String externalModel = readString(in);
+				LabelImpl label = new LabelImpl(value, externalModel);
+				label.setType(type);
+				label.setComments(comments);
+				group.addLabel(label);
+			}
+		}
+		obj.setLabels(labels);
+	}
+
+	private void readAlternativeImages(BinaryDataInput in, java.util.List<AlternativeImage> images) throws IOException {
+		int count = in.readVarInt();
+		for (int i=0; i<count; i++) {
+			AlternativeImage img = new AlternativeImage(readString(in));
+			img.setComments(readString(in));
+			img.setConfidence(readNullableDouble(in));
+			images.add(img);
+		}
+	}
+
+	private void readTextContent(BinaryDataInput in, TextContentVariants textObj) throws IOException {
+		int count = in.readVarInt();
+		for (int i=0; i<count; i++) {
+			TextContent content = i < textObj.getTextContentVariantCount() 
+									? textObj.getTextContentVariant(i) 
+									: textObj.addTextContentVariant();
+			content.setText(readString(in));
+			content.setPlainText(readString(in));
+			readAttributes(in, content.getAttributes());
+		}
+	}
+
+	private void readMetaData(BinaryDataInput in, MetaData metaData) throws IOException {
+		if (!in.readBoolean())
+			return;
+		metaData.setCreator(readString(in));
+		metaData.setComments(readString(in));
+		metaData.setExternalRef(readString(in));
+		if (in.readBoolean())
+			metaData.setCreationTime(new Date(in.readLong()));
+		if (in.readBoolean())
+			metaData.setLastModifiedTime(new Date(in.readLong()));
+		VariableMap userDefined = readUserDefinedAttributes(in);
+		if (userDefined != null)
+			metaData.setUserDefinedAttributes(userDefined);
+
+		int itemCount = in.readVarInt();
+		for (int i=0; i<itemCount; i++) {
+			MetadataItem item = metaData.addMetadataItem();
+			readAttributes(in, item.getAttributes());
+			readLabels(in, item);
+		}
+	}
+
+	private void readPage(BinaryDataInput in) throws IOException {
+		String gtsId = readString(in);
+		if (gtsId != null) {
+			try {
+				page.setGtsId(gtsId);
+			} catch (Exception e) {
+				throw new IOException("Invalid ID: "+gtsId);
+			}
+		}
+		page.setImageFilename(readString(in));
+		int width = in.readVarInt();
+		int height = in.readVarInt();
+		layout.setSize(width, height);
+		readAttributes(in, page.getAttributes());
+		readAlternativeImages(in, page.getAlternativeImages());
+		VariableMap userDefined = readUserDefinedAttributes(in);
+		if (userDefined != null)
+			page.setUserDefinedAttributes(userDefined);
+		readLabels(in, page);
+		if (in.readBoolean())
+			layout.setBorder(new GeometricObjectImpl(readPolygon(in)));
+		if (in.readBoolean())
+			layout.setPrintSpace(new GeometricObjectImpl(readPolygon(in)));
+	}
+
+	private void readRegion(BinaryDataInput in, RegionContainer parent) throws IOException {
+		String typeName = readString(in);
+		RegionType type = standardRegionTypes.get(typeName);
+		if (type == null)
+			type = RegionType.getGenericType(typeName);
+		Region region = layout.createRegion(type, readString(in), parent);
+
+		readAttributes(in, region.getAttributes());
+		readAlternativeImages(in, region.getAlternativeImages());
+		region.setCoords(readPolygon(in));
+		VariableMap userDefined = readUserDefinedAttributes(in);
+		if (userDefined != null)
+			region.setUserDefinedAttributes(userDefined);
+		readLabels(in, region);
+
+		//Roles
+		if (in.readBoolean()) {
+			RegionRole role = region.addRole(RoleType.TableCellRole);
+			readAttributes(in, role != null ? role.getAttributes() : null);
+		}
+
+		//Table grid
+		if (region instanceof TableRegion) {
+			int rowCount = in.readVarInt() - 1;
+			if (rowCount >= 0) {
+				TableGrid grid = new TableGrid();
+				for (int i=0; i<rowCount; i++) {
+					TableGridRow row = new TableGridRow();
+					row.setCoords(readPolygon(in));
+					grid.getRows().add(row);
+				}
+				((TableRegion)region).setGrid(grid);
+			}
+		}
+
+		//Nested regions
+		int nestedCount = in.readVarInt();
+		for (int i=0; i<nestedCount; i++)
+			readRegion(in, (RegionContainer)region);
+
+		//Text
+		if (region instanceof TextRegion) {
+			TextRegion textRegion = (TextRegion)region;
+			readTextContent(in, textRegion);
+			int lineCount = in.readVarInt();
+			for (int i=0; i<lineCount; i++) {
+				TextLine line = textRegion.createTextLine(readString(in));
+				readTextObject(in, line);
+				int wordCount = in.readVarInt();
+				for (int j=0; j<wordCount; j++) {
+					Word word = line.createWord(readString(in));
+					readTextObject(in, word);
+					int glyphCount = in.readVarInt();
+					for (int k=0; k<glyphCount; k++) {
+						Glyph glyph = word.createGlyph(readString(in));
+						readTextObject(in, glyph);
+						int graphemeCount = in.readVarInt();
+						for (int g=0; g<graphemeCount; g++)
+							readGraphemeElement(in, glyph, null);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the content of a text line, word or glyph (everything except ID and child objects)
+	 */
+	private void readTextObject(BinaryDataInput in, LowLevelTextObject obj) throws IOException {
+		readAttributes(in, obj.getAttributes());
+		readAlternativeImages(in, obj.getAlternativeImages());
+		obj.setCoords(readPolygon(in));
+		if (obj instanceof TextLine)
+			((TextLine)obj).setBaseline(readPolygon(in));
+		VariableMap userDefined = readUserDefinedAttributes(in);
+		if (userDefined != null)
+			obj.setUserDefinedAttributes(userDefined);
+		readLabels(in, obj);
+		readTextContent(in, obj);
+	}
+
+	private void readGraphemeElement(BinaryDataInput in, Glyph glyph, GraphemeGroup group) throws IOException {
+		int kind = in.readByte();
+		LowLevelTextType type;
+		if (kind == BinaryPageFormat.GRAPHEME_GROUP)
+			type = LowLevelTextType.GraphemeGroup;
+		else if (kind == BinaryPageFormat.GRAPHEME)
+			type = LowLevelTextType.Grapheme;
+		else
+			type = LowLevelTextType.NonPrintingCharacter;
+		GraphemeElement element = glyph.createGraphemeElement(readString(in), type, group);
+		readAttributes(in, element.getAttributes());
+		readTextContent(in, element);
+		if (element instanceof Grapheme) {
+			((Grapheme)element).setCoords(readPolygon(in));
+			readLabels(in, (Grapheme)element);
+		}
+		if (element instanceof GraphemeGroup) {
+			int memberCount = in.readVarInt();
+			for (int i=0; i<memberCount; i++)
+				readGraphemeElement(in, glyph, (GraphemeGroup)element);
+		}
+	}
+
+	private void readReadingOrder(BinaryDataInput in) throws IOException {
+		if (!in.readBoolean())
+			return;
+		ReadingOrder readingOrder = layout.createReadingOrder();
+		readingOrder.setConfidence(readNullableDouble(in));
+		readGroup(in, readingOrder.getRoot());
+	}
+
+	private void readGroup(BinaryDataInput in, Group group) throws IOException {
+		String id = readString(in);
+		if (id != null)
+			setId(group, id);
+		String regionRef = readString(in);
+		if (regionRef != null)
+			group.setRegionRef(regionRef);
+		group.setOrdered(in.readBoolean());
+		readAttributes(in, group.getAttributes());
+		VariableMap userDefined = readUserDefinedAttributes(in);
+		if (userDefined != null)
+			group.setUserDefinedAttributes(userDefined);
+		readLabels(in, group);
+		readGroupMembers(in, group);
+	}
+
+	private void readGroupMembers(BinaryDataInput in, Group group) throws IOException {
+		int count = in.readVarInt();
+		for (int i=0; i<count; i++) {
+			if (in.readByte() == BinaryPageFormat.MEMBER_GROUP) {
+				Group child;
+				try {
+					child = group.createChildGroup();
+				} catch (Exception e) {
+					throw new IOException("Could not create group: "+e.getMessage());
+				}
+				readGroup(in, child);
+			}
+			else
+				group.addRegionRef(readString(in));
+		}
+	}
+
+	private void readLayers(BinaryDataInput in) throws IOException {
+		int count = in.readVarInt() - 1;
+		if (count < 0)
+			return;
+		Layers layers = layout.createLayers();
+		for (int i=0; i<count; i++) {
+			Layer layer = layers.createLayer();
+			String id = readString(in);
+			if (id != null)
+				setId(layer, id);
+			layer.setZIndex(in.readSignedVarInt());
+			readAttributes(in, layer.getAttributes());
+			readGroupMembers(in, layer);
+		}
+	}
+
+	private void readRelations(BinaryDataInput in) throws IOException {
+		int count = in.readVarInt();
+		Relations relations = layout.getRelations();
+		for (int i=0; i<count; i++) {
+			String id = readString(in);
+			String typeName = readString(in);
+			String custom = readString(in);
+			String comments = readString(in);
+			TempLabels labels = new TempLabels();
+			readLabels(in, labels);
+			ContentObject obj1 = layout.getObject(readString(in));
+			ContentObject obj2 = layout.getObject(readString(in));
+
+			RelationType type = null;
+			if ("link".equals(typeName))
+				type = RelationType.Link;
+			else if ("join".equals(typeName))
+				type = RelationType.Join;
+
+			if (relations != null && obj1 != null && obj2 != null) {
+				ContentObjectRelation relation = relations.addRelation(obj1, obj2, type, id);
+				relation.setCustomField(custom);
+				relation.setComments(comments);
+				relation.setLabels(labels.labels);
+			}
+		}
+	}
+
+	private static void setId(Identifiable obj, String id) throws IOException {
+		try {
+			obj.setId(id);
+		} catch (Exception e) {
+			throw new IOException("Invalid ID: "+id);
+		}
+	}
+
+	/**
+	 * Holds labels until the relation they belong to is created
+	 */
+	private static final class TempLabels implements HasLabels {
+		Labels labels;
+
+		@Override
+		public Labels getLabels() {
+			return labels;
+		}
+
+		@Override
+		public void setLabels(Labels labels) {
+			this.labels = labels;
+		}
+	}
+}
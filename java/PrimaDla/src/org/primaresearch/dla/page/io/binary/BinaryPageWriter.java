@@ -0,0 +1,600 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.primaresearch.dla.page.AlternativeImage;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.FileTarget;
+import org.primaresearch.dla.page.io.OutputTarget;
+import org.primaresearch.dla.page.io.PageWriter;
+import org.primaresearch.dla.page.io.xml.StreamTarget;
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.logical.ContentObjectRelation;
+import org.primaresearch.dla.page.layout.logical.Group;
+import org.primaresearch.dla.page.layout.logical.GroupMember;
+import org.primaresearch.dla.page.layout.logical.Layer;
+import org.primaresearch.dla.page.layout.logical.Layers;
+import org.primaresearch.dla.page.layout.logical.ReadingOrder;
+import org.primaresearch.dla.page.layout.logical.RegionRef;
+import org.primaresearch.dla.page.layout.logical.Relations;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.RegionContainer;
+import org.primaresearch.dla.page.layout.physical.impl.TableGrid;
+import org.primaresearch.dla.page.layout.physical.impl.TableGrid.TableGridRow;
+import org.primaresearch.dla.page.layout.physical.impl.TableRegion;
+import org.primaresearch.dla.page.layout.physical.role.RegionRole;
+import org.primaresearch.dla.page.layout.physical.shared.RoleType;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextContainer;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
+import org.primaresearch.dla.page.layout.physical.text.TextContentVariants;
+import org.primaresearch.dla.page.layout.physical.text.graphemes.Grapheme;
+import org.primaresearch.dla.page.layout.physical.text.graphemes.GraphemeElement;
+import org.primaresearch.dla.page.layout.physical.text.graphemes.GraphemeGroup;
+import org.primaresearch.dla.page.layout.physical.text.impl.Glyph;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.shared.GeometricObject;
+import org.primaresearch.dla.page.metadata.MetaData;
+import org.primaresearch.dla.page.metadata.MetadataItem;
+import org.primaresearch.io.UnsupportedFormatVersionException;
+import org.primaresearch.labels.HasLabels;
+import org.primaresearch.labels.Label;
+import org.primaresearch.labels.LabelGroup;
+import org.primaresearch.labels.Labels;
+import org.primaresearch.maths.geometry.Polygon;
+import org.primaresearch.shared.variable.BooleanValue;
+import org.primaresearch.shared.variable.BooleanVariable;
+import org.primaresearch.shared.variable.DoubleValue;
+import org.primaresearch.shared.variable.DoubleVariable;
+import org.primaresearch.shared.variable.IntegerValue;
+import org.primaresearch.shared.variable.IntegerVariable;
+import org.primaresearch.shared.variable.Variable;
+import org.primaresearch.shared.variable.VariableMap;
+import org.primaresearch.shared.variable.VariableValue;
+
+/**
+ * Writes page objects as compact binary snapshots (see {@link BinaryPageFormat}).<br>
+ * <br>
+ * The snapshot contains the complete page model (metadata, layout, text content variants,
+ * reading order, layers, relations, labels, user-defined attributes). It is intended as
+ * local cache format and can be read back with {@link BinaryPageReader} much faster than PAGE XML.
+ * Writing a page that has been read from a snapshot to XML gives the same output as writing the original page.<br>
+ * <br>
+ * The writer is not thread-safe (use one writer per thread).
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class BinaryPageWriter implements PageWriter {
+
+	private Map<String, Integer> stringIndexes = new HashMap<String, Integer>();
+	private List<String> strings = new ArrayList<String>();
+
+	/**
+	 * Writes the given Page object to a file or stream.
+	 * @param page Page object
+	 * @param target FileTarget or StreamTarget (a stream is not closed)
+	 * @return Returns true if written successfully, false otherwise.
+	 */
+	@Override
+	public boolean write(Page page, OutputTarget target) throws UnsupportedFormatVersionException {
+		OutputStream os = null;
+		boolean closeStream = false;
+		try {
+			byte[] data = encode(page);
+			if (target instanceof FileTarget) {
+				File file = ((FileTarget)target).getFile();
+				os = new BufferedOutputStream(new FileOutputStream(file));
+				closeStream = true;
+			}
+			else if (target instanceof StreamTarget)
+				os = ((StreamTarget)target).getOutputStream();
+			else
+				throw new IllegalArgumentException("Unsupported output target");
+			os.write(data);
+			os.flush();
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			if (closeStream && os != null) {
+				try {
+					os.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * There is no schema for the binary format (always returns <code>true</code>).
+	 */
+	@Override
+	public boolean validate(Page page) throws UnsupportedFormatVersionException {
+		return true;
+	}
+
+	/**
+	 * Encodes the given page
+	 * @return Snapshot data
+	 */
+	public byte[] encode(Page page) {
+		stringIndexes.clear();
+		strings.clear();
+		try {
+			//Sections (the string dictionary is filled on the way)
+			BinaryDataOutput metadataSection = new BinaryDataOutput(1024);
+			writeMetaData(metadataSection, page.getMetaData());
+
+			BinaryDataOutput pageSection = new BinaryDataOutput(1024);
+			writePage(pageSection, page);
+
+			BinaryDataOutput regionsSection = new BinaryDataOutput(64 * 1024);
+			PageLayout layout = page.getLayout();
+			regionsSection.writeVarInt(layout.getRegionCount());
+			for (int i=0; i<layout.getRegionCount(); i++)
+				writeRegion(regionsSection, layout.getRegion(i));
+
+			BinaryDataOutput readingOrderSection = new BinaryDataOutput(256);
+			writeReadingOrder(readingOrderSection, layout.getReadingOrder());
+
+			BinaryDataOutput layersSection = new BinaryDataOutput(256);
+			writeLayers(layersSection, layout.getLayers());
+
+			BinaryDataOutput relationsSection = new BinaryDataOutput(256);
+			writeRelations(relationsSection, layout.getRelations());
+
+			BinaryDataOutput stringsSection = new BinaryDataOutput(16 * strings.size() + 16);
+			stringsSection.writeVarInt(strings.size());
+			for (int i=0; i<strings.size(); i++)
+				stringsSection.writeUtf8(strings.get(i));
+
+			//Header and section table
+			int[] sectionIds = new int[] {	BinaryPageFormat.SECTION_STRINGS, BinaryPageFormat.SECTION_METADATA,
+											BinaryPageFormat.SECTION_PAGE, BinaryPageFormat.SECTION_REGIONS,
+											BinaryPageFormat.SECTION_READING_ORDER, BinaryPageFormat.SECTION_LAYERS,
+											BinaryPageFormat.SECTION_RELATIONS };
+			BinaryDataOutput[] sections = new BinaryDataOutput[] {	stringsSection, metadataSection, pageSection, regionsSection,
+																	readingOrderSection, layersSection, relationsSection };
+			int totalSize = 64;
+			for (BinaryDataOutput section : sections)
+				totalSize += section.size();
+
+			BinaryDataOutput out = new BinaryDataOutput(totalSize);
+			out.writeBytes(BinaryPageFormat.MAGIC, 0, BinaryPageFormat.MAGIC.length);
+			out.writeVarInt(BinaryPageFormat.CODEC_VERSION);
+			out.writeUtf8(page.getFormatVersion() != null ? page.getFormatVersion().toString() : "");
+			out.writeVarInt(sections.length);
+			for (int i=0; i<sections.length; i++) {
+				out.writeVarInt(sectionIds[i]);
+				out.writeVarInt(sections[i].size());
+			}
+			for (BinaryDataOutput section : sections)
+				out.writeBytes(section.getBuffer(), 0, section.size());
+
+			byte[] data = new byte[out.size()];
+			System.arraycopy(out.getBuffer(), 0, data, 0, out.size());
+			return data;
+		} finally {
+			stringIndexes.clear();
+			strings.clear();
+		}
+	}
+
+	/**
+	 * Writes the dictionary index of the given string (0 for null)
+	 */
+	private void writeString(BinaryDataOutput out, String str) {
+		if (str == null) {
+			out.writeVarInt(0);
+			return;
+		}
+		Integer index = stringIndexes.get(str);
+		if (index == null) {
+			strings.add(str);
+			index = strings.size(); //Indexes start at 1
+			stringIndexes.put(str, index);
+		}
+		out.writeVarInt(index);
+	}
+
+	private void writeId(BinaryDataOutput out, Object id) {
+		writeString(out, id != null ? id.toString() : null);
+	}
+
+	private static void writeNullableDouble(BinaryDataOutput out, Double value) {
+		out.writeBoolean(value != null);
+		if (value != null)
+			out.writeDouble(value.doubleValue());
+	}
+
+	/**
+	 * Writes the points (delta-encoded) and the confidence of the given polygon
+	 */
+	private static void writePolygon(BinaryDataOutput out, Polygon polygon) {
+		if (polygon == null) {
+			out.writeVarInt(0);
+			return;
+		}
+		int size = polygon.getSize();
+		out.writeVarInt(size + 1);
+		int lastX = 0, lastY = 0;
+		for (int i=0; i<size; i++) {
+			int x = polygon.getX(i);
+			int y = polygon.getY(i);
+			out.writeSignedVarInt(x - lastX);
+			out.writeSignedVarInt(y - lastY);
+			lastX = x;
+			lastY = y;
+		}
+		writeNullableDouble(out, polygon.getConfidence());
+	}
+
+	private void writeValue(BinaryDataOutput out, VariableValue value) {
+		if (value instanceof IntegerValue) {
+			out.writeByte(BinaryPageFormat.VALUE_INTEGER);
+			out.writeSignedVarInt(((IntegerValue)value).val);
+		}
+		else if (value instanceof DoubleValue) {
+			out.writeByte(BinaryPageFormat.VALUE_DOUBLE);
+			out.writeDouble(((DoubleValue)value).val);
+		}
+		else if (value instanceof BooleanValue) {
+			out.writeByte(BinaryPageFormat.VALUE_BOOLEAN);
+			out.writeBoolean(((BooleanValue)value).val);
+		}
+		else if (value != null) {
+			out.writeByte(BinaryPageFormat.VALUE_STRING);
+			writeString(out, value.toString());
+		}
+		else
+			out.writeByte(BinaryPageFormat.VALUE_NULL);
+	}
+
+	/**
+	 * Writes all attributes that have a value (name and value)
+	 */
+	private void writeAttributes(BinaryDataOutput out, VariableMap attributes) {
+		if (attributes == null) {
+			out.writeVarInt(0);
+			return;
+		}
+		int count = 0;
+		for (int i=0; i<attributes.getSize(); i++)
+			if (attributes.getValue(i) != null)
+				count++;
+		out.writeVarInt(count);
+		VariableValue value;
+		for (int i=0; i<attributes.getSize(); i++) {
+			value = attributes.getValue(i);
+			if (value != null) {
+				writeString(out, attributes.getVariableName(i));
+				writeValue(out, value);
+			}
+		}
+	}
+
+	/**
+	 * Writes user-defined attributes (complete variables)
+	 */
+	private void writeUserDefinedAttributes(BinaryDataOutput out, VariableMap attributes) {
+		if (attributes == null) {
+			out.writeVarInt(0);
+			return;
+		}
+		out.writeVarInt(attributes.getSize() + 1);
+		for (int i=0; i<attributes.getSize(); i++) {
+			Variable v = attributes.get(i);
+			if (v instanceof IntegerVariable)
+				out.writeByte(BinaryPageFormat.VALUE_INTEGER);
+			else if (v instanceof DoubleVariable)
+				out.writeByte(BinaryPageFormat.VALUE_DOUBLE);
+			else if (v instanceof BooleanVariable)
+				out.writeByte(BinaryPageFormat.VALUE_BOOLEAN);
+			else
+				out.writeByte(BinaryPageFormat.VALUE_STRING);
+			writeString(out, v.getName());
+			writeString(out, v.getDescription());
+			writeValue(out, v.getValue());
+		}
+	}
+
+	private void writeLabels(BinaryDataOutput out, HasLabels obj) {
+		Labels labels = obj != null ? obj.getLabels() : null;
+		if (labels == null) {
+			out.writeVarInt(0);
+			return;
+		}
+		Map<String, LabelGroup> groups = labels.getGroups();
+		out.writeVarInt(groups != null ? groups.size() + 1 : 1);
+		if (groups == null)
+			return;
+		for (LabelGroup group : groups.values()) {
+			writeString(out, group.getExternalModel());
+			writeString(out, group.getExternalId());
+			writeString(out, group.getPrefix());
+			writeString(out, group.getComments());
+			out.writeVarInt(group.getLabels().size());
+			for (Label label : group.getLabels()) {
+				writeString(out, label.getValue());
+				writeString(out, label.getType());
+				writeString(out, label.getComments());
+				writeString(out, label.getExternalModel());
+			}
+		}
+	}
+
+	private void writeAlternativeImages(BinaryDataOutput out, List<AlternativeImage> images) {
+		if (images == null) {
+			out.writeVarInt(0);
+			return;
+		}
+		out.writeVarInt(images.size());
+		for (int i=0; i<images.size(); i++) {
+			AlternativeImage img = images.get(i);
+			writeString(out, img.getFilename());
+			writeString(out, img.getComments());
+			writeNullableDouble(out, img.getConfidence());
+		}
+	}
+
+	/**
+	 * Writes the text content variants (text, plain text, attributes)
+	 */
+	private void writeTextContent(BinaryDataOutput out, TextContentVariants textObj) {
+		int count = textObj.getTextContentVariantCount();
+		out.writeVarInt(count);
+		for (int i=0; i<count; i++) {
+			org.primaresearch.dla.page.layout.physical.text.TextContent content = textObj.getTextContentVariant(i);
+			writeString(out, content.getText());
+			writeString(out, content.getPlainText());
+			writeAttributes(out, content.getAttributes());
+		}
+	}
+
+	private void writeMetaData(BinaryDataOutput out, MetaData metaData) {
+		out.writeBoolean(metaData != null);
+		if (metaData == null)
+			return;
+		writeString(out, metaData.getCreator());
+		writeString(out, metaData.getComments());
+		writeString(out, metaData.getExternalRef());
+		out.writeBoolean(metaData.getCreationTime() != null);
+		if (metaData.getCreationTime() != null)
+			out.writeLong(metaData.getCreationTime().getTime());
+		out.writeBoolean(metaData.getLastModificationTime() != null);
+		if (metaData.getLastModificationTime() != null)
+			out.writeLong(metaData.getLastModificationTime().getTime());
+		writeUserDefinedAttributes(out, metaData.getUserDefinedAttributes(false));
+
+		List<MetadataItem> items = metaData.getMetadataItems();
+		out.writeVarInt(items != null ? items.size() : 0);
+		if (items != null) {
+			for (MetadataItem item : items) {
+				writeAttributes(out, item.getAttributes());
+				writeLabels(out, item);
+			}
+		}
+	}
+
+	private void writePage(BinaryDataOutput out, Page page) {
+		PageLayout layout = page.getLayout();
+		writeId(out, page.getGtsId());
+		writeString(out, page.getImageFilename());
+		out.writeVarInt(layout.getWidth());
+		out.writeVarInt(layout.getHeight());
+		writeAttributes(out, page.getAttributes());
+		writeAlternativeImages(out, page.getAlternativeImages());
+		writeUserDefinedAttributes(out, page.getUserDefinedAttributes(false));
+		writeLabels(out, page);
+		writeGeometricObject(out, layout.getBorder());
+		writeGeometricObject(out, layout.getPrintSpace());
+	}
+
+	private static void writeGeometricObject(BinaryDataOutput out, GeometricObject obj) {
+		out.writeBoolean(obj != null);
+		if (obj != null)
+			writePolygon(out, obj.getCoords());
+	}
+
+	private void writeRegion(BinaryDataOutput out, Region region) {
+		writeString(out, region.getType().getName());
+		writeId(out, region.getId());
+		writeAttributes(out, region.getAttributes());
+		writeAlternativeImages(out, region.getAlternativeImages());
+		writePolygon(out, region.getCoords());
+		writeUserDefinedAttributes(out, region.getUserDefinedAttributes(false));
+		writeLabels(out, region);
+
+		//Roles
+		RegionRole role = region.hasRole(RoleType.TableCellRole) ? region.getRole(RoleType.TableCellRole) : null;
+		out.writeBoolean(role != null);
+		if (role != null)
+			writeAttributes(out, role.getAttributes());
+
+		//Table grid
+		if (region instanceof TableRegion) {
+			TableGrid grid = ((TableRegion)region).getGrid();
+			out.writeVarInt(grid != null ? grid.getRows().size() + 1 : 0);
+			if (grid != null) {
+				for (TableGridRow row : grid.getRows())
+					writePolygon(out, row.getCoords());
+			}
+		}
+
+		//Nested regions
+		if (region instanceof RegionContainer && ((RegionContainer)region).hasRegions()) {
+			RegionContainer container = (RegionContainer)region;
+			out.writeVarInt(container.getRegionCount());
+			for (int i=0; i<container.getRegionCount(); i++)
+				writeRegion(out, container.getRegion(i));
+		}
+		else
+			out.writeVarInt(0);
+
+		//Text
+		if (region instanceof TextContentVariants)
+			writeTextContent(out, (TextContentVariants)region);
+
+		//Text lines
+		if (region instanceof LowLevelTextContainer)
+			writeTextObjects(out, (LowLevelTextContainer)region);
+	}
+
+	private void writeTextObjects(BinaryDataOutput out, LowLevelTextContainer container) {
+		int count = container.getTextObjectCount();
+		out.writeVarInt(count);
+		for (int i=0; i<count; i++)
+			writeTextObject(out, container.getTextObject(i));
+	}
+
+	/**
+	 * Writes a text line, word or glyph
+	 */
+	private void writeTextObject(BinaryDataOutput out, LowLevelTextObject obj) {
+		writeId(out, obj.getId());
+		writeAttributes(out, obj.getAttributes());
+		writeAlternativeImages(out, obj.getAlternativeImages());
+		writePolygon(out, obj.getCoords());
+		if (obj instanceof TextLine)
+			writePolygon(out, ((TextLine)obj).getBaseline());
+		writeUserDefinedAttributes(out, obj.getUserDefinedAttributes(false));
+		writeLabels(out, obj);
+		writeTextContent(out, obj);
+
+		if (obj instanceof Glyph) {
+			Glyph glyph = (Glyph)obj;
+			if (glyph.hasGraphemes()) {
+				List<GraphemeElement> graphemes = glyph.getGraphemes();
+				out.writeVarInt(graphemes.size());
+				for (int i=0; i<graphemes.size(); i++)
+					writeGraphemeElement(out, graphemes.get(i));
+			}
+			else
+				out.writeVarInt(0);
+		}
+		else if (obj instanceof LowLevelTextContainer)
+			writeTextObjects(out, (LowLevelTextContainer)obj);
+	}
+
+	private void writeGraphemeElement(BinaryDataOutput out, GraphemeElement element) {
+		if (element instanceof GraphemeGroup)
+			out.writeByte(BinaryPageFormat.GRAPHEME_GROUP);
+		else if (element instanceof Grapheme)
+			out.writeByte(BinaryPageFormat.GRAPHEME);
+		else
+			out.writeByte(BinaryPageFormat.NON_PRINTING_CHARACTER);
+		writeId(out, element.getId());
+		writeAttributes(out, element.getAttributes());
+		writeTextContent(out, element);
+		if (element instanceof Grapheme) {
+			writePolygon(out, ((Grapheme)element).getCoords());
+			writeLabels(out, (Grapheme)element);
+		}
+		if (element instanceof GraphemeGroup) {
+			List<GraphemeElement> members = ((GraphemeGroup)element).getGraphemes();
+			out.writeVarInt(members != null ? members.size() : 0);
+			if (members != null) {
+				for (int i=0; i<members.size(); i++)
+					writeGraphemeElement(out, members.get(i));
+			}
+		}
+	}
+
+	private void writeReadingOrder(BinaryDataOutput out, ReadingOrder readingOrder) {
+		out.writeBoolean(readingOrder != null);
+		if (readingOrder == null)
+			return;
+		writeNullableDouble(out, readingOrder.getConfidence());
+		writeGroup(out, readingOrder.getRoot());
+	}
+
+	/**
+	 * Writes a reading order group (including all members)
+	 */
+	private void writeGroup(BinaryDataOutput out, Group group) {
+		writeId(out, group.getId());
+		writeId(out, group.getRegionRef());
+		out.writeBoolean(group.isOrdered());
+		writeAttributes(out, group.getAttributes());
+		writeUserDefinedAttributes(out, group.getUserDefinedAttributes());
+		writeLabels(out, group);
+		writeGroupMembers(out, group);
+	}
+
+	private void writeGroupMembers(BinaryDataOutput out, Group group) {
+		out.writeVarInt(group.getSize());
+		for (int i=0; i<group.getSize(); i++) {
+			GroupMember member = group.getMember(i);
+			if (member instanceof Group) {
+				out.writeByte(BinaryPageFormat.MEMBER_GROUP);
+				writeGroup(out, (Group)member);
+			} else {
+				out.writeByte(BinaryPageFormat.MEMBER_REGION_REF);
+				writeId(out, member instanceof RegionRef ? ((RegionRef)member).getRegionId() : null);
+			}
+		}
+	}
+
+	private void writeLayers(BinaryDataOutput out, Layers layers) {
+		out.writeVarInt(layers != null ? layers.getSize() + 1 : 0);
+		if (layers == null)
+			return;
+		for (int i=0; i<layers.getSize(); i++) {
+			Layer layer = layers.getLayer(i);
+			writeId(out, layer.getId());
+			out.writeSignedVarInt(layer.getZIndex());
+			writeAttributes(out, layer.getAttributes());
+			writeGroupMembers(out, layer);
+		}
+	}
+
+	private void writeRelations(BinaryDataOutput out, Relations relations) {
+		Set<ContentObjectRelation> set = relations != null ? relations.exportRelations() : null;
+		if (set == null) {
+			out.writeVarInt(0);
+			return;
+		}
+		int count = 0;
+		for (ContentObjectRelation rel : set)
+			if (rel != null)
+				count++;
+		out.writeVarInt(count);
+		for (ContentObjectRelation rel : set) {
+			if (rel == null)
+				continue;
+			writeId(out, rel.getId());
+			writeString(out, rel.getRelationType() != null ? rel.getRelationType().toString() : null);
+			writeString(out, rel.getCustomField());
+			writeString(out, rel.getComments());
+			writeLabels(out, rel);
+			writeId(out, rel.getObject1().getId());
+			writeId(out, rel.getObject2().getId());
+		}
+	}
+}
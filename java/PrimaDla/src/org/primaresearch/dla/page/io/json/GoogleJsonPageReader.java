@@ -316,11 +316,11 @@ public class GoogleJsonPageReader extends PageReaderBase implements PageReader {
 					if (json instanceof JSONArray) {
 						JSONArray vertices = (JSONArray)json;
 						if (vertices.size() == 4) {
-							Polygon ret = new Polygon();
-							ret.addPoint(getPoint(vertices.get(0)));
-							ret.addPoint(getPoint(vertices.get(1)));
-							ret.addPoint(getPoint(vertices.get(2)));
-							ret.addPoint(getPoint(vertices.get(3)));
+							Polygon ret = new Polygon(4);
+							for (int i=0; i<4; i++) {
+								Point p = getPoint(vertices.get(i));
+								ret.addPoint(p.x, p.y);
+							}
 							return ret;
 						}
 					}
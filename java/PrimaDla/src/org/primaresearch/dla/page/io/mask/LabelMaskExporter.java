@@ -0,0 +1,400 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.mask;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.logical.Group;
+import org.primaresearch.dla.page.layout.logical.GroupMember;
+import org.primaresearch.dla.page.layout.logical.ReadingOrder;
+import org.primaresearch.dla.page.layout.logical.RegionRef;
+import org.primaresearch.dla.page.layout.physical.ContentObject;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.shared.ContentType;
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextContainer;
+import org.primaresearch.maths.geometry.Polygon;
+import org.primaresearch.maths.geometry.PolygonRasterizer;
+import org.primaresearch.maths.geometry.Rect;
+
+/**
+ * Renders page layouts to label masks (one label per pixel), e.g. for training segmentation models.<br>
+ * <br>
+ * Labels are assigned per content type (region types and low-level text types, see {@link #setLabel(ContentType, int)}).
+ * Objects of other types are not drawn. Pixels not covered by any object get the background label. Where objects
+ * overlap, the z-order decides which label is visible (see {@link #setZOrder(int)}).<br>
+ * <br>
+ * The polygons are filled with a {@link PolygonRasterizer} (a pixel belongs to an object if its centre is inside the outline).
+ * Masks can be rendered in one piece, into a caller-provided buffer for a part of the page, tile by tile
+ * (for very large images) or for multiple pages in parallel. The configuration must not be changed while rendering.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class LabelMaskExporter {
+
+	/** Objects are drawn in the order of the layout. Nested regions and text objects are drawn over their parents. */
+	public static final int Z_ORDER_LAYOUT = 0;
+	/** 
+	 * Regions are drawn in reading order (later over earlier). Regions that are not in the reading order are drawn first.
+	 * Nested regions and text objects are drawn over their parents. 
+	 */
+	public static final int Z_ORDER_READING_ORDER = 1;
+	/** Objects are drawn by size (smaller over larger) */
+	public static final int Z_ORDER_SIZE = 2;
+
+	private ForkJoinPool pool;
+	private Map<String, Integer> labels = new HashMap<String, Integer>();
+	private boolean textObjectsLabelled = false;
+	private int backgroundLabel = 0;
+	private int zOrder = Z_ORDER_LAYOUT;
+
+	/**
+	 * Constructor using the common fork-join pool for multi-page rendering
+	 */
+	public LabelMaskExporter() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor
+	 * @param pool Pool for multi-page rendering
+	 */
+	public LabelMaskExporter(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Sets the label for all objects of the given type.
+	 * @param type Region type (e.g. RegionType.TextRegion) or low-level text type (e.g. LowLevelTextType.TextLine)
+	 * @param label Label value (only the lower 8 bits are used for byte masks and images)
+	 */
+	public void setLabel(ContentType type, int label) {
+		labels.put(type.getName(), label);
+		updateTextObjectsLabelled();
+	}
+
+	/**
+	 * Removes the label for the given type (objects of that type will not be drawn)
+	 */
+	public void removeLabel(ContentType type) {
+		labels.remove(type.getName());
+		updateTextObjectsLabelled();
+	}
+
+	/**
+	 * Returns the label for the given type
+	 * @return Label or <code>null</code> if objects of that type are not drawn
+	 */
+	public Integer getLabel(ContentType type) {
+		return labels.get(type.getName());
+	}
+
+	private void updateTextObjectsLabelled() {
+		textObjectsLabelled = labels.containsKey(LowLevelTextType.TextLine.getName()) 
+								|| labels.containsKey(LowLevelTextType.Word.getName()) 
+								|| labels.containsKey(LowLevelTextType.Glyph.getName());
+	}
+
+	/**
+	 * Returns the label for pixels that are not covered by any object (default 0)
+	 */
+	public int getBackgroundLabel() {
+		return backgroundLabel;
+	}
+
+	/**
+	 * Sets the label for pixels that are not covered by any object
+	 */
+	public void setBackgroundLabel(int backgroundLabel) {
+		this.backgroundLabel = backgroundLabel;
+	}
+
+	/**
+	 * Returns the z-order (see Z_ORDER_... constants)
+	 */
+	public int getZOrder() {
+		return zOrder;
+	}
+
+	/**
+	 * Sets the z-order that decides which label is visible where objects overlap
+	 * @param zOrder Z_ORDER_LAYOUT (default), Z_ORDER_READING_ORDER or Z_ORDER_SIZE
+	 */
+	public void setZOrder(int zOrder) {
+		this.zOrder = zOrder;
+	}
+
+	/**
+	 * Renders the label mask for the whole page.
+	 * @return Row-major mask with layout width * height elements
+	 */
+	public byte[] render(PageLayout layout) {
+		byte[] mask = new byte[layout.getWidth() * layout.getHeight()];
+		render(layout, mask, 0, 0, layout.getWidth(), layout.getHeight());
+		return mask;
+	}
+
+	/**
+	 * Renders the label mask for a part of the page into the given buffer.
+	 * @param mask Row-major buffer with at least width * height elements
+	 * @param left Left of the area to render (page coordinates)
+	 * @param top Top of the area to render (page coordinates)
+	 * @param width Width of the area to render
+	 * @param height Height of the area to render
+	 */
+	public void render(PageLayout layout, byte[] mask, int left, int top, int width, int height) {
+		render(collectShapes(layout), new PolygonRasterizer(), mask, left, top, width, height);
+	}
+
+	/**
+	 * Renders the label mask for a part of the page into the given buffer (for labels that don't fit into a byte).
+	 * @param mask Row-major buffer with at least width * height elements
+	 * @param left Left of the area to render (page coordinates)
+	 * @param top Top of the area to render (page coordinates)
+	 * @param width Width of the area to render
+	 * @param height Height of the area to render
+	 */
+	public void render(PageLayout layout, int[] mask, int left, int top, int width, int height) {
+		Arrays.fill(mask, 0, width * height, backgroundLabel);
+		PolygonRasterizer rasterizer = new PolygonRasterizer();
+		for (Shape shape : collectShapes(layout)) {
+			if (shape.overlaps(left, top, width, height))
+				rasterizer.fill(shape.coords, shape.size, mask, left, top, width, height, shape.label);
+		}
+	}
+
+	/**
+	 * Renders the label mask for the whole page as grey-scale image (label = grey value).
+	 * @return Image with the size of the layout
+	 */
+	public BufferedImage renderImage(PageLayout layout) {
+		BufferedImage image = new BufferedImage(layout.getWidth(), layout.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+		byte[] pixels = ((DataBufferByte)image.getRaster().getDataBuffer()).getData();
+		render(layout, pixels, 0, 0, layout.getWidth(), layout.getHeight());
+		return image;
+	}
+
+	/**
+	 * Renders the label mask tile by tile. Only one tile buffer is allocated, which makes it possible to process very large pages.
+	 * @param tileWidth Maximum width of a tile
+	 * @param tileHeight Maximum height of a tile
+	 * @param listener Receives the tiles (row by row, from left to right)
+	 */
+	public void renderTiles(PageLayout layout, int tileWidth, int tileHeight, TileListener listener) {
+		List<Shape> shapes = collectShapes(layout);
+		PolygonRasterizer rasterizer = new PolygonRasterizer();
+		byte[] tile = new byte[tileWidth * tileHeight];
+		for (int top=0; top<layout.getHeight(); top+=tileHeight) {
+			int height = Math.min(tileHeight, layout.getHeight() - top);
+			for (int left=0; left<layout.getWidth(); left+=tileWidth) {
+				int width = Math.min(tileWidth, layout.getWidth() - left);
+				render(shapes, rasterizer, tile, left, top, width, height);
+				listener.tileRendered(left, top, width, height, tile);
+			}
+		}
+	}
+
+	/**
+	 * Renders the label masks of the given pages in parallel
+	 * @return One mask per page (same order as the pages)
+	 */
+	public List<byte[]> render(Collection<Page> pages) {
+		final List<PageTask> tasks = new ArrayList<PageTask>(pages.size());
+		for (Page page : pages)
+			tasks.add(new PageTask(page.getLayout()));
+		pool.invoke(new RecursiveTask<Void>() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected Void compute() {
+				invokeAll(tasks);
+				return null;
+			}
+		});
+		List<byte[]> masks = new ArrayList<byte[]>(tasks.size());
+		for (PageTask task : tasks)
+			masks.add(task.join());
+		return masks;
+	}
+
+	private void render(List<Shape> shapes, PolygonRasterizer rasterizer, byte[] mask, int left, int top, int width, int height) {
+		Arrays.fill(mask, 0, width * height, (byte)backgroundLabel);
+		for (Shape shape : shapes) {
+			if (shape.overlaps(left, top, width, height))
+				rasterizer.fill(shape.coords, shape.size, mask, left, top, width, height, (byte)shape.label);
+		}
+	}
+
+	/**
+	 * Collects the outlines of all labelled objects in drawing order
+	 */
+	private List<Shape> collectShapes(PageLayout layout) {
+		Map<String, Integer> readingOrderPositions = null;
+		if (zOrder == Z_ORDER_READING_ORDER) {
+			readingOrderPositions = new HashMap<String, Integer>();
+			ReadingOrder readingOrder = layout.getReadingOrder();
+			if (readingOrder != null && readingOrder.getRoot() != null)
+				addReadingOrderPositions(readingOrder.getRoot(), readingOrderPositions);
+		}
+		
+		List<Shape> shapes = new ArrayList<Shape>();
+		for (int i=0; i<layout.getRegionCount(); i++)
+			collectShapes(layout.getRegion(i), -1, readingOrderPositions, shapes);
+		
+		//Stable sort (keeps the layout order for equal keys)
+		if (zOrder == Z_ORDER_READING_ORDER) {
+			Collections.sort(shapes, new Comparator<Shape>() {
+				@Override
+				public int compare(Shape s1, Shape s2) {
+					return Integer.compare(s1.readingOrderPosition, s2.readingOrderPosition);
+				}
+			});
+		} else if (zOrder == Z_ORDER_SIZE) {
+			Collections.sort(shapes, new Comparator<Shape>() {
+				@Override
+				public int compare(Shape s1, Shape s2) {
+					return Double.compare(s2.area, s1.area);
+				}
+			});
+		}
+		return shapes;
+	}
+
+	/**
+	 * Adds the shape of the given object (if labelled) and of all its child objects
+	 * @param readingOrderPosition Position of the parent region in the reading order (-1 if not contained)
+	 */
+	private void collectShapes(ContentObject obj, int readingOrderPosition, Map<String, Integer> readingOrderPositions, List<Shape> shapes) {
+		if (readingOrderPositions != null && obj instanceof Region && obj.getId() != null) {
+			Integer pos = readingOrderPositions.get(obj.getId().toString());
+			if (pos != null)
+				readingOrderPosition = pos;
+		}
+		
+		Integer label = labels.get(obj.getType().getName());
+		Polygon coords = obj.getCoords();
+		if (label != null && coords != null && coords.getSize() >= 3)
+			shapes.add(new Shape(coords, label, readingOrderPosition, zOrder == Z_ORDER_SIZE));
+		
+		if (obj instanceof Region) {
+			Region region = (Region)obj;
+			for (int i=0; i<region.getRegionCount(); i++)
+				collectShapes(region.getRegion(i), readingOrderPosition, readingOrderPositions, shapes);
+		}
+		if (textObjectsLabelled && obj instanceof LowLevelTextContainer) {
+			LowLevelTextContainer container = (LowLevelTextContainer)obj;
+			for (int i=0; i<container.getTextObjectCount(); i++)
+				collectShapes(container.getTextObject(i), readingOrderPosition, readingOrderPositions, shapes);
+		}
+	}
+	
+	/**
+	 * Assigns consecutive positions to all region references of the given group (depth-first)
+	 */
+	private static void addReadingOrderPositions(Group group, Map<String, Integer> positions) {
+		if (group.getRegionRef() != null)
+			positions.put(group.getRegionRef().toString(), positions.size());
+		for (int i=0; i<group.getSize(); i++) {
+			GroupMember member = group.getMember(i);
+			if (member instanceof Group)
+				addReadingOrderPositions((Group)member, positions);
+			else if (member instanceof RegionRef && ((RegionRef)member).getRegionId() != null)
+				positions.put(((RegionRef)member).getRegionId().toString(), positions.size());
+		}
+	}
+
+	
+	/**
+	 * Receives the tiles rendered by {@link LabelMaskExporter#renderTiles(PageLayout, int, int, TileListener)}
+	 */
+	public static interface TileListener {
+		/**
+		 * Called for each tile
+		 * @param left Left of the tile (page coordinates)
+		 * @param top Top of the tile (page coordinates)
+		 * @param width Tile width (smaller than the requested width for tiles at the right border)
+		 * @param height Tile height (smaller than the requested height for tiles at the bottom border)
+		 * @param mask Row-major tile data (width * height elements are used). The buffer is reused for the next tile.
+		 */
+		public void tileRendered(int left, int top, int width, int height, byte[] mask);
+	}
+
+	/**
+	 * Outline and label of one object
+	 */
+	private static final class Shape {
+		final int[] coords;
+		final int size;
+		final int label;
+		final int readingOrderPosition;
+		final double area;
+		final int left;
+		final int top;
+		final int right;
+		final int bottom;
+
+		Shape(Polygon polygon, int label, int readingOrderPosition, boolean calculateArea) {
+			this.coords = polygon.toArray();
+			this.size = coords.length / 2;
+			this.label = label;
+			this.readingOrderPosition = readingOrderPosition;
+			this.area = calculateArea ? polygon.calculateArea() : 0.0;
+			Rect box = polygon.getBoundingBox();
+			this.left = box.left;
+			this.top = box.top;
+			this.right = box.right;
+			this.bottom = box.bottom;
+		}
+
+		/**
+		 * Checks if the bounding box of the shape overlaps the given area
+		 */
+		boolean overlaps(int x, int y, int width, int height) {
+			return right > x && left < x + width && bottom > y && top < y + height;
+		}
+	}
+
+	/**
+	 * Rendering task for one page
+	 */
+	private final class PageTask extends RecursiveTask<byte[]> {
+		private static final long serialVersionUID = 1L;
+
+		private PageLayout layout;
+
+		PageTask(PageLayout layout) {
+			this.layout = layout;
+		}
+
+		@Override
+		protected byte[] compute() {
+			return render(layout);
+		}
+	}
+}
@@ -0,0 +1,387 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.FileInput;
+import org.primaresearch.dla.page.io.InputSource;
+import org.primaresearch.io.xml.IOError;
+
+/**
+ * Reads many page files in parallel (all files of a folder, files matching a glob pattern
+ * or the files listed in a METS document).<br>
+ * <br>
+ * The files are read by a shared {@link ConcurrentXmlPageReader} on the given executor.
+ * Only a limited number of files is read ahead (see {@link #setMaxInFlight(int)}), so that
+ * large batches do not have to fit into memory. The results can be delivered in the order
+ * of the input list or in the order of completion (see {@link #setOrdered(boolean)}).<br>
+ * <br>
+ * Errors are reported per file (see {@link Item#getErrors()}); a broken file does not stop the batch.
+ *
+ * @author Christian Clausner
+ *
+ */
+public class BatchXmlPageReader {
+
+	private ConcurrentXmlPageReader reader;
+	private Executor executor;
+	private int maxInFlight;
+	private boolean ordered = true;
+
+	/**
+	 * Constructor
+	 * @param reader Thread-safe page reader (e.g. from {@link PageXmlInputOutput#getConcurrentReader()})
+	 * @param executor Executor for the read tasks (the caller is responsible for shutting it down)
+	 */
+	public BatchXmlPageReader(ConcurrentXmlPageReader reader, Executor executor) {
+		this.reader = reader;
+		this.executor = executor;
+		maxInFlight = Runtime.getRuntime().availableProcessors() * 2;
+	}
+
+	/**
+	 * Returns the maximum number of files that are read ahead (running or finished but not yet consumed)
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Sets the maximum number of files that are read ahead (running or finished but not yet consumed)
+	 * @param maxInFlight Number greater than zero (default: number of processors times two)
+	 */
+	public void setMaxInFlight(int maxInFlight) {
+		if (maxInFlight < 1)
+			throw new IllegalArgumentException("Maximum number of files in flight must be greater than zero");
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Returns <code>true</code> if the results are delivered in the order of the input sources
+	 */
+	public boolean isOrdered() {
+		return ordered;
+	}
+
+	/**
+	 * Sets the delivery order of the results
+	 * @param ordered If <code>true</code>, the results are delivered in the order of the input sources (default),
+	 *  otherwise in the order in which the files have been read.
+	 */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	/**
+	 * Lists the files of a folder that match the given pattern.
+	 * @param folder Folder to search in (not recursive)
+	 * @param glob File name pattern (e.g. "*.xml"), <code>null</code> for all files
+	 * @return File inputs sorted by file name
+	 */
+	public static List<InputSource> listFiles(File folder, String glob) {
+		List<InputSource> sources = new ArrayList<InputSource>();
+		File[] files = folder.listFiles();
+		if (files == null)
+			return sources;
+		Arrays.sort(files);
+		PathMatcher matcher = glob != null ? FileSystems.getDefault().getPathMatcher("glob:" + glob) : null;
+		for (File file : files) {
+			if (!file.isFile())
+				continue;
+			if (matcher != null && !matcher.matches(file.toPath().getFileName()))
+				continue;
+			sources.add(new FileInput(file));
+		}
+		return sources;
+	}
+
+	/**
+	 * Reads all matching files of a folder.
+	 * @param folder Folder to search in (not recursive)
+	 * @param glob File name pattern (e.g. "*.xml"), <code>null</code> for all files
+	 * @return Stream of results (one per file)
+	 */
+	public Stream<Item> read(File folder, String glob) {
+		return read(listFiles(folder, glob));
+	}
+
+	/**
+	 * Reads all page files that are listed in the "PAGE" file group of a METS document (image files are skipped).
+	 * @param metsSource METS file or URL
+	 * @return Stream of results (one per page file)
+	 * @throws IllegalArgumentException The METS document could not be read
+	 */
+	public Stream<Item> readMets(InputSource metsSource) {
+		return readMets(metsSource, new String[] { MetsMultiPageReader.FILE_GROUP_PAGE });
+	}
+
+	/**
+	 * Reads all page files that are listed in the given file groups of a METS document (image files are skipped).
+	 * @param metsSource METS file or URL
+	 * @param fileGroups Values of the <code>USE</code> attribute of <code>fileGrp</code> elements (<code>null</code> for all groups)
+	 * @return Stream of results (one per page file)
+	 * @throws IllegalArgumentException The METS document could not be read
+	 */
+	public Stream<Item> readMets(InputSource metsSource, String[] fileGroups) {
+		MetsMultiPageReader metsReader = new MetsMultiPageReader();
+		metsReader.setFileGroups(fileGroups);
+		List<InputSource> sources = metsReader.readPageSources(metsSource);
+		if (sources == null) {
+			List<IOError> errors = metsReader.getErrors();
+			throw new IllegalArgumentException("Could not read METS file"
+					+ (errors != null && !errors.isEmpty() ? ": " + errors.get(0).getMessage() : ""));
+		}
+		return read(sources);
+	}
+
+	/**
+	 * Reads the given files. The reading starts when the stream is consumed.
+	 * Closing the stream cancels all files that have not been read yet.
+	 * @param sources File or URL inputs
+	 * @return Stream of results (one per input source)
+	 */
+	public Stream<Item> read(List<InputSource> sources) {
+		final BatchIterator iterator = new BatchIterator(sources);
+		int characteristics = Spliterator.NONNULL | Spliterator.SIZED;
+		if (ordered)
+			characteristics |= Spliterator.ORDERED;
+		Stream<Item> stream = StreamSupport.stream(Spliterators.spliterator(iterator, sources.size(), characteristics), false);
+		return stream.onClose(new Runnable() {
+			@Override
+			public void run() {
+				iterator.cancel();
+			}
+		});
+	}
+
+	/**
+	 * Reads the given files and passes the results to the listener.
+	 * The listener is called on the calling thread and this method returns after all files have been processed.
+	 * @param sources File or URL inputs
+	 * @param listener Receiver of the results
+	 */
+	public void read(List<InputSource> sources, Listener listener) {
+		BatchIterator iterator = new BatchIterator(sources);
+		try {
+			while (iterator.hasNext())
+				listener.pageRead(iterator.next());
+		} finally {
+			iterator.cancel();
+		}
+	}
+
+	/**
+	 * Reads a single file (called on a thread of the executor).
+	 */
+	private Item readItem(int index, InputSource source) {
+		try {
+			ConcurrentXmlPageReader.Result result = reader.read(source);
+			return new Item(index, source, result.getPage(), result.getErrors(), result.getWarnings());
+		} catch (Exception exc) {
+			List<IOError> errors = new ArrayList<IOError>();
+			errors.add(new IOError(exc.getMessage() != null ? exc.getMessage() : exc.toString()));
+			return new Item(index, source, null, errors, new ArrayList<IOError>());
+		}
+	}
+
+
+	/**
+	 * Submits the read tasks to the executor while the results are consumed,
+	 * keeping at most 'maxInFlight' files ahead.
+	 *
+	 * @author Christian Clausner
+	 *
+	 */
+	private class BatchIterator implements Iterator<Item> {
+		private List<InputSource> sources;
+		private int nextToSubmit = 0;
+		private int delivered = 0;
+		/** Pending tasks in submission order (used for ordered delivery and for cancelling) */
+		private LinkedList<Future<Item>> pending = new LinkedList<Future<Item>>();
+		private CompletionService<Item> completionService;
+
+		public BatchIterator(List<InputSource> sources) {
+			this.sources = sources;
+			if (!ordered)
+				completionService = new ExecutorCompletionService<Item>(executor);
+		}
+
+		/** Submits tasks until the in-flight limit is reached */
+		private void fill() {
+			while (nextToSubmit < sources.size() && nextToSubmit - delivered < maxInFlight) {
+				final int index = nextToSubmit++;
+				final InputSource source = sources.get(index);
+				Callable<Item> task = new Callable<Item>() {
+					@Override
+					public Item call() throws Exception {
+						return readItem(index, source);
+					}
+				};
+				if (completionService != null)
+					pending.add(completionService.submit(task));
+				else {
+					FutureTask<Item> future = new FutureTask<Item>(task);
+					pending.add(future);
+					executor.execute(future);
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return delivered < sources.size();
+		}
+
+		@Override
+		public Item next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			fill();
+			Future<Item> future;
+			try {
+				if (completionService != null) {
+					future = completionService.take();
+					pending.remove(future);
+				}
+				else
+					future = pending.removeFirst();
+				Item item = future.get();
+				delivered++;
+				fill();
+				return item;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancel();
+				throw new IllegalStateException("Interrupted while waiting for page file", e);
+			} catch (ExecutionException e) {
+				//Should not happen (readItem catches all exceptions)
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+
+		/** Cancels all tasks that have not been consumed */
+		public void cancel() {
+			for (Future<Item> future : pending)
+				future.cancel(false);
+			pending.clear();
+			delivered = nextToSubmit = sources.size();
+		}
+	}
+
+
+	/**
+	 * Receiver of batch results.
+	 *
+	 * @author Christian Clausner
+	 *
+	 */
+	public static interface Listener {
+		/**
+		 * Called for each file of the batch
+		 * @param item Result for one file (page or errors)
+		 */
+		public void pageRead(Item item);
+	}
+
+
+	/**
+	 * Result for one file of a batch.
+	 *
+	 * @author Christian Clausner
+	 *
+	 */
+	public static class Item {
+		private int index;
+		private InputSource source;
+		private Page page;
+		private List<IOError> errors;
+		private List<IOError> warnings;
+
+		private Item(int index, InputSource source, Page page, List<IOError> errors, List<IOError> warnings) {
+			this.index = index;
+			this.source = source;
+			this.page = page;
+			this.errors = Collections.unmodifiableList(errors);
+			this.warnings = Collections.unmodifiableList(warnings);
+		}
+
+		/**
+		 * Position of the file in the input list
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * The input source that has been read
+		 */
+		public InputSource getSource() {
+			return source;
+		}
+
+		/**
+		 * Returns the page object
+		 * @return Page or <code>null</code> in case of errors
+		 */
+		public Page getPage() {
+			return page;
+		}
+
+		/**
+		 * Checks if there were errors
+		 * @return <code>true</code> if errors were registered
+		 */
+		public boolean hasErrors() {
+			return !errors.isEmpty();
+		}
+
+		/**
+		 * Returns the errors that occurred while reading this file.
+		 */
+		public List<IOError> getErrors() {
+			return errors;
+		}
+
+		/**
+		 * Returns the warnings that occurred while reading this file.
+		 */
+		public List<IOError> getWarnings() {
+			return warnings;
+		}
+	}
+}
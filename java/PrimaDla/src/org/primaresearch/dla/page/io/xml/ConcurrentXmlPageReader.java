@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.InputSource;
+import org.primaresearch.dla.page.io.PageReaderBase;
+import org.primaresearch.dla.page.io.xml.sax.SaxPageHandlerDispatcher;
+import org.primaresearch.io.UnsupportedFormatVersionException;
+import org.primaresearch.io.xml.IOError;
+import org.primaresearch.io.xml.XmlFormatVersion;
+import org.primaresearch.io.xml.XmlModelAndValidatorProvider;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Thread-safe page reader for XML files (supports validation against schema).<br>
+ * <br>
+ * One reader object can be shared by any number of threads. Each thread gets its own
+ * SAX parser and its own validator handlers (one per schema version), while the compiled
+ * schemas are shared (they are managed by the validator provider).<br>
+ * Unlike {@link XmlPageReader}, errors and warnings are returned together with the page
+ * for each call of {@link #read(InputSource)}.<br>
+ * <br>
+ * Inputs are read in a single pass (see {@link XmlPageReader#setSinglePass(boolean)}).
+ *
+ * @author Christian Clausner
+ */
+public class ConcurrentXmlPageReader extends PageReaderBase {
+
+	private XmlModelAndValidatorProvider validatorProvider;
+
+	/** SAX parser per thread */
+	private ThreadLocal<SAXParser> parsers = new ThreadLocal<SAXParser>() {
+		@Override
+		protected SAXParser initialValue() {
+			return createParser();
+		}
+	};
+
+	/** Map [schemaVersion, validatorHandler] per thread */
+	private ThreadLocal<Map<XmlFormatVersion, ValidatorHandler>> validatorHandlers = new ThreadLocal<Map<XmlFormatVersion, ValidatorHandler>>() {
+		@Override
+		protected Map<XmlFormatVersion, ValidatorHandler> initialValue() {
+			return new HashMap<XmlFormatVersion, ValidatorHandler>();
+		}
+	};
+
+	/**
+	 * Constructor
+	 * @param validatorProvider Schema validator provider. (optional, set to null if no validation required).
+	 */
+	public ConcurrentXmlPageReader(XmlModelAndValidatorProvider validatorProvider) {
+		this.validatorProvider = validatorProvider;
+	}
+
+	/**
+	 * Creates a (non-validating) SAX parser for PAGE XML. Validation is done by the handler dispatcher.
+	 */
+	private static SAXParser createParser() {
+	    try {
+	    	SAXParserFactory factory = SAXParserFactory.newInstance();
+	    	factory.setNamespaceAware(true);
+    		factory.setValidating(false);
+    		//Fix for delay when reading HOCR (disables loading the external DTD that is defined in the HOCR file)
+    		factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+    		return factory.newSAXParser();
+	    } catch (Throwable t) {
+	    	t.printStackTrace();
+	    }
+	    return null;
+	}
+
+	/**
+	 * Reads a PAGE XML file (or other supported XML format).
+	 *
+	 * @param source FileInput or UrlInput representing an XML file
+	 * @return Result containing the page object (or null in case of errors), the errors and the warnings
+	 * @throws UnsupportedFormatVersionException Schema version not supported by the validator provider
+	 * @throws IllegalArgumentException Wrong input source type
+	 */
+	public Result read(InputSource source) throws UnsupportedFormatVersionException {
+		return read(source, null);
+	}
+
+	/**
+	 * Reads the specified parts of a PAGE XML file (or other supported XML format).
+	 *
+	 * @param source FileInput or UrlInput representing an XML file
+	 * @param readOptions Options defining which parts of the document are read (<code>null</code> to read everything)
+	 * @return Result containing the page object (or null in case of errors), the errors and the warnings
+	 * @throws UnsupportedFormatVersionException Schema version not supported by the validator provider
+	 * @throws IllegalArgumentException Wrong input source type
+	 */
+	public Result read(InputSource source, XmlPageReadOptions readOptions) throws UnsupportedFormatVersionException {
+		PageErrorHandler errorHandler = new PageErrorHandler();
+
+		SaxPageHandlerDispatcher dispatcher = new SaxPageHandlerDispatcher(validatorProvider, errorHandler) {
+			@Override
+			protected ValidatorHandler createValidatorHandler(XmlFormatVersion schemaVersion, Schema schema) {
+				//Reuse the validator handlers of the current thread
+				Map<XmlFormatVersion, ValidatorHandler> handlers = validatorHandlers.get();
+				ValidatorHandler handler = handlers.get(schemaVersion);
+				if (handler == null) {
+					handler = super.createValidatorHandler(schemaVersion, schema);
+					handlers.put(schemaVersion, handler);
+				}
+				return handler;
+			}
+		};
+		dispatcher.setReadOptions(readOptions);
+
+		InputStream inputStream = null;
+	    try{
+	    	SAXParser parser = parsers.get();
+	    	if (parser == null) {
+	    		errorHandler.getErrors().add(new IOError("Could not create XML parser"));
+	    		return new Result(null, errorHandler);
+	    	}
+	    	XMLReader reader = parser.getXMLReader();
+	    	reader.setErrorHandler(errorHandler);
+	    	reader.setContentHandler(dispatcher);
+	    	inputStream = getInputStream(source, errorHandler);
+	    	if (inputStream != null)
+	    		reader.parse(new org.xml.sax.InputSource(new BufferedInputStream(inputStream)));
+	    } catch (SAXException e) {
+	    	if (e.getException() instanceof UnsupportedFormatVersionException)
+	    		throw (UnsupportedFormatVersionException)e.getException();
+	    	e.printStackTrace();
+	    } catch (Throwable t) {
+	    	t.printStackTrace();
+	    } finally {
+			if (inputStream != null) {
+				try {
+					inputStream.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		Page page = null;
+		if (!errorHandler.hasErrors() && dispatcher.getPageHandler() != null)
+			page = dispatcher.getPageHandler().getPageObject();
+		return new Result(page, errorHandler);
+	}
+
+
+	/**
+	 * Outcome of reading one input source (page object, errors and warnings).
+	 *
+	 * @author Christian Clausner
+	 */
+	public static class Result {
+		private Page page;
+		private PageErrorHandler errors;
+
+		private Result(Page page, PageErrorHandler errors) {
+			this.page = page;
+			this.errors = errors;
+		}
+
+		/**
+		 * Returns the page object
+		 * @return Page or <code>null</code> in case of errors
+		 */
+		public Page getPage() {
+			return page;
+		}
+
+		/**
+		 * Checks if there were errors
+		 * @return <code>true</code> if errors were registered
+		 */
+		public boolean hasErrors() {
+			return errors.hasErrors();
+		}
+
+		/**
+		 * Returns the errors that occurred while reading.
+		 */
+		public List<IOError> getErrors() {
+			return errors.getErrors();
+		}
+
+		/**
+		 * Returns the warnings that occurred while reading.
+		 */
+		public List<IOError> getWarnings() {
+			return errors.getWarnings();
+		}
+	}
+}
@@ -20,6 +20,10 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -44,17 +48,27 @@ import org.xml.sax.helpers.DefaultHandler;
  */
 public class MetsMultiPageReader {
 	
+	/** Default file group for {@link #readPageSources(InputSource)} */
+	public static final String FILE_GROUP_PAGE = "PAGE";
+
 	private SAXParser parser;
 	private SaxMetsHandler metsHandler = null;
 	private PageErrorHandler lastErrors;
+	private String[] fileGroups = new String[] { FILE_GROUP_PAGE };
 
 	public MetsMultiPageReader() {
 		createParser();
 	}
 
+	/**
+	 * Reads a METS file and returns the locations (href) of all files.
+	 * @param source METS file or URL
+	 * @return List of hrefs or <code>null</code> in case of errors (see getErrors())
+	 */
 	public List<String> read(InputSource source) {
 		
 		lastErrors = new PageErrorHandler();
+		metsHandler = new SaxMetsHandler();
 		
 		parse(source, lastErrors);
 		
@@ -66,6 +80,100 @@ public class MetsMultiPageReader {
 		return pageFiles;
 	}
 	
+	/**
+	 * Sets the file groups that are used by {@link #readPageSources(InputSource)} (default is "PAGE").
+	 * @param fileGroups Values of the <code>USE</code> attribute of <code>fileGrp</code> elements.
+	 *                   Use <code>null</code> to include the files of all groups.
+	 */
+	public void setFileGroups(String... fileGroups) {
+		this.fileGroups = fileGroups;
+	}
+
+	/**
+	 * Returns the file groups that are used by {@link #readPageSources(InputSource)}
+	 * @return Values of the <code>USE</code> attribute or <code>null</code> for all groups
+	 */
+	public String[] getFileGroups() {
+		return fileGroups;
+	}
+
+	/**
+	 * Reads a METS file and returns input sources for all files of the selected file groups
+	 * (see {@link #setFileGroups(String...)}) that are not images (according to the MIME type). 
+	 * Relative locations are resolved against the location of the METS file.
+	 * @param source METS file or URL
+	 * @return List of file or URL inputs or <code>null</code> in case of errors (see getErrors())
+	 */
+	public List<InputSource> readPageSources(InputSource source) {
+		if (read(source) == null)
+			return null;
+		
+		List<InputSource> sources = new ArrayList<InputSource>();
+		for (int i=0; i<metsHandler.getPageFiles().size(); i++) {
+			if (!isSelectedFileGroup(metsHandler.getFileGroups().get(i)))
+				continue;
+			String mimeType = metsHandler.getMimeTypes().get(i);
+			if (mimeType != null && mimeType.startsWith("image/"))
+				continue;
+			InputSource pageSource = resolve(source, metsHandler.getPageFiles().get(i));
+			if (pageSource != null)
+				sources.add(pageSource);
+		}
+		return sources;
+	}
+	
+	private boolean isSelectedFileGroup(String fileGroup) {
+		if (fileGroups == null)
+			return true;
+		for (int i=0; i<fileGroups.length; i++) {
+			if (fileGroups[i] != null && fileGroups[i].equals(fileGroup))
+				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns a list of errors that occurred on the last call of read(). 
+	 */
+	public List<IOError> getErrors() {
+		return lastErrors != null ? lastErrors.getErrors() : null;
+	}
+	
+	/**
+	 * Creates an input source for the given file location
+	 * @param metsSource Location of the METS file (for relative paths)
+	 * @param href File location from METS
+	 * @return File or URL input
+	 */
+	private InputSource resolve(InputSource metsSource, String href) {
+		try {
+			//Absolute URL
+			int colon = href.indexOf(':');
+			if (colon > 1 && colon < href.indexOf('/')) {
+				URI uri = new URI(href);
+				if ("file".equalsIgnoreCase(uri.getScheme()))
+					return new FileInput(new File(uri));
+				return new UrlInput(uri.toURL());
+			}
+			//Relative
+			if (metsSource instanceof FileInput) {
+				File file = new File(href);
+				if (!file.isAbsolute())
+					file = new File(((FileInput)metsSource).getFile().getAbsoluteFile().getParentFile(), href);
+				return new FileInput(file);
+			}
+			else if (metsSource instanceof UrlInput)
+				return new UrlInput(new URL(((UrlInput)metsSource).getUrl(), href));
+		} catch (URISyntaxException e) {
+			lastErrors.getErrors().add(new IOError("Invalid file location '"+href+"': "+e.getMessage()));
+		} catch (MalformedURLException e) {
+			lastErrors.getErrors().add(new IOError("Invalid file location '"+href+"': "+e.getMessage()));
+		} catch (IllegalArgumentException e) {
+			lastErrors.getErrors().add(new IOError("Invalid file location '"+href+"': "+e.getMessage()));
+		}
+		return null;
+	}
+	
 	/**
 	 * Parses a METS file
 	 */
@@ -137,15 +245,38 @@ public class MetsMultiPageReader {
 	 */
 	private static class SaxMetsHandler extends DefaultHandler {
 		
+		private static final String ELEMENT_FileGrp = "fileGrp";
+		private static final String ELEMENT_File = "file";
 		private static final String ELEMENT_FLocat = "FLocat";
 		private static final String ATTR_href = "xlink:href";
+		private static final String ATTR_MIMETYPE = "MIMETYPE";
+		private static final String ATTR_USE = "USE";
 		
 		private List<String> pageFiles = new ArrayList<String>();
+		private List<String> mimeTypes = new ArrayList<String>();
+		private List<String> fileGroups = new ArrayList<String>();
+		/** USE attributes of the open fileGrp elements (innermost last, inherited if not set) */
+		private List<String> fileGroupStack = new ArrayList<String>();
+		private String currentMimeType = null;
 		
 		public List<String> getPageFiles() {
 			return pageFiles;
 		}
 		
+		/**
+		 * MIME types of the files (same order as the page files, entries can be <code>null</code>)
+		 */
+		public List<String> getMimeTypes() {
+			return mimeTypes;
+		}
+		
+		/**
+		 * File groups (USE attribute) of the files (same order as the page files, entries can be <code>null</code>)
+		 */
+		public List<String> getFileGroups() {
+			return fileGroups;
+		}
+		
 		/**
 		 * Receive notification of the start of an element.
 		 * @param namespaceURI - The Namespace URI, or the empty string if the element has no Namespace URI or if Namespace processing is not being performed.
@@ -157,12 +288,33 @@ public class MetsMultiPageReader {
 		public void startElement(String namespaceURI, String localName, String qName, Attributes atts)
 		      throws SAXException {
 			
-		    if (ELEMENT_FLocat.equals(localName)){
+		    if (ELEMENT_FileGrp.equals(localName)){
+		    	String use = atts.getValue(ATTR_USE);
+		    	if (use == null && !fileGroupStack.isEmpty())
+		    		use = fileGroupStack.get(fileGroupStack.size()-1);
+		    	fileGroupStack.add(use);
+		    }
+		    else if (ELEMENT_File.equals(localName)){
+		    	currentMimeType = atts.getValue(ATTR_MIMETYPE);
+		    }
+		    else if (ELEMENT_FLocat.equals(localName)){
 		    	int i;
 		    	if ((i = atts.getIndex(ATTR_href)) >= 0) {
 		    		pageFiles.add(atts.getValue(i));
+		    		mimeTypes.add(currentMimeType);
+		    		fileGroups.add(fileGroupStack.isEmpty() ? null : fileGroupStack.get(fileGroupStack.size()-1));
 				}
 		    }
 		}
+		
+		public void endElement(String namespaceURI, String localName, String qName)
+			      throws SAXException {
+		    if (ELEMENT_File.equals(localName)){
+		    	currentMimeType = null;
+		    }
+		    else if (ELEMENT_FileGrp.equals(localName) && !fileGroupStack.isEmpty()){
+		    	fileGroupStack.remove(fileGroupStack.size()-1);
+		    }
+		}
 	}
 }
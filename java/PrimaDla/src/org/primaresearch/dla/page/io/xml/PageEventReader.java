@@ -0,0 +1,573 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.primaresearch.dla.page.io.InputSource;
+import org.primaresearch.dla.page.io.PageReaderBase;
+import org.primaresearch.dla.page.io.xml.sax.PointListParser;
+import org.primaresearch.dla.page.io.xml.sax.SaxPageHandlerFactory;
+import org.primaresearch.io.xml.IOError;
+import org.primaresearch.io.xml.XmlFormatVersion;
+import org.primaresearch.maths.geometry.Polygon;
+
+/**
+ * Pull reader for PAGE XML that returns a flat sequence of events (regions, text lines, words, glyphs,
+ * coordinates, text content, reading order entries) instead of building a page object.<br>
+ * <br>
+ * The document is read in one forward pass and only the data of the current event is kept,
+ * so the memory use does not depend on the size of the document. Usage:
+ * <pre>
+ * PageEventReader reader = new PageEventReader();
+ * if (reader.open(new FileInput(file))) {
+ *   int event;
+ *   while ((event = reader.next()) != PageEventReader.END) {
+ *     if (event == PageEventReader.TEXT_EQUIV &amp;&amp; reader.getObjectType() == PageEventReader.TEXT_LINE_START)
+ *       index(reader.getId(), reader.getText());
+ *   }
+ *   reader.close();
+ * }
+ * </pre>
+ * Graphemes are not reported. Only PAGE XML is supported (not ALTO, FineReader or hOCR).
+ * The reader is not thread-safe.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class PageEventReader extends PageReaderBase implements Closeable {
+
+	/** End of the document (or error) */
+	public static final int END					= 0;
+	/** Page element (image filename, width, height) */
+	public static final int PAGE				= 1;
+	/** Start of a region (ID, region type, type attribute) */
+	public static final int REGION_START		= 2;
+	/** End of a region (ID) */
+	public static final int REGION_END			= 3;
+	/** Start of a text line (ID) */
+	public static final int TEXT_LINE_START		= 4;
+	/** End of a text line (ID) */
+	public static final int TEXT_LINE_END		= 5;
+	/** Start of a word (ID) */
+	public static final int WORD_START			= 6;
+	/** End of a word (ID) */
+	public static final int WORD_END			= 7;
+	/** Start of a glyph (ID) */
+	public static final int GLYPH_START			= 8;
+	/** End of a glyph (ID) */
+	public static final int GLYPH_END			= 9;
+	/** Outline of the current region, line, word or glyph (ID of the object, points, confidence) */
+	public static final int COORDS				= 10;
+	/** Baseline of the current text line (ID of the line, points, confidence) */
+	public static final int BASELINE			= 11;
+	/** Text content of the current region, line, word or glyph (ID of the object, text, plain text, index, confidence) */
+	public static final int TEXT_EQUIV			= 12;
+	/** Region reference in the reading order (region ID, index, ID of the parent group) */
+	public static final int READING_ORDER_ENTRY	= 13;
+
+	private static final String PAGE_NAMESPACE_PREFIX = "http://schema.primaresearch.org/PAGE/";
+	private static XMLInputFactory inputFactory = null;
+
+	private InputStream inputStream;
+	private XMLStreamReader xmlReader;
+	private PointListParser pointListParser = new PointListParser();
+	private XmlFormatVersion formatVersion;
+
+	//Parser state
+	private int depth;
+	private int skipDepth;
+	private boolean inReadingOrder;
+	private int objectCount;
+	private int[] objectTypes = new int[16];
+	private String[] objectIds = new String[16];
+	private int[] objectDepths = new int[16];
+	private int groupCount;
+	private String[] groupIds = new String[16];
+	private StringBuilder unicode = new StringBuilder();
+	private StringBuilder plainText = new StringBuilder();
+	private StringBuilder currentText;
+	private StringBuilder pointList = new StringBuilder();
+	private boolean coordsOpen;
+
+	//Current event
+	private int eventType = END;
+	private String id;
+	private String regionType;
+	private String typeAttribute;
+	private String points;
+	private Polygon polygon;
+	private String text;
+	private String plain;
+	private Integer index;
+	private Double confidence;
+	private String groupId;
+	private String imageFilename;
+	private int width;
+	private int height;
+
+	/**
+	 * Opens the given document and reads up to the root element.
+	 * @param source FileInput, UrlInput or ArchiveInput
+	 * @return <code>true</code> if the document is a PAGE document, <code>false</code> otherwise (see {@link #getErrors()})
+	 */
+	public boolean open(InputSource source) {
+		close();
+		lastErrors = new PageErrorHandler();
+		depth = skipDepth = objectCount = groupCount = 0;
+		inReadingOrder = coordsOpen = false;
+		formatVersion = null;
+		eventType = END;
+
+		inputStream = getInputStream(source);
+		if (inputStream == null)
+			return false;
+		try {
+			xmlReader = getInputFactory().createXMLStreamReader(inputStream);
+			while (xmlReader.hasNext()) {
+				if (xmlReader.next() == XMLStreamConstants.START_ELEMENT) {
+					depth++;
+					formatVersion = SaxPageHandlerFactory.getSchemaVersion(xmlReader.getNamespaceURI(), xmlReader.getLocalName());
+					break;
+				}
+			}
+			if (formatVersion == null || xmlReader.getNamespaceURI() == null 
+					|| !xmlReader.getNamespaceURI().startsWith(PAGE_NAMESPACE_PREFIX)) {
+				lastErrors.getErrors().add(new IOError("Not a PAGE XML document"));
+				close();
+				return false;
+			}
+			return true;
+		} catch (XMLStreamException e) {
+			lastErrors.getErrors().add(new IOError("Could not read XML: "+e.getMessage()));
+			close();
+		}
+		return false;
+	}
+
+	private static synchronized XMLInputFactory getInputFactory() {
+		if (inputFactory == null) {
+			inputFactory = XMLInputFactory.newInstance();
+			inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+			inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+			inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		}
+		return inputFactory;
+	}
+
+	/**
+	 * Returns the format version of the opened document
+	 */
+	public XmlFormatVersion getFormatVersion() {
+		return formatVersion;
+	}
+
+	/**
+	 * Returns errors of the last operation
+	 */
+	public List<IOError> getErrors() {
+		return lastErrors != null ? lastErrors.getErrors() : null;
+	}
+
+	/**
+	 * Closes the document (called automatically at the end of the document).
+	 */
+	@Override
+	public void close() {
+		if (xmlReader != null) {
+			try {
+				xmlReader.close();
+			} catch (XMLStreamException e) {
+				e.printStackTrace();
+			}
+			xmlReader = null;
+		}
+		if (inputStream != null) {
+			try {
+				inputStream.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			inputStream = null;
+		}
+	}
+
+	/**
+	 * Reads up to the next event.
+	 * @return Event type (e.g. TEXT_LINE_START) or END at the end of the document or in case of an error (see {@link #getErrors()})
+	 */
+	public int next() {
+		clearEvent();
+		if (xmlReader == null)
+			return END;
+		try {
+			while (xmlReader.hasNext()) {
+				int xmlEvent = xmlReader.next();
+				if (xmlEvent == XMLStreamConstants.START_ELEMENT) {
+					depth++;
+					if (skipDepth > 0)
+						continue;
+					if (handleStartElement(xmlReader.getLocalName()))
+						return eventType;
+				}
+				else if (xmlEvent == XMLStreamConstants.END_ELEMENT) {
+					int elementDepth = depth--;
+					if (skipDepth > 0) {
+						if (elementDepth == skipDepth)
+							skipDepth = 0;
+						continue;
+					}
+					if (handleEndElement(xmlReader.getLocalName(), elementDepth))
+						return eventType;
+				}
+				else if (currentText != null && (xmlEvent == XMLStreamConstants.CHARACTERS 
+						|| xmlEvent == XMLStreamConstants.CDATA || xmlEvent == XMLStreamConstants.SPACE)) {
+					currentText.append(xmlReader.getTextCharacters(), xmlReader.getTextStart(), xmlReader.getTextLength());
+				}
+			}
+		} catch (XMLStreamException e) {
+			lastErrors.getErrors().add(new IOError("Could not read XML: "+e.getMessage()));
+		}
+		close();
+		eventType = END;
+		return END;
+	}
+
+	/**
+	 * Handles the start of an XML element
+	 * @return <code>true</code> if an event is ready
+	 */
+	private boolean handleStartElement(String localName) {
+		int parentType = objectCount > 0 ? objectTypes[objectCount - 1] : END;
+		boolean directChild = objectCount > 0 && objectDepths[objectCount - 1] == depth - 1;
+
+		if (DefaultXmlNames.ELEMENT_Page.equals(localName)) {
+			imageFilename = xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_imageFilename);
+			width = parseInt(xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_imageWidth));
+			height = parseInt(xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_imageHeight));
+			pushObject(PAGE, null);
+			eventType = PAGE;
+			return true;
+		}
+		if ((parentType == PAGE || parentType == REGION_START) && directChild && localName.endsWith("Region")) {
+			id = xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_id);
+			regionType = localName;
+			typeAttribute = xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_type);
+			return startObject(REGION_START);
+		}
+		if (directChild && DefaultXmlNames.ELEMENT_TextLine.equals(localName) && parentType == REGION_START)
+			return startObject(TEXT_LINE_START);
+		if (directChild && DefaultXmlNames.ELEMENT_Word.equals(localName) && parentType == TEXT_LINE_START)
+			return startObject(WORD_START);
+		if (directChild && DefaultXmlNames.ELEMENT_Glyph.equals(localName) && parentType == WORD_START)
+			return startObject(GLYPH_START);
+		if (DefaultXmlNames.ELEMENT_Graphemes.equals(localName)) {
+			skipDepth = depth;
+			return false;
+		}
+
+		//Geometry
+		if (directChild && parentType != PAGE && (DefaultXmlNames.ELEMENT_Coords.equals(localName)
+						|| (DefaultXmlNames.ELEMENT_Baseline.equals(localName) && parentType == TEXT_LINE_START))) {
+			coordsOpen = true;
+			pointList.setLength(0);
+			String attr = xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_points);
+			if (attr != null)
+				pointList.append(attr);
+			confidence = parseDouble(xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_conf));
+			return false;
+		}
+		if (coordsOpen && DefaultXmlNames.ELEMENT_Point.equals(localName)) { //Old format
+			if (pointList.length() > 0)
+				pointList.append(' ');
+			pointList.append(xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_x)).append(',')
+						.append(xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_y));
+			return false;
+		}
+
+		//Text
+		if (directChild && parentType != PAGE && DefaultXmlNames.ELEMENT_TextEquiv.equals(localName)) {
+			unicode.setLength(0);
+			plainText.setLength(0);
+			index = parseInteger(xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_index));
+			confidence = parseDouble(xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_conf));
+			pushObject(TEXT_EQUIV, null);
+			return false;
+		}
+		if (parentType == TEXT_EQUIV && directChild) {
+			if (DefaultXmlNames.ELEMENT_Unicode.equals(localName))
+				currentText = unicode;
+			else if (DefaultXmlNames.ELEMENT_PlainText.equals(localName))
+				currentText = plainText;
+			return false;
+		}
+
+		//Reading order
+		if (DefaultXmlNames.ELEMENT_ReadingOrder.equals(localName)) {
+			inReadingOrder = true;
+			return false;
+		}
+		if (inReadingOrder) {
+			if (DefaultXmlNames.ELEMENT_RegionRef.equals(localName) || DefaultXmlNames.ELEMENT_RegionRefIndexed.equals(localName)) {
+				id = xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_regionRef);
+				index = parseInteger(xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_index));
+				groupId = groupCount > 0 ? groupIds[groupCount - 1] : null;
+				eventType = READING_ORDER_ENTRY;
+				return true;
+			}
+			if (localName.endsWith("Group") || localName.endsWith("GroupIndexed")) {
+				if (groupCount == groupIds.length)
+					groupIds = java.util.Arrays.copyOf(groupIds, groupCount * 2);
+				groupIds[groupCount++] = xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_id);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Handles the end of an XML element
+	 * @return <code>true</code> if an event is ready
+	 */
+	private boolean handleEndElement(String localName, int elementDepth) {
+		if (coordsOpen && !DefaultXmlNames.ELEMENT_Point.equals(localName)) {
+			coordsOpen = false;
+			id = objectIds[objectCount - 1];
+			points = pointList.toString();
+			eventType = DefaultXmlNames.ELEMENT_Baseline.equals(localName) ? BASELINE : COORDS;
+			return true;
+		}
+		if (currentText != null) {
+			currentText = null;
+			return false;
+		}
+		if (objectCount > 0 && objectDepths[objectCount - 1] == elementDepth) {
+			int type = objectTypes[--objectCount];
+			if (type == TEXT_EQUIV) {
+				text = unicode.toString();
+				plain = plainText.length() > 0 ? plainText.toString() : null;
+				id = objectCount > 0 ? objectIds[objectCount - 1] : null;
+				eventType = TEXT_EQUIV;
+				return true;
+			}
+			if (type == PAGE)
+				return false;
+			id = objectIds[objectCount];
+			if (type == REGION_START)
+				regionType = localName;
+			eventType = type + 1; //Corresponding end event
+			return true;
+		}
+		if (inReadingOrder) {
+			if (DefaultXmlNames.ELEMENT_ReadingOrder.equals(localName))
+				inReadingOrder = false;
+			else if (groupCount > 0 && (localName.endsWith("Group") || localName.endsWith("GroupIndexed")))
+				groupCount--;
+		}
+		return false;
+	}
+
+	private boolean startObject(int type) {
+		if (type != REGION_START)
+			id = xmlReader.getAttributeValue(null, DefaultXmlNames.ATTR_id);
+		pushObject(type, id);
+		eventType = type;
+		return true;
+	}
+
+	private void pushObject(int type, String objectId) {
+		if (objectCount == objectTypes.length) {
+			objectTypes = java.util.Arrays.copyOf(objectTypes, objectCount * 2);
+			objectIds = java.util.Arrays.copyOf(objectIds, objectCount * 2);
+			objectDepths = java.util.Arrays.copyOf(objectDepths, objectCount * 2);
+		}
+		objectTypes[objectCount] = type;
+		objectIds[objectCount] = objectId;
+		objectDepths[objectCount] = depth;
+		objectCount++;
+	}
+
+	private void clearEvent() {
+		eventType = END;
+		id = null;
+		regionType = null;
+		typeAttribute = null;
+		points = null;
+		polygon = null;
+		text = null;
+		plain = null;
+		index = null;
+		confidence = null;
+		groupId = null;
+	}
+
+	private static int parseInt(String str) {
+		Integer i = parseInteger(str);
+		return i != null ? i.intValue() : 0;
+	}
+
+	private static Integer parseInteger(String str) {
+		if (str == null)
+			return null;
+		try {
+			return Integer.valueOf(str.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static Double parseDouble(String str) {
+		if (str == null)
+			return null;
+		try {
+			return Double.valueOf(str.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the type of the current event (see {@link #next()})
+	 */
+	public int getEventType() {
+		return eventType;
+	}
+
+	/**
+	 * Returns the ID of the current object. For COORDS, BASELINE and TEXT_EQUIV this is the ID of the
+	 * region, line, word or glyph the data belongs to, for READING_ORDER_ENTRY the ID of the referenced region.
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the type of the object the current COORDS or TEXT_EQUIV event belongs to
+	 * (REGION_START, TEXT_LINE_START, WORD_START or GLYPH_START).
+	 * For start and end events this is the corresponding start event type. 
+	 */
+	public int getObjectType() {
+		if (eventType == COORDS || eventType == BASELINE || eventType == TEXT_EQUIV)
+			return objectCount > 0 ? objectTypes[objectCount - 1] : END;
+		if (eventType >= REGION_START && eventType <= GLYPH_END)
+			return eventType - ((eventType - REGION_START) % 2);
+		return END;
+	}
+
+	/**
+	 * Returns the element name of the current region (e.g. 'TextRegion') for REGION_START and REGION_END
+	 */
+	public String getRegionType() {
+		return regionType;
+	}
+
+	/**
+	 * Returns the <code>type</code> attribute of the current region (e.g. 'paragraph') for REGION_START
+	 */
+	public String getTypeAttribute() {
+		return typeAttribute;
+	}
+
+	/**
+	 * Returns the point list of the current COORDS or BASELINE event (e.g. "10,10 20,10 20,20")
+	 */
+	public String getPoints() {
+		return points;
+	}
+
+	/**
+	 * Returns the polygon of the current COORDS or BASELINE event (parsed on request)
+	 * @return Polygon or <code>null</code>
+	 */
+	public Polygon getPolygon() {
+		if (polygon == null && points != null) {
+			polygon = new Polygon();
+			try {
+				pointListParser.parse(points, polygon);
+			} catch (NumberFormatException e) {
+				lastErrors.getErrors().add(new IOError("Invalid point list: "+points));
+			}
+			polygon.setConfidence(confidence);
+		}
+		return polygon;
+	}
+
+	/**
+	 * Returns the Unicode text of the current TEXT_EQUIV event
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Returns the plain text of the current TEXT_EQUIV event
+	 * @return Text or <code>null</code>
+	 */
+	public String getPlainText() {
+		return plain;
+	}
+
+	/**
+	 * Returns the index of the current TEXT_EQUIV or READING_ORDER_ENTRY event
+	 * @return Index or <code>null</code>
+	 */
+	public Integer getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the confidence of the current COORDS, BASELINE or TEXT_EQUIV event
+	 * @return Confidence or <code>null</code>
+	 */
+	public Double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Returns the ID of the group that contains the current READING_ORDER_ENTRY
+	 */
+	public String getGroupId() {
+		return groupId;
+	}
+
+	/**
+	 * Returns the image filename of the page (available from the PAGE event on)
+	 */
+	public String getImageFilename() {
+		return imageFilename;
+	}
+
+	/**
+	 * Returns the image width of the page (available from the PAGE event on)
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the image height of the page (available from the PAGE event on)
+	 */
+	public int getHeight() {
+		return height;
+	}
+}
@@ -37,7 +37,6 @@ import org.primaresearch.io.xml.XmlValidator;
 import org.primaresearch.io.xml.XmlModelAndValidatorProvider;
 import org.primaresearch.io.xml.XmlModelAndValidatorProvider.NoSchemasException;
 import org.primaresearch.io.xml.XmlModelAndValidatorProvider.UnsupportedSchemaVersionException;
-import org.primaresearch.maths.geometry.Point;
 import org.primaresearch.maths.geometry.Polygon;
 
 /**
@@ -57,6 +56,7 @@ public class PageXmlInputOutput implements FormatModelSource {
 
 	private static PageXmlInputOutput instance = null;
 	private XmlModelAndValidatorProvider validatorProvider;
+	private ConcurrentXmlPageReader concurrentReader = null;
 	
 	/**
 	 * Constructor (private because this is a singleton).
@@ -72,7 +72,7 @@ public class PageXmlInputOutput implements FormatModelSource {
 	/**
 	 * Returns the instance of the singleton.
 	 */
-	public static PageXmlInputOutput getInstance() {
+	public static synchronized PageXmlInputOutput getInstance() {
 		if (instance == null)
 			instance = new PageXmlInputOutput();
 		return instance;
@@ -89,7 +89,11 @@ public class PageXmlInputOutput implements FormatModelSource {
 	 * Sets the validator provider of the singleton. 
 	 */
 	private static void setValidatorProvider(XmlModelAndValidatorProvider provider) {
-		getInstance().validatorProvider = provider;
+		PageXmlInputOutput instance = getInstance();
+		synchronized (instance) {
+			instance.validatorProvider = provider;
+			instance.concurrentReader = null; //Uses the old provider
+		}
 	}
 	
 	/**
@@ -115,6 +119,35 @@ public class PageXmlInputOutput implements FormatModelSource {
 			setValidatorProvider(new PageXmlModelAndValidatorProvider(rootFolder, schemaFilename));
 	}
 	
+	/**
+	 * Compiles the schemas and parses the schema models of the given PAGE versions in advance,
+	 * so that the first read or write operation does not have to wait for it.
+	 * Compiled schemas are cached process-wide and survive changes of the additional schema location.
+	 * @param versions Schema versions to prepare (all bundled PAGE schemas if none specified)
+	 */
+	public static void warmUp(XmlFormatVersion... versions) {
+		XmlModelAndValidatorProvider validatorProvider = getValidatorProvider();
+		if (validatorProvider != null)
+			validatorProvider.warmUp(versions);
+	}
+	
+	/**
+	 * Runs {@link #warmUp(XmlFormatVersion...)} in a background (daemon) thread.
+	 * @param versions Schema versions to prepare (all bundled PAGE schemas if none specified)
+	 * @return The started thread
+	 */
+	public static Thread warmUpInBackground(final XmlFormatVersion... versions) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				warmUp(versions);
+			}
+		}, "PAGE schema warm-up");
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+	
 	/**
 	 * Creates and returns an XML writer for PAGE using the latest schema version.
 	 * 
@@ -197,6 +230,20 @@ public class PageXmlInputOutput implements FormatModelSource {
 		return new XmlPageReader(validatorProvider);
 	}
 	
+	/**
+	 * Returns the shared thread-safe XML reader for PAGE.<br>
+	 * The reader can be used by multiple threads at the same time (e.g. for batch processing).
+	 * Compiled schemas are shared between all threads.
+	 */
+	public static ConcurrentXmlPageReader getConcurrentReader() {
+		PageXmlInputOutput instance = getInstance();
+		synchronized (instance) {
+			if (instance.concurrentReader == null)
+				instance.concurrentReader = new ConcurrentXmlPageReader(instance.validatorProvider);
+			return instance.concurrentReader;
+		}
+	}
+	
 	/**
 	 * Creates a page object from the given XML file (no validation).
 	 * 
@@ -224,6 +271,20 @@ public class PageXmlInputOutput implements FormatModelSource {
 		return reader.read(new FileInput(new File(filePath)));
 	}
 
+	/**
+	 * Creates a page object from the given XML file, reading only the parts specified by the options.
+	 * 
+	 * @param filePath Path to PAGE XML file.
+	 * @param readOptions Options defining which parts of the document are read (e.g. only regions and text lines)
+	 * @return Page object
+	 * @throws UnsupportedSchemaVersionException Schema file not found
+	 */
+	public static Page readPage(String filePath, XmlPageReadOptions readOptions) throws UnsupportedFormatVersionException {
+		XmlPageReader reader = getReader();
+		reader.setReadOptions(readOptions);
+		return reader.read(new FileInput(new File(filePath)));
+	}
+
 	/**
 	 * Creates a page object from the given XML file.
 	 * 
@@ -304,8 +365,7 @@ public class PageXmlInputOutput implements FormatModelSource {
 				Polygon polygon = it.next().getCoords();
 				if (polygon != null) {
 					for (int i=0; i<polygon.getSize(); i++) {
-						Point p = polygon.getPoint(i);
-						if (p.x > layout.getWidth() || p.y > layout.getHeight()) {
+						if (polygon.getX(i) > layout.getWidth() || polygon.getY(i) > layout.getHeight()) {
 							ok = false;
 							break;
 						}
@@ -356,11 +416,9 @@ public class PageXmlInputOutput implements FormatModelSource {
 		if (polygon == null)
 			return;
 		for (int i=0; i<polygon.getSize(); i++) {
-			Point p = polygon.getPoint(i);
-			p.x = (int)((double)p.x * scaleX + 0.5) ;
-			p.y = (int)((double)p.y * scaleY + 0.5);
+			polygon.setPoint(i, (int)((double)polygon.getX(i) * scaleX + 0.5), 
+								(int)((double)polygon.getY(i) * scaleY + 0.5));
 		}
-		polygon.setBoundingBoxOutdated();
 	}
 
 }
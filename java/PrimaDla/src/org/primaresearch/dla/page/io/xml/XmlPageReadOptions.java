@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml;
+
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+
+/**
+ * Options for reading PAGE XML (which parts of the document are loaded).<br>
+ * <br>
+ * Excluded elements are skipped together with all their child elements while parsing,
+ * so that no objects are created for them. By default, everything is read.
+ * The options only apply to PAGE XML (not to ALTO, FineReader or hOCR).
+ *
+ * @author Christian Clausner
+ *
+ */
+public class XmlPageReadOptions {
+
+	private LowLevelTextType deepestTextLevel = null;
+	private boolean readTextEquivVariants = true;
+	private boolean readUserDefined = true;
+	private boolean readLabels = true;
+	private boolean readAlternativeImages = true;
+	private boolean trustedIds = false;
+
+	/**
+	 * Returns the deepest level of text objects that is read.
+	 * @return Text object type or <code>null</code> (all levels)
+	 */
+	public LowLevelTextType getDeepestTextLevel() {
+		return deepestTextLevel;
+	}
+
+	/**
+	 * Sets the deepest level of text objects that is read. For example, if set to
+	 * {@link LowLevelTextType#TextLine}, words, glyphs and graphemes are skipped.
+	 * Grapheme groups and non-printing characters are on the same level as graphemes.
+	 * @param deepestTextLevel Text object type or <code>null</code> to read all levels
+	 */
+	public void setDeepestTextLevel(LowLevelTextType deepestTextLevel) {
+		this.deepestTextLevel = deepestTextLevel;
+	}
+
+	/**
+	 * Returns <code>true</code> if all TextEquiv elements are read, <code>false</code> if only the first one of each object is read.
+	 */
+	public boolean isReadTextEquivVariants() {
+		return readTextEquivVariants;
+	}
+
+	/**
+	 * Enables or disables reading text content variants (all TextEquiv elements of an object after the first one).
+	 */
+	public void setReadTextEquivVariants(boolean readTextEquivVariants) {
+		this.readTextEquivVariants = readTextEquivVariants;
+	}
+
+	/**
+	 * Returns <code>true</code> if UserDefined elements (user attributes) are read.
+	 */
+	public boolean isReadUserDefined() {
+		return readUserDefined;
+	}
+
+	/**
+	 * Enables or disables reading UserDefined elements (user attributes).
+	 */
+	public void setReadUserDefined(boolean readUserDefined) {
+		this.readUserDefined = readUserDefined;
+	}
+
+	/**
+	 * Returns <code>true</code> if Labels elements are read.
+	 */
+	public boolean isReadLabels() {
+		return readLabels;
+	}
+
+	/**
+	 * Enables or disables reading Labels elements.
+	 */
+	public void setReadLabels(boolean readLabels) {
+		this.readLabels = readLabels;
+	}
+
+	/**
+	 * Returns <code>true</code> if AlternativeImage elements are read.
+	 */
+	public boolean isReadAlternativeImages() {
+		return readAlternativeImages;
+	}
+
+	/**
+	 * Enables or disables reading AlternativeImage elements.
+	 */
+	public void setReadAlternativeImages(boolean readAlternativeImages) {
+		this.readAlternativeImages = readAlternativeImages;
+	}
+
+	/**
+	 * Returns <code>true</code> if the IDs of the document are trusted to be unique (fast path for loading).
+	 */
+	public boolean isTrustedIds() {
+		return trustedIds;
+	}
+
+	/**
+	 * Enables or disables trusted IDs. If enabled, the IDs of the document are not checked for uniqueness
+	 * while reading. Use only for valid documents. If the page is edited afterwards, the ID register records 
+	 * all IDs at that point and checks new IDs as usual (see {@link org.primaresearch.ident.XmlIdRegister}).
+	 */
+	public void setTrustedIds(boolean trustedIds) {
+		this.trustedIds = trustedIds;
+	}
+
+	/**
+	 * Returns <code>true</code> if the options exclude any part of a document.
+	 */
+	public boolean isFiltering() {
+		return deepestTextLevel == LowLevelTextType.TextLine
+				|| deepestTextLevel == LowLevelTextType.Word
+				|| deepestTextLevel == LowLevelTextType.Glyph
+				|| !readTextEquivVariants || !readUserDefined || !readLabels || !readAlternativeImages;
+	}
+}
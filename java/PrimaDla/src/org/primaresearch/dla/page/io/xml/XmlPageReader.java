@@ -15,6 +15,7 @@
  */
 package org.primaresearch.dla.page.io.xml;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -26,14 +27,21 @@ import org.primaresearch.dla.page.Page;
 import org.primaresearch.dla.page.io.InputSource;
 import org.primaresearch.dla.page.io.PageReader;
 import org.primaresearch.dla.page.io.PageReaderBase;
+import org.primaresearch.dla.page.io.PageTiming;
+import org.primaresearch.dla.page.io.xml.sax.SaxPageContentFilter;
 import org.primaresearch.dla.page.io.xml.sax.SaxPageHandler;
+import org.primaresearch.dla.page.io.xml.sax.SaxPageHandlerDispatcher;
 import org.primaresearch.dla.page.io.xml.sax.SaxPageHandlerFactory;
+import org.primaresearch.dla.page.io.xml.sax.TimedContentHandler;
 import org.primaresearch.io.UnsupportedFormatVersionException;
+import org.primaresearch.io.timing.CountingInputStream;
+import org.primaresearch.io.timing.PhaseTiming;
 import org.primaresearch.io.xml.IOError;
 import org.primaresearch.io.xml.XmlFormatVersion;
 import org.primaresearch.io.xml.XmlModelAndValidatorProvider;
 import org.primaresearch.io.xml.XmlValidator;
 import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.DefaultHandler;
@@ -54,13 +62,25 @@ public class XmlPageReader extends PageReaderBase implements PageReader {
 	private SAXParser schemaVersionParser;
 	private XmlModelAndValidatorProvider validatorProvider;
 	private XmlFormatVersion schemaVersion = null;
+	private boolean singlePass = false;
+	private XmlPageReadOptions readOptions = null;
 
 	/**
 	 * Constructor
 	 * @param validatorProvider Schema validator provider. (optional, set to null if no validation required).
 	 */
 	public XmlPageReader(XmlModelAndValidatorProvider validatorProvider) {
+		this(validatorProvider, false);
+	}
+	
+	/**
+	 * Constructor
+	 * @param validatorProvider Schema validator provider. (optional, set to null if no validation required).
+	 * @param singlePass Set to <code>true</code> to read each input only once (see {@link #setSinglePass(boolean)}).
+	 */
+	public XmlPageReader(XmlModelAndValidatorProvider validatorProvider, boolean singlePass) {
 	    this.validatorProvider = validatorProvider;
+	    this.singlePass = singlePass;
 	    if (validatorProvider != null) {
 	    	createSchemaVersionParser();
 	    	schemaVersionHandler = new SchemaVersionHandler();
@@ -72,6 +92,45 @@ public class XmlPageReader extends PageReaderBase implements PageReader {
 		}
 	}
 	
+	/**
+	 * Returns <code>true</code> if the input is read only once (see {@link #setSinglePass(boolean)}).
+	 */
+	public boolean isSinglePass() {
+		return singlePass;
+	}
+
+	/**
+	 * Enables or disables single-pass reading.<br>
+	 * <br>
+	 * By default, the schema version is determined by a separate parse of the input 
+	 * before the actual reading (if a validator provider is set). In single-pass mode,
+	 * the schema version is taken from the root element and the matching handler
+	 * and validator are selected on the fly, so that each input (file or URL)
+	 * is opened and read only once.
+	 * 
+	 * @param singlePass Set to <code>true</code> to enable single-pass reading
+	 */
+	public void setSinglePass(boolean singlePass) {
+		this.singlePass = singlePass;
+	}
+	
+	/**
+	 * Returns the options defining which parts of a document are read.
+	 * @return Options object or <code>null</code> (everything is read)
+	 */
+	public XmlPageReadOptions getReadOptions() {
+		return readOptions;
+	}
+
+	/**
+	 * Sets the options defining which parts of a document are read (e.g. only regions
+	 * and text lines). Excluded elements are skipped while parsing.
+	 * @param readOptions Options object or <code>null</code> to read everything
+	 */
+	public void setReadOptions(XmlPageReadOptions readOptions) {
+		this.readOptions = readOptions;
+	}
+	
 	/**
 	 * Creates the SAX parser for PAGE XML.
 	 * @throws UnsupportedFormatVersionException 
@@ -143,7 +202,7 @@ public class XmlPageReader extends PageReaderBase implements PageReader {
 		
 		Page page = null;
 		
-		if (!lastErrors.hasErrors())
+		if (!lastErrors.hasErrors() && pageHandler != null)
 			page = pageHandler.getPageObject();
 		
 		//if (!MeasurementUnit.PIXEL.equals(pageHandler.getMeasurementUnit()))
@@ -171,8 +230,14 @@ public class XmlPageReader extends PageReaderBase implements PageReader {
 	 * Parses a PAGE file
 	 */
 	private void parse(InputSource input, PageErrorHandler errorHandler) throws UnsupportedFormatVersionException {
+		if (singlePass && validatorProvider != null) {
+			parseSinglePass(input, errorHandler);
+			return;
+		}
+		
 		//Validation?
 		if (validatorProvider != null) {
+			long time = PhaseTiming.start();
 			InputStream inputStream = null;
 			try {
 		    	inputStream = getInputStream(input);
@@ -182,6 +247,7 @@ public class XmlPageReader extends PageReaderBase implements PageReader {
 				//We shortcut the parsing with an exception (see below)
 			} catch (SAXException e) {
 				if (PARSING_COMPLETE.equals(e.getMessage())) { //Shortcut when no more parsing is required.
+					PhaseTiming.finish(PhaseTiming.SCHEMA_VERSION_DETECTION, time, 0L, 1L);
 					XmlFormatVersion version = schemaVersionHandler.getSchemaVersion();
 					if (version == null || !version.equals(schemaVersion)) {
 						schemaVersion = version;
@@ -203,14 +269,24 @@ public class XmlPageReader extends PageReaderBase implements PageReader {
 			}			
 		}
 		
+		long time = PhaseTiming.start();
+		TimedContentHandler timedHandler = null;
 		InputStream inputStream = null;
 	    try{
 	    	XMLReader reader = mainParser.getXMLReader();
 	    	reader.setErrorHandler(errorHandler);
-	    	reader.setContentHandler(pageHandler);
+	    	pageHandler.setTrustedIds(readOptions != null && readOptions.isTrustedIds());
+	    	ContentHandler handler = pageHandler;
+	    	if (readOptions != null && readOptions.isFiltering())
+	    		handler = new SaxPageContentFilter(pageHandler, readOptions);
+	    	if (time != PhaseTiming.OFF)
+	    		handler = timedHandler = new TimedContentHandler(handler);
+	    	reader.setContentHandler(handler);
 	    	inputStream = getInputStream(input);
 	    	if (inputStream == null)
 	    		return;
+	    	if (timedHandler != null)
+	    		inputStream = new CountingInputStream(inputStream);
 	    	org.xml.sax.InputSource saxInput = new org.xml.sax.InputSource(inputStream);
 	    	//saxInput.setEncoding("utf-8");
 	    	reader.parse(saxInput);
@@ -225,8 +301,64 @@ public class XmlPageReader extends PageReaderBase implements PageReader {
 				}
 			}
 		}
+	    if (timedHandler != null && inputStream != null)
+	    	reportParsing(time, timedHandler, (CountingInputStream)inputStream);
+	}
+
+	/**
+	 * Reports the parsing and model building phases (see {@link PhaseTiming})
+	 */
+	private void reportParsing(long startTime, TimedContentHandler timedHandler, CountingInputStream inputStream) {
+		PhaseTiming.finish(PhaseTiming.PARSING, startTime, inputStream.getCount(), timedHandler.getElementCount());
+		PhaseTiming.report(PhaseTiming.MODEL_BUILDING, startTime, timedHandler.getTime(), 0L, 
+				PageTiming.countContentObjects(pageHandler != null ? pageHandler.getPageObject() : null));
 	}
 
+	/**
+	 * Parses a PAGE file in one go (schema version, handler and validator are selected at the root element)
+	 */
+	private void parseSinglePass(InputSource input, PageErrorHandler errorHandler) throws UnsupportedFormatVersionException {
+		SaxPageHandlerDispatcher dispatcher = new SaxPageHandlerDispatcher(validatorProvider, errorHandler);
+		dispatcher.setReadOptions(readOptions);
+		//In single-pass mode, the model building time includes the validation
+		long time = PhaseTiming.start();
+		TimedContentHandler timedHandler = null;
+		InputStream inputStream = null;
+	    try{
+	    	//The schema version parser is a plain non-validating parser (validation is done by the dispatcher)
+	    	XMLReader reader = schemaVersionParser.getXMLReader();
+	    	reader.setErrorHandler(errorHandler);
+	    	if (time != PhaseTiming.OFF)
+	    		reader.setContentHandler(timedHandler = new TimedContentHandler(dispatcher));
+	    	else
+	    		reader.setContentHandler(dispatcher);
+	    	inputStream = getInputStream(input);
+	    	if (inputStream == null)
+	    		return;
+	    	if (timedHandler != null)
+	    		inputStream = new CountingInputStream(inputStream);
+	    	reader.parse(new org.xml.sax.InputSource(new BufferedInputStream(inputStream)));
+	    } catch (SAXException e) {
+	    	if (e.getException() instanceof UnsupportedFormatVersionException)
+	    		throw (UnsupportedFormatVersionException)e.getException();
+	    	e.printStackTrace();
+	    } catch (Throwable t) {
+	    	t.printStackTrace();
+	    } finally {
+	    	pageHandler = dispatcher.getPageHandler();
+	    	//The main parser does not match the dispatcher's handler (forces a new parser for the next two-pass read)
+	    	schemaVersion = null;
+			if (inputStream != null) {
+				try {
+					inputStream.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	    if (timedHandler != null && inputStream != null)
+	    	reportParsing(time, timedHandler, (CountingInputStream)inputStream);
+	}
 	
 	/**
 	 * SAX handler implementation to parse the schema version only.
@@ -251,35 +383,11 @@ public class XmlPageReader extends PageReaderBase implements PageReader {
 		public void startElement(String namespaceURI, String localName, String qName, Attributes atts)
 		      throws SAXException {
 			
-		    if (DefaultXmlNames.ELEMENT_PcGts.equals(localName)){
-		    	
-				String str = namespaceURI; //Example: http://schema.primaresearch.org/PAGE/gts/pagecontent/2010-03-19
-				int pos = str.lastIndexOf("/");
-				schemaVersion = new XmlFormatVersion(str.substring(pos+1));
-					throw new SAXException(PARSING_COMPLETE);
-		    }
-		    //Abbyy
-		    else if ("document".equals(localName)) {
-				//String str = namespaceURI; //Example: http://www.abbyy.com/FineReader_xml/FineReader10-schema-v1.xml
-				if (namespaceURI.contains("abbyy")) {
-					schemaVersion = new XmlFormatVersion(namespaceURI);
-					throw new SAXException(PARSING_COMPLETE);
-				}
-		    }
-		    //ALTO
-		    else if ("alto".equals(localName)) {
-				//String str = namespaceURI; //Examples: http://www.loc.gov/standards/alto/ns-v2#
-		    	//                                       http://www.loc.gov/standards/alto/ns-v3#
-				if (namespaceURI.toLowerCase().contains("alto")) {
-					schemaVersion = new XmlFormatVersion(namespaceURI);
-					throw new SAXException(PARSING_COMPLETE);
-				}
-		    }
-		    //HOCR
-		    else if ("html".equals(localName)) {
-				schemaVersion = new XmlFormatVersion("HOCR");
+			XmlFormatVersion version = SaxPageHandlerFactory.getSchemaVersion(namespaceURI, localName);
+			if (version != null) {
+				schemaVersion = version;
 				throw new SAXException(PARSING_COMPLETE);
-		    }
+			}
 		}
 	}
 	
@@ -38,6 +38,7 @@ import javax.xml.validation.Validator;
 import org.primaresearch.dla.page.Page;
 import org.primaresearch.dla.page.io.FileTarget;
 import org.primaresearch.dla.page.io.OutputTarget;
+import org.primaresearch.dla.page.io.PageTiming;
 import org.primaresearch.dla.page.layout.PageLayout;
 import org.primaresearch.dla.page.layout.converter.ConversionMessage;
 import org.primaresearch.dla.page.layout.logical.Group;
@@ -52,12 +53,13 @@ import org.primaresearch.dla.page.layout.physical.text.TextObject;
 import org.primaresearch.dla.page.layout.shared.GeometricObject;
 import org.primaresearch.dla.page.metadata.MetaData;
 import org.primaresearch.io.UnsupportedFormatVersionException;
+import org.primaresearch.io.timing.CountingOutputStream;
+import org.primaresearch.io.timing.PhaseTiming;
 import org.primaresearch.io.xml.IOError;
 import org.primaresearch.io.xml.XmlValidator;
-import org.primaresearch.maths.geometry.Point;
 import org.primaresearch.maths.geometry.Polygon;
-import org.primaresearch.shared.variable.Variable;
 import org.primaresearch.shared.variable.VariableMap;
+import org.primaresearch.shared.variable.VariableValue;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Text;
@@ -158,12 +160,15 @@ public class XmlPageWriter_2010_03_19 implements XmlPageWriter {
 			
 	        doc = docBuilder.newDocument();
 	        
+	        long time = PhaseTiming.start();
 	        writeRoot();
+	        PageTiming.finish(PhaseTiming.DOCUMENT_BUILDING, time, 0L, page);
 	        
 	        //Validation errors?
 	        if (validator != null) {
 	        	Validator domVal = validator.getSchema().newValidator();
 	        	domVal.setErrorHandler(lastErrors);
+	        	time = PhaseTiming.start();
 
 	        	try {
 					domVal.validate(new DOMSource(doc));
@@ -172,6 +177,7 @@ public class XmlPageWriter_2010_03_19 implements XmlPageWriter {
 				} catch (IOException e) {
 					e.printStackTrace();
 				}
+	        	PageTiming.finish(PhaseTiming.VALIDATION, time, 0L, page);
 	        }
 	        if (lastErrors.hasErrors()) {
 	        	return false;
@@ -180,6 +186,7 @@ public class XmlPageWriter_2010_03_19 implements XmlPageWriter {
 	        //Write XML
 	        if (!validateOnly) {
 	        	
+	            time = PhaseTiming.start();
 	            TransformerFactory transfac = TransformerFactory.newInstance();
 	            Transformer trans = transfac.newTransformer();
 	            DOMSource source = new DOMSource(doc);
@@ -192,9 +199,13 @@ public class XmlPageWriter_2010_03_19 implements XmlPageWriter {
 	            } else if (target instanceof StreamTarget)
 	            	os = ((StreamTarget) target).getOutputStream();
 	            
+	            if (os != null && time != PhaseTiming.OFF)
+	            	os = new CountingOutputStream(os);
+	            
 	            StreamResult result = new StreamResult(os);
 	            trans.transform(source, result);
 	            os.close();
+	            PageTiming.finish(PhaseTiming.SERIALIZATION, time, os instanceof CountingOutputStream ? ((CountingOutputStream)os).getCount() : 0L, page);
 	        }
             return true;
 		} catch (ParserConfigurationException e) {
@@ -355,11 +366,11 @@ public class XmlPageWriter_2010_03_19 implements XmlPageWriter {
 	}
 	
 	private void addContentObjectAttributes(Element parent, VariableMap vars) /*throws XMLStreamException*/ {
-		Variable v;
+		VariableValue value;
 		for (int i=0; i<vars.getSize(); i++) {
-			v = vars.get(i);
-			if (v.getValue() != null)
-				addAttribute(parent, v.getName(), v.getValue().toString());
+			value = vars.getValue(i);
+			if (value != null)
+				addAttribute(parent, vars.getVariableName(i), value.toString());
 		}
 	}
 	
@@ -367,13 +378,11 @@ public class XmlPageWriter_2010_03_19 implements XmlPageWriter {
 		Element coordsNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Coords);
 		parent.appendChild(coordsNode);
 		
-		Point p;
 		for (int i=0; i<coords.getSize(); i++) {
-			p = coords.getPoint(i);
 			Element pointNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Point);
 			coordsNode.appendChild(pointNode);
-			addAttribute(pointNode, DefaultXmlNames.ATTR_x, Integer.toString(p.x));
-			addAttribute(pointNode, DefaultXmlNames.ATTR_y, Integer.toString(p.y));
+			addAttribute(pointNode, DefaultXmlNames.ATTR_x, Integer.toString(coords.getX(i)));
+			addAttribute(pointNode, DefaultXmlNames.ATTR_y, Integer.toString(coords.getY(i)));
 		}
 	}
 	
@@ -41,6 +41,7 @@ import org.primaresearch.dla.page.AlternativeImage;
 import org.primaresearch.dla.page.Page;
 import org.primaresearch.dla.page.io.FileTarget;
 import org.primaresearch.dla.page.io.OutputTarget;
+import org.primaresearch.dla.page.io.PageTiming;
 import org.primaresearch.dla.page.layout.PageLayout;
 import org.primaresearch.dla.page.layout.converter.ConversionMessage;
 import org.primaresearch.dla.page.layout.logical.ContentObjectRelation;
@@ -74,13 +75,14 @@ import org.primaresearch.dla.page.metadata.MetaData;
 import org.primaresearch.dla.page.metadata.MetadataItem;
 import org.primaresearch.io.FormatModel;
 import org.primaresearch.io.UnsupportedFormatVersionException;
+import org.primaresearch.io.timing.CountingOutputStream;
+import org.primaresearch.io.timing.PhaseTiming;
 import org.primaresearch.io.xml.IOError;
 import org.primaresearch.io.xml.XmlFormatVersion;
 import org.primaresearch.io.xml.XmlValidator;
 import org.primaresearch.labels.HasLabels;
 import org.primaresearch.labels.Label;
 import org.primaresearch.labels.LabelGroup;
-import org.primaresearch.maths.geometry.Point;
 import org.primaresearch.maths.geometry.Polygon;
 import org.primaresearch.shared.variable.BooleanVariable;
 import org.primaresearch.shared.variable.DoubleVariable;
@@ -88,6 +90,7 @@ import org.primaresearch.shared.variable.IntegerVariable;
 import org.primaresearch.shared.variable.StringVariable;
 import org.primaresearch.shared.variable.Variable;
 import org.primaresearch.shared.variable.VariableMap;
+import org.primaresearch.shared.variable.VariableValue;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -197,12 +200,15 @@ public class XmlPageWriter_2018_07_15 implements XmlPageWriter {
 			namespace = getSchemaLocation();
 			doc = domImpl.createDocument(namespace, DefaultXmlNames.ELEMENT_PcGts, null);
 	        
+	        long time = PhaseTiming.start();
 	        writeRoot();
+	        PageTiming.finish(PhaseTiming.DOCUMENT_BUILDING, time, 0L, page);
 	        
 	        //Validation errors?
 	        if (validator != null) {
 	        	Validator domVal = validator.getSchema().newValidator();
 	        	domVal.setErrorHandler(lastErrors);
+	        	time = PhaseTiming.start();
 
 	        	try {
 					domVal.validate(new DOMSource(doc));
@@ -211,6 +217,7 @@ public class XmlPageWriter_2018_07_15 implements XmlPageWriter {
 				} catch (IOException e) {
 					e.printStackTrace();
 				}
+	        	PageTiming.finish(PhaseTiming.VALIDATION, time, 0L, page);
 	        }
 	        if (lastErrors.hasErrors()) {
 	        	return false;
@@ -219,6 +226,7 @@ public class XmlPageWriter_2018_07_15 implements XmlPageWriter {
 	        //Write XML
 	        if (!validateOnly) {
 	        	
+	            time = PhaseTiming.start();
 	            TransformerFactory transfac = TransformerFactory.newInstance();
 	            Transformer trans = transfac.newTransformer();
 	            DOMSource source = new DOMSource(doc);
@@ -231,9 +239,13 @@ public class XmlPageWriter_2018_07_15 implements XmlPageWriter {
 	            } else if (target instanceof StreamTarget)
 	            	os = ((StreamTarget) target).getOutputStream();
 	            
+	            if (os != null && time != PhaseTiming.OFF)
+	            	os = new CountingOutputStream(os);
+	            
 	            StreamResult result = new StreamResult(os);
 	            trans.transform(source, result);
 	            os.close();
+	            PageTiming.finish(PhaseTiming.SERIALIZATION, time, os instanceof CountingOutputStream ? ((CountingOutputStream)os).getCount() : 0L, page);
 	        }
             return true;
 		} catch (ParserConfigurationException e) {
@@ -654,11 +666,11 @@ public class XmlPageWriter_2018_07_15 implements XmlPageWriter {
 	
 	private boolean addContentObjectAttributes(Element parent, VariableMap vars) /*throws XMLStreamException*/ {
 		boolean ret = false;
-		Variable v;
+		VariableValue value;
 		for (int i=0; i<vars.getSize(); i++) {
-			v = vars.get(i);
-			if (v.getValue() != null) {
-				addAttribute(parent, v.getName(), v.getValue().toString());
+			value = vars.getValue(i);
+			if (value != null) {
+				addAttribute(parent, vars.getVariableName(i), value.toString());
 				ret = true;
 			}
 		}
@@ -677,16 +689,13 @@ public class XmlPageWriter_2018_07_15 implements XmlPageWriter {
 	}
 	
 	private void addPointsAttribute(Element parent, Polygon points) {
-		Point p;
 		StringBuilder pointList = new StringBuilder();
 		for (int i=0; i<points.getSize(); i++) {
-			p = points.getPoint(i);
-			
 			if (i>0)
 				pointList.append(" ");
-			pointList.append(Integer.toString(p.x));
+			pointList.append(Integer.toString(points.getX(i)));
 			pointList.append(",");
-			pointList.append(Integer.toString(p.y));
+			pointList.append(Integer.toString(points.getY(i)));
 		}
 		addAttribute(parent, DefaultXmlNames.ATTR_points, pointList.toString());
 	}
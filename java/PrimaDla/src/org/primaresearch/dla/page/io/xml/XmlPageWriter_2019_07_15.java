@@ -15,32 +15,30 @@
  */
 package org.primaresearch.dla.page.io.xml;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.validation.Validator;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
 
 import org.primaresearch.dla.page.AlternativeImage;
 import org.primaresearch.dla.page.Page;
 import org.primaresearch.dla.page.io.FileTarget;
 import org.primaresearch.dla.page.io.OutputTarget;
+import org.primaresearch.dla.page.io.PageTiming;
 import org.primaresearch.dla.page.layout.PageLayout;
 import org.primaresearch.dla.page.layout.converter.ConversionMessage;
 import org.primaresearch.dla.page.layout.logical.ContentObjectRelation;
@@ -74,13 +72,15 @@ import org.primaresearch.dla.page.metadata.MetaData;
 import org.primaresearch.dla.page.metadata.MetadataItem;
 import org.primaresearch.io.FormatModel;
 import org.primaresearch.io.UnsupportedFormatVersionException;
+import org.primaresearch.io.timing.CountingOutputStream;
+import org.primaresearch.io.timing.PhaseTiming;
 import org.primaresearch.io.xml.IOError;
+import org.primaresearch.io.xml.SaxXmlSerializer;
 import org.primaresearch.io.xml.XmlFormatVersion;
 import org.primaresearch.io.xml.XmlValidator;
 import org.primaresearch.labels.HasLabels;
 import org.primaresearch.labels.Label;
 import org.primaresearch.labels.LabelGroup;
-import org.primaresearch.maths.geometry.Point;
 import org.primaresearch.maths.geometry.Polygon;
 import org.primaresearch.shared.variable.BooleanVariable;
 import org.primaresearch.shared.variable.DoubleVariable;
@@ -88,30 +88,42 @@ import org.primaresearch.shared.variable.IntegerVariable;
 import org.primaresearch.shared.variable.StringVariable;
 import org.primaresearch.shared.variable.Variable;
 import org.primaresearch.shared.variable.VariableMap;
-import org.w3c.dom.DOMImplementation;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Text;
+import org.primaresearch.shared.variable.VariableValue;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 
 /**
- * Page writer implementation for XML files.
+ * Page writer implementation for XML files.<br>
+ * <br>
+ * The XML is streamed straight from the page object to the output (no document tree is built).
+ * If a validator is set, the same events are passed through a validator handler of the schema.
+ * Invalid pages are never written: File targets are written via a temporary file that only replaces 
+ * the target if the page is valid. For stream targets the page is validated in a separate pass first.
  * 
  * @author Christian Clausner
  */
 public class XmlPageWriter_2019_07_15 implements XmlPageWriter {
 	//TODO Rename class? It may be used to save files conform to other schemas.
 	
+	private static final String XSI_NAMESPACE = "http://www.w3.org/2001/XMLSchema-instance";
+	private static final String ENCODING = "UTF-8";
 	private static DateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
 
 	private Page page = null; 
 	private PageLayout layout = null;
+	private FormatModel model = null;
 	private XmlNameProvider xmlNameProvider;
-	private Document doc;
 	private XmlValidator validator;
 	private PageErrorHandler lastErrors;
 	private List<ConversionMessage> lastConversionMessages;
 	private String namespace;
+	/** Receiver of the XML events (serialiser and/or validator) */
+	private ContentHandler out;
+	/** Attributes for the next element (reused for all elements) */
+	private AttributesImpl atts = new AttributesImpl();
 	
 	
 	/**
@@ -147,7 +159,10 @@ public class XmlPageWriter_2019_07_15 implements XmlPageWriter {
 	}
 
 	/**
-	 * Writes the given Page object to an XML file.
+	 * Writes the given Page object to an XML file.<br>
+	 * If a validator is set and the page is not valid, nothing is written. The target file is not changed 
+	 * (the XML is written to a temporary file first). For stream targets the page is validated before 
+	 * anything is written to the stream (two passes over the page).
 	 * 
 	 * @param page Page object
 	 * @param target FileTarget representing an XML file
@@ -181,71 +196,115 @@ public class XmlPageWriter_2019_07_15 implements XmlPageWriter {
 		//if (validator != null)
 		//	lastConversionMessages = ConverterHub.convert(page, validator.getSchemaVersion());
 		
-        DocumentBuilderFactory dbfac = DocumentBuilderFactory.newInstance();
-        dbfac.setValidating(false);
-        dbfac.setNamespaceAware(true);
-        //if (validator != null)
-        	//dbfac.setSchema(validator.getSchema());
-        
-        DocumentBuilder docBuilder;
+		Schema schema = validator != null ? validator.getSchema() : null;
+		if (validateOnly && schema == null)
+			return true;
+
+		model = PageXmlInputOutput.getSchemaModel((XmlFormatVersion)page.getFormatVersion());
+		namespace = getSchemaLocation();
+
+		//Stream targets cannot be reverted -> validate first
+		if (!validateOnly && schema != null && target instanceof StreamTarget) {
+			if (!process(null, schema, true))
+				return false;
+			schema = null;
+		}
+		return process(target, schema, validateOnly);
+	}
+	
+	/**
+	 * Streams the page to the given target and/or the validator of the given schema.
+	 * @param target Output target or <code>null</code> for validation only
+	 * @param schema Schema for validation or <code>null</code> for serialisation only
+	 * @param validateOnly Set to <code>true</code> to validate without writing
+	 * @return <code>true</code> if successful and valid
+	 */
+	private boolean process(OutputTarget target, Schema schema, boolean validateOnly) {
+		//Serialisation and validation are done in one go (reported as validation phase in validate-only mode)
+		long time = PhaseTiming.start();
+		CountingOutputStream countingStream = null;
+		Writer writer = null;
+		File targetFile = null;
+		File tempFile = null;
 		try {
-			docBuilder = dbfac.newDocumentBuilder();
-			//docBuilder.setErrorHandler(lastErrors);
+			//Serialiser
+			ContentHandler serializer = null;
+			if (!validateOnly) {
+				OutputStream os = null;
+				if (target instanceof FileTarget) {
+					targetFile = ((FileTarget)target).getFile();
+					if (schema != null) { //Only replace the target file if the page is valid
+						tempFile = File.createTempFile(targetFile.getName(), ".tmp", targetFile.getAbsoluteFile().getParentFile());
+						os = new FileOutputStream(tempFile);
+					}
+					else
+						os = new FileOutputStream(targetFile);
+				} else if (target instanceof StreamTarget)
+					os = ((StreamTarget) target).getOutputStream();
+				
+				if (os == null)
+					throw new IllegalArgumentException("Unsupported output target");
+				if (time != PhaseTiming.OFF)
+					os = countingStream = new CountingOutputStream(os);
+
+				writer = new BufferedWriter(new OutputStreamWriter(os, ENCODING), 64 * 1024);
+				serializer = new SaxXmlSerializer(writer, ENCODING);
+			}
 			
-			DOMImplementation domImpl = docBuilder.getDOMImplementation();
-	        //doc = docBuilder.newDocument();
-			namespace = getSchemaLocation();
-			doc = domImpl.createDocument(namespace, DefaultXmlNames.ELEMENT_PcGts, null);
-	        
-	        writeRoot();
-	        
-	        //Validation errors?
-	        if (validator != null) {
-	        	Validator domVal = validator.getSchema().newValidator();
-	        	domVal.setErrorHandler(lastErrors);
-
-	        	try {
-					domVal.validate(new DOMSource(doc));
-				} catch (SAXException e) {
-					e.printStackTrace();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-	        }
-	        if (lastErrors.hasErrors()) {
-	        	return false;
-	        }
-	        
-	        //Write XML
-	        if (!validateOnly) {
-	        	
-	            TransformerFactory transfac = TransformerFactory.newInstance();
-	            Transformer trans = transfac.newTransformer();
-	            DOMSource source = new DOMSource(doc);
-	            
-	            OutputStream os = null;
-	            
-	            if (target instanceof FileTarget) {
-					File f = ((FileTarget)target).getFile();
-	            	os = new FileOutputStream(f);
-	            } else if (target instanceof StreamTarget)
-	            	os = ((StreamTarget) target).getOutputStream();
-	            
-	            StreamResult result = new StreamResult(os);
-	            trans.transform(source, result);
-	            os.close();
-	        }
-            return true;
-		} catch (ParserConfigurationException e) {
-			e.printStackTrace();
-		} catch (TransformerConfigurationException e) {
-			e.printStackTrace();
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		} catch (TransformerException e) {
+			//Validator
+			ContentHandler validatorHandler = null;
+			if (schema != null) {
+				ValidatorHandler handler = schema.newValidatorHandler();
+				handler.setErrorHandler(lastErrors);
+				validatorHandler = handler;
+			}
+			
+			if (serializer != null && validatorHandler != null)
+				out = new TeeHandler(validatorHandler, serializer);
+			else
+				out = serializer != null ? serializer : validatorHandler;
+
+			//Write XML
+			out.startDocument();
+			out.startPrefixMapping("", namespace);
+			out.startPrefixMapping("xsi", XSI_NAMESPACE);
+			writeRoot();
+			out.endPrefixMapping("xsi");
+			out.endPrefixMapping("");
+			out.endDocument();
+			
+			if (writer != null) {
+				writer.close();
+				writer = null;
+			}
+			PageTiming.finish(validateOnly ? PhaseTiming.VALIDATION : PhaseTiming.SERIALIZATION, time, 
+					countingStream != null ? countingStream.getCount() : 0L, page);
+			
+			//Validation errors?
+			if (lastErrors.hasErrors()) 
+				return false;
+			
+			if (tempFile != null) {
+				Files.move(tempFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				tempFile = null;
+			}
+			return true;
+		} catch (SAXException e) {
 			e.printStackTrace();
 		} catch (IOException e) {
 			e.printStackTrace();
+		} finally {
+			out = null;
+			atts.clear();
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			if (tempFile != null)
+				tempFile.delete();
 		}
 		return false;
 	}
@@ -264,211 +323,223 @@ public class XmlPageWriter_2019_07_15 implements XmlPageWriter {
 		return lastErrors != null ? lastErrors.getWarnings() : null;
 	}
 
-	private void writeRoot() /*throws XMLStreamException*/ {
-		//String xsi = "http://www.w3.org/2001/XMLSchema-instance";
-		
-		//Element root = doc.createElementNS(namespace, DefaultXmlNames.ELEMENT_PcGts);
-		//doc.appendChild(root);
-		
-		Element root = doc.getDocumentElement();
-		
-		//xmlns
-		//addAttribute(root, "xmlns", xmlns);
-				
-		//xmlns:xsi
-		//root.setAttribute("xmlns:xsi", xsi);
-		//addAttribute(root, "xmlns:xsi", xsi);
-		
+	private void writeRoot() throws SAXException {
 		//Schema location
 		String schemaLocation = getSchemaLocation() + " " + getSchemaUrl();
-		root.setAttributeNS("http://www.w3.org/2001/XMLSchema-instance", "xsi:schemaLocation", schemaLocation);
-		//addAttribute(root, "xsi:schemaLocation", schemaLocation);
+		atts.addAttribute(XSI_NAMESPACE, "schemaLocation", "xsi:schemaLocation", "CDATA", schemaLocation);
 		
 		//GtsID
 		if (page.getGtsId() != null) 
-			addAttribute(root, DefaultXmlNames.ATTR_pcGtsId, page.getGtsId().toString());
+			addAttribute(DefaultXmlNames.ATTR_pcGtsId, page.getGtsId().toString());
 		
-		addMetaData(root);
-		addPage(root);
+		startElement(DefaultXmlNames.ELEMENT_PcGts);
+		addMetaData();
+		addPage();
+		endElement(DefaultXmlNames.ELEMENT_PcGts);
+	}
+	
+	/**
+	 * Adds an attribute for the next element (replaces the value if the attribute has been added already)
+	 */
+	private void addAttribute(String name, String value) {
+		if (value == null)
+			value = "";
+		int index = atts.getIndex(name);
+		if (index >= 0)
+			atts.setValue(index, value);
+		else
+			atts.addAttribute("", name, name, "CDATA", value);
+	}
+	
+	/**
+	 * Starts an element with the attributes that have been added beforehand
+	 */
+	private void startElement(String name) throws SAXException {
+		out.startElement(namespace, name, name, atts);
+		atts.clear();
+	}
+	
+	private void endElement(String name) throws SAXException {
+		out.endElement(namespace, name, name);
 	}
 	
-	private void addAttribute(Element node, String name, String value) {
-		node.setAttributeNS(null, name, value);
+	private static String formatDate(Date date) {
+		synchronized (DATE_FORMAT) {
+			return DATE_FORMAT.format(date);
+		}
 	}
 	
-	private void addMetaData(Element parent) /*throws XMLStreamException*/ {
+	private void addMetaData() throws SAXException {
 		MetaData metaData = page.getMetaData();
 		if (metaData == null)
 			return;
 		
-		Element metaDataNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Metadata);
-		parent.appendChild(metaDataNode);
-
 		//External ref
 		if (metaData.getExternalRef() != null && !metaData.getExternalRef().isEmpty())
-			addAttribute(metaDataNode, DefaultXmlNames.ATTR_externalRef, metaData.getExternalRef());
+			addAttribute(DefaultXmlNames.ATTR_externalRef, metaData.getExternalRef());
+
+		startElement(DefaultXmlNames.ELEMENT_Metadata);
 
 		//Creator 
-		addTextElement(metaDataNode, DefaultXmlNames.ELEMENT_Creator, metaData.getCreator());
+		addTextElement(DefaultXmlNames.ELEMENT_Creator, metaData.getCreator());
 		
 		//Created
-		addTextElement(metaDataNode, DefaultXmlNames.ELEMENT_Created, DATE_FORMAT.format(metaData.getCreationTime()));
+		addTextElement(DefaultXmlNames.ELEMENT_Created, formatDate(metaData.getCreationTime()));
 
 		//Last modified
-		addTextElement(metaDataNode, DefaultXmlNames.ELEMENT_LastChange, DATE_FORMAT.format(metaData.getLastModificationTime()));
+		addTextElement(DefaultXmlNames.ELEMENT_LastChange, formatDate(metaData.getLastModificationTime()));
 
 		//Comments
-		addTextElement(metaDataNode, DefaultXmlNames.ELEMENT_Comments, metaData.getComments());
+		addTextElement(DefaultXmlNames.ELEMENT_Comments, metaData.getComments());
 		
 		//User-defined attributes
-		addUserDefinedAttributes(metaDataNode, metaData.getUserDefinedAttributes(false));
+		addUserDefinedAttributes(metaData.getUserDefinedAttributes(false));
 		
 		//Additional metadata items
 		for (MetadataItem item : metaData.getMetadataItems())
-			addMetadataItem(item, metaDataNode);
+			addMetadataItem(item);
+		
+		endElement(DefaultXmlNames.ELEMENT_Metadata);
 	}
 	
-	private void addMetadataItem(MetadataItem item, Element partentNode) {
+	private void addMetadataItem(MetadataItem item) throws SAXException {
 		if (item == null)
 			return;
 		
-		Element itemNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_MetadataItem);
-		partentNode.appendChild(itemNode);
-		
 		//Attributes (type, name, value)
-		addContentObjectAttributes(itemNode, item.getAttributes());
+		addContentObjectAttributes(item.getAttributes());
+
+		startElement(DefaultXmlNames.ELEMENT_MetadataItem);
 		
 		//Semantic labels
-		addLabels(item, itemNode);
+		addLabels(item);
+		
+		endElement(DefaultXmlNames.ELEMENT_MetadataItem);
 	}
 	
-	private void addLabels(HasLabels labels, Element parentNode) {
+	private void addLabels(HasLabels labels) throws SAXException {
 		if (labels == null || labels.getLabels() == null)
 			return;
 		
 		for (LabelGroup group : labels.getLabels().getGroups().values()) {
 		
-			Element labelsNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Labels);
-			parentNode.appendChild(labelsNode);
-
 			//External model
 			if (group.getExternalModel() != null)
-				addAttribute(labelsNode, DefaultXmlNames.ATTR_externalModel, group.getExternalModel());
+				addAttribute(DefaultXmlNames.ATTR_externalModel, group.getExternalModel());
 			//External ID
 			if (group.getExternalId() != null)
-				addAttribute(labelsNode, DefaultXmlNames.ATTR_externalId, group.getExternalId());
+				addAttribute(DefaultXmlNames.ATTR_externalId, group.getExternalId());
 			//Prefix
 			if (group.getPrefix() != null)
-				addAttribute(labelsNode, DefaultXmlNames.ATTR_prefix, group.getPrefix());
+				addAttribute(DefaultXmlNames.ATTR_prefix, group.getPrefix());
 			//Comments
 			if (group.getComments() != null)
-				addAttribute(labelsNode, DefaultXmlNames.ATTR_comments, group.getComments());
+				addAttribute(DefaultXmlNames.ATTR_comments, group.getComments());
+			
+			startElement(DefaultXmlNames.ELEMENT_Labels);
 			
 			//Labels
 			for (Label label : group.getLabels()) {
-				Element labelNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Label);
-				labelsNode.appendChild(labelNode);
-				
 				//Value
-				addAttribute(labelNode, DefaultXmlNames.ATTR_value, label.getValue() != null ? label.getValue() : "");
+				addAttribute(DefaultXmlNames.ATTR_value, label.getValue() != null ? label.getValue() : "");
 				//Type
 				if (label.getType() != null)
-					addAttribute(labelNode, DefaultXmlNames.ATTR_type, label.getType());
+					addAttribute(DefaultXmlNames.ATTR_type, label.getType());
 				//Comments
 				if (label.getComments() != null)
-					addAttribute(labelNode, DefaultXmlNames.ATTR_comments, label.getComments());
+					addAttribute(DefaultXmlNames.ATTR_comments, label.getComments());
+
+				startElement(DefaultXmlNames.ELEMENT_Label);
+				endElement(DefaultXmlNames.ELEMENT_Label);
 			}
+			
+			endElement(DefaultXmlNames.ELEMENT_Labels);
 		}
 	}
 	
-	private void addPage(Element parent) {
-		FormatModel model = PageXmlInputOutput.getSchemaModel((XmlFormatVersion)page.getFormatVersion());
-		Element pageNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Page);
-		parent.appendChild(pageNode);
-		
+	private void addPage() throws SAXException {
 		//Image filename
-		addAttribute(pageNode, DefaultXmlNames.ATTR_imageFilename, page.getImageFilename());
+		addAttribute(DefaultXmlNames.ATTR_imageFilename, page.getImageFilename());
 		
 		//Width/height
-		addAttribute(pageNode, DefaultXmlNames.ATTR_imageWidth, Integer.toString(layout.getWidth()));
-		addAttribute(pageNode, DefaultXmlNames.ATTR_imageHeight, Integer.toString(layout.getHeight()));
+		addAttribute(DefaultXmlNames.ATTR_imageWidth, Integer.toString(layout.getWidth()));
+		addAttribute(DefaultXmlNames.ATTR_imageHeight, Integer.toString(layout.getHeight()));
 		
 		//Other Attributes (page type, ...)
-		addContentObjectAttributes(pageNode, model.filterAttributes(page.getAttributes(), page.getAttributes().getType()));
-		//addContentObjectAttributes(pageNode, page.getAttributes());
+		addContentObjectAttributes(model.filterAttributes(page.getAttributes(), page.getAttributes().getType()));
+
+		startElement(DefaultXmlNames.ELEMENT_Page);
 
 		//Alternative images
 		List<AlternativeImage> altImages = page.getAlternativeImages();
 		if (altImages != null) {
 			for (Iterator<AlternativeImage> it = altImages.iterator(); it.hasNext(); ) {
-				addAlternativeImage(it.next(), pageNode);
+				addAlternativeImage(it.next());
 			}
 		}
 		
 		//Border
 		GeometricObject border = layout.getBorder();
 		if (border != null) {
-			Element node = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Border);
-			pageNode.appendChild(node);
-			addCoords(node, border.getCoords());
+			startElement(DefaultXmlNames.ELEMENT_Border);
+			addCoords(border.getCoords());
+			endElement(DefaultXmlNames.ELEMENT_Border);
 		}
 
 		//Print space
 		GeometricObject printSpace = layout.getPrintSpace();
 		if (printSpace != null) {
-			Element node = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_PrintSpace);
-			pageNode.appendChild(node);
-			addCoords(node, printSpace.getCoords());
+			startElement(DefaultXmlNames.ELEMENT_PrintSpace);
+			addCoords(printSpace.getCoords());
+			endElement(DefaultXmlNames.ELEMENT_PrintSpace);
 		}
 		
 		//Reading order
-		addReadingOrder(pageNode, layout.getReadingOrder());
+		addReadingOrder(layout.getReadingOrder());
 		
 		//Layers
-		addLayers(pageNode, layout.getLayers());
+		addLayers(layout.getLayers());
 		
 		//Relations
-		addRelations(pageNode, layout.getRelations());
+		addRelations(layout.getRelations());
 		
 		//Text style 
-		Element styleNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_TextStyle);
-		if (addContentObjectAttributes(styleNode, model.filterAttributes(page.getAttributes(), "TextStyleType"))) //only add when at least one attribute is filled
-			pageNode.appendChild(styleNode);
+		addTextStyle(page.getAttributes());
 
 		//User-defined attributes
-		addUserDefinedAttributes(pageNode, page.getUserDefinedAttributes(false));
+		addUserDefinedAttributes(page.getUserDefinedAttributes(false));
 
 		//Semantic labels
-		addLabels(page, pageNode);
+		addLabels(page);
 
 		//Regions
 		for (int i=0; i<layout.getRegionCount(); i++) {
-			addContentObject(pageNode, layout.getRegion(i));
+			addContentObject(layout.getRegion(i));
 		}
+		
+		endElement(DefaultXmlNames.ELEMENT_Page);
 	}
 	
-	private void addAlternativeImage(AlternativeImage img, Element parentNode) {
-		Element node = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_AlternativeImage);
-		parentNode.appendChild(node);
-		addAttribute(node, DefaultXmlNames.ATTR_filename, img.getFilename());
+	private void addAlternativeImage(AlternativeImage img) throws SAXException {
+		addAttribute(DefaultXmlNames.ATTR_filename, img.getFilename());
 		if (img.getComments() != null && !img.getComments().isEmpty())
-			addAttribute(node, DefaultXmlNames.ATTR_comments, img.getComments());
+			addAttribute(DefaultXmlNames.ATTR_comments, img.getComments());
 		if (img.getConfidence() != null)
-			addAttribute(node, DefaultXmlNames.ATTR_conf, ""+Math.min(1.0, img.getConfidence().doubleValue()));
+			addAttribute(DefaultXmlNames.ATTR_conf, ""+Math.min(1.0, img.getConfidence().doubleValue()));
+		startElement(DefaultXmlNames.ELEMENT_AlternativeImage);
+		endElement(DefaultXmlNames.ELEMENT_AlternativeImage);
 	}
 	
-	private void addContentObject(Element parent, ContentObject contentObj) /*throws XMLStreamException*/ {
-		FormatModel model = PageXmlInputOutput.getSchemaModel((XmlFormatVersion)page.getFormatVersion());
+	private void addContentObject(ContentObject contentObj) throws SAXException {
 		String elementName = xmlNameProvider.getXmlName(contentObj.getType());
 		
-		Element regionNode = doc.createElementNS(getNamespace(), elementName);
-		parent.appendChild(regionNode);
-		
 		//ID
-		addAttribute(regionNode, DefaultXmlNames.ATTR_id, contentObj.getId().toString());
+		addAttribute(DefaultXmlNames.ATTR_id, contentObj.getId().toString());
 
 		//Attributes
-		addContentObjectAttributes(regionNode, model.filterAttributes(contentObj.getAttributes(), contentObj.getAttributes().getType()));
+		addContentObjectAttributes(model.filterAttributes(contentObj.getAttributes(), contentObj.getAttributes().getType()));
+		
+		startElement(elementName);
 		
 		//Alternative images
 		List<AlternativeImage> altImages = null;
@@ -478,43 +549,44 @@ public class XmlPageWriter_2019_07_15 implements XmlPageWriter {
 			altImages = ((LowLevelTextObject)contentObj).getAlternativeImages();
 		if (altImages != null) {
 			for (Iterator<AlternativeImage> it = altImages.iterator(); it.hasNext(); ) {
-				addAlternativeImage(it.next(), regionNode);
+				addAlternativeImage(it.next());
 			}
 		}
 
 		//Coords
-		addCoords(regionNode, contentObj.getCoords());
+		addCoords(contentObj.getCoords());
 		
 		//Region user-defined attrs and labels here (for text line / word / glyph further down)
 		if (contentObj instanceof Region) {
 			//User-defined attributes
-			addUserDefinedAttributes(regionNode, ((Region)contentObj).getUserDefinedAttributes(false));
+			addUserDefinedAttributes(((Region)contentObj).getUserDefinedAttributes(false));
 			
 			//Semantic labels
-			addLabels(contentObj, regionNode);
+			addLabels(contentObj);
 		}
 		
 		//Roles
 		if (contentObj instanceof Region) {
-			addRoles(regionNode, ((Region)contentObj));
+			addRoles(((Region)contentObj));
 		}
 		
 		//Graphemes (glyphs only)
 		if (contentObj instanceof Glyph && ((Glyph)contentObj).hasGraphemes()) {
-			addGraphemes(regionNode, ((Glyph)contentObj));
+			addGraphemes(((Glyph)contentObj));
 		}
 
 		//Baseline (text lines only)
 		if (contentObj instanceof TextLine) {
 			Polygon baseline = ((TextLine)contentObj).getBaseline();
 			if (baseline != null && baseline.getSize() >= 2) {
-				Element baselineNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Baseline);
-				regionNode.appendChild(baselineNode);
-				addPointsAttribute(baselineNode, baseline);
+				addPointsAttribute(baseline);
 				
 				//Confidence
 				if (baseline.getConfidence() != null)
-					addAttribute(baselineNode, DefaultXmlNames.ATTR_conf, ""+Math.min(1.0, baseline.getConfidence().doubleValue()));
+					addAttribute(DefaultXmlNames.ATTR_conf, ""+Math.min(1.0, baseline.getConfidence().doubleValue()));
+
+				startElement(DefaultXmlNames.ELEMENT_Baseline);
+				endElement(DefaultXmlNames.ELEMENT_Baseline);
 			}
 		}
 		
@@ -523,7 +595,7 @@ public class XmlPageWriter_2019_07_15 implements XmlPageWriter {
 			RegionContainer cont = (RegionContainer)contentObj;
 			if (cont.hasRegions()) {
 				for (int i=0; i<cont.getRegionCount(); i++) {
-					addContentObject(regionNode, cont.getRegion(i));
+					addContentObject(cont.getRegion(i));
 				}
 			}
 		}
@@ -533,99 +605,109 @@ public class XmlPageWriter_2019_07_15 implements XmlPageWriter {
 		if (contentObj instanceof LowLevelTextContainer) {
 			LowLevelTextContainer container = (LowLevelTextContainer)contentObj;
 			for (int i=0; i<container.getTextObjectCount(); i++)
-				addContentObject(regionNode, container.getTextObject(i));
+				addContentObject(container.getTextObject(i));
 		}
 
 		//Text
 		if (contentObj instanceof TextObject)
-			addTextContent(regionNode, (TextObject)contentObj);
+			addTextContent((TextObject)contentObj);
 
 		//Text style 
-		if (contentObj instanceof TextObject) {
-			Element styleNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_TextStyle);
-			if (addContentObjectAttributes(styleNode, model.filterAttributes(contentObj.getAttributes(), "TextStyleType"))) //only add when at least one attribute is filled
-				regionNode.appendChild(styleNode);
-		}
+		if (contentObj instanceof TextObject)
+			addTextStyle(contentObj.getAttributes());
 		
 		//Text line / word / glyph user-defined attrs and labels
 		if (contentObj instanceof LowLevelTextObject) {
 			//User-defined attributes
-			addUserDefinedAttributes(regionNode, ((LowLevelTextObject)contentObj).getUserDefinedAttributes(false));
+			addUserDefinedAttributes(((LowLevelTextObject)contentObj).getUserDefinedAttributes(false));
 			//Semantic labels
-			addLabels(contentObj, regionNode);
+			addLabels(contentObj);
 		}
 		
 		//Table grid
 		if (contentObj instanceof TableRegion) {
 			TableGrid grid = ((TableRegion)contentObj).getGrid();
-			addTableGrid(grid, regionNode);
+			addTableGrid(grid);
+		}
+		
+		endElement(elementName);
+	}
+	
+	/**
+	 * Writes the text style element (only if at least one style attribute is filled)
+	 */
+	private void addTextStyle(VariableMap attributes) throws SAXException {
+		if (addContentObjectAttributes(model.filterAttributes(attributes, "TextStyleType"))) {
+			startElement(DefaultXmlNames.ELEMENT_TextStyle);
+			endElement(DefaultXmlNames.ELEMENT_TextStyle);
 		}
 	}
 	
-	private void addTableGrid(TableGrid grid, Element parentNode) {
+	private void addTableGrid(TableGrid grid) throws SAXException {
 		if (grid == null || grid.getRows() == null || grid.getRows().isEmpty())
 			return;
 		
 		//Add grid node
-		Element gridNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Grid);
-		parentNode.appendChild(gridNode);
+		startElement(DefaultXmlNames.ELEMENT_Grid);
 
 		//Rows
 		for (TableGridRow row : grid.getRows()) {
-			Element gridPointsNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_GridPoints);
-			gridNode.appendChild(gridPointsNode);
-			
-			addPointsAttribute(gridPointsNode, row.getCoords());
+			addPointsAttribute(row.getCoords());
+			startElement(DefaultXmlNames.ELEMENT_GridPoints);
+			endElement(DefaultXmlNames.ELEMENT_GridPoints);
 		}
+		
+		endElement(DefaultXmlNames.ELEMENT_Grid);
 	}
 	
-	private void addGraphemes(Element glyphNode, Glyph glyph) {
+	private void addGraphemes(Glyph glyph) throws SAXException {
 		if (glyph == null || !glyph.hasGraphemes())
 			return;
 		
 		//Add container node
-		Element containerNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Graphemes);
-		glyphNode.appendChild(containerNode);
+		startElement(DefaultXmlNames.ELEMENT_Graphemes);
 		
 		//Add all grapheme elements
 		List<GraphemeElement> graphemes = glyph.getGraphemes();
 		for (int i=0; i<graphemes.size(); i++) {
 			GraphemeElement el = graphemes.get(i);
-			addGraphemeElement(containerNode, el, i);
+			addGraphemeElement(el, i);
 		}
+		
+		endElement(DefaultXmlNames.ELEMENT_Graphemes);
 	}
 	
-	private void addGraphemeElement(Element parent, GraphemeElement graphemeElement, int index) /*throws XMLStreamException*/ {
-		FormatModel model = PageXmlInputOutput.getSchemaModel((XmlFormatVersion)page.getFormatVersion());
+	private void addGraphemeElement(GraphemeElement graphemeElement, int index) throws SAXException {
 		String elementName = xmlNameProvider.getXmlName(graphemeElement.getType());
 		
-		Element elementNode = doc.createElementNS(getNamespace(), elementName);
-		parent.appendChild(elementNode);
-		
 		//ID
-		addAttribute(elementNode, DefaultXmlNames.ATTR_id, graphemeElement.getId().toString());
+		addAttribute(DefaultXmlNames.ATTR_id, graphemeElement.getId().toString());
 
 		//Index
-		addAttribute(elementNode, DefaultXmlNames.ATTR_index, ""+index);
+		addAttribute(DefaultXmlNames.ATTR_index, ""+index);
 		
 		//Attributes
-		addContentObjectAttributes(elementNode, model.filterAttributes(graphemeElement.getAttributes(), graphemeElement.getAttributes().getType()));
+		addContentObjectAttributes(model.filterAttributes(graphemeElement.getAttributes(), graphemeElement.getAttributes().getType()));
+		
+		startElement(elementName);
 		
 		//Text
-		addTextContent(elementNode, graphemeElement);
+		addTextContent(graphemeElement);
 
 		//Coords
 		if (graphemeElement instanceof Grapheme)
-			addCoords(elementNode, ((Grapheme)graphemeElement).getCoords());
+			addCoords(((Grapheme)graphemeElement).getCoords());
 		
 		//Graphemes (groups only)
 		if (graphemeElement instanceof GraphemeGroup && ((GraphemeGroup)graphemeElement).getSize() > 0) {
 			for (int i=0; i<((GraphemeGroup)graphemeElement).getSize(); i++)
-				addGraphemeElement(elementNode, ((GraphemeGroup)graphemeElement).getGraphemes().get(i), i);
+				addGraphemeElement(((GraphemeGroup)graphemeElement).getGraphemes().get(i), i);
 		}
+		
+		endElement(elementName);
 	}
 	
-	private void addTextContent(Element parent, TextContentVariants textObj) /*throws XMLStreamException*/ {
+	private void addTextContent(TextContentVariants textObj) throws SAXException {
 		if (textObj == null)
 			return;
 		
@@ -634,155 +716,142 @@ public class XmlPageWriter_2019_07_15 implements XmlPageWriter {
 			
 			TextContent textContent = textObj.getTextContentVariant(i);
 			
-			//if (	(textContent.getText() == null || textContent.getText().isEmpty())
-			//		&& 	(textContent.getPlainText() == null || textContent.getPlainText().isEmpty()))
-			//		continue;
-			
-			Element textEquiv = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_TextEquiv);
-			parent.appendChild(textEquiv);
-			
 			//Attributes
-			addContentObjectAttributes(textEquiv, textContent.getAttributes());
+			addContentObjectAttributes(textContent.getAttributes());
 			
-			//OCR Confidence
-			//Double confidence = textObj.getConfidence();
-			//if (confidence != null) {
-			//	DoubleValue dv = new DoubleValue(confidence);
-			//	addAttribute(textEquiv, DefaultXmlNames.ATTR_conf, dv.toString()); 
-			//}
+			startElement(DefaultXmlNames.ELEMENT_TextEquiv);
 	
 			//Plain text
 			if (textContent.getPlainText() != null && !textContent.getPlainText().isEmpty())
-				addTextElement(textEquiv, DefaultXmlNames.ELEMENT_PlainText, textContent.getPlainText());
+				addTextElement(DefaultXmlNames.ELEMENT_PlainText, textContent.getPlainText());
 			//Unicode text
-			addTextElement(textEquiv, DefaultXmlNames.ELEMENT_Unicode, textContent.getText());
+			addTextElement(DefaultXmlNames.ELEMENT_Unicode, textContent.getText());
+			
+			endElement(DefaultXmlNames.ELEMENT_TextEquiv);
 		}
 	}
 	
-	private boolean addContentObjectAttributes(Element parent, VariableMap vars) /*throws XMLStreamException*/ {
+	/**
+	 * Adds all variables with value as attributes for the next element
+	 * @return <code>true</code> if at least one attribute has been added
+	 */
+	private boolean addContentObjectAttributes(VariableMap vars) {
 		boolean ret = false;
-		Variable v;
+		VariableValue value;
 		for (int i=0; i<vars.getSize(); i++) {
-			v = vars.get(i);
-			if (v.getValue() != null) {
-				addAttribute(parent, v.getName(), v.getValue().toString());
+			value = vars.getValue(i);
+			if (value != null) {
+				addAttribute(vars.getVariableName(i), value.toString());
 				ret = true;
 			}
 		}
 		return ret;
 	}
 	
-	private void addCoords(Element parent, Polygon coords) /*throws XMLStreamException*/ {
-		Element coordsNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Coords);
-		parent.appendChild(coordsNode);
-		
-		addPointsAttribute(coordsNode, coords);
+	private void addCoords(Polygon coords) throws SAXException {
+		addPointsAttribute(coords);
 		
 		//Confidence
 		if (coords.getConfidence() != null)
-			addAttribute(coordsNode, DefaultXmlNames.ATTR_conf, ""+Math.min(1.0, coords.getConfidence().doubleValue()));
+			addAttribute(DefaultXmlNames.ATTR_conf, ""+Math.min(1.0, coords.getConfidence().doubleValue()));
+		
+		startElement(DefaultXmlNames.ELEMENT_Coords);
+		endElement(DefaultXmlNames.ELEMENT_Coords);
 	}
 	
-	private void addPointsAttribute(Element parent, Polygon points) {
-		Point p;
-		StringBuilder pointList = new StringBuilder();
+	private void addPointsAttribute(Polygon points) {
+		StringBuilder pointList = new StringBuilder(points.getSize() * 10);
 		for (int i=0; i<points.getSize(); i++) {
-			p = points.getPoint(i);
-			
 			if (i>0)
-				pointList.append(" ");
-			pointList.append(Integer.toString(p.x));
-			pointList.append(",");
-			pointList.append(Integer.toString(p.y));
+				pointList.append(' ');
+			pointList.append(points.getX(i));
+			pointList.append(',');
+			pointList.append(points.getY(i));
 		}
-		addAttribute(parent, DefaultXmlNames.ATTR_points, pointList.toString());
+		addAttribute(DefaultXmlNames.ATTR_points, pointList.toString());
 	}
 	
-	private void addReadingOrder(Element parent, ReadingOrder order) /*throws XMLStreamException*/ {
+	private void addReadingOrder(ReadingOrder order) throws SAXException {
 		if (order == null || order.getRoot() == null || order.getRoot().getSize() == 0)
 			return;
 		
-		Element node = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_ReadingOrder);
-		parent.appendChild(node);
-
 		//Confidence
 		if (order.getConfidence() != null)
-			addAttribute(node, DefaultXmlNames.ATTR_conf, ""+Math.min(1.0, order.getConfidence().doubleValue()));
+			addAttribute(DefaultXmlNames.ATTR_conf, ""+Math.min(1.0, order.getConfidence().doubleValue()));
 		
+		startElement(DefaultXmlNames.ELEMENT_ReadingOrder);
+
 		//Root group
-		addReadingOrderGroup(node, order.getRoot(), -1);
+		addReadingOrderGroup(order.getRoot(), -1);
+		
+		endElement(DefaultXmlNames.ELEMENT_ReadingOrder);
 	}
 	
 	/**
 	 * Writes a reading order group including its members.
 	 * @param index Index of the group in the parent group (use -1 if not indexed).
 	 */
-	private void addReadingOrderGroup(Element parent, Group group, int index) /*throws XMLStreamException*/ {
+	private void addReadingOrderGroup(Group group, int index) throws SAXException {
 		String groupElementName;
 		if (group.isOrdered())
 			groupElementName = index >= 0 ? DefaultXmlNames.ELEMENT_OrderedGroupIndexed : DefaultXmlNames.ELEMENT_OrderedGroup;
 		else
 			groupElementName = index >= 0 ? DefaultXmlNames.ELEMENT_UnorderedGroupIndexed : DefaultXmlNames.ELEMENT_UnorderedGroup;
 		
-		
-		Element groupNode = doc.createElementNS(getNamespace(), groupElementName);
-		parent.appendChild(groupNode);
-			
 		//ID
-		addAttribute(groupNode, DefaultXmlNames.ATTR_id, group.getId().toString());
+		addAttribute(DefaultXmlNames.ATTR_id, group.getId().toString());
 		
 		//Region ref
 		if (group.getRegionRef() != null)
-			addAttribute(groupNode, DefaultXmlNames.ATTR_regionRef, group.getRegionRef().toString());
+			addAttribute(DefaultXmlNames.ATTR_regionRef, group.getRegionRef().toString());
 		
-		//Other attributes
-		addContentObjectAttributes(groupNode, group.getAttributes());
+		//Other attributes (including caption)
+		addContentObjectAttributes(group.getAttributes());
 		
-		//Caption //Now in attribute list
-		//if (group.getCaption() != null)
-		//	addAttribute(groupNode, DefaultXmlNames.ATTR_caption, group.getCaption());
-
 		//Index
 		if (index >= 0)
-			addAttribute(groupNode, DefaultXmlNames.ATTR_index, Integer.toString(index));
-			//eventWriter.add(eventFactory.createAttribute(DefaultXmlNames.ATTR_index, Integer.toString(index)));
+			addAttribute(DefaultXmlNames.ATTR_index, Integer.toString(index));
+		
+		startElement(groupElementName);
 	
 		//User-defined attributes
-		addUserDefinedAttributes(groupNode, group.getUserDefinedAttributes());
+		addUserDefinedAttributes(group.getUserDefinedAttributes());
 		
 		//Semantic labels
-		addLabels(group, groupNode);
+		addLabels(group);
 
 		//Children
 		GroupMember member;
 		for (int i=0; i<group.getSize(); i++) {
 			member = group.getMember(i);
 			if (member instanceof Group)
-				addReadingOrderGroup(groupNode, (Group)member, group.isOrdered() ? i : -1);
+				addReadingOrderGroup((Group)member, group.isOrdered() ? i : -1);
 			else if (member instanceof RegionRef) 
-				addRegionRef(groupNode, ((RegionRef)member).getRegionId().toString(), group.isOrdered() ? i : -1);
+				addRegionRef(((RegionRef)member).getRegionId().toString(), group.isOrdered() ? i : -1);
 		}
+		
+		endElement(groupElementName);
 	}
 	
 	/**
 	 * Writes a region reference element.
 	 * @param index Index of the region reference in the parent group (use -1 if not indexed).
 	 */
-	void addRegionRef(Element parent, String regionId, int index) /*throws XMLStreamException*/ {
+	private void addRegionRef(String regionId, int index) throws SAXException {
 		String elementName = index >= 0 ? DefaultXmlNames.ELEMENT_RegionRefIndexed : DefaultXmlNames.ELEMENT_RegionRef;
 
-		Element refNode = doc.createElementNS(getNamespace(), elementName);
-		parent.appendChild(refNode);
-		
 		//ID Ref
-		addAttribute(refNode, DefaultXmlNames.ATTR_regionRef, regionId);
+		addAttribute(DefaultXmlNames.ATTR_regionRef, regionId);
 		
 		//Index
 		if (index >= 0)
-			addAttribute(refNode, DefaultXmlNames.ATTR_index, Integer.toString(index));
+			addAttribute(DefaultXmlNames.ATTR_index, Integer.toString(index));
+		
+		startElement(elementName);
+		endElement(elementName);
 	}
 	
-	private void addLayers(Element parent, Layers layers) /*throws XMLStreamException*/ {
+	private void addLayers(Layers layers) throws SAXException {
 		if (layers == null || layers.getSize() == 0)
 			return;
 		
@@ -798,98 +867,100 @@ public class XmlPageWriter_2019_07_15 implements XmlPageWriter {
 		if (!foundNonEmptyLayer) //Only empty layers -> skip the whole layers element
 			return;
 
-		
-		Element layersNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Layers);
-		parent.appendChild(layersNode);
+		startElement(DefaultXmlNames.ELEMENT_Layers);
 
 		Layer layer;
 		for (int i=0; i<layers.getSize(); i++) {
 			layer = layers.getLayer(i);
 			if (layer.getSize() > 0)
-				addLayer(layersNode, layer);
+				addLayer(layer);
 		}
+		
+		endElement(DefaultXmlNames.ELEMENT_Layers);
 	}
 
-	private void addLayer(Element parent, Layer layer) /*throws XMLStreamException*/ {
-		
-		Element layerNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Layer);
-		parent.appendChild(layerNode);
-		
+	private void addLayer(Layer layer) throws SAXException {
 		//ID
-		addAttribute(layerNode, DefaultXmlNames.ATTR_id, layer.getId().toString());
+		addAttribute(DefaultXmlNames.ATTR_id, layer.getId().toString());
 		
 		//Z-Index
-		addAttribute(layerNode, DefaultXmlNames.ATTR_zIndex, Integer.toString(layer.getZIndex()));
+		addAttribute(DefaultXmlNames.ATTR_zIndex, Integer.toString(layer.getZIndex()));
 
 		//Caption
 		if (layer.getCaption() != null)
-			addAttribute(layerNode, DefaultXmlNames.ATTR_caption, layer.getCaption());
+			addAttribute(DefaultXmlNames.ATTR_caption, layer.getCaption());
 
+		startElement(DefaultXmlNames.ELEMENT_Layer);
+		
 		//Region Refs
 		GroupMember member;
 		for (int i=0; i<layer.getSize(); i++) {
 			member = layer.getMember(i);
 			if (member instanceof RegionRef) 
-				addRegionRef(layerNode, ((RegionRef)member).getRegionId().toString(), -1);
+				addRegionRef(((RegionRef)member).getRegionId().toString(), -1);
 		}
+		
+		endElement(DefaultXmlNames.ELEMENT_Layer);
 	}
 	
 	/**
 	 * Writes relations between content objects (link, join).
-	 * @param parent
 	 * @param relations
 	 */
-	private void addRelations(Element parent, Relations relations) {
+	private void addRelations(Relations relations) throws SAXException {
 		if (relations == null || relations.isEmpty())
 			return;
 		
-		Element relationsNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Relations);
-		parent.appendChild(relationsNode);
+		startElement(DefaultXmlNames.ELEMENT_Relations);
 		
 		Set<ContentObjectRelation> set = relations.exportRelations();
 		for (Iterator<ContentObjectRelation> it = set.iterator(); it.hasNext(); ) {
 			ContentObjectRelation rel = it.next();
 			if (rel != null) {
-				Element relationNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Relation);
-				relationsNode.appendChild(relationNode);
-				
 				//ID
-				addAttribute(relationNode, DefaultXmlNames.ATTR_id, rel.getId().toString());
+				addAttribute(DefaultXmlNames.ATTR_id, rel.getId().toString());
 				//Type
-				addAttribute(relationNode, DefaultXmlNames.ATTR_type, rel.getRelationType().toString());
+				addAttribute(DefaultXmlNames.ATTR_type, rel.getRelationType().toString());
 				//Custom
 				if (!rel.getCustomField().isEmpty())
-					addAttribute(relationNode, DefaultXmlNames.ATTR_custom, rel.getCustomField());
+					addAttribute(DefaultXmlNames.ATTR_custom, rel.getCustomField());
 				//Comments
 				if (!rel.getComments().isEmpty())
-					addAttribute(relationNode, DefaultXmlNames.ATTR_comments, rel.getComments());
+					addAttribute(DefaultXmlNames.ATTR_comments, rel.getComments());
+				
+				startElement(DefaultXmlNames.ELEMENT_Relation);
 				
 				//Semantic labels
-				addLabels(rel, relationNode);
+				addLabels(rel);
 
 				//Object 1
-				Element regionRefNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_SourceRegionRef);
-				relationNode.appendChild(regionRefNode);
-				addAttribute(regionRefNode, DefaultXmlNames.ATTR_regionRef, rel.getObject1().getId().toString());
+				addAttribute(DefaultXmlNames.ATTR_regionRef, rel.getObject1().getId().toString());
+				startElement(DefaultXmlNames.ELEMENT_SourceRegionRef);
+				endElement(DefaultXmlNames.ELEMENT_SourceRegionRef);
 		
 				//Object 2
-				regionRefNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_TargetRegionRef);
-				relationNode.appendChild(regionRefNode);
-				addAttribute(regionRefNode, DefaultXmlNames.ATTR_regionRef, rel.getObject2().getId().toString());
+				addAttribute(DefaultXmlNames.ATTR_regionRef, rel.getObject2().getId().toString());
+				startElement(DefaultXmlNames.ELEMENT_TargetRegionRef);
+				endElement(DefaultXmlNames.ELEMENT_TargetRegionRef);
+				
+				endElement(DefaultXmlNames.ELEMENT_Relation);
 			}
 		}
+		
+		endElement(DefaultXmlNames.ELEMENT_Relations);
 	}
 
 	
 	/**
 	 * Writes a single element with text content.
 	 */
-	private void addTextElement(Element parent, String elementName, String text) /*throws XMLStreamException*/ {
-		Element node = doc.createElementNS(getNamespace(), elementName);
-		parent.appendChild(node);
-
-		Text textNode = doc.createTextNode(text != null ? text : "");
-		node.appendChild(textNode);
+	private void addTextElement(String elementName, String text) throws SAXException {
+		startElement(elementName);
+		if (text != null && !text.isEmpty()) {
+			char[] chars = text.toCharArray();
+			out.characters(chars, 0, chars.length);
+		}
+		endElement(elementName);
 	}
 
 	@Override
@@ -897,46 +968,46 @@ public class XmlPageWriter_2019_07_15 implements XmlPageWriter {
 		return lastConversionMessages;
 	}
 	
-	private void addUserDefinedAttributes(Element parent, VariableMap attributes) {
+	private void addUserDefinedAttributes(VariableMap attributes) throws SAXException {
 		if (attributes == null || attributes.getSize() == 0)
 			return;
 		
-		Element attrContainerNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_UserDefined);
-		parent.appendChild(attrContainerNode);
+		startElement(DefaultXmlNames.ELEMENT_UserDefined);
 		
 		for (int i=0; i<attributes.getSize(); i++) {
 			Variable v = attributes.get(i);
 
-			//Create node
-			Element attrNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_UserAttribute);
-			attrContainerNode.appendChild(attrNode);
-			
 			//Name
-			addAttribute(attrNode, DefaultXmlNames.ATTR_name, v.getName() != null ? v.getName() : "");
+			addAttribute(DefaultXmlNames.ATTR_name, v.getName() != null ? v.getName() : "");
 			
 			//Description
 			if (v.getDescription() != null && !v.getDescription().isEmpty())
-				addAttribute(attrNode, DefaultXmlNames.ATTR_description, v.getDescription());
+				addAttribute(DefaultXmlNames.ATTR_description, v.getDescription());
 
 			//Type
 			if (v instanceof StringVariable)
-				addAttribute(attrNode, DefaultXmlNames.ATTR_type, "xsd:string");
+				addAttribute(DefaultXmlNames.ATTR_type, "xsd:string");
 			else if (v instanceof IntegerVariable)
-				addAttribute(attrNode, DefaultXmlNames.ATTR_type, "xsd:integer");
+				addAttribute(DefaultXmlNames.ATTR_type, "xsd:integer");
 			else if (v instanceof DoubleVariable)
-				addAttribute(attrNode, DefaultXmlNames.ATTR_type, "xsd:float");
+				addAttribute(DefaultXmlNames.ATTR_type, "xsd:float");
 			else if (v instanceof BooleanVariable)
-				addAttribute(attrNode, DefaultXmlNames.ATTR_type, "xsd:boolean");
+				addAttribute(DefaultXmlNames.ATTR_type, "xsd:boolean");
 			
 			//Value
-			addAttribute(attrNode, DefaultXmlNames.ATTR_value, v.getValue() != null ? v.getValue().toString() : "");
+			addAttribute(DefaultXmlNames.ATTR_value, v.getValue() != null ? v.getValue().toString() : "");
+			
+			startElement(DefaultXmlNames.ELEMENT_UserAttribute);
+			endElement(DefaultXmlNames.ELEMENT_UserAttribute);
 		}
+		
+		endElement(DefaultXmlNames.ELEMENT_UserDefined);
 	}
 
 	/**
 	 * Add region roles (only table cell role at the moment)
 	 */
-	private void addRoles(Element regionNode, Region region) {
+	private void addRoles(Region region) throws SAXException {
 		if (region == null)
 			return;
 		
@@ -947,16 +1018,99 @@ public class XmlPageWriter_2019_07_15 implements XmlPageWriter {
 				return;
 			
 			//Create container
-			Element containerNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_Roles);
-			regionNode.appendChild(containerNode);
+			startElement(DefaultXmlNames.ELEMENT_Roles);
 		
+			//Attributes
+			addContentObjectAttributes(role.getAttributes());			
+
 			//Create role node
-			Element roleNode = doc.createElementNS(getNamespace(), DefaultXmlNames.ELEMENT_TableCellRole);
-			containerNode.appendChild(roleNode);
+			startElement(DefaultXmlNames.ELEMENT_TableCellRole);
+			endElement(DefaultXmlNames.ELEMENT_TableCellRole);
 			
-			//Attributes
-			addContentObjectAttributes(roleNode, role.getAttributes());			
+			endElement(DefaultXmlNames.ELEMENT_Roles);
 		}
 	}
 	
+	
+	/**
+	 * Passes all events on to two content handlers (validator and serialiser).
+	 * The validator gets its own copy of the events, so that it cannot change the output (e.g. add default attributes).
+	 * 
+	 * @author Christian Clausner
+	 */
+	private static class TeeHandler implements ContentHandler {
+		private ContentHandler first;
+		private ContentHandler second;
+		
+		public TeeHandler(ContentHandler first, ContentHandler second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		public void setDocumentLocator(Locator locator) {
+			first.setDocumentLocator(locator);
+			second.setDocumentLocator(locator);
+		}
+
+		@Override
+		public void startDocument() throws SAXException {
+			first.startDocument();
+			second.startDocument();
+		}
+
+		@Override
+		public void endDocument() throws SAXException {
+			first.endDocument();
+			second.endDocument();
+		}
+
+		@Override
+		public void startPrefixMapping(String prefix, String uri) throws SAXException {
+			first.startPrefixMapping(prefix, uri);
+			second.startPrefixMapping(prefix, uri);
+		}
+
+		@Override
+		public void endPrefixMapping(String prefix) throws SAXException {
+			first.endPrefixMapping(prefix);
+			second.endPrefixMapping(prefix);
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+			first.startElement(uri, localName, qName, atts);
+			second.startElement(uri, localName, qName, atts);
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			first.endElement(uri, localName, qName);
+			second.endElement(uri, localName, qName);
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) throws SAXException {
+			first.characters(ch, start, length);
+			second.characters(ch, start, length);
+		}
+
+		@Override
+		public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+			first.ignorableWhitespace(ch, start, length);
+			second.ignorableWhitespace(ch, start, length);
+		}
+
+		@Override
+		public void processingInstruction(String target, String data) throws SAXException {
+			first.processingInstruction(target, data);
+			second.processingInstruction(target, data);
+		}
+
+		@Override
+		public void skippedEntity(String name) throws SAXException {
+			first.skippedEntity(name);
+			second.skippedEntity(name);
+		}
+	}
 }
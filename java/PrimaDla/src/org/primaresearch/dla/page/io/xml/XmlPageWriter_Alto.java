@@ -44,6 +44,7 @@ import javax.xml.validation.Validator;
 import org.primaresearch.dla.page.Page;
 import org.primaresearch.dla.page.io.FileTarget;
 import org.primaresearch.dla.page.io.OutputTarget;
+import org.primaresearch.dla.page.io.PageTiming;
 import org.primaresearch.dla.page.layout.PageLayout;
 import org.primaresearch.dla.page.layout.converter.ConversionMessage;
 import org.primaresearch.dla.page.layout.logical.Group;
@@ -62,13 +63,14 @@ import org.primaresearch.dla.page.layout.shared.GeometricObject;
 import org.primaresearch.dla.page.metadata.MetadataItem;
 import org.primaresearch.ident.Id;
 import org.primaresearch.io.UnsupportedFormatVersionException;
+import org.primaresearch.io.timing.CountingOutputStream;
+import org.primaresearch.io.timing.PhaseTiming;
 import org.primaresearch.io.xml.IOError;
 import org.primaresearch.io.xml.XmlValidator;
 import org.primaresearch.labels.HasLabels;
 import org.primaresearch.labels.Label;
 import org.primaresearch.labels.LabelGroup;
 import org.primaresearch.labels.Labels;
-import org.primaresearch.maths.geometry.Point;
 import org.primaresearch.maths.geometry.Polygon;
 import org.primaresearch.maths.geometry.Rect;
 import org.primaresearch.shared.variable.BooleanValue;
@@ -193,12 +195,15 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 			namespace = getNamespace();
 			doc = domImpl.createDocument(namespace, AltoXmlNames.ELEMENT_alto, null);
 	        
+	        long time = PhaseTiming.start();
 	        writeRoot();
+	        PageTiming.finish(PhaseTiming.DOCUMENT_BUILDING, time, 0L, page);
 	        
 	        //Validation errors?
 	        if (validator != null) {
 	        	Validator domVal = validator.getSchema().newValidator();
 	        	domVal.setErrorHandler(lastErrors);
+	        	time = PhaseTiming.start();
 
 	        	try {
 					domVal.validate(new DOMSource(doc));
@@ -207,6 +212,7 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 				} catch (IOException e) {
 					e.printStackTrace();
 				}
+	        	PageTiming.finish(PhaseTiming.VALIDATION, time, 0L, page);
 	        }
 	        if (lastErrors.hasErrors()) {
 	        	return false;
@@ -215,6 +221,7 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 	        //Write XML
 	        if (!validateOnly) {
 	        	
+	            time = PhaseTiming.start();
 	            TransformerFactory transfac = TransformerFactory.newInstance();
 	            Transformer trans = transfac.newTransformer();
 	            DOMSource source = new DOMSource(doc);
@@ -227,9 +234,13 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 	            } else if (target instanceof StreamTarget)
 	            	os = ((StreamTarget) target).getOutputStream();
 	            
+	            if (os != null && time != PhaseTiming.OFF)
+	            	os = new CountingOutputStream(os);
+	            
 	            StreamResult result = new StreamResult(os);
 	            trans.transform(source, result);
 	            os.close();
+	            PageTiming.finish(PhaseTiming.SERIALIZATION, time, os instanceof CountingOutputStream ? ((CountingOutputStream)os).getCount() : 0L, page);
 	        }
             return true;
 		} catch (ParserConfigurationException e) {
@@ -431,12 +442,12 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 		addAttribute(pageNode, AltoXmlNames.ATTR_HEIGHT, ""+layout.getHeight());
 		
 		//Page class
-		if (page.getAttributes().get("type") != null && page.getAttributes().get("type").getValue() != null)
-			addAttribute(pageNode, AltoXmlNames.ATTR_PAGECLASS, page.getAttributes().get("type").getValue().toString());
+		if (page.getAttributes().peek("type") != null && page.getAttributes().peek("type").getValue() != null)
+			addAttribute(pageNode, AltoXmlNames.ATTR_PAGECLASS, page.getAttributes().peek("type").getValue().toString());
 		
 		//Confidence
-		if (page.getAttributes().get("conf") != null && page.getAttributes().get("conf").getValue() != null)
-			addAttribute(pageNode, AltoXmlNames.ATTR_PC, page.getAttributes().get("conf").getValue().toString());
+		if (page.getAttributes().peek("conf") != null && page.getAttributes().peek("conf").getValue() != null)
+			addAttribute(pageNode, AltoXmlNames.ATTR_PC, page.getAttributes().peek("conf").getValue().toString());
 
 		//ACCURACY - Not supported in PAGE
 
@@ -559,10 +570,9 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 		for (int i=0; i<outline.getSize(); i++) {
 			if (sb.length() > 0)
 				sb.append(' ');
-			Point p = outline.getPoint(i);
-			sb.append(p.x);
+			sb.append(outline.getX(i));
 			sb.append(',');
-			sb.append(p.y);
+			sb.append(outline.getY(i));
 		}
 		addAttribute(polygonNode, AltoXmlNames.ATTR_POINTS, sb.toString());
 	}
@@ -585,8 +595,8 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 		addPositionAttributes(blockNode, region.getCoords());
 		
 		//ROTATION
-		if (region.getAttributes().get("orientation") != null && region.getAttributes().get("orientation").getValue() != null) {
-			double orientation = ((DoubleValue)region.getAttributes().get("orientation").getValue()).val;
+		if (region.getAttributes().peek("orientation") != null && region.getAttributes().peek("orientation").getValue() != null) {
+			double orientation = ((DoubleValue)region.getAttributes().peek("orientation").getValue()).val;
 			addAttribute(blockNode, AltoXmlNames.ATTR_ROTATION, ""+orientation);
 		}
 
@@ -742,8 +752,8 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 	void addTextBlockContent(Element blockNode, TextRegion region) {
 		
 		//LANG
-		if (region.getAttributes().get("primaryLanguage") != null && region.getAttributes().get("primaryLanguage").getValue() != null) {
-			String lang = getAltoLanguage(region.getAttributes().get("primaryLanguage").getValue().toString());
+		if (region.getAttributes().peek("primaryLanguage") != null && region.getAttributes().peek("primaryLanguage").getValue() != null) {
+			String lang = getAltoLanguage(region.getAttributes().peek("primaryLanguage").getValue().toString());
 			if (lang != null)
 				addAttribute(blockNode, AltoXmlNames.ATTR_LANG, lang);
 		}
@@ -779,8 +789,8 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 		addAttribute(textLineNode, AltoXmlNames.ATTR_ID, textLine.getId().toString());
 
 		//LANG
-		if (textLine.getAttributes().get("primaryLanguage") != null && textLine.getAttributes().get("primaryLanguage").getValue() != null) {
-			String lang = getAltoLanguage(textLine.getAttributes().get("primaryLanguage").getValue().toString());
+		if (textLine.getAttributes().peek("primaryLanguage") != null && textLine.getAttributes().peek("primaryLanguage").getValue() != null) {
+			String lang = getAltoLanguage(textLine.getAttributes().peek("primaryLanguage").getValue().toString());
 			if (lang != null)
 				addAttribute(textLineNode, AltoXmlNames.ATTR_LANG, lang);
 		}
@@ -831,8 +841,8 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 		addAttribute(wordNode, AltoXmlNames.ATTR_CONTENT, textContent);
 
 		//LANG
-		if (word.getAttributes().get("language") != null && word.getAttributes().get("language").getValue() != null) {
-			String lang = getAltoLanguage(word.getAttributes().get("language").getValue().toString());
+		if (word.getAttributes().peek("language") != null && word.getAttributes().peek("language").getValue() != null) {
+			String lang = getAltoLanguage(word.getAttributes().peek("language").getValue().toString());
 			if (lang != null)
 				addAttribute(wordNode, AltoXmlNames.ATTR_LANG, lang);
 		}
@@ -850,8 +860,8 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 		//PROCESSINGREFS - Not available in PAGE
 
 		//WC
-		if (word.getAttributes().get("conf") != null && word.getAttributes().get("conf").getValue() != null)
-			addAttribute(wordNode, AltoXmlNames.ATTR_WC, word.getAttributes().get("conf").getValue().toString());
+		if (word.getAttributes().peek("conf") != null && word.getAttributes().peek("conf").getValue() != null)
+			addAttribute(wordNode, AltoXmlNames.ATTR_WC, word.getAttributes().peek("conf").getValue().toString());
 
 		//TAGREFS
 		addTagRefs(wordNode, word);
@@ -895,8 +905,8 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 			addAttribute(glyphNode, AltoXmlNames.ATTR_STYLEREFS, textStyle.ID);
 
 		//GC
-		if (glyph.getAttributes().get("conf") != null && glyph.getAttributes().get("conf").getValue() != null)
-			addAttribute(glyphNode, AltoXmlNames.ATTR_GC, glyph.getAttributes().get("conf").getValue().toString());
+		if (glyph.getAttributes().peek("conf") != null && glyph.getAttributes().peek("conf").getValue() != null)
+			addAttribute(glyphNode, AltoXmlNames.ATTR_GC, glyph.getAttributes().peek("conf").getValue().toString());
 
 		//Shape
 		addShape(glyphNode, glyph.getCoords());
@@ -1425,30 +1435,30 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 		 */
 		public TextStyle(TextObject textObj) {
 			//Font family
-			if (textObj.getAttributes().get("fontFamily") != null && textObj.getAttributes().get("fontFamily").getValue() != null)
-				if (!textObj.getAttributes().get("fontFamily").getValue().toString().isEmpty())
+			if (textObj.getAttributes().peek("fontFamily") != null && textObj.getAttributes().peek("fontFamily").getValue() != null)
+				if (!textObj.getAttributes().peek("fontFamily").getValue().toString().isEmpty())
 					fontFamily = textObj.getAttributes().get("fontFamily").getValue().toString();
 			
 			//Font type
-			if (textObj.getAttributes().get("serif") != null && textObj.getAttributes().get("serif").getValue() != null)
-				if (((BooleanValue)textObj.getAttributes().get("serif").getValue()).val)
+			if (textObj.getAttributes().peek("serif") != null && textObj.getAttributes().peek("serif").getValue() != null)
+				if (((BooleanValue)textObj.getAttributes().peek("serif").getValue()).val)
 					fontType = "serif";
 				else
 					fontType = "sans-serif";
 			
 			//Font width type
-			if (textObj.getAttributes().get("monospace") != null && textObj.getAttributes().get("monospace").getValue() != null)
-				if (((BooleanValue)textObj.getAttributes().get("monospace").getValue()).val)
+			if (textObj.getAttributes().peek("monospace") != null && textObj.getAttributes().peek("monospace").getValue() != null)
+				if (((BooleanValue)textObj.getAttributes().peek("monospace").getValue()).val)
 					fontWidthType = "fixed";
 				else
 					fontWidthType = "proportional";
 			
 			//Font Size
-			if (textObj.getAttributes().get("fontSize") != null && textObj.getAttributes().get("fontSize").getValue() != null)
-				fontSize = ((DoubleValue)textObj.getAttributes().get("fontSize").getValue()).val;
+			if (textObj.getAttributes().peek("fontSize") != null && textObj.getAttributes().peek("fontSize").getValue() != null)
+				fontSize = ((DoubleValue)textObj.getAttributes().peek("fontSize").getValue()).val;
 			//Font Colour (hex)
-			if (textObj.getAttributes().get("textColourRgb") != null && textObj.getAttributes().get("textColourRgb").getValue() != null) {
-				fontColor = getHexColor(Integer.parseInt(textObj.getAttributes().get("textColourRgb").getValue().toString()));
+			if (textObj.getAttributes().peek("textColourRgb") != null && textObj.getAttributes().peek("textColourRgb").getValue() != null) {
+				fontColor = getHexColor(Integer.parseInt(textObj.getAttributes().peek("textColourRgb").getValue().toString()));
 			}
 			
 			//Font style (bold, italics, subscript, superscript, smallcaps, underline)
@@ -1556,12 +1566,12 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 		 */
 		public ParagraphStyle(TextRegion region) {
 			//Align
-			if (region.getAttributes().get("align") != null && region.getAttributes().get("align").getValue() != null)
-				if ("left".equals(region.getAttributes().get("align").getValue().toString()))
+			if (region.getAttributes().peek("align") != null && region.getAttributes().peek("align").getValue() != null)
+				if ("left".equals(region.getAttributes().peek("align").getValue().toString()))
 					align = "Left";
-				else if ("right".equals(region.getAttributes().get("align").getValue().toString()))
+				else if ("right".equals(region.getAttributes().peek("align").getValue().toString()))
 					align = "Right";
-				else if ("centre".equals(region.getAttributes().get("align").getValue().toString()))
+				else if ("centre".equals(region.getAttributes().peek("align").getValue().toString()))
 					align = "Center";
 				else //Justify
 					align = "Block";
@@ -1573,8 +1583,8 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 			// Not available in PAGE
 
 			//Line space
-			if (region.getAttributes().get("leading") != null && region.getAttributes().get("leading").getValue() != null)
-				lineSpace = (double)((IntegerValue)region.getAttributes().get("leading").getValue()).val;
+			if (region.getAttributes().peek("leading") != null && region.getAttributes().peek("leading").getValue() != null)
+				lineSpace = (double)((IntegerValue)region.getAttributes().peek("leading").getValue()).val;
 
 			//First line indent
 			// Not available in PAGE
@@ -1636,7 +1646,7 @@ public class XmlPageWriter_Alto implements XmlPageWriter {
 		}
 
 		public Tag(Region region) {
-			if (region.getAttributes().get("type") != null && region.getAttributes().get("type").getValue() != null)
+			if (region.getAttributes().peek("type") != null && region.getAttributes().peek("type").getValue() != null)
 				label = region.getAttributes().get("type").getValue().toString();
 			description="PAGE XML text region type";
 		}
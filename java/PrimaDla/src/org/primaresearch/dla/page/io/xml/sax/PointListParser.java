@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml.sax;
+
+import org.primaresearch.maths.geometry.Polygon;
+
+/**
+ * Scanner for PAGE point lists ("x1,y1 x2,y2 ...") as used in the <code>points</code>
+ * attribute of <code>Coords</code>, <code>Baseline</code> and <code>GridPoints</code>.<br>
+ * <br>
+ * The numbers are parsed in place (no substrings or wrapper objects) into a coordinate buffer
+ * that is reused for subsequent calls and then added to the polygon in one go.
+ * Points that do not consist of exactly two comma-separated values are skipped. Trailing commas
+ * are ignored (e.g. "1,2," is read as "1,2" and "1," is skipped).<br>
+ * <br>
+ * Not thread-safe (use one instance per handler).
+ *
+ * @author Christian Clausner
+ *
+ */
+public class PointListParser {
+
+	/** Interleaved x/y values of the last parsed point list */
+	private int[] buffer = new int[64];
+
+	/**
+	 * Parses the given point list and adds the points to the polygon.
+	 * @param pointList Point list (e.g. attribute value)
+	 * @param polygon Target polygon
+	 * @return Number of points added
+	 * @throws NumberFormatException A coordinate is not an integer
+	 */
+	public int parse(CharSequence pointList, Polygon polygon) {
+		return parse(null, pointList, 0, pointList.length(), polygon);
+	}
+
+	/**
+	 * Parses the given point list and adds the points to the polygon.
+	 * @param ch Characters (e.g. from {@link org.xml.sax.ContentHandler#characters(char[], int, int)})
+	 * @param start Start index of the point list in ch
+	 * @param length Number of characters of the point list
+	 * @param polygon Target polygon
+	 * @return Number of points added
+	 * @throws NumberFormatException A coordinate is not an integer
+	 */
+	public int parse(char[] ch, int start, int length, Polygon polygon) {
+		return parse(ch, null, start, start + length, polygon);
+	}
+
+	/**
+	 * Scans either a char array or a char sequence (one of them is <code>null</code>).
+	 */
+	private int parse(char[] array, CharSequence sequence, int start, int end, Polygon polygon) {
+		int count = 0;
+		int pos = start;
+		while (pos < end) {
+			//Skip separators
+			while (pos < end && isSeparator(charAt(array, sequence, pos)))
+				pos++;
+			if (pos >= end)
+				break;
+
+			//Find end of point and the comma
+			int pointStart = pos;
+			int comma = -1;
+			int commas = 0;
+			char c;
+			while (pos < end && !isSeparator(c = charAt(array, sequence, pos))) {
+				if (c == ',') {
+					if (comma < 0)
+						comma = pos;
+					commas++;
+				}
+				pos++;
+			}
+			//Ignore trailing commas (like String.split, which drops trailing empty values)
+			int pointEnd = pos;
+			while (pointEnd > pointStart && charAt(array, sequence, pointEnd - 1) == ',') {
+				pointEnd--;
+				commas--;
+			}
+			if (commas != 1)
+				continue;
+
+			if (buffer.length < count * 2 + 2) {
+				int[] newBuffer = new int[buffer.length * 2];
+				System.arraycopy(buffer, 0, newBuffer, 0, count * 2);
+				buffer = newBuffer;
+			}
+			buffer[count * 2] = parseInt(array, sequence, pointStart, comma);
+			buffer[count * 2 + 1] = parseInt(array, sequence, comma + 1, pointEnd);
+			count++;
+		}
+		if (count > 0)
+			polygon.addPoints(buffer, 0, count);
+		return count;
+	}
+
+	/**
+	 * Parses a decimal integer with optional sign (same rules as <code>Integer.parseInt</code>).
+	 */
+	private static int parseInt(char[] array, CharSequence sequence, int start, int end) {
+		int pos = start;
+		boolean negative = false;
+		if (pos < end) {
+			char c = charAt(array, sequence, pos);
+			if (c == '-' || c == '+') {
+				negative = c == '-';
+				pos++;
+			}
+		}
+		if (pos >= end)
+			throw numberFormatException(array, sequence, start, end);
+
+		//Accumulate negatively to cover Integer.MIN_VALUE
+		int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+		int result = 0;
+		for (; pos < end; pos++) {
+			int digit = charAt(array, sequence, pos) - '0';
+			if (digit < 0 || digit > 9 || result < limit / 10)
+				throw numberFormatException(array, sequence, start, end);
+			result *= 10;
+			if (result < limit + digit)
+				throw numberFormatException(array, sequence, start, end);
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+
+	private static char charAt(char[] array, CharSequence sequence, int index) {
+		return array != null ? array[index] : sequence.charAt(index);
+	}
+
+	private static boolean isSeparator(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+
+	private static NumberFormatException numberFormatException(char[] array, CharSequence sequence, int start, int end) {
+		String str = array != null ? new String(array, start, end - start) : sequence.subSequence(start, end).toString();
+		return new NumberFormatException("For input string: \"" + str + "\"");
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml.sax;
+
+import org.primaresearch.dla.page.io.xml.DefaultXmlNames;
+import org.primaresearch.dla.page.io.xml.XmlPageReadOptions;
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * SAX handler that passes events on to another handler (usually a page handler),
+ * leaving out the PAGE XML elements that are excluded by the given read options.<br>
+ * <br>
+ * An excluded element is dropped together with all its content (child elements and text).
+ * Elements that are not in a PAGE namespace are always passed on.
+ *
+ * @author Christian Clausner
+ *
+ */
+public class SaxPageContentFilter extends DefaultHandler {
+
+	private static final String PAGE_NAMESPACE_PREFIX = "http://schema.primaresearch.org/PAGE/";
+
+	private ContentHandler target;
+
+	private boolean skipWords;
+	private boolean skipGlyphs;
+	private boolean skipGraphemes;
+	private boolean skipTextEquivVariants;
+	private boolean skipUserDefined;
+	private boolean skipLabels;
+	private boolean skipAlternativeImages;
+
+	/** Current element depth */
+	private int depth = 0;
+	/** Depth of the excluded element that is being skipped (0 if not skipping) */
+	private int skipDepth = 0;
+	/** Depth of the last TextEquiv element that was passed on (0 if none for the current object) */
+	private int textEquivDepth = 0;
+
+	/**
+	 * Constructor
+	 * @param target Receiver of the events
+	 * @param options Read options defining the excluded elements
+	 */
+	public SaxPageContentFilter(ContentHandler target, XmlPageReadOptions options) {
+		this.target = target;
+
+		LowLevelTextType level = options.getDeepestTextLevel();
+		skipWords = level == LowLevelTextType.TextLine;
+		skipGlyphs = skipWords || level == LowLevelTextType.Word;
+		skipGraphemes = skipGlyphs || level == LowLevelTextType.Glyph;
+		skipTextEquivVariants = !options.isReadTextEquivVariants();
+		skipUserDefined = !options.isReadUserDefined();
+		skipLabels = !options.isReadLabels();
+		skipAlternativeImages = !options.isReadAlternativeImages();
+	}
+
+	/**
+	 * Checks if the given element (including its content) is to be left out.
+	 */
+	private boolean isExcluded(String namespaceURI, String localName) {
+		if (namespaceURI == null || !namespaceURI.startsWith(PAGE_NAMESPACE_PREFIX))
+			return false;
+
+		if (DefaultXmlNames.ELEMENT_TextEquiv.equals(localName)) {
+			if (textEquivDepth == depth) //Not the first TextEquiv of the current object
+				return skipTextEquivVariants;
+			textEquivDepth = depth;
+			return false;
+		}
+		//Any other element on the same level belongs to the content of the parent object, not to the text variants
+		if (depth <= textEquivDepth)
+			textEquivDepth = 0;
+
+		if (DefaultXmlNames.ELEMENT_Word.equals(localName))
+			return skipWords;
+		if (DefaultXmlNames.ELEMENT_Glyph.equals(localName))
+			return skipGlyphs;
+		if (DefaultXmlNames.ELEMENT_Graphemes.equals(localName))
+			return skipGraphemes;
+		if (DefaultXmlNames.ELEMENT_UserDefined.equals(localName))
+			return skipUserDefined;
+		if (DefaultXmlNames.ELEMENT_Labels.equals(localName))
+			return skipLabels;
+		if (DefaultXmlNames.ELEMENT_AlternativeImage.equals(localName))
+			return skipAlternativeImages;
+		return false;
+	}
+
+	@Override
+	public void setDocumentLocator(Locator locator) {
+		target.setDocumentLocator(locator);
+	}
+
+	@Override
+	public void startDocument() throws SAXException {
+		depth = 0;
+		skipDepth = 0;
+		textEquivDepth = 0;
+		target.startDocument();
+	}
+
+	@Override
+	public void endDocument() throws SAXException {
+		target.endDocument();
+	}
+
+	@Override
+	public void startPrefixMapping(String prefix, String uri) throws SAXException {
+		target.startPrefixMapping(prefix, uri);
+	}
+
+	@Override
+	public void endPrefixMapping(String prefix) throws SAXException {
+		target.endPrefixMapping(prefix);
+	}
+
+	@Override
+	public void startElement(String namespaceURI, String localName, String qName, Attributes atts) throws SAXException {
+		depth++;
+		if (skipDepth > 0)
+			return;
+		if (isExcluded(namespaceURI, localName)) {
+			skipDepth = depth;
+			return;
+		}
+		target.startElement(namespaceURI, localName, qName, atts);
+	}
+
+	@Override
+	public void endElement(String namespaceURI, String localName, String qName) throws SAXException {
+		int elementDepth = depth--;
+		if (skipDepth > 0) {
+			if (elementDepth == skipDepth)
+				skipDepth = 0;
+			return;
+		}
+		//End of the object the TextEquiv elements belong to
+		if (elementDepth < textEquivDepth)
+			textEquivDepth = 0;
+		target.endElement(namespaceURI, localName, qName);
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+		if (skipDepth == 0)
+			target.characters(ch, start, length);
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+		if (skipDepth == 0)
+			target.ignorableWhitespace(ch, start, length);
+	}
+
+	@Override
+	public void processingInstruction(String target, String data) throws SAXException {
+		if (skipDepth == 0)
+			this.target.processingInstruction(target, data);
+	}
+
+	@Override
+	public void skippedEntity(String name) throws SAXException {
+		if (skipDepth == 0)
+			target.skippedEntity(name);
+	}
+}
@@ -16,6 +16,10 @@
 package org.primaresearch.dla.page.io.xml.sax;
 
 import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.xml.PageXmlInputOutput;
+import org.primaresearch.ident.XmlIdRegister;
+import org.primaresearch.io.FormatModel;
+import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 /**
@@ -32,8 +36,38 @@ public abstract class SaxPageHandler extends DefaultHandler {
 	 */
 	abstract public Page getPageObject();
 	
+	private boolean trustedIds = false;
+	private XmlIdRegister idRegister = null;
 
+	/**
+	 * Enables or disables trusted IDs (call before parsing). If enabled, the IDs of the document are assumed 
+	 * to be unique and are not checked by the ID register of the page while parsing (fast path). The register
+	 * switches to regular mode when the page is edited after the document has been read.
+	 */
+	public void setTrustedIds(boolean trustedIds) {
+		this.trustedIds = trustedIds;
+	}
 
+	/**
+	 * Creates the page object for the document
+	 * @param formatModel Model for the page format or <code>null</code> (latest PAGE format)
+	 * @return Page object
+	 */
+	protected Page createPage(FormatModel formatModel) {
+		if (formatModel == null)
+			formatModel = PageXmlInputOutput.getLatestSchemaModel();
+		idRegister = new XmlIdRegister(XmlIdRegister.DEFAULT_PREFIX, trustedIds);
+		return new Page(formatModel, idRegister);
+	}
 
+	/**
+	 * Ends the trusted input mode of the ID register (see {@link XmlIdRegister#finishTrustedInput()}).
+	 * Subclasses overriding this method have to call it.
+	 */
+	@Override
+	public void endDocument() throws SAXException {
+		if (idRegister != null)
+			idRegister.finishTrustedInput();
+	}
 
 }
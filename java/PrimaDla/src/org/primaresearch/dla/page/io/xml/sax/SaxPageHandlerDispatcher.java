@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml.sax;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import org.primaresearch.dla.page.io.xml.XmlPageReadOptions;
+import org.primaresearch.io.xml.XmlFormatVersion;
+import org.primaresearch.io.xml.XmlModelAndValidatorProvider;
+import org.primaresearch.io.xml.XmlModelAndValidatorProvider.UnsupportedSchemaVersionException;
+import org.primaresearch.io.xml.XmlValidator;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * SAX handler that determines the format version from the root element and then
+ * passes all events on to the matching page handler (see {@link SaxPageHandlerFactory}).<br>
+ * <br>
+ * This allows reading a document in one pass, without parsing it beforehand just to find
+ * the schema version. If a schema is available for the version, the events are validated
+ * on the way (using a validator handler of the schema).
+ *
+ * @author Christian Clausner
+ *
+ */
+public class SaxPageHandlerDispatcher extends DefaultHandler {
+
+	private XmlModelAndValidatorProvider validatorProvider;
+	private ErrorHandler errorHandler;
+	private XmlFormatVersion schemaVersion = null;
+	private SaxPageHandler pageHandler = null;
+	private XmlPageReadOptions readOptions = null;
+	/** Receiver of all events (page handler or validator in front of the page handler) */
+	private ContentHandler target = null;
+	private Locator locator = null;
+	/** Prefix mappings that are reported before the root element [prefix, uri] */
+	private List<String[]> pendingPrefixMappings = new ArrayList<String[]>();
+
+	/**
+	 * Constructor
+	 * @param validatorProvider Schema validator provider (optional, set to null if no validation required).
+	 * @param errorHandler Handler for validation errors (optional)
+	 */
+	public SaxPageHandlerDispatcher(XmlModelAndValidatorProvider validatorProvider, ErrorHandler errorHandler) {
+		this.validatorProvider = validatorProvider;
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Returns the page handler that has been selected for the document.
+	 * @return Handler object or <code>null</code> if no element has been parsed yet
+	 */
+	public SaxPageHandler getPageHandler() {
+		return pageHandler;
+	}
+
+	/**
+	 * Returns the options defining which parts of a document are read.
+	 * @return Options object or <code>null</code> (everything is read)
+	 */
+	public XmlPageReadOptions getReadOptions() {
+		return readOptions;
+	}
+
+	/**
+	 * Sets the options defining which parts of a document are read (call before parsing).
+	 * @param readOptions Options object or <code>null</code> to read everything
+	 */
+	public void setReadOptions(XmlPageReadOptions readOptions) {
+		this.readOptions = readOptions;
+	}
+
+	/**
+	 * Returns the format version that has been found at the root element.
+	 * @return Version object or <code>null</code>
+	 */
+	public XmlFormatVersion getSchemaVersion() {
+		return schemaVersion;
+	}
+
+	/**
+	 * Creates the page handler (and validator if required) for the given root element.
+	 */
+	private void selectHandler(String namespaceURI, String localName) throws SAXException {
+		//Without a provider there are no models or schemas for specific versions (use the default handler)
+		if (validatorProvider != null)
+			schemaVersion = SaxPageHandlerFactory.getSchemaVersion(namespaceURI, localName);
+
+		pageHandler = SaxPageHandlerFactory.createHandler(validatorProvider, schemaVersion);
+		if (readOptions != null)
+			pageHandler.setTrustedIds(readOptions.isTrustedIds());
+		ContentHandler contentHandler = pageHandler;
+		if (readOptions != null && readOptions.isFiltering())
+			contentHandler = new SaxPageContentFilter(pageHandler, readOptions);
+		target = contentHandler;
+
+		//Validation
+		if (validatorProvider != null && schemaVersion != null) {
+			try {
+				XmlValidator validator = validatorProvider.getValidator(schemaVersion);
+				Schema schema = validator != null ? validator.getSchema() : null;
+				if (schema != null) {
+					ValidatorHandler validatorHandler = createValidatorHandler(schemaVersion, schema);
+					validatorHandler.setErrorHandler(errorHandler);
+					validatorHandler.setContentHandler(contentHandler);
+					target = validatorHandler;
+				}
+			} catch (UnsupportedSchemaVersionException e) {
+				throw new SAXException(e);
+			}
+		}
+
+		//Catch up with the events that were reported before the root element
+		if (locator != null)
+			target.setDocumentLocator(locator);
+		target.startDocument();
+		for (String[] mapping : pendingPrefixMappings)
+			target.startPrefixMapping(mapping[0], mapping[1]);
+		pendingPrefixMappings.clear();
+	}
+
+	/**
+	 * Creates a validator handler for the given schema (override to reuse validator handlers).
+	 * @param schemaVersion Version of the schema
+	 * @param schema Compiled schema
+	 * @return Validator handler (content and error handler will be set by the dispatcher)
+	 */
+	protected ValidatorHandler createValidatorHandler(XmlFormatVersion schemaVersion, Schema schema) {
+		return schema.newValidatorHandler();
+	}
+
+	@Override
+	public void setDocumentLocator(Locator locator) {
+		this.locator = locator;
+	}
+
+	@Override
+	public void startDocument() throws SAXException {
+		//Postponed until the root element is known
+	}
+
+	@Override
+	public void endDocument() throws SAXException {
+		if (target != null)
+			target.endDocument();
+	}
+
+	@Override
+	public void startPrefixMapping(String prefix, String uri) throws SAXException {
+		if (target != null)
+			target.startPrefixMapping(prefix, uri);
+		else
+			pendingPrefixMappings.add(new String[] {prefix, uri});
+	}
+
+	@Override
+	public void endPrefixMapping(String prefix) throws SAXException {
+		if (target != null)
+			target.endPrefixMapping(prefix);
+	}
+
+	@Override
+	public void startElement(String namespaceURI, String localName, String qName, Attributes atts) throws SAXException {
+		if (target == null)
+			selectHandler(namespaceURI, localName);
+		target.startElement(namespaceURI, localName, qName, atts);
+	}
+
+	@Override
+	public void endElement(String namespaceURI, String localName, String qName) throws SAXException {
+		if (target != null)
+			target.endElement(namespaceURI, localName, qName);
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+		if (target != null)
+			target.characters(ch, start, length);
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+		if (target != null)
+			target.ignorableWhitespace(ch, start, length);
+	}
+
+	@Override
+	public void processingInstruction(String target, String data) throws SAXException {
+		if (this.target != null)
+			this.target.processingInstruction(target, data);
+	}
+
+	@Override
+	public void skippedEntity(String name) throws SAXException {
+		if (target != null)
+			target.skippedEntity(name);
+	}
+}
@@ -15,6 +15,7 @@
  */
 package org.primaresearch.dla.page.io.xml.sax;
 
+import org.primaresearch.dla.page.io.xml.DefaultXmlNames;
 import org.primaresearch.io.xml.XmlFormatVersion;
 import org.primaresearch.io.xml.XmlModelAndValidatorProvider;
 
@@ -69,4 +70,37 @@ public class SaxPageHandlerFactory {
 		//Latest schema
 		return new SaxPageHandler_2019_07_15(validatorProvider, schemaVersion);
 	}
+	
+	/**
+	 * Determines the format version from the root element of a document.
+	 * @param namespaceURI Namespace of the element
+	 * @param localName Local name of the element
+	 * @return The format version or <code>null</code> if the element doesn't identify a supported format
+	 */
+	public static XmlFormatVersion getSchemaVersion(String namespaceURI, String localName) {
+		//PAGE
+	    if (DefaultXmlNames.ELEMENT_PcGts.equals(localName)){
+			String str = namespaceURI; //Example: http://schema.primaresearch.org/PAGE/gts/pagecontent/2010-03-19
+			int pos = str.lastIndexOf("/");
+			return new XmlFormatVersion(str.substring(pos+1));
+	    }
+	    //Abbyy
+	    else if ("document".equals(localName)) {
+			//Example: http://www.abbyy.com/FineReader_xml/FineReader10-schema-v1.xml
+			if (namespaceURI.contains("abbyy"))
+				return new XmlFormatVersion(namespaceURI);
+	    }
+	    //ALTO
+	    else if ("alto".equals(localName)) {
+			//Examples: http://www.loc.gov/standards/alto/ns-v2#
+	    	//          http://www.loc.gov/standards/alto/ns-v3#
+			if (namespaceURI.toLowerCase().contains("alto"))
+				return new XmlFormatVersion(namespaceURI);
+	    }
+	    //HOCR
+	    else if ("html".equals(localName)) {
+			return new XmlFormatVersion("HOCR");
+	    }
+	    return null;
+	}
 }
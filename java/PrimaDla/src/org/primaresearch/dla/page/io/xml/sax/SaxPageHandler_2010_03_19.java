@@ -43,7 +43,6 @@ import org.primaresearch.io.xml.XmlFormatVersion;
 import org.primaresearch.io.xml.XmlModelAndValidatorProvider;
 import org.primaresearch.io.xml.XmlModelAndValidatorProvider.UnsupportedSchemaVersionException;
 import org.primaresearch.maths.geometry.Polygon;
-import org.primaresearch.shared.variable.Variable;
 import org.primaresearch.shared.variable.VariableMap;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -398,15 +397,15 @@ public class SaxPageHandler_2010_03_19 extends SaxPageHandler {
 	private void createPageObject() {
     	if (validatorProvider != null && schemaVersion != null) {
     		try {
-				page = new Page(validatorProvider.getSchemaParser(schemaVersion));
+				page = createPage(validatorProvider.getSchemaParser(schemaVersion));
 				//page.setFormatVersion(schemaVersion);
 			} catch (UnsupportedSchemaVersionException e) {
 				e.printStackTrace();
-				page = new Page();
+				page = createPage(null);
 			}
     	}
     	else
-    		page = new Page();
+    		page = createPage(null);
     	
 		layout = page.getLayout();
 		metaData = page.getMetaData();
@@ -467,11 +466,10 @@ public class SaxPageHandler_2010_03_19 extends SaxPageHandler {
 		VariableMap map = obj.getAttributes();
 		int p;
 		for (int i=0; i<map.getSize(); i++) {
-			Variable var = map.get(i);
-			String xmlName = getXmlAttributeName(var.getName());
+			String xmlName = getXmlAttributeName(map.getVariableName(i));
 
 			if ((p = atts.getIndex(xmlName)) >= 0) {
-				var.parseValue(atts.getValue(p));
+				map.parseValue(i, atts.getValue(p));
 			}
 		}
 	}
@@ -485,7 +483,9 @@ public class SaxPageHandler_2010_03_19 extends SaxPageHandler {
 	 */
 	private Date parseDate(String str) {
 		try {
-			return DATE_FORMAT.parse(str);
+			synchronized (DATE_FORMAT) { //Date formats are not thread-safe
+				return DATE_FORMAT.parse(str);
+			}
 		} catch (ParseException e) {
 			return new Date();
 		}
@@ -20,9 +20,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Stack;
 
 import org.primaresearch.dla.page.AlternativeImage;
@@ -104,9 +102,9 @@ public class SaxPageHandler_2017_07_15 extends SaxPageHandler {
 	private StringBuffer currentText = null;
 	private XmlModelAndValidatorProvider validatorProvider;
 	private XmlFormatVersion schemaVersion;
+	private PointListParser pointListParser = new PointListParser();
 	private List<List<String>> tempRelations;
 	private List<String> currentRelation;		//[type, custom, comments, id1, id2]
-	private Map<String, ContentObject> contentObjects = new HashMap<String, ContentObject>();
 	private GraphemeGroup currentGraphemeGroup = null;
 	private GraphemeElement currentGraphemeElement = null;
 	private VariableMap currentUserDefinedAttributes = null;
@@ -233,7 +231,6 @@ public class SaxPageHandler_2017_07_15 extends SaxPageHandler {
 	    		currentTextLine = ((TextRegion)currentRegion).createTextLine(readId(atts));
 	    	currentGeometricObject = currentTextLine;
 	    	currentTextObject = currentTextLine;
-	    	contentObjects.put(currentTextLine.getId().toString(), currentTextLine);
 	    	handleAttributeContainer(currentTextLine, atts);
 	    }
 	    else if (DefaultXmlNames.ELEMENT_Word.equals(localName)) {
@@ -242,7 +239,6 @@ public class SaxPageHandler_2017_07_15 extends SaxPageHandler {
 	    		currentWord = currentTextLine.createWord(readId(atts));
 	    	currentGeometricObject = currentWord;
 	    	currentTextObject = currentWord;
-	    	contentObjects.put(currentWord.getId().toString(), currentWord);
 	    	handleAttributeContainer(currentWord, atts);
 	    }
 	    else if (DefaultXmlNames.ELEMENT_Glyph.equals(localName)) {
@@ -251,7 +247,6 @@ public class SaxPageHandler_2017_07_15 extends SaxPageHandler {
 	    		currentGlyph = currentWord.createGlyph(readId(atts));
 	    	currentGeometricObject = currentGlyph;
 	    	currentTextObject = currentGlyph;
-	    	contentObjects.put(currentGlyph.getId().toString(), currentGlyph);
 	    	handleAttributeContainer(currentGlyph, atts);
 	    }
 	    else if (DefaultXmlNames.ELEMENT_TextEquiv.equals(localName)) {
@@ -540,15 +535,15 @@ public class SaxPageHandler_2017_07_15 extends SaxPageHandler {
 	private void createPageObject() {
     	if (validatorProvider != null && schemaVersion != null) {
     		try {
-				page = new Page(validatorProvider.getSchemaParser(schemaVersion));
+				page = createPage(validatorProvider.getSchemaParser(schemaVersion));
 				//page.setFormatVersion(schemaVersion);
 			} catch (UnsupportedSchemaVersionException e) {
 				e.printStackTrace();
-				page = new Page();
+				page = createPage(null);
 			}
     	}
     	else
-    		page = new Page();
+    		page = createPage(null);
     	
 		layout = page.getLayout();
 		metaData = page.getMetaData();
@@ -640,11 +635,10 @@ public class SaxPageHandler_2017_07_15 extends SaxPageHandler {
 		VariableMap map = obj.getAttributes();
 		int p;
 		for (int i=0; i<map.getSize(); i++) {
-			Variable var = map.get(i);
-			String xmlName = getXmlAttributeName(var.getName());
+			String xmlName = getXmlAttributeName(map.getVariableName(i));
 
 			if ((p = atts.getIndex(xmlName)) >= 0) {
-				var.parseValue(atts.getValue(p));
+				map.parseValue(i, atts.getValue(p));
 			}
 		}
 	}
@@ -659,11 +653,10 @@ public class SaxPageHandler_2017_07_15 extends SaxPageHandler {
 		if (objectAttrs != null) {
 			int p;
 			for (int i=0; i<objectAttrs.getSize(); i++) {
-				Variable var = objectAttrs.get(i);
-				String xmlName = getXmlAttributeName(var.getName());
+				String xmlName = getXmlAttributeName(objectAttrs.getVariableName(i));
 
 				if ((p = atts.getIndex(xmlName)) >= 0) {
-					var.parseValue(atts.getValue(p));
+					objectAttrs.parseValue(i, atts.getValue(p));
 				}
 			}
 		}
@@ -732,8 +725,8 @@ public class SaxPageHandler_2017_07_15 extends SaxPageHandler {
 				String id1 = rel.get(3);
 				String id2 = rel.get(4);
 				
-				ContentObject obj1 = contentObjects.get(id1);
-				ContentObject obj2 = contentObjects.get(id2);
+				ContentObject obj1 = layout.getObject(id1);
+				ContentObject obj2 = layout.getObject(id2);
 				
 				if (obj1 != null && obj2 != null) {
 					ContentObjectRelation relation = relations.addRelation(obj1, obj2, type, "rel1");
@@ -749,18 +742,7 @@ public class SaxPageHandler_2017_07_15 extends SaxPageHandler {
 		//Points
 		int i;
 		if ((i = atts.getIndex(DefaultXmlNames.ATTR_points)) >= 0) {
-			String pointList = atts.getValue(i);
-			
-			//Split using space
-			String[] pointStrings = pointList.split(" ");
-			
-			for (i = 0; i<pointStrings.length; i++) {
-				//Split using comma
-				String[] coords = pointStrings[i].split(",");
-				if (coords.length == 2) {
-					polygon.addPoint(Integer.valueOf(coords[0]), Integer.valueOf(coords[1]));
-				}
-			}
+			pointListParser.parse(atts.getValue(i), polygon);
 		}
 	}
 	
@@ -773,7 +755,9 @@ public class SaxPageHandler_2017_07_15 extends SaxPageHandler {
 	 */
 	private Date parseDate(String str) {
 		try {
-			return DATE_FORMAT.parse(str);
+			synchronized (DATE_FORMAT) { //Date formats are not thread-safe
+				return DATE_FORMAT.parse(str);
+			}
 		} catch (ParseException e) {
 			return new Date();
 		}
@@ -812,7 +796,6 @@ public class SaxPageHandler_2017_07_15 extends SaxPageHandler {
 		currentRegion = layout.createRegion(type, readId(atts), (RegionContainer)currentRegion); //Either adds it to the page (if currentRegion is null) or to the current region (as nested region)
     	regionStack.push(currentRegion);
     	currentGeometricObject = currentRegion;
-    	contentObjects.put(currentRegion.getId().toString(), currentRegion);
     	handleAttributeContainer(currentRegion, atts);
 	}
 	
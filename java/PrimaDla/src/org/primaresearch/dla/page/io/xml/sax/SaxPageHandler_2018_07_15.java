@@ -20,9 +20,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Stack;
 
 import org.primaresearch.dla.page.AlternativeImage;
@@ -113,9 +111,9 @@ public class SaxPageHandler_2018_07_15 extends SaxPageHandler {
 	private StringBuffer currentText = null;
 	private XmlModelAndValidatorProvider validatorProvider;
 	private XmlFormatVersion schemaVersion;
+	private PointListParser pointListParser = new PointListParser();
 	private List<TempRelation> tempRelations;
 	private TempRelation currentRelation;		
-	private Map<String, ContentObject> contentObjects = new HashMap<String, ContentObject>();
 	private GraphemeGroup currentGraphemeGroup = null;
 	private GraphemeElement currentGraphemeElement = null;
 	private VariableMap currentUserDefinedAttributes = null;
@@ -256,7 +254,6 @@ public class SaxPageHandler_2018_07_15 extends SaxPageHandler {
 	    		currentTextLine = ((TextRegion)currentRegion).createTextLine(readId(atts));
 	    	currentGeometricObject = currentTextLine;
 	    	currentTextObject = currentTextLine;
-	    	contentObjects.put(currentTextLine.getId().toString(), currentTextLine);
 	    	objectsWithLabelsStack.push(currentTextLine);
 	    	handleAttributeContainer(currentTextLine, atts);
 	    }
@@ -266,7 +263,6 @@ public class SaxPageHandler_2018_07_15 extends SaxPageHandler {
 	    		currentWord = currentTextLine.createWord(readId(atts));
 	    	currentGeometricObject = currentWord;
 	    	currentTextObject = currentWord;
-	    	contentObjects.put(currentWord.getId().toString(), currentWord);
 	    	objectsWithLabelsStack.push(currentWord);
 	    	handleAttributeContainer(currentWord, atts);
 	    }
@@ -276,7 +272,6 @@ public class SaxPageHandler_2018_07_15 extends SaxPageHandler {
 	    		currentGlyph = currentWord.createGlyph(readId(atts));
 	    	currentGeometricObject = currentGlyph;
 	    	currentTextObject = currentGlyph;
-	    	contentObjects.put(currentGlyph.getId().toString(), currentGlyph);
 	    	objectsWithLabelsStack.push(currentGlyph);
 	    	handleAttributeContainer(currentGlyph, atts);
 	    }
@@ -616,15 +611,15 @@ public class SaxPageHandler_2018_07_15 extends SaxPageHandler {
 	private void createPageObject() {
     	if (validatorProvider != null && schemaVersion != null) {
     		try {
-				page = new Page(validatorProvider.getSchemaParser(schemaVersion));
+				page = createPage(validatorProvider.getSchemaParser(schemaVersion));
 				//page.setFormatVersion(schemaVersion);
 			} catch (UnsupportedSchemaVersionException e) {
 				e.printStackTrace();
-				page = new Page();
+				page = createPage(null);
 			}
     	}
     	else
-    		page = new Page();
+    		page = createPage(null);
     	
 		layout = page.getLayout();
 		metaData = page.getMetaData();
@@ -722,11 +717,10 @@ public class SaxPageHandler_2018_07_15 extends SaxPageHandler {
 		VariableMap map = obj.getAttributes();
 		int p;
 		for (int i=0; i<map.getSize(); i++) {
-			Variable var = map.get(i);
-			String xmlName = getXmlAttributeName(var.getName());
+			String xmlName = getXmlAttributeName(map.getVariableName(i));
 
 			if ((p = atts.getIndex(xmlName)) >= 0) {
-				var.parseValue(atts.getValue(p));
+				map.parseValue(i, atts.getValue(p));
 			}
 		}
 	}
@@ -741,11 +735,10 @@ public class SaxPageHandler_2018_07_15 extends SaxPageHandler {
 		if (objectAttrs != null) {
 			int p;
 			for (int i=0; i<objectAttrs.getSize(); i++) {
-				Variable var = objectAttrs.get(i);
-				String xmlName = getXmlAttributeName(var.getName());
+				String xmlName = getXmlAttributeName(objectAttrs.getVariableName(i));
 
 				if ((p = atts.getIndex(xmlName)) >= 0) {
-					var.parseValue(atts.getValue(p));
+					objectAttrs.parseValue(i, atts.getValue(p));
 				}
 			}
 		}
@@ -826,8 +819,8 @@ public class SaxPageHandler_2018_07_15 extends SaxPageHandler {
 				else if ("join".equals(rel.type))
 					type = RelationType.Join;
 				
-				ContentObject obj1 = contentObjects.get(rel.id1);
-				ContentObject obj2 = contentObjects.get(rel.id2);
+				ContentObject obj1 = layout.getObject(rel.id1);
+				ContentObject obj2 = layout.getObject(rel.id2);
 				
 				if (obj1 != null && obj2 != null) {
 					ContentObjectRelation relation = relations.addRelation(obj1, obj2, type, rel.relationId);
@@ -844,18 +837,7 @@ public class SaxPageHandler_2018_07_15 extends SaxPageHandler {
 		//Points
 		int i;
 		if ((i = atts.getIndex(DefaultXmlNames.ATTR_points)) >= 0) {
-			String pointList = atts.getValue(i);
-			
-			//Split using space
-			String[] pointStrings = pointList.split(" ");
-			
-			for (i = 0; i<pointStrings.length; i++) {
-				//Split using comma
-				String[] coords = pointStrings[i].split(",");
-				if (coords.length == 2) {
-					polygon.addPoint(Integer.valueOf(coords[0]), Integer.valueOf(coords[1]));
-				}
-			}
+			pointListParser.parse(atts.getValue(i), polygon);
 		}
 	}
 	
@@ -868,7 +850,9 @@ public class SaxPageHandler_2018_07_15 extends SaxPageHandler {
 	 */
 	private Date parseDate(String str) {
 		try {
-			return DATE_FORMAT.parse(str);
+			synchronized (DATE_FORMAT) { //Date formats are not thread-safe
+				return DATE_FORMAT.parse(str);
+			}
 		} catch (ParseException e) {
 			return new Date();
 		}
@@ -908,7 +892,6 @@ public class SaxPageHandler_2018_07_15 extends SaxPageHandler {
     	regionStack.push(currentRegion);
     	objectsWithLabelsStack.push(currentRegion);
     	currentGeometricObject = currentRegion;
-    	contentObjects.put(currentRegion.getId().toString(), currentRegion);
     	handleAttributeContainer(currentRegion, atts);
 	}
 	
@@ -622,8 +622,8 @@ public class SaxPageHandler_Alto_2_1 extends SaxPageHandler {
 				updatedRight = parentLine.getCoords().getBoundingBox().right;
 		}
 		if (polygon.getBoundingBox().right < updatedRight) {
-			polygon.getPoint(1).x = updatedRight;   
-			polygon.getPoint(2).x = updatedRight;
+			polygon.setPoint(1, updatedRight, polygon.getY(1));
+			polygon.setPoint(2, updatedRight, polygon.getY(2));
 			lastWord.getCoords().setBoundingBoxOutdated();
 		}
 	}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml.sax;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+
+/**
+ * SAX handler that passes events on to another handler and measures the time spent in that handler
+ * (used for reporting the model building time separately from the parsing time).
+ *
+ * @author Christian Clausner
+ *
+ */
+public class TimedContentHandler implements ContentHandler {
+
+	private ContentHandler target;
+	/** Accumulated time in the target handler (nanoseconds) */
+	private long time = 0;
+	private long elementCount = 0;
+	
+	/**
+	 * Constructor
+	 * @param target Receiver of the events
+	 */
+	public TimedContentHandler(ContentHandler target) {
+		this.target = target;
+	}
+	
+	/**
+	 * Returns the accumulated time spent in the target handler in nanoseconds
+	 */
+	public long getTime() {
+		return time;
+	}
+	
+	/**
+	 * Returns the number of elements that have been passed on
+	 */
+	public long getElementCount() {
+		return elementCount;
+	}
+
+	@Override
+	public void setDocumentLocator(Locator locator) {
+		target.setDocumentLocator(locator);
+	}
+
+	@Override
+	public void startDocument() throws SAXException {
+		long start = System.nanoTime();
+		try {
+			target.startDocument();
+		} finally {
+			time += System.nanoTime() - start;
+		}
+	}
+
+	@Override
+	public void endDocument() throws SAXException {
+		long start = System.nanoTime();
+		try {
+			target.endDocument();
+		} finally {
+			time += System.nanoTime() - start;
+		}
+	}
+
+	@Override
+	public void startPrefixMapping(String prefix, String uri) throws SAXException {
+		target.startPrefixMapping(prefix, uri);
+	}
+
+	@Override
+	public void endPrefixMapping(String prefix) throws SAXException {
+		target.endPrefixMapping(prefix);
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+		elementCount++;
+		long start = System.nanoTime();
+		try {
+			target.startElement(uri, localName, qName, atts);
+		} finally {
+			time += System.nanoTime() - start;
+		}
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) throws SAXException {
+		long start = System.nanoTime();
+		try {
+			target.endElement(uri, localName, qName);
+		} finally {
+			time += System.nanoTime() - start;
+		}
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+		long startTime = System.nanoTime();
+		try {
+			target.characters(ch, start, length);
+		} finally {
+			time += System.nanoTime() - startTime;
+		}
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+		target.ignorableWhitespace(ch, start, length);
+	}
+
+	@Override
+	public void processingInstruction(String target, String data) throws SAXException {
+		this.target.processingInstruction(target, data);
+	}
+
+	@Override
+	public void skippedEntity(String name) throws SAXException {
+		target.skippedEntity(name);
+	}
+}
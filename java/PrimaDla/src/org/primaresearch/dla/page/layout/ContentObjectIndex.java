@@ -0,0 +1,197 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.layout;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.primaresearch.dla.page.layout.physical.ContentFactory;
+import org.primaresearch.dla.page.layout.physical.ContentObject;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.RegionContainer;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextContainer;
+import org.primaresearch.ident.Id;
+
+/**
+ * Lookup table for all regions (including nested regions) and low level text objects
+ * (text lines, words, glyphs) of a page layout by ID.<br>
+ * <br>
+ * The table is built on first use. After that it is updated in place via the structure
+ * notifications of the content factory (objects added, removed or with new ID).
+ * Objects that are added to a container outside the layout are indexed once the container is added.<br>
+ * For duplicate IDs the object indexed first is used. Once duplicates have been seen, the table 
+ * is discarded and rebuilt if an object is removed or gets a new ID (the hidden duplicate may become visible).
+ *
+ * @author Christian Clausner
+ *
+ */
+class ContentObjectIndex implements ContentFactory.StructureListener {
+
+	private PageLayout layout;
+	private Map<String, Entry> entries = null;
+	private boolean duplicates = false;
+	private int buildCount = 0;
+
+	/**
+	 * Constructor
+	 * @param layout Layout to index
+	 */
+	ContentObjectIndex(PageLayout layout) {
+		this.layout = layout;
+	}
+
+	/**
+	 * Returns the index entry for the given ID
+	 * @return Entry or <code>null</code> if there is no object with the given ID
+	 */
+	synchronized Entry get(String id) {
+		if (entries == null)
+			build();
+		return entries.get(id);
+	}
+
+	/**
+	 * Returns how often the table has been built (for testing)
+	 */
+	synchronized int getBuildCount() {
+		return buildCount;
+	}
+
+	@Override
+	public synchronized void objectAdded(ContentObject object, ContentObject parent) {
+		if (entries == null || object == null)
+			return;
+		if (parent == null || isIndexed(parent))
+			addObject(object, parent);
+		else if (duplicates) //Parent might be hidden by a duplicate
+			entries = null;
+	}
+
+	@Override
+	public synchronized void objectRemoved(ContentObject object, ContentObject parent) {
+		if (entries == null || object == null)
+			return;
+		if (duplicates) {
+			entries = null;
+			return;
+		}
+		Entry entry = getEntry(object);
+		if (entry != null && entry.parent == parent) //Otherwise not part of the layout or already moved to another parent
+			removeObject(object);
+	}
+
+	@Override
+	public synchronized void idChanged(ContentObject object, Id oldId) {
+		if (entries == null || object == null)
+			return;
+		if (duplicates) {
+			entries = null;
+			return;
+		}
+		Entry entry = oldId != null ? entries.get(oldId.toString()) : null;
+		if (entry != null && entry.object == object) {
+			entries.remove(oldId.toString());
+			add(object, entry.parent);
+		}
+	}
+
+	private void build() {
+		entries = new HashMap<String, Entry>();
+		duplicates = false;
+		buildCount++;
+		for (int i=0; i<layout.getRegionCount(); i++)
+			addRegion(layout.getRegion(i), null);
+	}
+
+	private boolean isIndexed(ContentObject obj) {
+		return getEntry(obj) != null;
+	}
+
+	private Entry getEntry(ContentObject obj) {
+		if (obj.getId() == null)
+			return null;
+		Entry entry = entries.get(obj.getId().toString());
+		return entry != null && entry.object == obj ? entry : null;
+	}
+
+	private void addObject(ContentObject obj, ContentObject parent) {
+		if (obj instanceof Region)
+			addRegion((Region)obj, parent);
+		else {
+			add(obj, parent);
+			if (obj instanceof LowLevelTextContainer)
+				addTextObjects((LowLevelTextContainer)obj);
+		}
+	}
+
+	private void addRegion(Region region, ContentObject parent) {
+		add(region, parent);
+		RegionContainer container = (RegionContainer)region;
+		for (int i=0; i<container.getRegionCount(); i++)
+			addRegion(container.getRegion(i), region);
+		if (region instanceof LowLevelTextContainer)
+			addTextObjects((LowLevelTextContainer)region);
+	}
+
+	private void addTextObjects(LowLevelTextContainer parent) {
+		for (int i=0; i<parent.getTextObjectCount(); i++) {
+			ContentObject obj = parent.getTextObject(i);
+			add(obj, (ContentObject)parent);
+			if (obj instanceof LowLevelTextContainer)
+				addTextObjects((LowLevelTextContainer)obj);
+		}
+	}
+
+	private void add(ContentObject obj, ContentObject parent) {
+		if (obj.getId() == null)
+			return;
+		String id = obj.getId().toString();
+		Entry existing = entries.get(id);
+		if (existing == null || existing.object == obj)
+			entries.put(id, new Entry(obj, parent));
+		else
+			duplicates = true;
+	}
+
+	private void removeObject(ContentObject obj) {
+		if (getEntry(obj) != null)
+			entries.remove(obj.getId().toString());
+		if (obj instanceof RegionContainer) {
+			RegionContainer container = (RegionContainer)obj;
+			for (int i=0; i<container.getRegionCount(); i++)
+				removeObject(container.getRegion(i));
+		}
+		if (obj instanceof LowLevelTextContainer) {
+			LowLevelTextContainer container = (LowLevelTextContainer)obj;
+			for (int i=0; i<container.getTextObjectCount(); i++)
+				removeObject(container.getTextObject(i));
+		}
+	}
+
+	/**
+	 * Content object and its parent
+	 */
+	static final class Entry {
+		final ContentObject object;
+		/** Parent region or text object container (<code>null</code> for top-level regions) */
+		final ContentObject parent;
+
+		Entry(ContentObject object, ContentObject parent) {
+			this.object = object;
+			this.parent = parent;
+		}
+	}
+}
@@ -22,6 +22,8 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.primaresearch.collections.IndexedMap;
 import org.primaresearch.collections.IndexedMapImpl;
@@ -39,6 +41,7 @@ import org.primaresearch.dla.page.layout.physical.ContentIterator;
 import org.primaresearch.dla.page.layout.physical.ContentObject;
 import org.primaresearch.dla.page.layout.physical.Region;
 import org.primaresearch.dla.page.layout.physical.RegionContainer;
+import org.primaresearch.dla.page.layout.physical.impl.ContentObjectSpliterator;
 import org.primaresearch.dla.page.layout.physical.impl.LowLevelTextObjectIterator;
 import org.primaresearch.dla.page.layout.physical.impl.RegionIterator;
 import org.primaresearch.dla.page.layout.physical.shared.ContentType;
@@ -51,6 +54,7 @@ import org.primaresearch.ident.Id;
 import org.primaresearch.ident.IdRegister.InvalidIdException;
 import org.primaresearch.maths.geometry.Dimension;
 import org.primaresearch.maths.geometry.Polygon;
+import org.primaresearch.maths.geometry.Rect;
 
 /**
  * Class representing the layout and text content of a document page.
@@ -73,6 +77,9 @@ public class PageLayout {
 	private Layers layers = null;
 	private Relations relations = null;
 	
+	private SpatialIndex spatialIndex = null;
+	private ContentObjectIndex objectIndex;
+	
 	private static Comparator<ContentObject> contentObjectSizeComparator = null;
 	
 	/**
@@ -81,6 +88,8 @@ public class PageLayout {
 	 */
 	public PageLayout(ContentFactory contentFactory) {
 		this.contentFactory = contentFactory;
+		objectIndex = new ContentObjectIndex(this);
+		contentFactory.setStructureListener(objectIndex);
 	}
 	
 	/**
@@ -117,8 +126,10 @@ public class PageLayout {
 				e.printStackTrace(); 
 			}
 		}
-		if (parentRegion == null )
+		if (parentRegion == null ) {
 			regions.put(reg.getId(), reg);
+			contentFactory.objectAdded(reg, null);
+		}
 		else
 			parentRegion.addRegion(reg);
 		return reg;
@@ -149,7 +160,7 @@ public class PageLayout {
 	/**
 	 * Returns the region with the given ID.
 	 * @param regionId
-	 * @param includeNested Set to true to also look in nested regions (slower)
+	 * @param includeNested Set to true to also look in nested regions
 	 */
 	public Region getRegion(Id regionId, boolean includeNested) {
 		if (regionId == null)
@@ -157,25 +168,9 @@ public class PageLayout {
 		if (regions.containsKey(regionId))
 			return regions.get(regionId);
 		if (includeNested) {
-			for (Region parent : regions.values()) {
-				Region reg = getNestedRegion(regionId, parent);
-				if (reg != null)
-					return reg;
-			}
-		}
-		return null;
-	}
-	
-	private Region getNestedRegion(Id regionId, Region parent) {
-		
-		for (int i=0; i<parent.getRegionCount(); i++) {
-			Region nested = parent.getRegion(i);
-			if (nested.getId().equals(regionId))
-				return nested;
-			//Recursion
-			Region reg = getNestedRegion(regionId, nested);
-			if (reg != null)
-				return reg;
+			ContentObjectIndex.Entry entry = objectIndex.get(regionId.toString());
+			if (entry != null && entry.object instanceof Region)
+				return (Region)entry.object;
 		}
 		return null;
 	}
@@ -198,13 +193,18 @@ public class PageLayout {
 	 * @return A region object or null.
 	 */
 	public Region getRegionAt(int x, int y) {
-		List<Region> candidates = new LinkedList<Region>();
-		for (ContentIterator it = this.iterator(null); it.hasNext(); ) {
-			ContentObject region = it.next();
-			if (region.getCoords() != null) {
-				Polygon coords = region.getCoords();
-				if (coords.isPointInside(x, y)) {
-					candidates.add((Region)region);
+		List<ContentObject> candidates;
+		if (spatialIndex != null)
+			candidates = spatialIndex.getObjectsAt(null, x, y);
+		else {
+			candidates = new LinkedList<ContentObject>();
+			for (ContentIterator it = this.iterator(null); it.hasNext(); ) {
+				ContentObject region = it.next();
+				if (region.getCoords() != null) {
+					Polygon coords = region.getCoords();
+					if (coords.isPointInside(x, y)) {
+						candidates.add(region);
+					}
 				}
 			}
 		}
@@ -214,7 +214,7 @@ public class PageLayout {
 			Collections.sort(candidates, getContentObjectSizeComparator());
 		}
 		if (!candidates.isEmpty())
-			return candidates.get(0);
+			return (Region)candidates.get(0);
 		
 		/*for (int i=0; i<regions.size(); i++) {
 			Region region = regions.getAt(i);
@@ -236,6 +236,8 @@ public class PageLayout {
 		if (type instanceof RegionType)
 			return getRegionAt(x, y);
 		else if (type instanceof LowLevelTextType) { //Text lines, word, glyph
+			if (spatialIndex != null)
+				return spatialIndex.getFirstObjectAt(type, x, y);
 			for (ContentIterator it = this.iterator(RegionType.TextRegion); it.hasNext(); ) {
 				Region reg = (Region)it.next(); 
 				if (reg instanceof LowLevelTextContainer) {
@@ -248,6 +250,75 @@ public class PageLayout {
 		return null;
 	}
 	
+	/**
+	 * Returns all content objects of a specific type within or overlapping the given rectangle.
+	 * @param area Search rectangle
+	 * @param type A specific region type or low level text object type. Use <code>null</code> to include all regions.
+	 * @param overlapping If <code>true</code>, all objects with a bounding box intersecting the area are returned,
+	 * 						otherwise only objects with a bounding box that lies completely within the area.
+	 * @return List of content objects (in iteration order, might be empty)
+	 */
+	public List<ContentObject> getObjectsIn(Rect area, ContentType type, boolean overlapping) {
+		if (spatialIndex != null)
+			return spatialIndex.getObjectsIn(type, area, overlapping);
+		List<ContentObject> ret = new ArrayList<ContentObject>();
+		for (ContentObject obj : SpatialIndex.collect(this, type)) {
+			if (SpatialIndex.matches(obj, area, overlapping))
+				ret.add(obj);
+		}
+		return ret;
+	}
+	
+	/**
+	 * Returns all content objects of a specific type within or overlapping the given polygon.
+	 * @param area Search polygon
+	 * @param type A specific region type or low level text object type. Use <code>null</code> to include all regions.
+	 * @param overlapping If <code>true</code>, all objects with an outline intersecting the area are returned,
+	 * 						otherwise only objects with all outline points inside the area.
+	 * @return List of content objects (in iteration order, might be empty)
+	 */
+	public List<ContentObject> getObjectsIn(Polygon area, ContentType type, boolean overlapping) {
+		List<ContentObject> ret = new ArrayList<ContentObject>();
+		if (area == null || area.getSize() == 0)
+			return ret;
+		List<ContentObject> candidates = getObjectsIn(area.getBoundingBox(), type, true);
+		for (int i=0; i<candidates.size(); i++) {
+			if (SpatialIndex.matches(candidates.get(i), area, overlapping))
+				ret.add(candidates.get(i));
+		}
+		return ret;
+	}
+	
+	/**
+	 * Enables or disables the spatial index for {@link #getRegionAt(int, int)}, {@link #getObjectAt(int, int, ContentType)}
+	 * and {@link #getObjectsIn(Rect, ContentType, boolean)}. The index is built on demand and updated automatically
+	 * when objects are added or removed or get new coordinates via <code>setCoords</code>. 
+	 * If existing polygons are modified directly, {@link #invalidateSpatialIndex()} has to be called.
+	 * (disabled by default)
+	 */
+	public void setSpatialIndexEnabled(boolean enabled) {
+		if (enabled && spatialIndex == null)
+			spatialIndex = new SpatialIndex(this, contentFactory);
+		else if (!enabled)
+			spatialIndex = null;
+	}
+	
+	/**
+	 * Checks if the spatial index is enabled
+	 */
+	public boolean isSpatialIndexEnabled() {
+		return spatialIndex != null;
+	}
+	
+	/**
+	 * Discards the spatial index (if enabled) so it will be rebuilt with the next query.
+	 * Only needs to be called after polygons of content objects have been modified directly.
+	 */
+	public void invalidateSpatialIndex() {
+		if (spatialIndex != null)
+			spatialIndex.invalidate();
+	}
+	
 	/**
 	 * Returns the content object of given type and ID 
 	 * @param type Object type (e.g. region or text line)
@@ -258,18 +329,25 @@ public class PageLayout {
 		if (type instanceof RegionType)
 			return getRegion(id);
 		else if (type instanceof LowLevelTextType) { //Text lines, word, glyph
-			for (int i=0; i<regions.size(); i++) {
-				Region reg = regions.getAt(i); 
-				if (reg instanceof LowLevelTextContainer) {
-					ContentObjectRelation rel = getLowLevelTextObject((LowLevelTextContainer)reg, (LowLevelTextType)type, id);
-					if (rel != null)
-						return rel.getObject2();
-				}
-			}		
+			ContentObjectIndex.Entry entry = id != null ? objectIndex.get(id) : null;
+			if (entry != null && type.equals(entry.object.getType()))
+				return entry.object;
 		}
 		return null;
 	}
 	
+	/**
+	 * Returns the region (including nested regions) or low level text object (text line, word, glyph) with the given ID.
+	 * @param id Object ID
+	 * @return The object or <code>null</code> if it could not be found
+	 */
+	public ContentObject getObject(String id) {
+		if (id == null)
+			return null;
+		ContentObjectIndex.Entry entry = objectIndex.get(id);
+		return entry != null ? entry.object : null;
+	}
+	
 	/**
 	 * Returns a parent-child relation object
 	 * @param childType Content type of the child
@@ -280,51 +358,9 @@ public class PageLayout {
 		if (childType instanceof RegionType)
 			return null;
 		else if (childType instanceof LowLevelTextType) { //Text lines, word, glyph
-			for (int i=0; i<regions.size(); i++) {
-				Region reg = regions.getAt(i); 
-				if (reg instanceof LowLevelTextContainer) {
-					ContentObjectRelation rel = getLowLevelTextObject((LowLevelTextContainer)reg, (LowLevelTextType)childType, childId);
-					if (rel != null)
-						return rel;
-				}
-			}		
-		}
-		return null;
-	}
-	
-	/**
-	 * Looks recursively for a text object with the given ID.
-	 * @param parent Parent container
-	 * @param type Text object type to look for
-	 * @return A text object or null.
-	 */
-	private ContentObjectRelation getLowLevelTextObject(LowLevelTextContainer parent, LowLevelTextType type, String id) {
-		if (parent == null)
-			return null;
-			
-		//Iterate over all child text objects
-		for (int i=0; i<parent.getTextObjectCount(); i++) {
-			LowLevelTextObject obj = parent.getTextObject(i);
-
-			//Is the child of the type we are looking for?
-			if (type.equals(obj.getType())) {
-				//Check if the given ID matches
-				try {
-					if (obj.getId().equals(contentFactory.getIdRegister().getId(id)))
-						return new ContentObjectRelation((ContentObject)parent, obj, RelationType.ParentChildRelation, null, null);
-				} catch (InvalidIdException e) {
-					return null;
-				}
-			}
-			//Is the child a text object container itself?
-			else if (obj instanceof LowLevelTextContainer){
-				//Recursion
-				ContentObjectRelation rel = getLowLevelTextObject((LowLevelTextContainer)obj, type, id);
-				if (rel != null)
-					return rel;
-			} 
-			else //If the child is neither of the type we're looking for nor a container, we can leave the recursion now.
-				return null;
+			ContentObjectIndex.Entry entry = childId != null ? objectIndex.get(childId) : null;
+			if (entry != null && entry.parent != null && childType.equals(entry.object.getType()))
+				return new ContentObjectRelation(entry.parent, entry.object, RelationType.ParentChildRelation, null, null);
 		}
 		return null;
 	}
@@ -502,7 +538,9 @@ public class PageLayout {
 	public void removeRegion(Id regionId, boolean unregisterId) {
 		if (regionId == null)
 			return;
-		regions.remove(regionId);
+		Region reg = regions.remove(regionId);
+		if (reg != null)
+			contentFactory.objectRemoved(reg, null);
 		if (unregisterId)
 			this.contentFactory.getIdRegister().unregisterId(regionId);
 	}
@@ -522,6 +560,7 @@ public class PageLayout {
 	 */
 	public void removeRegion(int index, boolean unregisterId) {
 		Region reg = regions.removeAt(index);
+		contentFactory.objectRemoved(reg, null);
 		if (unregisterId && reg != null)
 			this.contentFactory.getIdRegister().unregisterId(reg.getId());
 	}
@@ -648,8 +687,10 @@ public class PageLayout {
 		newRegion.setCoords(region.getCoords().clone());
 
 		//Add new region to layout
-		if (parentRegion == null || !(newRegion instanceof Region))
+		if (parentRegion == null || !(newRegion instanceof Region)) {
 			regions.put(newRegion.getId(), (Region)newRegion);
+			contentFactory.objectAdded(newRegion, null);
+		}
 		else
 			parentRegion.addRegion((Region)newRegion);
 		
@@ -678,6 +719,27 @@ public class PageLayout {
 			return new LowLevelTextObjectIterator(this, (LowLevelTextType)contentType, layer);
 		throw new IllegalArgumentException("Unsupported content type for iterator");
 	}
+
+	/**
+	 * Returns a sequential stream of page content objects of a specific type (same order as the iterator).
+	 * @param contentType A specific region type or low level text object type (text line, word or glyph). Use <code>null</code> for a stream that includes all regions.
+	 * @return The stream (use <code>parallel()</code> to process ranges of top-level regions concurrently)
+	 * @throws IllegalArgumentException Content type not supported (e.g. grapheme)
+	 */
+	public Stream<ContentObject> stream(ContentType contentType) {
+		return stream(contentType, null);
+	}
+
+	/**
+	 * Returns a sequential stream of page content objects of a specific type (same order as the iterator).
+	 * @param contentType A specific region type or low level text object type (text line, word or glyph). Use <code>null</code> for a stream that includes all regions.
+	 * @param layer Restrict the stream to this layer (use <code>null</code> for no restriction)
+	 * @return The stream (use <code>parallel()</code> to process ranges of top-level regions concurrently)
+	 * @throws IllegalArgumentException Content type not supported (e.g. grapheme)
+	 */
+	public Stream<ContentObject> stream(ContentType contentType, Layer layer) {
+		return StreamSupport.stream(new ContentObjectSpliterator(this, contentType, layer), false);
+	}
 	
 	/**
 	 * Creates a comparator using the bounding box area of content objects
@@ -0,0 +1,421 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.layout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.primaresearch.dla.page.layout.physical.ContentFactory;
+import org.primaresearch.dla.page.layout.physical.ContentObject;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.RegionContainer;
+import org.primaresearch.dla.page.layout.physical.shared.ContentType;
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextContainer;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
+import org.primaresearch.maths.geometry.Polygon;
+import org.primaresearch.maths.geometry.Rect;
+
+/**
+ * Grid-based spatial index over the regions and low level text objects of a page layout.<br>
+ * <br>
+ * For each content type a uniform grid of the object bounding boxes is built on first use.
+ * All grids are discarded when the content factory of the layout reports a change
+ * (objects added or removed, outline replaced via <code>setCoords</code>).
+ * Changes made directly to an existing polygon are not detected
+ * (use {@link PageLayout#invalidateSpatialIndex()} in that case).<br>
+ * <br>
+ * Objects are kept in the order in which the page layout iterators return them,
+ * so that the results are the same as for a linear search.<br>
+ * <br>
+ * Lookups may be called from several threads (as long as the layout is not modified at the same time).
+ *
+ * @author Christian Clausner
+ *
+ */
+class SpatialIndex {
+
+	/** Maximum number of grid cells per axis */
+	private static final int MAX_CELLS = 256;
+
+	private PageLayout layout;
+	private ContentFactory contentFactory;
+	/** Grids per content type (key null for all regions) */
+	private Map<ContentType, Grid> grids = new HashMap<ContentType, Grid>();
+	private int modificationCount;
+
+	/**
+	 * Constructor
+	 * @param layout Layout to index
+	 * @param contentFactory Content factory of the layout (for change detection)
+	 */
+	SpatialIndex(PageLayout layout, ContentFactory contentFactory) {
+		this.layout = layout;
+		this.contentFactory = contentFactory;
+		this.modificationCount = contentFactory.getModificationCount();
+	}
+
+	/**
+	 * Discards all grids
+	 */
+	synchronized void invalidate() {
+		grids.clear();
+	}
+
+	/**
+	 * Returns the grid for the given content type (builds it if necessary).
+	 * @param type Region type, low level text type or <code>null</code> for all regions
+	 */
+	private synchronized Grid getGrid(ContentType type) {
+		int currentModificationCount = contentFactory.getModificationCount();
+		if (currentModificationCount != modificationCount) {
+			grids.clear();
+			modificationCount = currentModificationCount;
+		}
+		Grid grid = grids.get(type);
+		if (grid == null) {
+			grid = new Grid(collect(layout, type));
+			grids.put(type, grid);
+		}
+		return grid;
+	}
+
+	/**
+	 * Returns all objects of the given type containing the specified point (in iteration order).
+	 * @param type Region type, low level text type or <code>null</code> for all regions
+	 */
+	List<ContentObject> getObjectsAt(ContentType type, int x, int y) {
+		List<ContentObject> ret = new ArrayList<ContentObject>();
+		Grid grid = getGrid(type);
+		int cell = grid.getCell(x, y);
+		if (cell < 0)
+			return ret;
+		for (int i=grid.cellStart[cell]; i<grid.cellStart[cell+1]; i++) {
+			ContentObject obj = grid.objects[grid.cellEntries[i]];
+			if (isPointInside(obj, x, y))
+				ret.add(obj);
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the first object (in iteration order) of the given type containing the specified point.
+	 * @param type Region type, low level text type or <code>null</code> for all regions
+	 * @return Content object or <code>null</code>
+	 */
+	ContentObject getFirstObjectAt(ContentType type, int x, int y) {
+		Grid grid = getGrid(type);
+		int cell = grid.getCell(x, y);
+		if (cell < 0)
+			return null;
+		for (int i=grid.cellStart[cell]; i<grid.cellStart[cell+1]; i++) {
+			ContentObject obj = grid.objects[grid.cellEntries[i]];
+			if (isPointInside(obj, x, y))
+				return obj;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns all objects of the given type within or overlapping the specified rectangle (in iteration order).
+	 * @param type Region type, low level text type or <code>null</code> for all regions
+	 * @param overlapping If <code>true</code>, all objects with a bounding box intersecting the area are returned,
+	 * 						otherwise only objects with a bounding box that lies completely within the area.
+	 */
+	List<ContentObject> getObjectsIn(ContentType type, Rect area, boolean overlapping) {
+		Grid grid = getGrid(type);
+		List<ContentObject> ret = new ArrayList<ContentObject>();
+		if (grid.cols == 0)
+			return ret;
+
+		int c0 = Math.max(0, grid.getColumn(area.left));
+		int c1 = Math.min(grid.cols - 1, grid.getColumn(area.right));
+		int r0 = Math.max(0, grid.getRow(area.top));
+		int r1 = Math.min(grid.rows - 1, grid.getRow(area.bottom));
+
+		int[] found = new int[16];
+		int count = 0;
+		for (int r=r0; r<=r1; r++) {
+			for (int c=c0; c<=c1; c++) {
+				int cell = r * grid.cols + c;
+				for (int i=grid.cellStart[cell]; i<grid.cellStart[cell+1]; i++) {
+					int index = grid.cellEntries[i];
+					int b = index * 4;
+					//Objects spanning several cells are only reported for the cell with the top left corner of the intersection
+					if (grid.getColumn(Math.max(grid.boxes[b], area.left)) != c
+							|| grid.getRow(Math.max(grid.boxes[b+1], area.top)) != r)
+						continue;
+					if (!matches(grid.objects[index], area, overlapping))
+						continue;
+					if (count == found.length)
+						found = Arrays.copyOf(found, count * 2);
+					found[count++] = index;
+				}
+			}
+		}
+
+		Arrays.sort(found, 0, count);
+		for (int i=0; i<count; i++)
+			ret.add(grid.objects[found[i]]);
+		return ret;
+	}
+
+	/**
+	 * Collects all objects of the given type in the order of the page layout iterators.
+	 * For low level text objects the same traversal as for {@link PageLayout#getObjectAt(int, int, ContentType)} is used.
+	 * @param type Region type, low level text type or <code>null</code> for all regions
+	 */
+	static List<ContentObject> collect(PageLayout layout, ContentType type) {
+		List<ContentObject> regions = new ArrayList<ContentObject>();
+		if (type == null || type instanceof RegionType) {
+			for (int i=0; i<layout.getRegionCount(); i++)
+				collectRegions(layout.getRegion(i), (RegionType)type, regions);
+			return regions;
+		}
+
+		List<ContentObject> ret = new ArrayList<ContentObject>();
+		if (type instanceof LowLevelTextType) {
+			for (int i=0; i<layout.getRegionCount(); i++)
+				collectRegions(layout.getRegion(i), RegionType.TextRegion, regions);
+			for (int i=0; i<regions.size(); i++) {
+				if (regions.get(i) instanceof LowLevelTextContainer)
+					collectTextObjects((LowLevelTextContainer)regions.get(i), (LowLevelTextType)type, ret);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Adds the given region and its nested regions (depth-first) if they are of the specified type
+	 */
+	private static void collectRegions(Region region, RegionType type, List<ContentObject> list) {
+		if (type == null || type.equals(region.getType()))
+			list.add(region);
+		RegionContainer container = (RegionContainer)region;
+		for (int i=0; i<container.getRegionCount(); i++)
+			collectRegions(container.getRegion(i), type, list);
+	}
+
+	/**
+	 * Adds all text objects of the given type (recursively)
+	 */
+	private static void collectTextObjects(LowLevelTextContainer parent, LowLevelTextType type, List<ContentObject> list) {
+		for (int i=0; i<parent.getTextObjectCount(); i++) {
+			LowLevelTextObject obj = parent.getTextObject(i);
+			if (type.equals(obj.getType()))
+				list.add(obj);
+			else if (obj instanceof LowLevelTextContainer)
+				collectTextObjects((LowLevelTextContainer)obj, type, list);
+			else //Neither the type we're looking for nor a container
+				return;
+		}
+	}
+
+	/**
+	 * Checks if the given point is inside the outline of the object
+	 */
+	static boolean isPointInside(ContentObject obj, int x, int y) {
+		Polygon coords = obj.getCoords();
+		return coords != null && coords.isPointInside(x, y);
+	}
+
+	/**
+	 * Checks if the bounding box of the object intersects or lies within the given area
+	 */
+	static boolean matches(ContentObject obj, Rect area, boolean overlapping) {
+		Polygon coords = obj.getCoords();
+		if (coords == null || coords.getSize() == 0)
+			return false;
+		Rect box = coords.getBoundingBox();
+		if (overlapping)
+			return box.left <= area.right && box.right >= area.left && box.top <= area.bottom && box.bottom >= area.top;
+		return box.left >= area.left && box.right <= area.right && box.top >= area.top && box.bottom <= area.bottom;
+	}
+
+	/**
+	 * Checks if the outline of the object intersects or lies within the given polygon
+	 * @param overlapping If <code>true</code>, the outlines have to intersect,
+	 * 						otherwise all points of the object outline have to be inside the area.
+	 */
+	static boolean matches(ContentObject obj, Polygon area, boolean overlapping) {
+		Polygon coords = obj.getCoords();
+		if (coords == null || coords.getSize() == 0)
+			return false;
+		int n = coords.getSize();
+		if (!overlapping) {
+			for (int i=0; i<n; i++) {
+				if (!area.isPointInside(coords.getX(i), coords.getY(i)))
+					return false;
+			}
+			return true;
+		}
+		//Point of one polygon inside the other
+		for (int i=0; i<n; i++) {
+			if (area.isPointInside(coords.getX(i), coords.getY(i)))
+				return true;
+		}
+		int m = area.getSize();
+		for (int j=0; j<m; j++) {
+			if (coords.isPointInside(area.getX(j), area.getY(j)))
+				return true;
+		}
+		//Crossing edges
+		for (int i=0; i<n; i++) {
+			int i2 = (i + 1) % n;
+			for (int j=0; j<m; j++) {
+				int j2 = (j + 1) % m;
+				if (segmentsIntersect(coords.getX(i), coords.getY(i), coords.getX(i2), coords.getY(i2),
+									area.getX(j), area.getY(j), area.getX(j2), area.getY(j2)))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean segmentsIntersect(int x1, int y1, int x2, int y2, int x3, int y3, int x4, int y4) {
+		long d1 = cross(x3, y3, x4, y4, x1, y1);
+		long d2 = cross(x3, y3, x4, y4, x2, y2);
+		long d3 = cross(x1, y1, x2, y2, x3, y3);
+		long d4 = cross(x1, y1, x2, y2, x4, y4);
+		if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0)))
+			return true;
+		return (d1 == 0 && onSegment(x3, y3, x4, y4, x1, y1))
+				|| (d2 == 0 && onSegment(x3, y3, x4, y4, x2, y2))
+				|| (d3 == 0 && onSegment(x1, y1, x2, y2, x3, y3))
+				|| (d4 == 0 && onSegment(x1, y1, x2, y2, x4, y4));
+	}
+
+	private static long cross(int ax, int ay, int bx, int by, int px, int py) {
+		return (long)(bx - ax) * (py - ay) - (long)(by - ay) * (px - ax);
+	}
+
+	private static boolean onSegment(int ax, int ay, int bx, int by, int px, int py) {
+		return px >= Math.min(ax, bx) && px <= Math.max(ax, bx) && py >= Math.min(ay, by) && py <= Math.max(ay, by);
+	}
+
+
+	/**
+	 * Uniform grid of object bounding boxes. Each cell lists the objects overlapping it (ascending index).
+	 */
+	private static final class Grid {
+		final ContentObject[] objects;
+		/** Bounding box per object [left, top, right, bottom] (at build time) */
+		final int[] boxes;
+		int originX, originY, cellWidth = 1, cellHeight = 1, cols = 0, rows = 0;
+		/** Start index in cellEntries per cell (plus end marker) */
+		int[] cellStart = new int[] { 0 };
+		int[] cellEntries = new int[0];
+
+		Grid(List<ContentObject> list) {
+			int n = list.size();
+			objects = list.toArray(new ContentObject[n]);
+			boxes = new int[n * 4];
+
+			//Bounding boxes and extent
+			int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+			for (int i=0; i<n; i++) {
+				Polygon coords = objects[i].getCoords();
+				int b = i * 4;
+				if (coords == null || coords.getSize() == 0) {
+					boxes[b] = 1; //Marks an empty box (left > right)
+					continue;
+				}
+				Rect box = coords.getBoundingBox();
+				boxes[b] = box.left;
+				boxes[b+1] = box.top;
+				boxes[b+2] = box.right;
+				boxes[b+3] = box.bottom;
+				minX = Math.min(minX, box.left);
+				minY = Math.min(minY, box.top);
+				maxX = Math.max(maxX, box.right);
+				maxY = Math.max(maxY, box.bottom);
+			}
+			if (minX > maxX)
+				return;
+
+			//Grid dimensions (about one object per cell)
+			long width = (long)maxX - minX + 1;
+			long height = (long)maxY - minY + 1;
+			cols = (int)Math.max(1, Math.min(MAX_CELLS, Math.round(Math.sqrt(n * (double)width / height))));
+			rows = Math.max(1, Math.min(MAX_CELLS, (n + cols - 1) / cols));
+			cellWidth = (int)Math.max(1, (width + cols - 1) / cols);
+			cellHeight = (int)Math.max(1, (height + rows - 1) / rows);
+			originX = minX;
+			originY = minY;
+
+			//Count entries per cell, then fill
+			cellStart = new int[cols * rows + 1];
+			for (int pass=0; pass<2; pass++) {
+				int[] next = pass == 1 ? Arrays.copyOf(cellStart, cellStart.length) : null;
+				for (int i=0; i<n; i++) {
+					int b = i * 4;
+					if (boxes[b] > boxes[b+2])
+						continue;
+					int c0 = getColumn(boxes[b]), c1 = getColumn(boxes[b+2]);
+					int r0 = getRow(boxes[b+1]), r1 = getRow(boxes[b+3]);
+					for (int r=r0; r<=r1; r++) {
+						for (int c=c0; c<=c1; c++) {
+							if (pass == 0)
+								cellStart[r * cols + c + 1]++;
+							else
+								cellEntries[next[r * cols + c]++] = i;
+						}
+					}
+				}
+				if (pass == 0) {
+					for (int c=1; c<cellStart.length; c++)
+						cellStart[c] += cellStart[c-1];
+					cellEntries = new int[cellStart[cellStart.length-1]];
+				}
+			}
+		}
+
+		/**
+		 * Column for the given x coordinate (can be outside the grid)
+		 */
+		int getColumn(int x) {
+			return toInt(Math.floorDiv((long)x - originX, cellWidth));
+		}
+
+		/**
+		 * Row for the given y coordinate (can be outside the grid)
+		 */
+		int getRow(int y) {
+			return toInt(Math.floorDiv((long)y - originY, cellHeight));
+		}
+
+		private static int toInt(long value) {
+			return (int)Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+		}
+
+		/**
+		 * Cell index for the given point or -1 if outside the grid
+		 */
+		int getCell(int x, int y) {
+			if (cols == 0)
+				return -1;
+			int c = getColumn(x);
+			int r = getRow(y);
+			if (c < 0 || c >= cols || r < 0 || r >= rows)
+				return -1;
+			return r * cols + c;
+		}
+	}
+}
@@ -22,7 +22,10 @@ import org.primaresearch.dla.page.layout.PageLayout;
 import org.primaresearch.io.FormatVersion;
 
 /**
- * Meta converter representing a chain of converters.
+ * Meta converter representing a chain of converters.<br>
+ * <br>
+ * If all converters of the chain are conversion steps, the chain is run as one {@link ConversionPass}
+ * (single traversal of the layout). Otherwise the converters are run one after another.
  * 
  * @author Christian Clausner
  *
@@ -41,6 +44,13 @@ public class ChainConverter implements LayoutConverter {
 		converters.add(converter);
 	}
 	
+	/**
+	 * Returns the converters of the chain (in order)
+	 */
+	public List<LayoutConverter> getConverters() {
+		return converters;
+	}
+	
 	@Override
 	public FormatVersion getSourceVersion() {
 		return converters.get(0).getSourceVersion();
@@ -53,6 +63,10 @@ public class ChainConverter implements LayoutConverter {
 
 	@Override
 	public List<ConversionMessage> convert(PageLayout layout) {
+		ConversionPass pass = new ConversionPass(false);
+		if (pass.addConverter(this))
+			return pass.run(layout);
+		
 		List<ConversionMessage> messages = new ArrayList<ConversionMessage>();
 		
 		for (int i=0; i<converters.size(); i++) {
@@ -66,6 +80,10 @@ public class ChainConverter implements LayoutConverter {
 
 	@Override
 	public List<ConversionMessage> checkForCompliance(PageLayout layout) {
+		ConversionPass pass = new ConversionPass(true);
+		if (pass.addConverter(this))
+			return pass.run(layout);
+		
 		List<ConversionMessage> messages = new ArrayList<ConversionMessage>();
 		
 		for (int i=0; i<converters.size(); i++) {
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.layout.converter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.RegionContainer;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextContainer;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
+
+/**
+ * Runs a sequence of conversion steps in one traversal of a page layout.<br>
+ * <br>
+ * Every region and text object is visited once and passed to all steps in turn, rather than
+ * walking the whole layout again for each step of a converter chain. Regions that are not supported
+ * by the target format are replaced by unknown regions after the traversal. Such a region
+ * (including its content) is not passed to any further step once it has been reported.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class ConversionPass {
+
+	private boolean checkOnly;
+	private List<ConversionStep> steps = new ArrayList<ConversionStep>();
+	private List<ConversionMessage> messages;
+	/** Regions to be replaced by unknown regions (mapped to the message code) */
+	private Map<Region, Integer> unsupportedRegions;
+	/** Unknown regions that have been created to replace unsupported regions */
+	private List<Region> replacementRegions;
+
+	/**
+	 * Constructor
+	 * @param checkOnly If true, no conversion is carried out (dry run).
+	 */
+	public ConversionPass(boolean checkOnly) {
+		this.checkOnly = checkOnly;
+	}
+
+	/**
+	 * Constructor for a pass with a single step
+	 * @param step Conversion step
+	 * @param checkOnly If true, no conversion is carried out (dry run).
+	 */
+	public ConversionPass(ConversionStep step, boolean checkOnly) {
+		this(checkOnly);
+		addStep(step);
+	}
+
+	/**
+	 * Appends a step to the pass
+	 */
+	public void addStep(ConversionStep step) {
+		steps.add(step);
+	}
+
+	/**
+	 * Appends the given converter to the pass (all converters of a chain converter).
+	 * @return <code>false</code> if the converter (or a converter of the chain) is not a conversion step.
+	 *   The pass is not changed in that case.
+	 */
+	public boolean addConverter(LayoutConverter converter) {
+		List<ConversionStep> newSteps = new ArrayList<ConversionStep>();
+		if (!collectSteps(converter, newSteps))
+			return false;
+		steps.addAll(newSteps);
+		return true;
+	}
+
+	private boolean collectSteps(LayoutConverter converter, List<ConversionStep> target) {
+		if (converter instanceof ChainConverter) {
+			List<LayoutConverter> converters = ((ChainConverter)converter).getConverters();
+			for (int i=0; i<converters.size(); i++) {
+				if (!collectSteps(converters.get(i), target))
+					return false;
+			}
+			return true;
+		}
+		if (converter instanceof ConversionStep) {
+			target.add((ConversionStep)converter);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns <code>true</code> if the pass is a dry run (no conversion).
+	 */
+	public boolean isCheckOnly() {
+		return checkOnly;
+	}
+
+	/**
+	 * Returns the list of messages of the current run (steps add their messages to this list).
+	 */
+	public List<ConversionMessage> getMessages() {
+		return messages;
+	}
+
+	/**
+	 * Marks the given region as not supported by the target format. The region will be replaced
+	 * by an unknown region (with the same ID and outline) after the traversal.
+	 * @param code Code for the conversion message (see <code>ConversionMessage.CONVERSION_...</code> constants)
+	 */
+	public void replaceWithUnknownRegion(Region region, int code) {
+		if (!unsupportedRegions.containsKey(region))
+			unsupportedRegions.put(region, code);
+	}
+
+	/**
+	 * Returns the unknown regions that have been created by the last run to replace unsupported regions.
+	 */
+	public List<Region> getReplacementRegions() {
+		return replacementRegions;
+	}
+
+	/**
+	 * Runs all steps on the given layout.
+	 * @return A list of conversion messages
+	 */
+	public List<ConversionMessage> run(PageLayout layout) {
+		messages = new ArrayList<ConversionMessage>();
+		unsupportedRegions = new LinkedHashMap<Region, Integer>();
+		replacementRegions = new ArrayList<Region>();
+
+		for (int i=0; i<steps.size(); i++)
+			steps.get(i).beginPass(layout, this);
+
+		for (int i=0; i<layout.getRegionCount(); i++)
+			convertRegion(layout.getRegion(i));
+
+		replaceUnsupportedRegions(layout);
+
+		return messages;
+	}
+
+	private void convertRegion(Region region) {
+		for (int i=0; i<steps.size(); i++) {
+			steps.get(i).convertRegion(region, this);
+			if (unsupportedRegions.containsKey(region))
+				return; //Will be replaced
+		}
+
+		if (region instanceof LowLevelTextContainer)
+			convertTextObjects((LowLevelTextContainer)region);
+
+		if (region instanceof RegionContainer) {
+			RegionContainer container = (RegionContainer)region;
+			for (int i=0; i<container.getRegionCount(); i++)
+				convertRegion(container.getRegion(i));
+		}
+	}
+
+	private void convertTextObjects(LowLevelTextContainer container) {
+		for (int i=0; i<container.getTextObjectCount(); i++) {
+			LowLevelTextObject textObject = container.getTextObject(i);
+			for (int s=0; s<steps.size(); s++)
+				steps.get(s).convertTextObject(textObject, this);
+			if (textObject instanceof LowLevelTextContainer)
+				convertTextObjects((LowLevelTextContainer)textObject);
+		}
+	}
+
+	private void replaceUnsupportedRegions(PageLayout layout) {
+		for (Map.Entry<Region, Integer> entry : unsupportedRegions.entrySet()) {
+			Region unsupported = entry.getKey();
+
+			if (!checkOnly) {
+				RegionContainer parent = unsupported.getParentRegion();
+				layout.removeRegion(unsupported.getId(), true);
+				if (parent != null)
+					parent.removeRegion(unsupported);
+				Region unknownRegion = layout.createRegion(RegionType.UnknownRegion, unsupported.getId().toString(), parent);
+				unknownRegion.setCoords(unsupported.getCoords());
+				replacementRegions.add(unknownRegion);
+			}
+			messages.add(new ConversionMessage("Changed region type to 'unknown' for region '"+unsupported.getId()+"'", entry.getValue()));
+		}
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.layout.converter;
+
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
+
+/**
+ * Conversion that works object by object, so that it can be combined with other conversion
+ * steps into a single traversal of the page layout (see {@link ConversionPass}).<br>
+ * <br>
+ * Each object is passed to all steps of a pass (in the order of the steps) before the next object is visited.
+ * Changes of the layout structure must not be made directly by a step; unsupported regions are to be
+ * reported via {@link ConversionPass#replaceWithUnknownRegion(Region, int)}.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public interface ConversionStep {
+
+	/**
+	 * Called once before the layout is traversed (for changes concerning the layout as a whole).
+	 */
+	public void beginPass(PageLayout layout, ConversionPass pass);
+
+	/**
+	 * Converts a single region (top-level or nested region).
+	 */
+	public void convertRegion(Region region, ConversionPass pass);
+
+	/**
+	 * Converts a single text line, word or glyph.
+	 */
+	public void convertTextObject(LowLevelTextObject textObject, ConversionPass pass);
+}
@@ -16,10 +16,13 @@
 package org.primaresearch.dla.page.layout.converter;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.PageTiming;
 import org.primaresearch.dla.page.layout.PageLayout;
 import org.primaresearch.dla.page.layout.physical.AttributeContainer;
 import org.primaresearch.dla.page.layout.physical.Region;
@@ -28,6 +31,7 @@ import org.primaresearch.dla.page.layout.physical.text.LowLevelTextContainer;
 import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
 import org.primaresearch.io.FormatModel;
 import org.primaresearch.io.FormatVersion;
+import org.primaresearch.io.timing.PhaseTiming;
 import org.primaresearch.shared.variable.Variable;
 import org.primaresearch.shared.variable.VariableMap;
 
@@ -43,14 +47,17 @@ public class ConverterHub {
 	private static ConverterHub instance = null;
 	
 	
-	/** Registered converters */
-	private Map<FormatVersion,Map<FormatVersion, LayoutConverter>> layoutConverters = new HashMap<FormatVersion, Map<FormatVersion,LayoutConverter>>();
+	/** Registered single-step converters (edges of the version graph) */
+	private Map<FormatVersion,Map<FormatVersion, LayoutConverter>> layoutConverters = new LinkedHashMap<FormatVersion, Map<FormatVersion,LayoutConverter>>();
+	
+	/** Converters (single or chain) for source and target versions that have been looked up before */
+	private Map<FormatVersion,Map<FormatVersion, LayoutConverter>> resolvedConverters = new HashMap<FormatVersion, Map<FormatVersion,LayoutConverter>>();
 	
 	/**
 	 * Private constructor (Singleton)
 	 */
 	private ConverterHub() {
-		//Register layout converters
+		//Register single-step layout converters
 		// New to old
 		addConverter(new Converter_2010_03_19_to_2010_01_12());
 		addConverter(new Converter_2010_01_12_to_2009_03_16());
@@ -66,259 +73,7 @@ public class ConverterHub {
 		addConverter(new Converter_2013_07_15_to_2016_07_15());
 		addConverter(new Converter_2009_03_16_to_2016_07_15());
 		
-		
-		//TODO If more schemas are added, we could dynamically create chain converters.
-
-		//2009-03-16 to 2019-07-15
-		ChainConverter chain_2009_03_16_to_2019_07_15 = new ChainConverter();
-		chain_2009_03_16_to_2019_07_15.addConverter(new Converter_2009_03_16_to_2016_07_15()); //This goes from medium to old to new (not great!)
-		chain_2009_03_16_to_2019_07_15.addConverter(new Converter_2016_07_15_to_2017_07_15());
-		chain_2009_03_16_to_2019_07_15.addConverter(new Converter_2017_07_15_to_2018_07_15());
-		chain_2009_03_16_to_2019_07_15.addConverter(new Converter_2018_07_15_to_2019_07_15());
-		addConverter(chain_2009_03_16_to_2019_07_15);
-
-		//2009-03-16 to 2018-07-15
-		ChainConverter chain_2009_03_16_to_2018_07_15 = new ChainConverter();
-		chain_2009_03_16_to_2018_07_15.addConverter(new Converter_2009_03_16_to_2016_07_15()); //This goes from medium to old to new (not great!)
-		chain_2009_03_16_to_2018_07_15.addConverter(new Converter_2016_07_15_to_2017_07_15());
-		chain_2009_03_16_to_2018_07_15.addConverter(new Converter_2017_07_15_to_2018_07_15());
-		addConverter(chain_2009_03_16_to_2018_07_15);
-
-		//2010-03-19 to 2019-07-15
-		ChainConverter chain_2010_03_19_to_2019_07_15 = new ChainConverter();
-		chain_2010_03_19_to_2019_07_15.addConverter(new Converter_2010_03_19_to_2010_01_12()); //This goes from medium to old to new (not great!)
-		chain_2010_03_19_to_2019_07_15.addConverter(new Converter_2010_01_12_to_2009_03_16());
-		chain_2010_03_19_to_2019_07_15.addConverter(new Converter_2009_03_16_to_2016_07_15());
-		chain_2010_03_19_to_2019_07_15.addConverter(new Converter_2016_07_15_to_2017_07_15());
-		chain_2010_03_19_to_2019_07_15.addConverter(new Converter_2017_07_15_to_2018_07_15());
-		chain_2010_03_19_to_2019_07_15.addConverter(new Converter_2018_07_15_to_2019_07_15());
-		addConverter(chain_2010_03_19_to_2019_07_15);
-
-		//2010-03-19 to 2018-07-15
-		ChainConverter chain_2010_03_19_to_2018_07_15 = new ChainConverter();
-		chain_2010_03_19_to_2018_07_15.addConverter(new Converter_2010_03_19_to_2010_01_12()); //This goes from medium to old to new (not great!)
-		chain_2010_03_19_to_2018_07_15.addConverter(new Converter_2010_01_12_to_2009_03_16());
-		chain_2010_03_19_to_2018_07_15.addConverter(new Converter_2009_03_16_to_2016_07_15());
-		chain_2010_03_19_to_2018_07_15.addConverter(new Converter_2016_07_15_to_2017_07_15());
-		chain_2010_03_19_to_2018_07_15.addConverter(new Converter_2017_07_15_to_2018_07_15());
-		addConverter(chain_2010_03_19_to_2018_07_15);
-
-		//2010-03-19 to 2017-07-15
-		ChainConverter chain_2010_03_19_to_2017_07_15 = new ChainConverter();
-		chain_2010_03_19_to_2017_07_15.addConverter(new Converter_2010_03_19_to_2010_01_12()); //This goes from medium to old to new (not great!)
-		chain_2010_03_19_to_2017_07_15.addConverter(new Converter_2010_01_12_to_2009_03_16());
-		chain_2010_03_19_to_2017_07_15.addConverter(new Converter_2009_03_16_to_2016_07_15());
-		chain_2010_03_19_to_2017_07_15.addConverter(new Converter_2016_07_15_to_2017_07_15());
-		addConverter(chain_2010_03_19_to_2017_07_15);
-
-		//2010-03-19 to 2016-07-15
-		ChainConverter chain_2010_03_19_to_2016_07_15 = new ChainConverter();
-		chain_2010_03_19_to_2016_07_15.addConverter(new Converter_2010_03_19_to_2010_01_12()); //This goes from medium to old to new (not great!)
-		chain_2010_03_19_to_2016_07_15.addConverter(new Converter_2010_01_12_to_2009_03_16());
-		chain_2010_03_19_to_2016_07_15.addConverter(new Converter_2009_03_16_to_2016_07_15());
-		addConverter(chain_2010_03_19_to_2016_07_15);
-
-		//2010-03-19 to 2009-03-16
-		ChainConverter chain_2010_03_19_to_2009_03_16 = new ChainConverter();
-		chain_2010_03_19_to_2009_03_16.addConverter(new Converter_2010_03_19_to_2010_01_12());
-		chain_2010_03_19_to_2009_03_16.addConverter(new Converter_2010_01_12_to_2009_03_16());
-		addConverter(chain_2010_03_19_to_2009_03_16);
-		
-		//2013-07-15 to 2010-01-12
-		ChainConverter chain_2013_07_15_to_2010_01_12 = new ChainConverter();
-		chain_2013_07_15_to_2010_01_12.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		chain_2013_07_15_to_2010_01_12.addConverter(new Converter_2010_03_19_to_2010_01_12());
-		addConverter(chain_2013_07_15_to_2010_01_12);
-
-		//2013-07-15 to 2009-03-16
-		ChainConverter chain_2013_07_15_to_2009_03_16 = new ChainConverter();
-		chain_2013_07_15_to_2009_03_16.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		chain_2013_07_15_to_2009_03_16.addConverter(new Converter_2010_03_19_to_2010_01_12());
-		chain_2013_07_15_to_2009_03_16.addConverter(new Converter_2010_01_12_to_2009_03_16());
-		addConverter(chain_2013_07_15_to_2009_03_16);
-
-		//2013-07-15 to 2019-07-15
-		ChainConverter chain_2013_07_15_to_2019_07_15 = new ChainConverter();
-		chain_2013_07_15_to_2019_07_15.addConverter(new Converter_2013_07_15_to_2016_07_15());
-		chain_2013_07_15_to_2019_07_15.addConverter(new Converter_2016_07_15_to_2017_07_15());
-		chain_2013_07_15_to_2019_07_15.addConverter(new Converter_2017_07_15_to_2018_07_15());
-		chain_2013_07_15_to_2019_07_15.addConverter(new Converter_2018_07_15_to_2019_07_15());
-		addConverter(chain_2013_07_15_to_2019_07_15);
-
-		//2013-07-15 to 2018-07-15
-		ChainConverter chain_2013_07_15_to_2018_07_15 = new ChainConverter();
-		chain_2013_07_15_to_2018_07_15.addConverter(new Converter_2013_07_15_to_2016_07_15());
-		chain_2013_07_15_to_2018_07_15.addConverter(new Converter_2016_07_15_to_2017_07_15());
-		chain_2013_07_15_to_2018_07_15.addConverter(new Converter_2017_07_15_to_2018_07_15());
-		addConverter(chain_2013_07_15_to_2018_07_15);
-
-		//2013-07-15 to 2017-07-15
-		ChainConverter chain_2013_07_15_to_2017_07_15 = new ChainConverter();
-		chain_2013_07_15_to_2017_07_15.addConverter(new Converter_2013_07_15_to_2016_07_15());
-		chain_2013_07_15_to_2017_07_15.addConverter(new Converter_2016_07_15_to_2017_07_15());
-		addConverter(chain_2013_07_15_to_2017_07_15);
-
-		//2016-07-15 to 2019-07-15
-		ChainConverter chain_2016_07_15_to_2019_07_15 = new ChainConverter();
-		chain_2016_07_15_to_2019_07_15.addConverter(new Converter_2016_07_15_to_2017_07_15());
-		chain_2016_07_15_to_2019_07_15.addConverter(new Converter_2017_07_15_to_2018_07_15());
-		chain_2016_07_15_to_2019_07_15.addConverter(new Converter_2018_07_15_to_2019_07_15());
-		addConverter(chain_2016_07_15_to_2019_07_15);
-
-		//2016-07-15 to 2018-07-15
-		ChainConverter chain_2016_07_15_to_2018_07_15 = new ChainConverter();
-		chain_2016_07_15_to_2018_07_15.addConverter(new Converter_2016_07_15_to_2017_07_15());
-		chain_2016_07_15_to_2018_07_15.addConverter(new Converter_2017_07_15_to_2018_07_15());
-		addConverter(chain_2016_07_15_to_2018_07_15);
-
-		//2016-07-15 to 2009-03-16
-		ChainConverter chain_2016_07_15_to_2009_03_16 = new ChainConverter();
-		chain_2016_07_15_to_2009_03_16.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2016_07_15_to_2009_03_16.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		chain_2016_07_15_to_2009_03_16.addConverter(new Converter_2010_03_19_to_2010_01_12());
-		chain_2016_07_15_to_2009_03_16.addConverter(new Converter_2010_01_12_to_2009_03_16());
-		addConverter(chain_2016_07_15_to_2009_03_16);
-
-		//2016-07-15 to 2010-01-12
-		ChainConverter chain_2016_07_15_to_2010_01_12 = new ChainConverter();
-		chain_2016_07_15_to_2010_01_12.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2016_07_15_to_2010_01_12.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		chain_2016_07_15_to_2010_01_12.addConverter(new Converter_2010_03_19_to_2010_01_12());
-		addConverter(chain_2016_07_15_to_2010_01_12);
-
-		//2016-07-15 to 2010-03-19
-		ChainConverter chain_2016_07_15_to_2010_03_19 = new ChainConverter();
-		chain_2016_07_15_to_2010_03_19.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2016_07_15_to_2010_03_19.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		addConverter(chain_2016_07_15_to_2010_03_19);
-		
-		//2017-07-15 to 2019-07-15
-		ChainConverter chain_2017_07_15_to_2019_07_15 = new ChainConverter();
-		chain_2017_07_15_to_2019_07_15.addConverter(new Converter_2017_07_15_to_2018_07_15());
-		chain_2017_07_15_to_2019_07_15.addConverter(new Converter_2018_07_15_to_2019_07_15());
-		addConverter(chain_2017_07_15_to_2019_07_15);
-
-		//2017-07-15 to 2009-03-16
-		ChainConverter chain_2017_07_15_to_2009_03_16 = new ChainConverter();
-		chain_2017_07_15_to_2009_03_16.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2017_07_15_to_2009_03_16.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2017_07_15_to_2009_03_16.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		chain_2017_07_15_to_2009_03_16.addConverter(new Converter_2010_03_19_to_2010_01_12());
-		chain_2017_07_15_to_2009_03_16.addConverter(new Converter_2010_01_12_to_2009_03_16());
-		addConverter(chain_2017_07_15_to_2009_03_16);
-
-		//2017-07-15 to 2010-01-12
-		ChainConverter chain_2017_07_15_to_2010_01_12 = new ChainConverter();
-		chain_2017_07_15_to_2010_01_12.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2017_07_15_to_2010_01_12.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2017_07_15_to_2010_01_12.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		chain_2017_07_15_to_2010_01_12.addConverter(new Converter_2010_03_19_to_2010_01_12());
-		addConverter(chain_2017_07_15_to_2010_01_12);
-
-		//2017-07-15 to 2010-03-19
-		ChainConverter chain_2017_07_15_to_2010_03_19 = new ChainConverter();
-		chain_2017_07_15_to_2010_03_19.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2017_07_15_to_2010_03_19.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2017_07_15_to_2010_03_19.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		addConverter(chain_2017_07_15_to_2010_03_19);
-
-		//2017-07-15 to 2013-07-15
-		ChainConverter chain_2017_07_15_to_2013_07_15 = new ChainConverter();
-		chain_2017_07_15_to_2013_07_15.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2017_07_15_to_2013_07_15.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		addConverter(chain_2017_07_15_to_2013_07_15);
-		
-		//2018-07-15 to 2009-03-16
-		ChainConverter chain_2018_07_15_to_2009_03_16 = new ChainConverter();
-		chain_2018_07_15_to_2009_03_16.addConverter(new Converter_2018_07_15_to_2017_07_15());
-		chain_2018_07_15_to_2009_03_16.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2018_07_15_to_2009_03_16.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2018_07_15_to_2009_03_16.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		chain_2018_07_15_to_2009_03_16.addConverter(new Converter_2010_03_19_to_2010_01_12());
-		chain_2018_07_15_to_2009_03_16.addConverter(new Converter_2010_01_12_to_2009_03_16());
-		addConverter(chain_2018_07_15_to_2009_03_16);
-
-		//2018-07-15 to 2010-01-12
-		ChainConverter chain_2018_07_15_to_2010_01_12 = new ChainConverter();
-		chain_2018_07_15_to_2010_01_12.addConverter(new Converter_2018_07_15_to_2017_07_15());
-		chain_2018_07_15_to_2010_01_12.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2018_07_15_to_2010_01_12.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2018_07_15_to_2010_01_12.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		chain_2018_07_15_to_2010_01_12.addConverter(new Converter_2010_03_19_to_2010_01_12());
-		addConverter(chain_2018_07_15_to_2010_01_12);
-
-		//2018-07-15 to 2010-03-19
-		ChainConverter chain_2018_07_15_to_2010_03_19 = new ChainConverter();
-		chain_2018_07_15_to_2010_03_19.addConverter(new Converter_2018_07_15_to_2017_07_15());
-		chain_2018_07_15_to_2010_03_19.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2018_07_15_to_2010_03_19.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2018_07_15_to_2010_03_19.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		addConverter(chain_2018_07_15_to_2010_03_19);
-
-		//2018-07-15 to 2013-07-15
-		ChainConverter chain_2018_07_15_to_2013_07_15 = new ChainConverter();
-		chain_2018_07_15_to_2013_07_15.addConverter(new Converter_2018_07_15_to_2017_07_15());
-		chain_2018_07_15_to_2013_07_15.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2018_07_15_to_2013_07_15.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		addConverter(chain_2018_07_15_to_2013_07_15);
-
-		//2018-07-15 to 2016-07-15
-		ChainConverter chain_2018_07_15_to_2016_07_15 = new ChainConverter();
-		chain_2018_07_15_to_2016_07_15.addConverter(new Converter_2018_07_15_to_2017_07_15());
-		chain_2018_07_15_to_2016_07_15.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		addConverter(chain_2018_07_15_to_2016_07_15);
-		
-		//2019-07-15 to 2009-03-16
-		ChainConverter chain_2019_07_15_to_2009_03_16 = new ChainConverter();
-		chain_2019_07_15_to_2009_03_16.addConverter(new Converter_2019_07_15_to_2018_07_15());
-		chain_2019_07_15_to_2009_03_16.addConverter(new Converter_2018_07_15_to_2017_07_15());
-		chain_2019_07_15_to_2009_03_16.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2019_07_15_to_2009_03_16.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2019_07_15_to_2009_03_16.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		chain_2019_07_15_to_2009_03_16.addConverter(new Converter_2010_03_19_to_2010_01_12());
-		chain_2019_07_15_to_2009_03_16.addConverter(new Converter_2010_01_12_to_2009_03_16());
-		addConverter(chain_2019_07_15_to_2009_03_16);
-
-		//2019-07-15 to 2010-01-12
-		ChainConverter chain_2019_07_15_to_2010_01_12 = new ChainConverter();
-		chain_2019_07_15_to_2010_01_12.addConverter(new Converter_2019_07_15_to_2018_07_15());
-		chain_2019_07_15_to_2010_01_12.addConverter(new Converter_2018_07_15_to_2017_07_15());
-		chain_2019_07_15_to_2010_01_12.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2019_07_15_to_2010_01_12.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2019_07_15_to_2010_01_12.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		chain_2019_07_15_to_2010_01_12.addConverter(new Converter_2010_03_19_to_2010_01_12());
-		addConverter(chain_2019_07_15_to_2010_01_12);
-
-		//2019-07-15 to 2010-03-19
-		ChainConverter chain_2019_07_15_to_2010_03_19 = new ChainConverter();
-		chain_2019_07_15_to_2010_03_19.addConverter(new Converter_2019_07_15_to_2018_07_15());
-		chain_2019_07_15_to_2010_03_19.addConverter(new Converter_2018_07_15_to_2017_07_15());
-		chain_2019_07_15_to_2010_03_19.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2019_07_15_to_2010_03_19.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		chain_2019_07_15_to_2010_03_19.addConverter(new Converter_2013_07_15_to_2010_03_19());
-		addConverter(chain_2019_07_15_to_2010_03_19);
-
-		//2019-07-15 to 2013-07-15
-		ChainConverter chain_2019_07_15_to_2013_07_15 = new ChainConverter();
-		chain_2019_07_15_to_2013_07_15.addConverter(new Converter_2019_07_15_to_2018_07_15());
-		chain_2019_07_15_to_2013_07_15.addConverter(new Converter_2018_07_15_to_2017_07_15());
-		chain_2019_07_15_to_2013_07_15.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		chain_2019_07_15_to_2013_07_15.addConverter(new Converter_2016_07_15_to_2013_07_15());
-		addConverter(chain_2019_07_15_to_2013_07_15);
-
-		//2019-07-15 to 2016-07-15
-		ChainConverter chain_2019_07_15_to_2016_07_15 = new ChainConverter();
-		chain_2019_07_15_to_2016_07_15.addConverter(new Converter_2019_07_15_to_2018_07_15());
-		chain_2019_07_15_to_2016_07_15.addConverter(new Converter_2018_07_15_to_2017_07_15());
-		chain_2019_07_15_to_2016_07_15.addConverter(new Converter_2017_07_15_to_2016_07_15());
-		addConverter(chain_2019_07_15_to_2016_07_15);
-
-		//2019-07-15 to 2017-07-15
-		ChainConverter chain_2019_07_15_to_2017_07_15 = new ChainConverter();
-		chain_2019_07_15_to_2017_07_15.addConverter(new Converter_2019_07_15_to_2018_07_15());
-		chain_2019_07_15_to_2017_07_15.addConverter(new Converter_2018_07_15_to_2017_07_15());
-		addConverter(chain_2019_07_15_to_2017_07_15);
-
+		//Chains of converters are resolved on demand (see findConverter)
 	}
 	
 	/**
@@ -336,7 +91,7 @@ public class ConverterHub {
 	private void addConverter(LayoutConverter converter) {
 		Map<FormatVersion, LayoutConverter> targets = layoutConverters.get(converter.getSourceVersion());
 		if (targets == null) {
-			targets = new HashMap<FormatVersion, LayoutConverter>();
+			targets = new LinkedHashMap<FormatVersion, LayoutConverter>();
 			layoutConverters.put(converter.getSourceVersion(), targets);
 		}
 		targets.put(converter.getTargetVersion(), converter);
@@ -354,21 +109,34 @@ public class ConverterHub {
 		if (sourceVersion == null || sourceVersion.equals(targetModel.getVersion()))
 			return null;
 				
+		long time = PhaseTiming.start();
+		
 		//Layout conversion
 		List<ConversionMessage> messages = null;
 		ConverterHub instance = getInstance();
 		
 		LayoutConverter layoutConverter = instance.findConverter(page.getFormatVersion(), targetModel.getVersion());
 		
-		if (layoutConverter != null)
+		ConversionPass pass = new ConversionPass(false);
+		if (layoutConverter == null || pass.addConverter(layoutConverter)) {
+			//Layout conversion and adaptation of existing attributes and constraints in one traversal of the layout
+			pass.addStep(new AttributeAdaptationStep(targetModel.getTypeAttributeTemplates()));
+			List<ConversionMessage> passMessages = pass.run(page.getLayout());
+			if (layoutConverter != null)
+				messages = passMessages;
+			for (Region replacement : pass.getReplacementRegions())
+				adaptAttributes(replacement, targetModel.getTypeAttributeTemplates());
+		} else {
 			messages = layoutConverter.convert(page.getLayout());
+			adaptAttributes(page.getLayout(), targetModel);
+		}
 		
-		//Adapt existing attributes and constraints
+		//Adapt existing attributes and constraints of the page
 		adaptAttributes(page, targetModel.getTypeAttributeTemplates());
-		adaptAttributes(page.getLayout(), targetModel);
 		
 		page.setFormatVersion(targetModel, false);
 		
+		PageTiming.finish(PhaseTiming.CONVERSION, time, 0L, page);
 		return messages;
 	}
 	
@@ -458,16 +226,85 @@ public class ConverterHub {
 		return messages;
 	}
 	
-	//TODO If more schemas are added, we could dynamically create chain converters.  
 	/**
-	 * Tries to find a converter matching the given source and target versions. 
+	 * Tries to find a converter matching the given source and target versions.
+	 * If there is no direct converter, the shortest chain of registered converters is used.
 	 * @return Converter object or null
 	 */
-	private LayoutConverter findConverter(FormatVersion source, FormatVersion target) {
-		Map<FormatVersion, LayoutConverter> targets = layoutConverters.get(source);
-		if (targets == null)
-			return null;
-		LayoutConverter conv = targets.get(target);
+	synchronized LayoutConverter findConverter(FormatVersion source, FormatVersion target) {
+		Map<FormatVersion, LayoutConverter> resolved = resolvedConverters.get(source);
+		if (resolved == null) {
+			resolved = new HashMap<FormatVersion, LayoutConverter>();
+			resolvedConverters.put(source, resolved);
+		}
+		if (resolved.containsKey(target))
+			return resolved.get(target);
+		
+		LayoutConverter conv = findShortestPath(source, target);
+		resolved.put(target, conv);
 		return conv;
 	}
+	
+	/**
+	 * Breadth-first search in the version graph (format versions as nodes, registered converters as edges).
+	 * @return Single converter, chain converter or null if the target version cannot be reached 
+	 */
+	private LayoutConverter findShortestPath(FormatVersion source, FormatVersion target) {
+		//Converter leading to a version (on the shortest path from the source version)
+		Map<FormatVersion, LayoutConverter> incoming = new HashMap<FormatVersion, LayoutConverter>();
+		incoming.put(source, null);
+		
+		LinkedList<FormatVersion> queue = new LinkedList<FormatVersion>();
+		queue.add(source);
+		while (!queue.isEmpty() && !incoming.containsKey(target)) {
+			Map<FormatVersion, LayoutConverter> targets = layoutConverters.get(queue.removeFirst());
+			if (targets == null)
+				continue;
+			for (Map.Entry<FormatVersion, LayoutConverter> edge : targets.entrySet()) {
+				if (!incoming.containsKey(edge.getKey())) {
+					incoming.put(edge.getKey(), edge.getValue());
+					queue.add(edge.getKey());
+				}
+			}
+		}
+		if (!incoming.containsKey(target) || source.equals(target))
+			return null;
+		
+		//Walk back from the target
+		LinkedList<LayoutConverter> path = new LinkedList<LayoutConverter>();
+		for (LayoutConverter conv = incoming.get(target); conv != null; conv = incoming.get(conv.getSourceVersion()))
+			path.addFirst(conv);
+		
+		if (path.size() == 1)
+			return path.getFirst();
+		ChainConverter chain = new ChainConverter();
+		for (LayoutConverter conv : path)
+			chain.addConverter(conv);
+		return chain;
+	}
+	
+	/**
+	 * Conversion step that adapts the attributes of all regions and text objects to the target format (last step of a conversion pass).
+	 */
+	private static class AttributeAdaptationStep implements ConversionStep {
+		private Map<String, VariableMap> templates;
+		
+		public AttributeAdaptationStep(Map<String, VariableMap> templates) {
+			this.templates = templates;
+		}
+
+		@Override
+		public void beginPass(PageLayout layout, ConversionPass pass) {
+		}
+
+		@Override
+		public void convertRegion(Region region, ConversionPass pass) {
+			adaptAttributes(region, templates);
+		}
+
+		@Override
+		public void convertTextObject(LowLevelTextObject textObject, ConversionPass pass) {
+			adaptAttributes(textObject, templates);
+		}
+	}
 }
@@ -15,13 +15,13 @@
  */
 package org.primaresearch.dla.page.layout.converter;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.primaresearch.dla.page.layout.PageLayout;
 import org.primaresearch.dla.page.layout.physical.ContentObject;
 import org.primaresearch.dla.page.layout.physical.Region;
 import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
 import org.primaresearch.ident.IdRegister.InvalidIdException;
 import org.primaresearch.io.FormatVersion;
 import org.primaresearch.io.xml.XmlFormatVersion;
@@ -35,7 +35,7 @@ import org.primaresearch.io.xml.XmlFormatVersion;
  * @author Christian Clausner
  *
  */
-public class Converter_2010_01_12_to_2009_03_16 implements LayoutConverter {
+public class Converter_2010_01_12_to_2009_03_16 implements LayoutConverter, ConversionStep {
 
 	@Override
 	public FormatVersion getSourceVersion() {
@@ -62,21 +62,30 @@ public class Converter_2010_01_12_to_2009_03_16 implements LayoutConverter {
 	 * @param checkOnly If true, no conversion is carried out (dry run).
 	 */
 	public List<ConversionMessage> run(PageLayout layout, boolean checkOnly) {
-		List<ConversionMessage> messages = new ArrayList<ConversionMessage>();
-		
+		return new ConversionPass(this, checkOnly).run(layout);
+	}
+
+	@Override
+	public void beginPass(PageLayout layout, ConversionPass pass) {
 		//Add a temporary region if there is no region at all
 		if (layout.getRegionCount() == 0) {
 			Region reg = layout.createRegion(RegionType.TextRegion);
 			try {
-				if (!checkOnly)
+				if (!pass.isCheckOnly())
 					reg.setId("r"+ContentObject.TEMP_ID_SUFFIX);
-				messages.add(new ConversionMessage("Added temporary text region", ConversionMessage.CONVERSION_ADD_REQUIRED_REGION));
+				pass.getMessages().add(new ConversionMessage("Added temporary text region", ConversionMessage.CONVERSION_ADD_REQUIRED_REGION));
 			} catch (InvalidIdException e) {
 				e.printStackTrace();
 			}
 		}
-		
-		return messages;
+	}
+
+	@Override
+	public void convertRegion(Region region, ConversionPass pass) {
+	}
+
+	@Override
+	public void convertTextObject(LowLevelTextObject textObject, ConversionPass pass) {
 	}
 
 }
@@ -15,11 +15,11 @@
  */
 package org.primaresearch.dla.page.layout.converter;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.primaresearch.dla.page.layout.PageLayout;
 import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
 import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
 import org.primaresearch.io.FormatVersion;
 import org.primaresearch.io.xml.XmlFormatVersion;
@@ -35,7 +35,7 @@ import org.primaresearch.shared.variable.Variable.WrongVariableTypeException;
  * @author Christian Clausner
  *
  */
-public class Converter_2010_03_19_to_2010_01_12 implements LayoutConverter {
+public class Converter_2010_03_19_to_2010_01_12 implements LayoutConverter, ConversionStep {
 
 	@Override
 	public FormatVersion getSourceVersion() {
@@ -62,8 +62,15 @@ public class Converter_2010_03_19_to_2010_01_12 implements LayoutConverter {
 	 * @param checkOnly If true, no conversion is carried out (dry run).
 	 */
 	public List<ConversionMessage> run(PageLayout layout, boolean checkOnly) {
-		List<ConversionMessage> messages = new ArrayList<ConversionMessage>();
-		
+		return new ConversionPass(this, checkOnly).run(layout);
+	}
+
+	@Override
+	public void beginPass(PageLayout layout, ConversionPass pass) {
+	}
+
+	@Override
+	public void convertRegion(Region reg, ConversionPass pass) {
 		//Remove text type values:
 		// signature-mark
 		// catch-word
@@ -71,31 +78,30 @@ public class Converter_2010_03_19_to_2010_01_12 implements LayoutConverter {
 		// footnote
 		// footnote-continued
 		// TOC-entry
-		for (int i=0; i<layout.getRegionCount(); i++) {
-			Region reg = layout.getRegion(i);
-			if (reg instanceof TextRegion) {
-				Variable textType = reg.getAttributes().get("type");
-				if (textType != null && textType.getValue() != null) {
-					String val = textType.getValue().toString();
-					if (	val.equals("signature-mark")
-						|| 	val.equals("catch-word")
-						|| 	val.equals("marginalia")
-						|| 	val.equals("footnote")
-						|| 	val.equals("footnote-continued")
-						|| 	val.equals("TOC-entry"))
-					{
-						try {
-							if (!checkOnly)
-								textType.setValue(null);
-							messages.add(new ConversionMessage("Reset unsupported text type '"+val+"'", ConversionMessage.CONVERSION_RESET_INVALID_ATTRIBUTE));
-						} catch (WrongVariableTypeException e) {
-						}
+		if (reg instanceof TextRegion) {
+			Variable textType = reg.getAttributes().get("type");
+			if (textType != null && textType.getValue() != null) {
+				String val = textType.getValue().toString();
+				if (	val.equals("signature-mark")
+					|| 	val.equals("catch-word")
+					|| 	val.equals("marginalia")
+					|| 	val.equals("footnote")
+					|| 	val.equals("footnote-continued")
+					|| 	val.equals("TOC-entry"))
+				{
+					try {
+						if (!pass.isCheckOnly())
+							textType.setValue(null);
+						pass.getMessages().add(new ConversionMessage("Reset unsupported text type '"+val+"'", ConversionMessage.CONVERSION_RESET_INVALID_ATTRIBUTE));
+					} catch (WrongVariableTypeException e) {
 					}
 				}
 			}
 		}
-		
-		return messages;
+	}
+
+	@Override
+	public void convertTextObject(LowLevelTextObject textObject, ConversionPass pass) {
 	}
 
 }
@@ -15,13 +15,12 @@
  */
 package org.primaresearch.dla.page.layout.converter;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.primaresearch.dla.page.layout.PageLayout;
-import org.primaresearch.dla.page.layout.physical.ContentIterator;
 import org.primaresearch.dla.page.layout.physical.Region;
 import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
 import org.primaresearch.io.FormatVersion;
 import org.primaresearch.io.xml.XmlFormatVersion;
 import org.primaresearch.shared.variable.StringValue;
@@ -36,7 +35,7 @@ import org.primaresearch.shared.variable.Variable;
  * @author Christian Clausner
  *
  */
-public class Converter_2013_07_15_to_2016_07_15 implements LayoutConverter {
+public class Converter_2013_07_15_to_2016_07_15 implements LayoutConverter, ConversionStep {
 
 	@Override
 	public FormatVersion getSourceVersion() {
@@ -63,26 +62,30 @@ public class Converter_2013_07_15_to_2016_07_15 implements LayoutConverter {
 	 * @param checkOnly If true, no conversion is carried out (dry run).
 	 */
 	public List<ConversionMessage> run(PageLayout layout, boolean checkOnly) {
-		List<ConversionMessage> messages = new ArrayList<ConversionMessage>();
-		
-		//Regions
-		for (ContentIterator it = layout.iterator(null); it.hasNext(); ) {
-			Region reg = (Region)it.next();
-			
-			//Primary and secondary Script
-			if (reg.getType().equals(RegionType.TextRegion)) { 
+		return new ConversionPass(this, checkOnly).run(layout);
+	}
+
+	@Override
+	public void beginPass(PageLayout layout, ConversionPass pass) {
+	}
 
-				Variable v = reg.getAttributes().get("primaryScript");
-				if (v != null && v.getValue() != null)
-					convertScript((StringValue)v.getValue(), checkOnly, messages);
+	@Override
+	public void convertRegion(Region reg, ConversionPass pass) {
+		//Primary and secondary Script
+		if (reg.getType().equals(RegionType.TextRegion)) { 
 
-				v = reg.getAttributes().get("secondaryScript");
-				if (v != null && v.getValue() != null)
-					convertScript((StringValue)v.getValue(), checkOnly, messages);
-			}
+			Variable v = reg.getAttributes().get("primaryScript");
+			if (v != null && v.getValue() != null)
+				convertScript((StringValue)v.getValue(), pass.isCheckOnly(), pass.getMessages());
+
+			v = reg.getAttributes().get("secondaryScript");
+			if (v != null && v.getValue() != null)
+				convertScript((StringValue)v.getValue(), pass.isCheckOnly(), pass.getMessages());
 		}
-		
-		return messages;
+	}
+
+	@Override
+	public void convertTextObject(LowLevelTextObject textObject, ConversionPass pass) {
 	}
 	
 	/**
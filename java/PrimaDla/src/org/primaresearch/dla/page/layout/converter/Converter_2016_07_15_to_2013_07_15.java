@@ -15,10 +15,11 @@
  */
 package org.primaresearch.dla.page.layout.converter;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
 import org.primaresearch.io.FormatVersion;
 import org.primaresearch.io.xml.XmlFormatVersion;
 
@@ -36,7 +37,7 @@ import org.primaresearch.io.xml.XmlFormatVersion;
  * @author Christian Clausner
  *
  */
-public class Converter_2016_07_15_to_2013_07_15 implements LayoutConverter {
+public class Converter_2016_07_15_to_2013_07_15 implements LayoutConverter, ConversionStep {
 
 	@Override
 	public FormatVersion getSourceVersion() {
@@ -63,8 +64,6 @@ public class Converter_2016_07_15_to_2013_07_15 implements LayoutConverter {
 	 * @param checkOnly If true, no conversion is carried out (dry run).
 	 */
 	public List<ConversionMessage> run(PageLayout layout, boolean checkOnly) {
-		List<ConversionMessage> messages = new ArrayList<ConversionMessage>();
-		
 		//TODO
 		
 		//Regions
@@ -340,7 +339,19 @@ public class Converter_2016_07_15_to_2013_07_15 implements LayoutConverter {
 		}
 		*/
 		
-		return messages;
+		return new ConversionPass(this, checkOnly).run(layout);
+	}
+
+	@Override
+	public void beginPass(PageLayout layout, ConversionPass pass) {
+	}
+
+	@Override
+	public void convertRegion(Region region, ConversionPass pass) {
+	}
+
+	@Override
+	public void convertTextObject(LowLevelTextObject textObject, ConversionPass pass) {
 	}
 
 }
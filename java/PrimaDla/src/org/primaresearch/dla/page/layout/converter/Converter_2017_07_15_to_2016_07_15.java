@@ -15,13 +15,12 @@
  */
 package org.primaresearch.dla.page.layout.converter;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.primaresearch.dla.page.layout.PageLayout;
-import org.primaresearch.dla.page.layout.physical.ContentIterator;
 import org.primaresearch.dla.page.layout.physical.Region;
 import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
 import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
 import org.primaresearch.io.FormatVersion;
 import org.primaresearch.io.xml.XmlFormatVersion;
@@ -40,7 +39,7 @@ import org.primaresearch.io.xml.XmlFormatVersion;
  * @author Christian Clausner
  *
  */
-public class Converter_2017_07_15_to_2016_07_15 implements LayoutConverter {
+public class Converter_2017_07_15_to_2016_07_15 implements LayoutConverter, ConversionStep {
 
 	@Override
 	public FormatVersion getSourceVersion() {
@@ -67,22 +66,24 @@ public class Converter_2017_07_15_to_2016_07_15 implements LayoutConverter {
 	 * @param checkOnly If true, no conversion is carried out (dry run).
 	 */
 	public List<ConversionMessage> run(PageLayout layout, boolean checkOnly) {
-		List<ConversionMessage> messages = new ArrayList<ConversionMessage>();
-		
-		//List<Region> unsupportedRegions = new ArrayList<Region>();
-		for (ContentIterator it = layout.iterator(null); it.hasNext(); ) {
-			Region reg = (Region)it.next();
+		return new ConversionPass(this, checkOnly).run(layout);
+	}
+
+	@Override
+	public void beginPass(PageLayout layout, ConversionPass pass) {
+	}
+
+	@Override
+	public void convertRegion(Region reg, ConversionPass pass) {
+		//Text region types list-label
+		if (reg.getType().equals(RegionType.TextRegion) 
+				&& ("list-label".equals(((TextRegion)reg).getTextType())
+					|| "other".equals(((TextRegion)reg).getTextType())
+					)) {
 			
-			//Text region types list-label
-			if (reg.getType().equals(RegionType.TextRegion) 
-					&& ("list-label".equals(((TextRegion)reg).getTextType())
-						|| "other".equals(((TextRegion)reg).getTextType())
-						)) {
-				
-				if (!checkOnly)
-					((TextRegion)reg).setTextType(null);
-				messages.add(new ConversionMessage("Reset unsupported text type for region '"+reg.getId()+"'", ConversionMessage.CONVERSION_RESET_INVALID_ATTRIBUTE));
-			}
+			if (!pass.isCheckOnly())
+				((TextRegion)reg).setTextType(null);
+			pass.getMessages().add(new ConversionMessage("Reset unsupported text type for region '"+reg.getId()+"'", ConversionMessage.CONVERSION_RESET_INVALID_ATTRIBUTE));
 		}
 		
 		//TODO
@@ -359,8 +360,10 @@ public class Converter_2017_07_15_to_2016_07_15 implements LayoutConverter {
 			}
 		}
 		*/
-		
-		return messages;
+	}
+
+	@Override
+	public void convertTextObject(LowLevelTextObject textObject, ConversionPass pass) {
 	}
 
 }
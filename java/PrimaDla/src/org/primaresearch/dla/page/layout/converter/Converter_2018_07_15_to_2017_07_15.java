@@ -15,14 +15,12 @@
  */
 package org.primaresearch.dla.page.layout.converter;
 
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import org.primaresearch.dla.page.layout.PageLayout;
-import org.primaresearch.dla.page.layout.physical.ContentIterator;
 import org.primaresearch.dla.page.layout.physical.Region;
 import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextObject;
 import org.primaresearch.io.FormatVersion;
 import org.primaresearch.io.xml.XmlFormatVersion;
 
@@ -35,7 +33,7 @@ import org.primaresearch.io.xml.XmlFormatVersion;
  * @author Christian Clausner
  *
  */
-public class Converter_2018_07_15_to_2017_07_15 implements LayoutConverter {
+public class Converter_2018_07_15_to_2017_07_15 implements LayoutConverter, ConversionStep {
 
 	@Override
 	public FormatVersion getSourceVersion() {
@@ -62,30 +60,19 @@ public class Converter_2018_07_15_to_2017_07_15 implements LayoutConverter {
 	 * @param checkOnly If true, no conversion is carried out (dry run).
 	 */
 	public List<ConversionMessage> run(PageLayout layout, boolean checkOnly) {
-		List<ConversionMessage> messages = new ArrayList<ConversionMessage>();
-		
-		List<Region> unsupportedRegions = new ArrayList<Region>();
-		for (ContentIterator it = layout.iterator(null); it.hasNext(); ) {
-			Region reg = (Region)it.next();
-			
-			if (reg.getType().equals(RegionType.MapRegion) || reg.getType().equals(RegionType.CustomRegion)) {
-				
-				unsupportedRegions.add(reg);
-			}
-		}
-		
-		//Handle unsupported regions
-		for (Iterator<Region> it = unsupportedRegions.iterator(); it.hasNext(); ) {
-			Region unsupported = it.next();
+		return new ConversionPass(this, checkOnly).run(layout);
+	}
+
+	@Override
+	public void beginPass(PageLayout layout, ConversionPass pass) {
+	}
+
+	@Override
+	public void convertRegion(Region reg, ConversionPass pass) {
+		if (reg.getType().equals(RegionType.MapRegion) || reg.getType().equals(RegionType.CustomRegion)) {
 			
-			if (!checkOnly) {
-				layout.removeRegion(unsupported.getId(), true);
-				Region unknownRegion = layout.createRegion(RegionType.UnknownRegion, unsupported.getId().toString());
-				unknownRegion.setCoords(unsupported.getCoords());
-			}
-			messages.add(new ConversionMessage("Changed region type to 'unknown' for region '"+unsupported.getId()+"'", ConversionMessage.CONVERSION_GENERAL));
+			pass.replaceWithUnknownRegion(reg, ConversionMessage.CONVERSION_GENERAL);
 		}
-
 		
 		//TODO
 		
@@ -361,8 +348,10 @@ public class Converter_2018_07_15_to_2017_07_15 implements LayoutConverter {
 			}
 		}
 		*/
-		
-		return messages;
+	}
+
+	@Override
+	public void convertTextObject(LowLevelTextObject textObject, ConversionPass pass) {
 	}
 
 }
@@ -124,8 +124,8 @@ public class Group implements GroupMember, Identifiable, AttributeContainer, Has
 	 * Returns the caption (display name)
 	 */
 	public String getCaption() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_caption) != null && getAttributes().get(DefaultXmlNames.ATTR_caption).getValue() != null)
-			return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_caption).getValue()).val;
+		if (getAttributes().peek(DefaultXmlNames.ATTR_caption) != null && getAttributes().peek(DefaultXmlNames.ATTR_caption).getValue() != null)
+			return getAttributes().getString(DefaultXmlNames.ATTR_caption);
 		return null;
 	}
 
@@ -15,6 +15,8 @@
  */
 package org.primaresearch.dla.page.layout.physical;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.primaresearch.dla.page.layout.PageLayout;
 import org.primaresearch.dla.page.layout.logical.Layers;
 import org.primaresearch.dla.page.layout.logical.ReadingOrder;
@@ -65,6 +67,8 @@ public class ContentFactory {
 	
 	private IdRegister idRegister;
 	private AttributeFactory attributeFactory;
+	private final AtomicInteger modificationCount = new AtomicInteger();
+	private StructureListener structureListener = null;
 
 	/**
 	 * Constructor
@@ -301,6 +305,65 @@ public class ContentFactory {
 		return new MetadataItemImpl(attributeFactory);
 	}
 	
+	/**
+	 * Notifies the factory that an object created by it got a new outline.
+	 * Used to invalidate cached data such as the spatial index of the page layout.
+	 */
+	public void contentChanged() {
+		modificationCount.incrementAndGet();
+	}
+
+	/**
+	 * Notifies the factory that an object created by it was added to a region or text object container
+	 * (or to the page layout itself).
+	 * @param object The added object (with all its child objects)
+	 * @param parent The new parent (<code>null</code> for top-level regions)
+	 */
+	public void objectAdded(ContentObject object, ContentObject parent) {
+		modificationCount.incrementAndGet();
+		if (structureListener != null)
+			structureListener.objectAdded(object, parent);
+	}
+
+	/**
+	 * Notifies the factory that an object created by it was removed from a region or text object container
+	 * (or from the page layout itself).
+	 * @param object The removed object (with all its child objects)
+	 * @param parent The old parent (<code>null</code> for top-level regions)
+	 */
+	public void objectRemoved(ContentObject object, ContentObject parent) {
+		modificationCount.incrementAndGet();
+		if (structureListener != null)
+			structureListener.objectRemoved(object, parent);
+	}
+
+	/**
+	 * Notifies the factory that an object created by it got a new ID.
+	 * @param object The object (already carrying the new ID)
+	 * @param oldId The previous ID
+	 */
+	public void idChanged(ContentObject object, Id oldId) {
+		modificationCount.incrementAndGet();
+		if (structureListener != null)
+			structureListener.idChanged(object, oldId);
+	}
+
+	/**
+	 * Returns a counter that is increased with every change notification (outline or structure).
+	 */
+	public int getModificationCount() {
+		return modificationCount.get();
+	}
+
+	/**
+	 * Sets the listener for structural changes (used by the page layout to keep its ID index up to date).
+	 * There is only one listener per factory.
+	 * @param listener Listener or <code>null</code>
+	 */
+	public void setStructureListener(StructureListener listener) {
+		this.structureListener = listener;
+	}
+
 	/**
 	 * Registers the specified ID
 	 * @param id ID content
@@ -398,4 +461,26 @@ public class ContentFactory {
 	
 
 	
+
+	/**
+	 * Listener for content objects that were added, removed or got a new ID.
+	 */
+	public static interface StructureListener {
+		/**
+		 * Called after an object (including its child objects) was added to a parent 
+		 * (<code>null</code> for top-level regions).
+		 */
+		public void objectAdded(ContentObject object, ContentObject parent);
+
+		/**
+		 * Called after an object (including its child objects) was removed from a parent 
+		 * (<code>null</code> for top-level regions).
+		 */
+		public void objectRemoved(ContentObject object, ContentObject parent);
+
+		/**
+		 * Called after an object got a new ID.
+		 */
+		public void idChanged(ContentObject object, Id oldId);
+	}
 }
@@ -15,10 +15,13 @@
  */
 package org.primaresearch.dla.page.layout.physical;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.primaresearch.dla.page.io.xml.DefaultXmlNames;
 import org.primaresearch.dla.page.layout.physical.shared.ContentType;
@@ -39,7 +42,11 @@ import org.primaresearch.shared.variable.VariableMap;
 /**
  * Attribute factory for the default layout content types of PAGE (static/dynamic).<br>
  * <br>
- * In static mode types and attributes are hard coded. In dynamic use only the types are hard coded, the attributes are generated dynamically from a schema.
+ * In static mode types and attributes are hard coded. In dynamic use only the types are hard coded, the attributes are generated dynamically from a schema.<br>
+ * <br>
+ * The attribute maps are copy-on-write instances of one shared template per content type 
+ * (see {@link VariableMap#createCopyOnWriteInstance()}). Use {@link #getInstance(FormatModel)}
+ * to share the templates between pages of the same format.
  * 
  * @author Christian Clausner
  *
@@ -51,7 +58,15 @@ public class DefaultAttributeFactory implements
 	private static List<Variable> textStyleAttrs = null;
 	private static List<Variable> textEquivAttrs = null;
 	
+	/** Factories for schema models (weak references, the factory itself references the model) */
+	private static Map<FormatModel, WeakReference<DefaultAttributeFactory>> instances = new WeakHashMap<FormatModel, WeakReference<DefaultAttributeFactory>>();
+	private static DefaultAttributeFactory staticInstance = null;
+	
 	private FormatModel schemaParser = null;
+	
+	/** Map [content type, shared attribute template] */
+	private Map<ContentType, VariableMap> templates = new ConcurrentHashMap<ContentType, VariableMap>();
+	private VariableMap textEquivTemplate = null;
 
 	/**
 	 * Constructor for static use
@@ -67,10 +82,30 @@ public class DefaultAttributeFactory implements
 		this.schemaParser = schemaParser;
 	}
 	
+	/**
+	 * Returns a shared factory instance for the given format model.
+	 * @param schemaParser Parser for XML schema (<code>null</code> for static use)
+	 * @return The same factory for each call with the same model
+	 */
+	public static synchronized DefaultAttributeFactory getInstance(FormatModel schemaParser) {
+		if (schemaParser == null) {
+			if (staticInstance == null)
+				staticInstance = new DefaultAttributeFactory();
+			return staticInstance;
+		}
+		WeakReference<DefaultAttributeFactory> ref = instances.get(schemaParser);
+		DefaultAttributeFactory factory = ref != null ? ref.get() : null;
+		if (factory == null) {
+			factory = new DefaultAttributeFactory(schemaParser);
+			instances.put(schemaParser, new WeakReference<DefaultAttributeFactory>(factory));
+		}
+		return factory;
+	}
+	
 	/**
 	 * Creates map with hard-coded types and attributes.
 	 */
-	private static Map<ContentType, List<Variable>> getMap() {
+	private static synchronized Map<ContentType, List<Variable>> getMap() {
 		if (contentTypeAttrMap == null) {
 			contentTypeAttrMap = new HashMap<ContentType, List<Variable>>();
 			
@@ -309,7 +344,7 @@ public class DefaultAttributeFactory implements
 		return contentTypeAttrMap;
 	}
 	
-	private List<Variable> getTextStyleList() {
+	private static synchronized List<Variable> getTextStyleList() {
 		if (textStyleAttrs == null) {
 			textStyleAttrs = new ArrayList<Variable>();
 			textStyleAttrs.add(new StringVariable("textColour", null));
@@ -336,7 +371,7 @@ public class DefaultAttributeFactory implements
 		return textStyleAttrs;
 	}
 	
-	private List<Variable> getTextEquivList() {
+	private static synchronized List<Variable> getTextEquivList() {
 		if (textEquivAttrs == null) {
 			textEquivAttrs = new ArrayList<Variable>();
 			textEquivAttrs.add(new IntegerVariable(DefaultXmlNames.ATTR_index, null));
@@ -350,6 +385,25 @@ public class DefaultAttributeFactory implements
 
 	@Override
 	public VariableMap createAttributes(ContentType type) {
+		if (type == null)
+			return createTemplate(null);
+		VariableMap template = templates.get(type);
+		if (template == null) {
+			synchronized (this) {
+				template = templates.get(type);
+				if (template == null) {
+					template = createTemplate(type);
+					templates.put(type, template);
+				}
+			}
+		}
+		return template.createCopyOnWriteInstance();
+	}
+	
+	/**
+	 * Creates the attribute template for the given content type
+	 */
+	private VariableMap createTemplate(ContentType type) {
 		
 		//Dynamic schema
 		VariableMap varMap = new VariableMap();
@@ -387,9 +441,15 @@ public class DefaultAttributeFactory implements
 	
 	@Override
 	public VariableMap createAttributes(TextContent textContent) {
-		VariableMap varMap = new VariableMap();
-		createTextEquivAttributes(varMap);
-		return varMap;
+		VariableMap template;
+		synchronized (this) {
+			if (textEquivTemplate == null) {
+				textEquivTemplate = new VariableMap();
+				createTextEquivAttributes(textEquivTemplate);
+			}
+			template = textEquivTemplate;
+		}
+		return template.createCopyOnWriteInstance();
 	}
 	
 	private void createTextStyleAttributes(VariableMap varMap) {
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.layout.physical;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.physical.text.LowLevelTextContainer;
+
+/**
+ * Parallel variant of {@link ContentObjectProcessor}. Processes all content objects of one or more pages
+ * using a fork-join pool. The work is split across regions, nested regions and text objects of large containers.<br>
+ * <br>
+ * {@link #doProcess(ContentObject)} is called concurrently by multiple threads and must therefore be thread-safe.
+ * It may modify the given object, but not other objects of the page. The results returned by <code>doProcess</code>
+ * are collected (<code>null</code> results are skipped), either in the same order as the sequential processor
+ * visits the objects (see {@link #setOrderedResults(boolean)}) or in any order.
+ * 
+ * @author Christian Clausner
+ *
+ * @param <R> Type of the processing results
+ */
+public abstract class ParallelContentObjectProcessor<R> {
+
+	/** Default number of objects of a container that are processed in one task */
+	public static final int DEFAULT_GRANULARITY = 16;
+
+	private ForkJoinPool pool;
+	private int granularity = DEFAULT_GRANULARITY;
+	private boolean orderedResults = true;
+	private boolean includeLowLevelTextObjects = true;
+
+	/**
+	 * Constructor using the common fork-join pool
+	 */
+	public ParallelContentObjectProcessor() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor
+	 * @param pool Pool the processing tasks are run in
+	 */
+	public ParallelContentObjectProcessor(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Called for each content object (concurrently). Override with a thread-safe implementation.
+	 * @return Result for the object or <code>null</code>
+	 */
+	public abstract R doProcess(ContentObject contentObject);
+
+	/**
+	 * Processes all content objects of the given page.
+	 * @return Results of all objects (no <code>null</code> results)
+	 */
+	public List<R> run(Page page) {
+		List<Page> pages = new ArrayList<Page>(1);
+		pages.add(page);
+		return run(pages).get(0);
+	}
+
+	/**
+	 * Processes all content objects of the given pages (in parallel).
+	 * @return One result list per page (same order as the pages)
+	 */
+	public List<List<R>> run(Collection<Page> pages) {
+		List<PageTask> tasks = new ArrayList<PageTask>(pages.size());
+		for (Page page : pages)
+			tasks.add(new PageTask(page.getLayout(), orderedResults ? null : new ConcurrentLinkedQueue<R>()));
+		pool.invoke(new RecursiveTask<Void>() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected Void compute() {
+				invokeAll(tasks);
+				return null;
+			}
+		});
+		List<List<R>> results = new ArrayList<List<R>>(tasks.size());
+		for (PageTask task : tasks)
+			results.add(task.getResults());
+		return results;
+	}
+
+	/**
+	 * Returns the maximum number of objects of a container that are processed in one task
+	 */
+	public int getGranularity() {
+		return granularity;
+	}
+
+	/**
+	 * Sets the maximum number of objects of a container that are processed in one task.
+	 * Containers with more child objects (regions of a page, text lines of a region, ...) are split
+	 * into several tasks. Smaller values mean more parallelism but also more overhead.
+	 * @param granularity Number of objects (at least 1)
+	 */
+	public void setGranularity(int granularity) {
+		if (granularity < 1)
+			throw new IllegalArgumentException("Granularity must be at least 1");
+		this.granularity = granularity;
+	}
+
+	/**
+	 * Returns <code>true</code> if the results are in the order the objects are visited by the sequential processor 
+	 */
+	public boolean isOrderedResults() {
+		return orderedResults;
+	}
+
+	/**
+	 * Enables or disables ordered result merging. Unordered merging is slightly faster.
+	 */
+	public void setOrderedResults(boolean orderedResults) {
+		this.orderedResults = orderedResults;
+	}
+
+	/** 
+	 * Flag to set if text lines, words, and glyphs should be included or not 
+	 */
+	public boolean isIncludeLowLevelTextObjects() {
+		return includeLowLevelTextObjects;
+	}
+
+	/** 
+	 * Flag to set if text lines, words, and glyphs should be included or not 
+	 */
+	public void setIncludeLowLevelTextObjects(boolean includeLowLevelTextObjects) {
+		this.includeLowLevelTextObjects = includeLowLevelTextObjects;
+	}
+
+	/**
+	 * Task for all objects of one page
+	 */
+	private final class PageTask extends RecursiveTask<List<R>> {
+		private static final long serialVersionUID = 1L;
+
+		private PageLayout layout;
+		private Queue<R> unorderedResults;
+
+		PageTask(PageLayout layout, Queue<R> unorderedResults) {
+			this.layout = layout;
+			this.unorderedResults = unorderedResults;
+		}
+
+		@Override
+		protected List<R> compute() {
+			List<R> results = new ContainerTask(layout, null, false, 0, layout.getRegionCount(), unorderedResults).compute();
+			return results != null ? results : new ArrayList<R>(unorderedResults);
+		}
+
+		List<R> getResults() {
+			List<R> results = join();
+			return results != null ? results : Collections.<R>emptyList();
+		}
+	}
+
+	/**
+	 * Task for a range of child objects of a container (page layout, region container or text object container).
+	 * Ranges with more objects than the granularity are split. 
+	 */
+	private final class ContainerTask extends RecursiveTask<List<R>> {
+		private static final long serialVersionUID = 1L;
+
+		private PageLayout layout;
+		private Object container;
+		private boolean textObjects;
+		private int from;
+		private int to;
+		private Queue<R> unorderedResults;
+
+		/**
+		 * Constructor
+		 * @param layout Page layout (if the top-level regions are processed)
+		 * @param container RegionContainer or LowLevelTextContainer (if layout is null)
+		 * @param textObjects If <code>true</code>, the text objects of the container are processed, otherwise the nested regions
+		 *                    (a text region is both a region container and a text object container)
+		 * @param from Index of the first child object
+		 * @param to Index after the last child object
+		 * @param unorderedResults Target for results or <code>null</code> for ordered results
+		 */
+		ContainerTask(PageLayout layout, Object container, boolean textObjects, int from, int to, Queue<R> unorderedResults) {
+			this.layout = layout;
+			this.container = container;
+			this.textObjects = textObjects;
+			this.from = from;
+			this.to = to;
+			this.unorderedResults = unorderedResults;
+		}
+
+		@Override
+		protected List<R> compute() {
+			List<R> results = unorderedResults == null ? new ArrayList<R>() : null;
+			if (to - from > granularity) { //Split
+				int middle = (from + to) >>> 1;
+				ContainerTask left = new ContainerTask(layout, container, textObjects, from, middle, unorderedResults);
+				ContainerTask right = new ContainerTask(layout, container, textObjects, middle, to, unorderedResults);
+				left.fork();
+				List<R> rightResults = right.compute();
+				List<R> leftResults = left.join();
+				if (results != null) {
+					results.addAll(leftResults);
+					results.addAll(rightResults);
+				}
+				return results;
+			}
+			for (int i=from; i<to; i++)
+				processObject(getChild(i), results);
+			return results;
+		}
+
+		private ContentObject getChild(int index) {
+			if (layout != null)
+				return layout.getRegion(index);
+			if (textObjects)
+				return (ContentObject)((LowLevelTextContainer)container).getTextObject(index);
+			return ((RegionContainer)container).getRegion(index);
+		}
+
+		/**
+		 * Processes the given object and its children (text objects first, then nested regions)
+		 */
+		private void processObject(ContentObject obj, List<R> results) {
+			addResult(doProcess(obj), results);
+
+			ContainerTask textTask = null;
+			int textObjectCount = 0;
+			if (includeLowLevelTextObjects && obj instanceof LowLevelTextContainer)
+				textObjectCount = ((LowLevelTextContainer)obj).getTextObjectCount();
+			int regionCount = 0;
+			if (obj instanceof RegionContainer && ((RegionContainer)obj).hasRegions())
+				regionCount = ((RegionContainer)obj).getRegionCount();
+
+			//Text objects
+			if (textObjectCount > granularity) {
+				textTask = new ContainerTask(null, obj, true, 0, textObjectCount, unorderedResults);
+				if (regionCount > 0)
+					textTask.fork();
+				else
+					addResults(textTask.compute(), results);
+			}
+			else {
+				for (int i=0; i<textObjectCount; i++)
+					processObject((ContentObject)((LowLevelTextContainer)obj).getTextObject(i), results);
+			}
+
+			//Nested regions
+			List<R> regionResults = null;
+			if (regionCount > granularity)
+				regionResults = new ContainerTask(null, obj, false, 0, regionCount, unorderedResults).compute();
+			else if (regionCount > 0) {
+				regionResults = results != null && textTask != null ? new ArrayList<R>() : results;
+				for (int i=0; i<regionCount; i++)
+					processObject(((RegionContainer)obj).getRegion(i), regionResults);
+			}
+
+			if (textTask != null && regionCount > 0)
+				addResults(textTask.join(), results);
+			if (regionResults != results)
+				addResults(regionResults, results);
+		}
+
+		private void addResult(R result, List<R> results) {
+			if (result == null)
+				return;
+			if (results != null)
+				results.add(result);
+			else
+				unorderedResults.add(result);
+		}
+
+		private void addResults(List<R> source, List<R> results) {
+			if (source != null && results != null)
+				results.addAll(source);
+		}
+	}
+}
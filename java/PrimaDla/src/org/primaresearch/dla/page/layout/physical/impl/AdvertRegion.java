@@ -42,7 +42,7 @@ public class AdvertRegion extends RegionImpl {
 	}
 
 	public String getBgColour() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_bgColour).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_bgColour);
 	}
 
 	public void setBgColour(String colour) {
@@ -54,7 +54,7 @@ public class AdvertRegion extends RegionImpl {
 	}
 
 	public double getOrientation() {
-		return ((DoubleValue)getAttributes().get(DefaultXmlNames.ATTR_orientation).getValue()).val;
+		return getAttributes().getDouble(DefaultXmlNames.ATTR_orientation);
 	}
 
 	public void setOrientation(double orientation) {
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.layout.physical.impl;
+
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.logical.Layer;
+import org.primaresearch.dla.page.layout.physical.ContentIterator;
+import org.primaresearch.dla.page.layout.physical.ContentObject;
+import org.primaresearch.dla.page.layout.physical.shared.ContentType;
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.ident.Id;
+
+/**
+ * Spliterator for page content objects (regions or low level text objects).<br>
+ * <br>
+ * The objects are returned in the same order as by the content iterators of the page layout.
+ * Splitting is done by ranges of top-level regions (each including its nested regions and text objects),
+ * so that the parts can be traversed independently (e.g. by a parallel stream).
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class ContentObjectSpliterator implements Spliterator<ContentObject> {
+
+	private PageLayout pageLayout;
+	private ContentType contentType;
+	private Layer layer;
+	private Set<Id> layerRegions;
+	
+	/** Index of the first top-level region that has not been started */
+	private int startIndex;
+	/** Index after the last top-level region */
+	private int endIndex;
+	/** Iterator for the current range (created on the first traversal) */
+	private ContentIterator iterator = null;
+	
+	/**
+	 * Constructor
+	 * @param contentType A specific region type or low level text object type (text line, word or glyph). 
+	 *                    Use <code>null</code> to include all regions.
+	 * @param layer Restrict the objects to this layer (use <code>null</code> for no restriction)
+	 * @throws IllegalArgumentException Content type not supported (e.g. grapheme)
+	 */
+	public ContentObjectSpliterator(PageLayout pageLayout, ContentType contentType, Layer layer) {
+		this(pageLayout, contentType, layer, RegionIterator.getRegionIds(layer), 0, pageLayout.getRegionCount());
+		if (contentType != null && !(contentType instanceof RegionType) 
+				&& !LowLevelTextType.TextLine.equals(contentType)
+				&& !LowLevelTextType.Word.equals(contentType)
+				&& !LowLevelTextType.Glyph.equals(contentType))
+			throw new IllegalArgumentException("Unsupported content type for spliterator: "+contentType);
+	}
+	
+	private ContentObjectSpliterator(PageLayout pageLayout, ContentType contentType, Layer layer, 
+									Set<Id> layerRegions, int startIndex, int endIndex) {
+		this.pageLayout = pageLayout;
+		this.contentType = contentType;
+		this.layer = layer;
+		this.layerRegions = layerRegions;
+		this.startIndex = startIndex;
+		this.endIndex = endIndex;
+	}
+	
+	/**
+	 * Creates an iterator for the remaining range of top-level regions
+	 */
+	private ContentIterator createIterator() {
+		ContentIterator it;
+		if (contentType == null || contentType instanceof RegionType)
+			it = new RegionIterator(pageLayout, (RegionType)contentType, layer, layerRegions, startIndex, endIndex);
+		else {
+			it = new RegionIterator(pageLayout, RegionType.TextRegion, layer, layerRegions, startIndex, endIndex);
+			it = new LowLevelTextObjectIterator(LowLevelTextType.TextLine, layer, it);
+			if (!LowLevelTextType.TextLine.equals(contentType)) {
+				it = new LowLevelTextObjectIterator(LowLevelTextType.Word, layer, it);
+				if (LowLevelTextType.Glyph.equals(contentType))
+					it = new LowLevelTextObjectIterator(LowLevelTextType.Glyph, layer, it);
+			}
+		}
+		return it;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super ContentObject> action) {
+		if (iterator == null)
+			iterator = createIterator();
+		if (!iterator.hasNext())
+			return false;
+		action.accept(iterator.next());
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super ContentObject> action) {
+		if (iterator == null)
+			iterator = createIterator();
+		while (iterator.hasNext())
+			action.accept(iterator.next());
+	}
+
+	@Override
+	public Spliterator<ContentObject> trySplit() {
+		if (iterator != null || endIndex - startIndex < 2) //Traversal already started or nothing to split
+			return null;
+		int mid = (startIndex + endIndex) >>> 1;
+		ContentObjectSpliterator prefix = new ContentObjectSpliterator(pageLayout, contentType, layer, layerRegions, startIndex, mid);
+		startIndex = mid;
+		return prefix;
+	}
+
+	/**
+	 * Returns the number of remaining top-level regions (the actual number of objects is not known in advance)
+	 */
+	@Override
+	public long estimateSize() {
+		return endIndex - startIndex;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+}
@@ -41,7 +41,7 @@ public class CustomRegion extends RegionImpl {
 	}
 
 	public String getCustomType() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_type).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_type);
 	}
 	
 	public void setCustomType(String type) {
@@ -42,7 +42,7 @@ public class FrameRegion extends RegionImpl {
 	}
 	
 	public String getBgColour() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_bgColour).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_bgColour);
 	}
 
 	public void setBgColour(String colour) {
@@ -54,7 +54,7 @@ public class FrameRegion extends RegionImpl {
 	}
 
 	public boolean isBorderPresent() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_borderPresent).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_borderPresent);
 	}
 
 	public void setBorderPresent(boolean border) {
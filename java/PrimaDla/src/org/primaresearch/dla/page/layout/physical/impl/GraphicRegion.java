@@ -44,7 +44,7 @@ public class GraphicRegion extends RegionImpl {
 	}
 
 	public String getGraphicType() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_type).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_type);
 	}
 
 	public void setGraphicType(String type) {
@@ -56,7 +56,7 @@ public class GraphicRegion extends RegionImpl {
 	}
 
 	public int getNumColours() {
-		return ((IntegerValue)getAttributes().get(DefaultXmlNames.ATTR_numColours).getValue()).val;
+		return getAttributes().getInteger(DefaultXmlNames.ATTR_numColours);
 	}
 
 	public void setNumColours(int num) {
@@ -68,7 +68,7 @@ public class GraphicRegion extends RegionImpl {
 	}
 
 	public double getOrientation() {
-		return ((DoubleValue)getAttributes().get(DefaultXmlNames.ATTR_orientation).getValue()).val;
+		return getAttributes().getDouble(DefaultXmlNames.ATTR_orientation);
 	}
 	
 	public void setOrientation(double orientation) {
@@ -80,7 +80,7 @@ public class GraphicRegion extends RegionImpl {
 	}
 
 	public boolean hasEmbeddedText() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_embText).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_embText);
 	}
 
 	public void setEmbeddedText(boolean hasText) {
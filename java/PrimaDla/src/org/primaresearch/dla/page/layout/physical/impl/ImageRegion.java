@@ -44,7 +44,7 @@ public class ImageRegion extends RegionImpl {
 	}
 	
 	public String getColourDepth() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_colourDepth).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_colourDepth);
 	}
 	
 	public void setColourDepth(String colourDepth) {
@@ -56,7 +56,7 @@ public class ImageRegion extends RegionImpl {
 	}
 
 	public String getBgColour() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_bgColour).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_bgColour);
 	}
 
 	public void setBgColour(String colour) {
@@ -68,7 +68,7 @@ public class ImageRegion extends RegionImpl {
 	}
 
 	public double getOrientation() {
-		return ((DoubleValue)getAttributes().get(DefaultXmlNames.ATTR_orientation).getValue()).val;
+		return getAttributes().getDouble(DefaultXmlNames.ATTR_orientation);
 	}
 
 	public void setOrientation(double orientation) {
@@ -80,7 +80,7 @@ public class ImageRegion extends RegionImpl {
 	}
 
 	public boolean hasEmbeddedText() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_embText).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_embText);
 	}
 	
 	public void setEmbeddedText(boolean hasText) {
@@ -43,7 +43,7 @@ public class LineDrawingRegion extends RegionImpl {
 	}
 
 	public String getPenColour() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_penColour).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_penColour);
 	}
 
 	public void setPenColour(String colour) {
@@ -55,7 +55,7 @@ public class LineDrawingRegion extends RegionImpl {
 	}
 
 	public String getBgColour() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_bgColour).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_bgColour);
 	}
 	
 	public void setBgColour(String colour) {
@@ -67,7 +67,7 @@ public class LineDrawingRegion extends RegionImpl {
 	}
 
 	public double getOrientation() {
-		return ((DoubleValue)getAttributes().get(DefaultXmlNames.ATTR_orientation).getValue()).val;
+		return getAttributes().getDouble(DefaultXmlNames.ATTR_orientation);
 	}
 
 	public void setOrientation(double orientation) {
@@ -79,7 +79,7 @@ public class LineDrawingRegion extends RegionImpl {
 	}
 
 	public boolean hasEmbeddedText() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_embText).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_embText);
 	}
 
 	public void setEmbeddedText(boolean hasText) {
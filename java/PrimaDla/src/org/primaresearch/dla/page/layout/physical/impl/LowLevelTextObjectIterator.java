@@ -58,6 +58,20 @@ public class LowLevelTextObjectIterator implements ContentIterator {
 		parent = (LowLevelTextContainer)parentIterator.next();
 	}
 
+	/**
+	 * Constructor with given iterator for the parent objects
+	 * @param contentType Low level text object type (text line, word, or glyph)
+	 * @param layer Layer restriction (for information only, the filtering is done by the parent iterator)
+	 * @param parentIterator Iterator returning the containers of the requested text objects
+	 *                       (text regions for text lines, text lines for words, words for glyphs)
+	 */
+	LowLevelTextObjectIterator(LowLevelTextType contentType, Layer layer, ContentIterator parentIterator) {
+		this.contentType = contentType;
+		this.layer = layer;
+		this.parentIterator = parentIterator;
+		parent = (LowLevelTextContainer)parentIterator.next();
+	}
+
 	@Override
 	public boolean hasNext() {
 		while (parent != null) {
@@ -15,17 +15,29 @@
  */
 package org.primaresearch.dla.page.layout.physical.impl;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.logical.Group;
+import org.primaresearch.dla.page.layout.logical.GroupMember;
 import org.primaresearch.dla.page.layout.logical.Layer;
+import org.primaresearch.dla.page.layout.logical.RegionRef;
 import org.primaresearch.dla.page.layout.physical.ContentIterator;
 import org.primaresearch.dla.page.layout.physical.ContentObject;
 import org.primaresearch.dla.page.layout.physical.Region;
 import org.primaresearch.dla.page.layout.physical.RegionContainer;
 import org.primaresearch.dla.page.layout.physical.shared.ContentType;
 import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.ident.Id;
 
 /**
- * Page content object iterator implementation for regions (zones/blocks).
+ * Page content object iterator implementation for regions (zones/blocks).<br>
+ * <br>
+ * Regions are returned in depth-first order (each region followed by its nested regions).
+ * The iterator walks the region tree once, keeping only the path to the current region.
+ * The region references of the layer (if any) are collected when the iterator is created.
  * 
  * @author Christian Clausner
  *
@@ -35,8 +47,19 @@ public class RegionIterator implements ContentIterator {
 	protected RegionType contentType;
 	protected PageLayout pageLayout;
 	protected Layer layer;
-	protected int index = 0;
-	protected NestedRegionIterator currentNestedRegionIterator = null;
+
+	/** IDs of all regions referenced by the layer (<code>null</code> if no layer) */
+	private Set<Id> layerRegions;
+	/** Index after the last top-level region to include */
+	private int endIndex;
+
+	//Path to the current region (level 0 is the page layout)
+	private RegionContainer[] containers = new RegionContainer[8];
+	private int[] indexes = new int[8];
+	private int level = 0;
+
+	/** Next region (found by hasNext) */
+	private Region nextRegion = null;
 	
 	/**
 	 * Constructor
@@ -44,114 +67,102 @@ public class RegionIterator implements ContentIterator {
 	 * @param layer Restrict the iterator to this layer (use <code>null</code> for no restriction)
 	 */
 	public RegionIterator(PageLayout pageLayout, RegionType contentType, Layer layer) {
+		this(pageLayout, contentType, layer, getRegionIds(layer), 0, pageLayout.getRegionCount());
+	}
+
+	/**
+	 * Constructor for a range of top-level regions (including their nested regions)
+	 * @param layerRegions IDs of the regions of the layer (see {@link #getRegionIds(Layer)})
+	 * @param startIndex Index of the first top-level region
+	 * @param endIndex Index after the last top-level region
+	 */
+	RegionIterator(PageLayout pageLayout, RegionType contentType, Layer layer, Set<Id> layerRegions, int startIndex, int endIndex) {
 		this.contentType = contentType;
 		this.pageLayout = pageLayout;
 		this.layer = layer;
+		this.layerRegions = layerRegions;
+		this.endIndex = endIndex;
+		indexes[0] = startIndex;
+	}
+
+	/**
+	 * Collects the IDs of all regions that are referenced by the given layer (including sub-groups)
+	 * @return ID set or <code>null</code> if the layer is <code>null</code>
+	 */
+	static Set<Id> getRegionIds(Layer layer) {
+		if (layer == null)
+			return null;
+		Set<Id> ids = new HashSet<Id>();
+		collectRegionIds(layer, ids);
+		return ids;
 	}
 
+	private static void collectRegionIds(Group group, Set<Id> ids) {
+		for (int i=0; i<group.getSize(); i++) {
+			GroupMember member = group.getMember(i);
+			if (member instanceof RegionRef)
+				ids.add(((RegionRef)member).getRegionId());
+			else if (member instanceof Group)
+				collectRegionIds((Group)member, ids);
+		}
+	}
 	
 	@Override
 	public boolean hasNext() {
-		if (contentType == null && layer == null) { //No specific region type or layer
-			if (currentNestedRegionIterator == null)
-				return index < pageLayout.getRegionCount();
-			else
-				return currentNestedRegionIterator.hasNext() || index < pageLayout.getRegionCount()-1;
-		}
-		//Filter by region type and/or layer 
-		else { 
-			boolean ok;
-			int startIndex = index;
-			
-			//Check current nested iterator first
-			if (currentNestedRegionIterator != null) {
-				if (currentNestedRegionIterator.hasNext())
-					return true;
-				else
-					startIndex++;
-			}
-			
-			//Go through all remaining regions
-			for (int i=startIndex; i<pageLayout.getRegionCount(); i++) {
-				//Check region
-				Region reg = pageLayout.getRegion(i);
-				ok = true;
-				if (contentType != null)
-					ok = reg.getType().equals(contentType);
-				if (ok && layer != null)
-					ok = layer.containsRegionRef(reg.getId());
-				if (ok)
-					return ok;
-				
-				//Check nested regions
-				NestedRegionIterator it = new NestedRegionIterator((RegionContainer)reg, pageLayout, contentType, layer);
-				if (it.hasNext())
-					return true;
-			}
-		}
-		return false;
+		if (nextRegion == null)
+			nextRegion = findNext();
+		return nextRegion != null;
 	}
 
 	@Override
 	public ContentObject next() {
 		if (!hasNext())
 			return null;
-		
-		//Check current nested region iterator
-		if (currentNestedRegionIterator != null) {
-			//Is there a next nested region?
-			if (currentNestedRegionIterator.hasNext())
-				return currentNestedRegionIterator.next();
-			else { //No next nested region
-				//Proceed to next parent
-				index++;
-				currentNestedRegionIterator = null;
+		Region ret = nextRegion;
+		nextRegion = null;
+		return ret;
+	}
+
+	/**
+	 * Continues the depth-first traversal up to the next region that matches the filter
+	 * @return Region or <code>null</code> if there are no more regions
+	 */
+	private Region findNext() {
+		while (level >= 0) {
+			Region region = null;
+			if (level == 0) {
+				if (indexes[0] < endIndex && indexes[0] < pageLayout.getRegionCount())
+					region = pageLayout.getRegion(indexes[0]);
 			}
-		}
-		
-		Region ret = null;
-		if (contentType == null && layer == null) { //No specific region type or layer
-			ret = pageLayout.getRegion(index);
-			currentNestedRegionIterator = new NestedRegionIterator((RegionContainer)ret, pageLayout, contentType, layer);
-		}
-		//Filter by region type and/or layer 
-		else {
-			boolean ok;
-			
-			//Go through all remaining regions
-			for (int i=index; i<pageLayout.getRegionCount(); i++) {
-				//Current nested iterator cannot have a result here (otherwise it would have been found at the start of this method).
-				
-				//Check region (not nested)
-				Region reg = pageLayout.getRegion(i);
-				ok = true;
-				if (contentType != null)
-					ok = reg.getType().equals(contentType);
-				if (ok && layer != null)
-					ok = layer.containsRegionRef(reg.getId());
-				if (ok) {
-					ret = reg;
-					if (((RegionContainer)reg).getRegionCount() == 0) //No child regions
-						index = i+1;
-					else {
-						index = i;
-						currentNestedRegionIterator = new NestedRegionIterator((RegionContainer)reg, pageLayout, contentType, layer);
-					}
-					break;
-				}
-				
-				//Check nested regions
-				NestedRegionIterator it = new NestedRegionIterator((RegionContainer)reg, pageLayout, contentType, layer);
-				if (it.hasNext()) {
-					ret = (Region)it.next();
-					currentNestedRegionIterator = it;
-					index = i;
-					break;
-				}
+			else if (indexes[level] < containers[level].getRegionCount())
+				region = containers[level].getRegion(indexes[level]);
+
+			if (region == null) { //No more regions on this level
+				containers[level] = null;
+				level--;
+				continue;
 			}
-			
+			indexes[level]++;
+
+			//Nested regions are visited next
+			if (region instanceof RegionContainer && ((RegionContainer)region).getRegionCount() > 0)
+				push((RegionContainer)region);
+
+			if ((contentType == null || contentType.equals(region.getType()))
+					&& (layerRegions == null || layerRegions.contains(region.getId())))
+				return region;
 		}
-		return ret;
+		return null;
+	}
+
+	private void push(RegionContainer container) {
+		level++;
+		if (level == containers.length) {
+			containers = Arrays.copyOf(containers, level * 2);
+			indexes = Arrays.copyOf(indexes, level * 2);
+		}
+		containers[level] = container;
+		indexes[level] = 0;
 	}
 
 	@Override
@@ -159,132 +170,8 @@ public class RegionIterator implements ContentIterator {
 		return contentType;
 	}
 
-
 	@Override
 	public Layer getLayer() {
 		return layer;
 	}
-	
-	
-	/**
-	 * Iterates over all nested regions of a parent region
-	 * 
-	 * @author Christian Clausner
-	 *
-	 */
-	private static class NestedRegionIterator extends RegionIterator {
-
-		private RegionContainer parent;
-		
-		public NestedRegionIterator(RegionContainer parent, PageLayout pageLayout,
-				RegionType contentType, Layer layer) {
-			super(pageLayout, contentType, layer);
-			this.parent = parent;
-		}
-		
-		@Override
-		public boolean hasNext() {
-			if (contentType == null && layer == null) { //No specific region type or layer
-				if (currentNestedRegionIterator == null)
-					return index < parent.getRegionCount();
-				else
-					return currentNestedRegionIterator.hasNext() || index < parent.getRegionCount()-1;
-			}
-			//Filter by region type and/or layer 
-			else { 
-				boolean ok;
-				int startIndex = index;
-				
-				//Check current nested iterator first
-				if (currentNestedRegionIterator != null) {
-					if (currentNestedRegionIterator.hasNext())
-						return true;
-					else
-						startIndex++;
-				}
-				
-				//Go through all remaining regions
-				for (int i=startIndex; i<parent.getRegionCount(); i++) {
-					//Check region
-					Region reg = parent.getRegion(i);
-					ok = true;
-					if (contentType != null)
-						ok = reg.getType().equals(contentType);
-					if (ok && layer != null)
-						ok = layer.containsRegionRef(reg.getId());
-					if (ok)
-						return ok;
-					
-					//Check nested regions
-					NestedRegionIterator it = new NestedRegionIterator((RegionContainer)reg, pageLayout, contentType, layer);
-					if (it.hasNext())
-						return true;
-				}
-			}
-			return false;
-		}
-
-		@Override
-		public ContentObject next() {
-			if (!hasNext())
-				return null;
-			
-			//Check current nested region iterator
-			if (currentNestedRegionIterator != null) {
-				//Is there a next nested region?
-				if (currentNestedRegionIterator.hasNext())
-					return currentNestedRegionIterator.next();
-				else { //No next nested region
-					//Proceed to next parent
-					index++;
-					currentNestedRegionIterator = null;
-				}
-			}
-			
-			Region ret = null;
-			if (contentType == null && layer == null) { //No specific region type or layer
-				ret = parent.getRegion(index);
-				currentNestedRegionIterator = new NestedRegionIterator((RegionContainer)ret, pageLayout, contentType, layer);
-			}
-			//Filter by region type and/or layer 
-			else {
-				boolean ok;
-				
-				//Go through all remaining regions
-				for (int i=index; i<parent.getRegionCount(); i++) {
-					//Current nested iterator cannot have a result here (otherwise it would have been found at the start of this method).
-					
-					//Check region (not nested)
-					Region reg = parent.getRegion(i);
-					ok = true;
-					if (contentType != null)
-						ok = reg.getType().equals(contentType);
-					if (ok && layer != null)
-						ok = layer.containsRegionRef(reg.getId());
-					if (ok) {
-						ret = reg;
-						if (((RegionContainer)reg).getRegionCount() == 0) //No child regions
-							index = i+1;
-						else {
-							index = i;
-							currentNestedRegionIterator = new NestedRegionIterator((RegionContainer)reg, pageLayout, contentType, layer);
-						}
-						break;
-					}
-					
-					//Check nested regions
-					NestedRegionIterator it = new NestedRegionIterator((RegionContainer)reg, pageLayout, contentType, layer);
-					if (it.hasNext()) {
-						ret = (Region)it.next();
-						currentNestedRegionIterator = it;
-						index = i;
-						break;
-					}
-				}
-				
-			}
-			return ret;
-		}
-	}
-
 }
@@ -42,7 +42,7 @@ public class SeparatorRegion extends RegionImpl {
 	}
 
 	public String getColour() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_colour).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_colour);
 	}
 
 	public void setColour(String colour) {
@@ -54,7 +54,7 @@ public class SeparatorRegion extends RegionImpl {
 	}
 
 	public double getOrientation() {
-		return ((DoubleValue)getAttributes().get(DefaultXmlNames.ATTR_orientation).getValue()).val;
+		return getAttributes().getDouble(DefaultXmlNames.ATTR_orientation);
 	}
 
 	public void setOrientation(double orientation) {
@@ -46,7 +46,7 @@ public class TableRegion extends RegionImpl {
 	}
 
 	public String getBgColour() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_bgColour).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_bgColour);
 	}
 
 	public void setBgColour(String colour) {
@@ -58,7 +58,7 @@ public class TableRegion extends RegionImpl {
 	}
 
 	public String getLineColour() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_lineColour).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_lineColour);
 	}
 
 	public void setLineColour(String colour) {
@@ -70,7 +70,7 @@ public class TableRegion extends RegionImpl {
 	}
 
 	public double getOrientation() {
-		return ((DoubleValue)getAttributes().get(DefaultXmlNames.ATTR_orientation).getValue()).val;
+		return getAttributes().getDouble(DefaultXmlNames.ATTR_orientation);
 	}
 
 	public void setOrientation(double orientation) {
@@ -82,7 +82,7 @@ public class TableRegion extends RegionImpl {
 	}
 
 	public boolean hasEmbeddedText() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_embText).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_embText);
 	}
 	
 	public void setEmbeddedText(boolean hasText) {
@@ -94,7 +94,7 @@ public class TableRegion extends RegionImpl {
 	}
 
 	public boolean hasLineSeparators() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_lineSeparators).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_lineSeparators);
 	}
 	
 	public void setLineSeparators(boolean hasLineSeparators) {
@@ -106,7 +106,7 @@ public class TableRegion extends RegionImpl {
 	}
 
 	public int getNumberOfRows() {
-		return ((IntegerValue)getAttributes().get(DefaultXmlNames.ATTR_rows).getValue()).val;
+		return getAttributes().getInteger(DefaultXmlNames.ATTR_rows);
 	}
 
 	public void setNumberOfRows(int rows) {
@@ -118,7 +118,7 @@ public class TableRegion extends RegionImpl {
 	}
 
 	public int getNumberOfColumns() {
-		return ((IntegerValue)getAttributes().get(DefaultXmlNames.ATTR_columns).getValue()).val;
+		return getAttributes().getInteger(DefaultXmlNames.ATTR_columns);
 	}
 
 	public void setNumberOfColumns(int cols) {
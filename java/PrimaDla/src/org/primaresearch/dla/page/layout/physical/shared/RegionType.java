@@ -80,7 +80,7 @@ public class RegionType extends ContentType {
 	 * @param name Type name (e.g. 'MapRegion')
 	 * @return The region type object
 	 */
-	public static RegionType getGenericType(String name) {
+	public static synchronized RegionType getGenericType(String name) {
 		if (genericTypes.containsKey(name))
 			return genericTypes.get(name);
 		RegionType newType = new RegionType(name);
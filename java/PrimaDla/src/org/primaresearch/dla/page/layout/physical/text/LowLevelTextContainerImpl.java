@@ -46,20 +46,20 @@ public class LowLevelTextContainerImpl {
 		return textObjects.getAt(index);
 	}
 
-	public void addTextObject(LowLevelTextObject textObj) {
-		textObjects.put(textObj.getId(), textObj);
+	public LowLevelTextObject addTextObject(LowLevelTextObject textObj) {
+		return textObjects.put(textObj.getId(), textObj);
 	}
 
 	public LowLevelTextObject getTextObject(Id id) {
 		return textObjects.get(id);
 	}
 
-	public void removeTextObject(int index) throws IndexOutOfBoundsException {
-		textObjects.removeAt(index);
+	public LowLevelTextObject removeTextObject(int index) throws IndexOutOfBoundsException {
+		return textObjects.removeAt(index);
 	}
 
-	public void removeTextObject(Id id) {
-		textObjects.remove(id);
+	public LowLevelTextObject removeTextObject(Id id) {
+		return textObjects.remove(id);
 	}
 	
 	public List<LowLevelTextObject> getTextObjectsSorted(boolean sortByX) {
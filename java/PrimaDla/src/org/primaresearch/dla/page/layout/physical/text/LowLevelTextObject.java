@@ -85,6 +85,7 @@ abstract public class LowLevelTextObject implements TextObject, ContentObject {
 	@Override
 	public void setCoords(Polygon coords) {
 		this.coords = coords;
+		contentChanged();
 	}
 
 	@Override
@@ -99,13 +100,31 @@ abstract public class LowLevelTextObject implements TextObject, ContentObject {
 	
 	@Override
 	public void setId(String id) throws InvalidIdException {
+		Id oldId = this.id;
 		this.id = idRegister.registerId(id, this.id);
+		idChanged(oldId);
 	}
 	
 	@Override
 	public void setId(Id id) throws InvalidIdException {
+		Id oldId = this.id;
 		idRegister.registerId(id, this.id);
 		this.id = id;
+		idChanged(oldId);
+	}
+	
+	/**
+	 * Called when the outline of this object has changed (e.g. to invalidate indexes of the page layout).
+	 */
+	protected void contentChanged() {
+	}
+
+	/**
+	 * Called when the ID of this object has changed (e.g. to update the ID index of the page layout).
+	 * @param oldId Previous ID
+	 */
+	protected void idChanged(Id oldId) {
+		contentChanged();
 	}
 
 	@Override
@@ -266,9 +285,7 @@ abstract public class LowLevelTextObject implements TextObject, ContentObject {
 	
 	@Override
 	public Boolean isBold() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_bold) == null || getAttributes().get(DefaultXmlNames.ATTR_bold).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_bold).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_bold);
 	}
 	
 	@Override
@@ -282,9 +299,7 @@ abstract public class LowLevelTextObject implements TextObject, ContentObject {
 
 	@Override
 	public Boolean isItalic() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_italic) == null || getAttributes().get(DefaultXmlNames.ATTR_italic).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_italic).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_italic);
 	}
 	
 	@Override
@@ -298,9 +313,7 @@ abstract public class LowLevelTextObject implements TextObject, ContentObject {
 
 	@Override
 	public Boolean isUnderlined() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_underlined) == null || getAttributes().get(DefaultXmlNames.ATTR_underlined).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_underlined).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_underlined);
 	}
 	
 	@Override
@@ -314,9 +327,7 @@ abstract public class LowLevelTextObject implements TextObject, ContentObject {
 	
 	@Override
 	public String getUnderlineStyle() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_underlineStyle) == null || getAttributes().get(DefaultXmlNames.ATTR_underlineStyle).getValue() == null)
-			return null;
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_underlineStyle).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_underlineStyle);
 	}
 	
 	@Override
@@ -330,9 +341,7 @@ abstract public class LowLevelTextObject implements TextObject, ContentObject {
 
 	@Override
 	public Boolean isSubscript() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_subscript) == null || getAttributes().get(DefaultXmlNames.ATTR_subscript).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_subscript).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_subscript);
 	}
 	
 	@Override
@@ -346,9 +355,7 @@ abstract public class LowLevelTextObject implements TextObject, ContentObject {
 
 	@Override
 	public Boolean isSuperscript() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_superscript) == null || getAttributes().get(DefaultXmlNames.ATTR_superscript).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_superscript).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_superscript);
 	}
 	
 	@Override
@@ -362,9 +369,7 @@ abstract public class LowLevelTextObject implements TextObject, ContentObject {
 
 	@Override
 	public Boolean isStrikethrough() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_strikethrough) == null || getAttributes().get(DefaultXmlNames.ATTR_strikethrough).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_strikethrough).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_strikethrough);
 	}
 	
 	@Override
@@ -378,9 +383,7 @@ abstract public class LowLevelTextObject implements TextObject, ContentObject {
 
 	@Override
 	public Boolean isSmallCaps() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_smallCaps) == null || getAttributes().get(DefaultXmlNames.ATTR_smallCaps).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_smallCaps).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_smallCaps);
 	}
 	
 	@Override
@@ -394,9 +397,7 @@ abstract public class LowLevelTextObject implements TextObject, ContentObject {
 
 	@Override
 	public Boolean isLetterSpaced() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_letterSpaced) == null || getAttributes().get(DefaultXmlNames.ATTR_letterSpaced).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_letterSpaced).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_letterSpaced);
 	}
 	
 	@Override
@@ -83,7 +83,7 @@ public abstract class GraphemeElementImpl implements GraphemeElement {
 	
 	@Override
 	public String getCharacterType() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_charType).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_charType);
 	}
 
 	@Override
@@ -97,7 +97,7 @@ public abstract class GraphemeElementImpl implements GraphemeElement {
 
 	@Override
 	public int getSortIndex() {
-		return ((IntegerValue)getAttributes().get(DefaultXmlNames.ATTR_index).getValue()).val;
+		return getAttributes().getInteger(DefaultXmlNames.ATTR_index);
 	}
 
 	@Override
@@ -93,9 +93,21 @@ public class Glyph extends LowLevelTextObject {
 		return LowLevelTextType.Glyph;
 	}
 
+	@Override
+	protected void contentChanged() {
+		if (contentFactory != null)
+			contentFactory.contentChanged();
+	}
+
+	@Override
+	protected void idChanged(Id oldId) {
+		if (contentFactory != null)
+			contentFactory.idChanged(this, oldId);
+	}
+
 	/*@Override
 	public Boolean isBold() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_bold).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_bold);
 	}
 	
 	@Override
@@ -109,7 +121,7 @@ public class Glyph extends LowLevelTextObject {
 
 	@Override
 	public Boolean isItalic() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_italic).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_italic);
 	}
 	
 	@Override
@@ -123,7 +135,7 @@ public class Glyph extends LowLevelTextObject {
 
 	@Override
 	public Boolean isUnderlined() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_underlined).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_underlined);
 	}
 	
 	@Override
@@ -137,7 +149,7 @@ public class Glyph extends LowLevelTextObject {
 	
 	@Override
 	public String getUnderlineStyle() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_underlineStyle).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_underlineStyle);
 	}
 	
 	@Override
@@ -151,7 +163,7 @@ public class Glyph extends LowLevelTextObject {
 
 	@Override
 	public Boolean isSubscript() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_subscript).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_subscript);
 	}
 	
 	@Override
@@ -165,7 +177,7 @@ public class Glyph extends LowLevelTextObject {
 
 	@Override
 	public Boolean isSuperscript() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_superscript).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_superscript);
 	}
 	
 	@Override
@@ -179,7 +191,7 @@ public class Glyph extends LowLevelTextObject {
 
 	@Override
 	public Boolean isStrikethrough() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_strikethrough).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_strikethrough);
 	}
 	
 	@Override
@@ -193,7 +205,7 @@ public class Glyph extends LowLevelTextObject {
 
 	@Override
 	public Boolean isSmallCaps() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_smallCaps).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_smallCaps);
 	}
 	
 	@Override
@@ -218,9 +218,9 @@ public class TextContentVariants implements TextContent {
 
 		@Override
 		public Double getConfidence() {
-			if (getAttributes().get(DefaultXmlNames.ATTR_conf).getValue() == null)
+			if (getAttributes().peek(DefaultXmlNames.ATTR_conf).getValue() == null)
 				return null;
-			return ((DoubleValue)getAttributes().get(DefaultXmlNames.ATTR_conf).getValue()).val;
+			return getAttributes().getDouble(DefaultXmlNames.ATTR_conf);
 		}
 
 		@Override
@@ -234,9 +234,9 @@ public class TextContentVariants implements TextContent {
 
 		@Override
 		public String getComments() {
-			if (getAttributes().get(DefaultXmlNames.ATTR_comments).getValue() == null)
+			if (getAttributes().peek(DefaultXmlNames.ATTR_comments).getValue() == null)
 				return null;
-			return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_comments).getValue()).val;
+			return getAttributes().getString(DefaultXmlNames.ATTR_comments);
 		}
 
 		@Override
@@ -250,9 +250,7 @@ public class TextContentVariants implements TextContent {
 
 		@Override
 		public String getDataType() {
-			if (getAttributes().get(DefaultXmlNames.ATTR_dataType) == null || getAttributes().get(DefaultXmlNames.ATTR_dataType).getValue() == null)
-				return null;
-			return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_dataType).getValue()).val;
+			return getAttributes().getString(DefaultXmlNames.ATTR_dataType);
 		}
 
 		@Override
@@ -266,9 +264,9 @@ public class TextContentVariants implements TextContent {
 
 		@Override
 		public String getDataTypeDetails() {
-			if (getAttributes().get(DefaultXmlNames.ATTR_dataTypeDetails).getValue() == null)
+			if (getAttributes().peek(DefaultXmlNames.ATTR_dataTypeDetails).getValue() == null)
 				return null;
-			return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_dataTypeDetails).getValue()).val;
+			return getAttributes().getString(DefaultXmlNames.ATTR_dataTypeDetails);
 		}
 
 		@Override
@@ -282,9 +280,7 @@ public class TextContentVariants implements TextContent {
 		
 		/*@Override
 		public String getMergeWithNextRule() {
-			if (getAttributes().get(DefaultXmlNames.ATTR_mergeWithNextRule) == null || getAttributes().get(DefaultXmlNames.ATTR_mergeWithNextRule).getValue() == null)
-				return null;
-			return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_mergeWithNextRule).getValue()).val;
+			return getAttributes().getString(DefaultXmlNames.ATTR_mergeWithNextRule);
 		}
 
 		@Override
@@ -298,9 +294,9 @@ public class TextContentVariants implements TextContent {
 
 		@Override
 		public String getMergeWithNextRuleData() {
-			if (getAttributes().get(DefaultXmlNames.ATTR_mergeWithNextRuleData).getValue() == null)
+			if (getAttributes().peek(DefaultXmlNames.ATTR_mergeWithNextRuleData).getValue() == null)
 				return null;
-			return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_mergeWithNextRuleData).getValue()).val;
+			return getAttributes().getString(DefaultXmlNames.ATTR_mergeWithNextRuleData);
 		}
 
 		@Override
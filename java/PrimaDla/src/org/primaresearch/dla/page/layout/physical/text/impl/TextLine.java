@@ -96,7 +96,12 @@ public class TextLine extends LowLevelTextObject
 
 	@Override
 	public void addTextObject(LowLevelTextObject textObj) {
-		words.addTextObject(textObj);
+		LowLevelTextObject replaced = words.addTextObject(textObj);
+		if (contentFactory != null) {
+			if (replaced != null && replaced != textObj)
+				contentFactory.objectRemoved(replaced, this);
+			contentFactory.objectAdded(textObj, this);
+		}
 	}
 
 	@Override
@@ -104,6 +109,18 @@ public class TextLine extends LowLevelTextObject
 		return LowLevelTextType.TextLine;
 	}
 
+	@Override
+	protected void contentChanged() {
+		if (contentFactory != null)
+			contentFactory.contentChanged();
+	}
+
+	@Override
+	protected void idChanged(Id oldId) {
+		if (contentFactory != null)
+			contentFactory.idChanged(this, oldId);
+	}
+
 	@Override
 	public LowLevelTextObject getTextObject(Id id) {
 		return words.getTextObject(id);
@@ -111,12 +128,16 @@ public class TextLine extends LowLevelTextObject
 
 	@Override
 	public void removeTextObject(int index) throws IndexOutOfBoundsException {
-		words.removeTextObject(index);
+		LowLevelTextObject removed = words.removeTextObject(index);
+		if (contentFactory != null)
+			contentFactory.objectRemoved(removed, this);
 	}
 
 	@Override
 	public void removeTextObject(Id id) {
-		words.removeTextObject(id);
+		LowLevelTextObject removed = words.removeTextObject(id);
+		if (removed != null && contentFactory != null)
+			contentFactory.objectRemoved(removed, this);
 	}
 
 	@Override
@@ -140,7 +161,7 @@ public class TextLine extends LowLevelTextObject
 
 	/*@Override
 	public Boolean isBold() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_bold).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_bold);
 	}
 	
 	@Override
@@ -154,7 +175,7 @@ public class TextLine extends LowLevelTextObject
 
 	@Override
 	public Boolean isItalic() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_italic).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_italic);
 	}
 	
 	@Override
@@ -168,7 +189,7 @@ public class TextLine extends LowLevelTextObject
 
 	@Override
 	public Boolean isUnderlined() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_underlined).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_underlined);
 	}
 	
 	@Override
@@ -182,7 +203,7 @@ public class TextLine extends LowLevelTextObject
 	
 	@Override
 	public String getUnderlineStyle() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_underlineStyle).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_underlineStyle);
 	}
 	
 	@Override
@@ -196,7 +217,7 @@ public class TextLine extends LowLevelTextObject
 
 	@Override
 	public Boolean isSubscript() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_subscript).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_subscript);
 	}
 	
 	@Override
@@ -210,7 +231,7 @@ public class TextLine extends LowLevelTextObject
 
 	@Override
 	public Boolean isSuperscript() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_superscript).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_superscript);
 	}
 	
 	@Override
@@ -224,7 +245,7 @@ public class TextLine extends LowLevelTextObject
 
 	@Override
 	public Boolean isStrikethrough() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_strikethrough).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_strikethrough);
 	}
 	
 	@Override
@@ -238,7 +259,7 @@ public class TextLine extends LowLevelTextObject
 
 	@Override
 	public Boolean isSmallCaps() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_smallCaps).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_smallCaps);
 	}
 	
 	@Override
@@ -252,7 +273,7 @@ public class TextLine extends LowLevelTextObject
 
 	@Override
 	public Boolean isLetterSpaced() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_letterSpaced).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_letterSpaced);
 	}
 	
 	@Override
@@ -265,7 +286,7 @@ public class TextLine extends LowLevelTextObject
 	}*/
 	
 	public String getPrimaryLanguage() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_primaryLanguage).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_primaryLanguage);
 	}
 
 	public void setPrimaryLanguage(String lang) {
@@ -135,7 +135,12 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 
 	@Override
 	public void addTextObject(LowLevelTextObject textObj) {
-		textLines.addTextObject(textObj);
+		LowLevelTextObject replaced = textLines.addTextObject(textObj);
+		if (contentFactory != null) {
+			if (replaced != null && replaced != textObj)
+				contentFactory.objectRemoved(replaced, this);
+			contentFactory.objectAdded(textObj, this);
+		}
 	}
 	
 	@Override
@@ -145,12 +150,16 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 
 	@Override
 	public void removeTextObject(int index) throws IndexOutOfBoundsException {
-		textLines.removeTextObject(index);
+		LowLevelTextObject removed = textLines.removeTextObject(index);
+		if (contentFactory != null)
+			contentFactory.objectRemoved(removed, this);
 	}
 
 	@Override
 	public void removeTextObject(Id id) {
-		textLines.removeTextObject(id);
+		LowLevelTextObject removed = textLines.removeTextObject(id);
+		if (removed != null && contentFactory != null)
+			contentFactory.objectRemoved(removed, this);
 	}
 
 	@Override
@@ -185,9 +194,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public String getTextColour() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_textColour) == null || getAttributes().get(DefaultXmlNames.ATTR_textColour).getValue() == null)
-			return null;
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_textColour).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_textColour);
 	}
 
 	public void setTextColour(String colour) {
@@ -199,9 +206,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public String getBgColour() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_bgColour) == null || getAttributes().get(DefaultXmlNames.ATTR_bgColour).getValue() == null)
-			return null;
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_bgColour).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_bgColour);
 	}
 
 	public void setBgColour(String colour) {
@@ -213,9 +218,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public Boolean isReverseVideo() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_reverseVideo) == null || getAttributes().get(DefaultXmlNames.ATTR_reverseVideo).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_reverseVideo).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_reverseVideo);
 	}
 	
 	public void setReverseVideo(boolean reverseVideo) {
@@ -227,9 +230,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public Double getFontSize() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_fontSize) == null || getAttributes().get(DefaultXmlNames.ATTR_fontSize).getValue() == null)
-			return null;
-		return ((DoubleValue)getAttributes().get(DefaultXmlNames.ATTR_fontSize).getValue()).val;
+		return getAttributes().getDouble(DefaultXmlNames.ATTR_fontSize);
 	}
 
 	public void setFontSize(double fontSize) {
@@ -241,9 +242,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public Integer getLeading() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_leading) == null || getAttributes().get(DefaultXmlNames.ATTR_leading).getValue() == null)
-			return null;
-		return ((IntegerValue)getAttributes().get(DefaultXmlNames.ATTR_leading).getValue()).val;
+		return getAttributes().getInteger(DefaultXmlNames.ATTR_leading);
 	}
 
 	public void setLeading(int leading) {
@@ -255,9 +254,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public Integer getKerning() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_kerning) == null || getAttributes().get(DefaultXmlNames.ATTR_kerning).getValue() == null)
-			return null;
-		return ((IntegerValue)getAttributes().get(DefaultXmlNames.ATTR_kerning).getValue()).val;
+		return getAttributes().getInteger(DefaultXmlNames.ATTR_kerning);
 	}
 
 	public void setKerning(int kerning) {
@@ -269,9 +266,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public String getReadingDirection() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_readingDirection) == null || getAttributes().get(DefaultXmlNames.ATTR_readingDirection).getValue() == null)
-			return null;
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_readingDirection).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_readingDirection);
 	}
 
 	public void setReadingDirection(String direction) {
@@ -283,9 +278,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 
 	public Double getReadingOrientation() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_readingOrientation) == null || getAttributes().get(DefaultXmlNames.ATTR_readingOrientation).getValue() == null)
-			return null;
-		return ((DoubleValue)getAttributes().get(DefaultXmlNames.ATTR_readingOrientation).getValue()).val;
+		return getAttributes().getDouble(DefaultXmlNames.ATTR_readingOrientation);
 	}
 	
 	public void setReadingOrientation(double orientation) {
@@ -297,9 +290,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public Boolean isIndented() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_indented) == null || getAttributes().get(DefaultXmlNames.ATTR_indented).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_indented).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_indented);
 	}
 	
 	public void setIndented(boolean indented) {
@@ -311,7 +302,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public String getPrimaryLanguage() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_primaryLanguage).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_primaryLanguage);
 	}
 
 	public void setPrimaryLanguage(String lang) {
@@ -323,7 +314,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public String getSecondaryLanguage() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_secondaryLanguage).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_secondaryLanguage);
 	}
 
 	public void setSecondaryLanguage(String lang) {
@@ -335,7 +326,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public String getPrimaryScript() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_primaryScript).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_primaryScript);
 	}
 
 	public void setPrimarySkript(String skript) {
@@ -347,7 +338,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	}
 	
 	public String getSecondaryScript() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_secondaryScript).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_secondaryScript);
 	}
 
 	public void setSecondaryScript(String skript) {
@@ -375,9 +366,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 
 	@Override
 	public Boolean isBold() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_bold) == null || getAttributes().get(DefaultXmlNames.ATTR_bold).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_bold).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_bold);
 	}
 	
 	@Override
@@ -391,9 +380,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 
 	@Override
 	public Boolean isItalic() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_italic) == null || getAttributes().get(DefaultXmlNames.ATTR_italic).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_italic).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_italic);
 	}
 	
 	@Override
@@ -407,9 +394,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 
 	@Override
 	public Boolean isUnderlined() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_underlined) == null || getAttributes().get(DefaultXmlNames.ATTR_underlined).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_underlined).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_underlined);
 	}
 	
 	@Override
@@ -423,9 +408,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 	
 	@Override
 	public String getUnderlineStyle() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_underlineStyle) == null || getAttributes().get(DefaultXmlNames.ATTR_underlineStyle).getValue() == null)
-			return null;
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_underlineStyle).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_underlineStyle);
 	}
 	
 	@Override
@@ -439,9 +422,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 
 	@Override
 	public Boolean isSubscript() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_subscript) == null || getAttributes().get(DefaultXmlNames.ATTR_subscript).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_subscript).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_subscript);
 	}
 	
 	@Override
@@ -455,9 +436,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 
 	@Override
 	public Boolean isSuperscript() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_superscript) == null || getAttributes().get(DefaultXmlNames.ATTR_superscript).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_superscript).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_superscript);
 	}
 	
 	@Override
@@ -471,9 +450,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 
 	@Override
 	public Boolean isStrikethrough() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_strikethrough) == null || getAttributes().get(DefaultXmlNames.ATTR_strikethrough).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_strikethrough).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_strikethrough);
 	}
 	
 	@Override
@@ -487,9 +464,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 
 	@Override
 	public Boolean isSmallCaps() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_smallCaps) == null || getAttributes().get(DefaultXmlNames.ATTR_smallCaps).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_smallCaps).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_smallCaps);
 	}
 	
 	@Override
@@ -503,9 +478,7 @@ public class TextRegion extends RegionImpl implements TextObject, LowLevelTextCo
 
 	@Override
 	public Boolean isLetterSpaced() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_letterSpaced) == null || getAttributes().get(DefaultXmlNames.ATTR_letterSpaced).getValue() == null)
-			return null;
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_letterSpaced).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_letterSpaced);
 	}
 	
 	@Override
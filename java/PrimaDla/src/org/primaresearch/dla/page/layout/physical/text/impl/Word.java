@@ -92,7 +92,12 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 
 	@Override
 	public void addTextObject(LowLevelTextObject textObj) {
-		glyphs.addTextObject(textObj);
+		LowLevelTextObject replaced = glyphs.addTextObject(textObj);
+		if (contentFactory != null) {
+			if (replaced != null && replaced != textObj)
+				contentFactory.objectRemoved(replaced, this);
+			contentFactory.objectAdded(textObj, this);
+		}
 	}
 
 	@Override
@@ -100,6 +105,18 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 		return LowLevelTextType.Word;
 	}
 
+	@Override
+	protected void contentChanged() {
+		if (contentFactory != null)
+			contentFactory.contentChanged();
+	}
+
+	@Override
+	protected void idChanged(Id oldId) {
+		if (contentFactory != null)
+			contentFactory.idChanged(this, oldId);
+	}
+
 	@Override
 	public LowLevelTextObject getTextObject(Id id) {
 		return glyphs.getTextObject(id);
@@ -107,12 +124,16 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 
 	@Override
 	public void removeTextObject(int index) throws IndexOutOfBoundsException {
-		glyphs.removeTextObject(index);
+		LowLevelTextObject removed = glyphs.removeTextObject(index);
+		if (contentFactory != null)
+			contentFactory.objectRemoved(removed, this);
 	}
 
 	@Override
 	public void removeTextObject(Id id) {
-		glyphs.removeTextObject(id);
+		LowLevelTextObject removed = glyphs.removeTextObject(id);
+		if (removed != null && contentFactory != null)
+			contentFactory.objectRemoved(removed, this);
 	}
 
 	@Override
@@ -122,7 +143,7 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 
 	/*@Override
 	public Boolean isBold() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_bold).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_bold);
 	}
 	
 	@Override
@@ -136,7 +157,7 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 
 	@Override
 	public Boolean isItalic() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_italic).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_italic);
 	}
 	
 	@Override
@@ -150,7 +171,7 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 
 	@Override
 	public Boolean isUnderlined() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_underlined).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_underlined);
 	}
 	
 	@Override
@@ -164,7 +185,7 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 	
 	@Override
 	public String getUnderlineStyle() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_underlineStyle).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_underlineStyle);
 	}
 	
 	@Override
@@ -178,7 +199,7 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 
 	@Override
 	public Boolean isSubscript() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_subscript).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_subscript);
 	}
 	
 	@Override
@@ -192,7 +213,7 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 
 	@Override
 	public Boolean isSuperscript() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_superscript).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_superscript);
 	}
 	
 	@Override
@@ -206,7 +227,7 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 
 	@Override
 	public Boolean isStrikethrough() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_strikethrough).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_strikethrough);
 	}
 	
 	@Override
@@ -220,7 +241,7 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 
 	@Override
 	public Boolean isSmallCaps() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_smallCaps).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_smallCaps);
 	}
 	
 	@Override
@@ -234,7 +255,7 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 
 	@Override
 	public Boolean isLetterSpaced() {
-		return ((BooleanValue)getAttributes().get(DefaultXmlNames.ATTR_letterSpaced).getValue()).val;
+		return getAttributes().getBoolean(DefaultXmlNames.ATTR_letterSpaced);
 	}
 	
 	@Override
@@ -247,7 +268,7 @@ public class Word extends LowLevelTextObject implements LowLevelTextContainer {
 	}*/
 	
 	public String getLanguage() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_language).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_language);
 	}
 
 	public void setLanguage(String lang) {
@@ -52,17 +52,17 @@ public class MetadataItemImpl implements MetadataItem {
 
 	@Override
 	public String getType() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_type).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_type);
 	}
 
 	@Override
 	public String getName() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_name).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_name);
 	}
 
 	@Override
 	public String getValue() {
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_value).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_value);
 	}
 
 	@Override
@@ -104,9 +104,7 @@ public class MetadataItemImpl implements MetadataItem {
 
 	@Override
 	public String getDate() {
-		if (getAttributes().get(DefaultXmlNames.ATTR_date) == null || getAttributes().get(DefaultXmlNames.ATTR_date).getValue() == null)
-			return null;
-		return ((StringValue)getAttributes().get(DefaultXmlNames.ATTR_date).getValue()).val;
+		return getAttributes().getString(DefaultXmlNames.ATTR_date);
 	}
 
 	@Override
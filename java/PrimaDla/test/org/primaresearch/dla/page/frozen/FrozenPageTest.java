@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.frozen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.physical.impl.TableRegion;
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
+import org.primaresearch.maths.geometry.Polygon;
+
+public class FrozenPageTest {
+
+	private static Polygon createRect(int left, int top, int right, int bottom) {
+		Polygon polygon = new Polygon();
+		polygon.addPoint(left, top);
+		polygon.addPoint(right, top);
+		polygon.addPoint(right, bottom);
+		polygon.addPoint(left, bottom);
+		return polygon;
+	}
+
+	private static Page createPage() throws Exception {
+		Page page = new Page();
+		page.setGtsId("pc1");
+		page.setImageFilename("img.tif");
+		PageLayout layout = page.getLayout();
+		layout.setSize(1000, 1000);
+
+		TextRegion region = (TextRegion)layout.createRegion(RegionType.TextRegion, "r1");
+		region.setCoords(createRect(10, 10, 500, 200));
+		region.setText("Region");
+		region.setTextType("heading");
+		TextLine line = region.createTextLine("l1");
+		line.setCoords(createRect(10, 10, 500, 50));
+		line.setText("Line");
+
+		TableRegion table = (TableRegion)layout.createRegion(RegionType.TableRegion, "r2");
+		table.setCoords(createRect(10, 300, 900, 900));
+		TextRegion cell = (TextRegion)layout.createRegion(RegionType.TextRegion, "cell1", table);
+		cell.setCoords(createRect(20, 310, 200, 400));
+
+		layout.createReadingOrder().getRoot().addRegionRef("r2");
+		layout.getReadingOrder().getRoot().addRegionRef("r1");
+		return page;
+	}
+
+	@Test
+	public void testSnapshot() throws Exception {
+		Page page = createPage();
+		FrozenPage frozen = page.freeze();
+
+		assertEquals("pc1", frozen.getGtsId());
+		assertEquals("img.tif", frozen.getImageFilename());
+		assertEquals(1000, frozen.getWidth());
+		assertEquals(2, frozen.getRegionCount());
+
+		FrozenContentObject region = frozen.getObject("r1");
+		assertSame(region, frozen.getRegion(0));
+		assertEquals(RegionType.TextRegion, region.getType());
+		assertEquals("Region", region.getText());
+		assertEquals("heading", region.getAttribute("type"));
+		assertEquals(500, region.getBoundingBox().right);
+		region.getBoundingBox().right = 0;
+		assertEquals(500, region.getBoundingBox().right);
+		assertNull(region.getParent());
+
+		FrozenContentObject line = frozen.getObject("l1");
+		assertEquals(LowLevelTextType.TextLine, line.getType());
+		assertEquals("Line", line.getText());
+		assertSame(region, line.getParent());
+		assertSame(line, region.getChild(0));
+
+		FrozenContentObject cell = frozen.getObject("cell1");
+		assertSame(frozen.getObject("r2"), cell.getParent());
+
+		List<String> readingOrder = new ArrayList<String>();
+		readingOrder.add("r2");
+		readingOrder.add("r1");
+		assertEquals(readingOrder, frozen.getReadingOrder());
+
+		//Hit test returns the smallest region
+		assertSame(cell, frozen.getRegionAt(50, 350));
+		assertSame(frozen.getObject("r2"), frozen.getRegionAt(600, 600));
+		assertNull(frozen.getRegionAt(950, 100));
+	}
+
+	@Test
+	public void testIndependentOfSource() throws Exception {
+		Page page = createPage();
+		FrozenPage frozen = page.freeze();
+
+		TextRegion region = (TextRegion)page.getLayout().getRegion("r1");
+		region.setText("Changed");
+		region.getCoords().setPoint(0, 0, 0);
+		page.getLayout().removeRegion(1);
+
+		assertEquals("Region", frozen.getObject("r1").getText());
+		assertEquals(10, frozen.getObject("r1").getCoords().getX(0));
+		assertEquals(2, frozen.getRegionCount());
+	}
+
+	@Test
+	public void testImmutable() throws Exception {
+		FrozenPage frozen = createPage().freeze();
+		FrozenContentObject region = frozen.getRegion(0);
+		try {
+			frozen.getRegions().remove(0);
+			fail("Exception expected");
+		} catch (UnsupportedOperationException exc) {
+		}
+		try {
+			region.getChildren().clear();
+			fail("Exception expected");
+		} catch (UnsupportedOperationException exc) {
+		}
+		try {
+			region.getAttributes().put("type", "paragraph");
+			fail("Exception expected");
+		} catch (UnsupportedOperationException exc) {
+		}
+		try {
+			region.getCoords().addPoint(1, 1);
+			fail("Exception expected");
+		} catch (UnsupportedOperationException exc) {
+		}
+		try {
+			frozen.getReadingOrder().add("r3");
+			fail("Exception expected");
+		} catch (UnsupportedOperationException exc) {
+		}
+		assertTrue(region.getCoords().isReadOnly());
+		assertFalse(region.getCoords().isThreadSafe());
+	}
+}
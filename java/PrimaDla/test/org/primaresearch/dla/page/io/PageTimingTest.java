@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.xml.PageXmlInputOutput;
+import org.primaresearch.dla.page.io.xml.XmlPageReader;
+import org.primaresearch.dla.page.layout.converter.ConverterHub;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
+import org.primaresearch.io.timing.PhaseHistogram;
+import org.primaresearch.io.timing.PhaseTiming;
+import org.primaresearch.io.xml.XmlFormatVersion;
+import org.primaresearch.maths.geometry.Polygon;
+
+public class PageTimingTest {
+
+	@After
+	public void tearDown() {
+		PhaseTiming.setListener(null);
+	}
+	
+	private static Page createPage() {
+		Page page = new Page();
+		page.getLayout().setSize(1000, 2000);
+		TextRegion region = (TextRegion)page.getLayout().createRegion(RegionType.TextRegion);
+		region.setCoords(box());
+		for (int i=0; i<3; i++) {
+			TextLine line = region.createTextLine();
+			line.setCoords(box());
+			line.createWord().setCoords(box());
+		}
+		page.getLayout().createRegion(RegionType.ImageRegion).setCoords(box());
+		return page;
+	}
+	
+	private static Polygon box() {
+		Polygon coords = new Polygon();
+		coords.addPoint(10, 10);
+		coords.addPoint(100, 10);
+		coords.addPoint(100, 100);
+		coords.addPoint(10, 100);
+		return coords;
+	}
+	
+	@Test
+	public void testCountContentObjects() {
+		assertEquals(0L, PageTiming.countContentObjects(null));
+		assertEquals(8L, PageTiming.countContentObjects(createPage()));
+	}
+
+	@Test
+	public void testPhases() throws Exception {
+		PhaseHistogram histogram = new PhaseHistogram();
+		PhaseTiming.setListener(histogram);
+		
+		File file = File.createTempFile("timing", ".xml");
+		file.deleteOnExit();
+		
+		//Write
+		assertTrue(PageXmlInputOutput.getWriterForLastestXmlFormat().write(createPage(), new FileTarget(file)));
+		assertEquals(1L, histogram.getCount(PhaseTiming.SERIALIZATION));
+		assertEquals(file.length(), histogram.getTotalBytes(PhaseTiming.SERIALIZATION));
+		assertEquals(8L, histogram.getTotalObjects(PhaseTiming.SERIALIZATION));
+		
+		//Read
+		XmlPageReader reader = PageXmlInputOutput.getReader();
+		Page page = reader.read(new FileInput(file));
+		assertNotNull(page);
+		assertEquals(1L, histogram.getCount(PhaseTiming.SCHEMA_VERSION_DETECTION));
+		assertEquals(1L, histogram.getCount(PhaseTiming.PARSING));
+		assertEquals(file.length(), histogram.getTotalBytes(PhaseTiming.PARSING));
+		assertTrue(histogram.getTotalObjects(PhaseTiming.PARSING) >= 8L); //XML elements
+		assertEquals(1L, histogram.getCount(PhaseTiming.MODEL_BUILDING));
+		assertEquals(8L, histogram.getTotalObjects(PhaseTiming.MODEL_BUILDING));
+		assertTrue(histogram.getTotalTime(PhaseTiming.MODEL_BUILDING) <= histogram.getTotalTime(PhaseTiming.PARSING));
+		
+		//Convert
+		ConverterHub.convert(page, PageXmlInputOutput.getInstance().getFormatModel(new XmlFormatVersion("2013-07-15")));
+		assertEquals(1L, histogram.getCount(PhaseTiming.CONVERSION));
+		
+		//Older writer (document building, validation and serialisation)
+		assertTrue(PageXmlInputOutput.getWriter(new XmlFormatVersion("2013-07-15")).write(page, new FileTarget(file)));
+		assertEquals(1L, histogram.getCount(PhaseTiming.DOCUMENT_BUILDING));
+		assertEquals(2L, histogram.getCount(PhaseTiming.SERIALIZATION));
+		
+		//Disabled
+		PhaseTiming.setListener(null);
+		reader.read(new FileInput(file));
+		assertEquals(1L, histogram.getCount(PhaseTiming.PARSING));
+	}
+}
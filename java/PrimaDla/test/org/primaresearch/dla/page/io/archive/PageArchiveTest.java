@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.archive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.InputSource;
+import org.primaresearch.dla.page.io.binary.BinaryPageWriter;
+import org.primaresearch.dla.page.io.xml.PageXmlInputOutput;
+import org.primaresearch.dla.page.io.xml.XmlPageReader;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.maths.geometry.Polygon;
+
+public class PageArchiveTest {
+
+	private File archiveFile;
+
+	@Before
+	public void setUp() throws Exception {
+		archiveFile = File.createTempFile("pages", ".pgar");
+		archiveFile.deleteOnExit();
+		archiveFile.delete();
+	}
+
+	private static Page createPage(String imageFilename, String regionId) {
+		Page page = new Page();
+		page.setImageFilename(imageFilename);
+		page.getLayout().setSize(1000, 2000);
+		Region region = page.getLayout().createRegion(RegionType.TextRegion, regionId);
+		Polygon coords = new Polygon();
+		coords.addPoint(10, 10);
+		coords.addPoint(100, 10);
+		coords.addPoint(100, 100);
+		region.setCoords(coords);
+		return page;
+	}
+
+	@Test
+	public void testWriteAndRead() throws Exception {
+		PageArchiveWriter writer = new PageArchiveWriter(archiveFile);
+		assertTrue(writer.addPage("p1", createPage("img1.tif", "r1"), PageXmlInputOutput.getWriterForLastestXmlFormat()));
+		assertTrue(writer.addPage("p2", createPage("img2.tif", "r2"), new BinaryPageWriter()));
+		assertEquals(2, writer.getSize());
+		writer.close();
+
+		PageArchive archive = new PageArchive(archiveFile);
+		try {
+			assertEquals(2, archive.getSize());
+			assertEquals("p1", archive.getPageIds().get(0));
+			assertEquals("p2", archive.getEntryForImage("img2.tif").getPageId());
+			assertNull(archive.getEntry("p3"));
+
+			Page page = archive.readPage("p1");
+			assertNotNull(page);
+			assertEquals("img1.tif", page.getImageFilename());
+			assertNotNull(page.getLayout().getRegion("r1"));
+
+			page = archive.readPage("p2");
+			assertNotNull(page);
+			assertNotNull(page.getLayout().getRegion("r2"));
+
+			//Input source with standard reader
+			XmlPageReader reader = PageXmlInputOutput.getReader();
+			page = reader.read(archive.getInput("p1"));
+			assertNotNull(page);
+			assertEquals(1000, page.getLayout().getWidth());
+		} finally {
+			archive.close();
+		}
+	}
+
+	@Test
+	public void testAppend() throws Exception {
+		PageArchiveWriter writer = new PageArchiveWriter(archiveFile);
+		writer.addPage("p1", createPage("img1.tif", "r1"), PageXmlInputOutput.getWriterForLastestXmlFormat());
+		writer.close();
+
+		PageArchive archive = new PageArchive(archiveFile);
+		PageArchiveEntry first = archive.getEntry("p1");
+		archive.close();
+
+		writer = new PageArchiveWriter(archiveFile);
+		assertEquals(1, writer.getSize());
+		writer.addPage("p2", createPage("img2.tif", "r2"), PageXmlInputOutput.getWriterForLastestXmlFormat());
+		writer.close();
+
+		archive = new PageArchive(archiveFile);
+		try {
+			List<InputSource> sources = archive.getPageSources();
+			assertEquals(2, sources.size());
+			//Existing document not moved
+			PageArchiveEntry entry = ((ArchiveInput)sources.get(0)).getEntry();
+			assertEquals(first.getOffset(), entry.getOffset());
+			assertEquals(first.getLength(), entry.getLength());
+			assertNotNull(archive.readPage("p1"));
+			assertNotNull(archive.readPage("p2"));
+		} finally {
+			archive.close();
+		}
+	}
+
+	@Test
+	public void testInterruptedAppend() throws Exception {
+		PageArchiveWriter writer = new PageArchiveWriter(archiveFile);
+		writer.addPage("p1", createPage("img1.tif", "r1"), PageXmlInputOutput.getWriterForLastestXmlFormat());
+		writer.close();
+		long length = archiveFile.length();
+
+		//Simulate a document that has been appended without writing the new index
+		RandomAccessFile file = new RandomAccessFile(archiveFile, "rw");
+		file.seek(length);
+		file.write("<?xml version=\"1.0\"?><PcGts>".getBytes("UTF-8"));
+		file.close();
+
+		PageArchive archive = new PageArchive(archiveFile);
+		try {
+			assertEquals(1, archive.getSize());
+			assertNotNull(archive.readPage("p1"));
+		} finally {
+			archive.close();
+		}
+
+		//Append again
+		writer = new PageArchiveWriter(archiveFile);
+		assertEquals(1, writer.getSize());
+		writer.addPage("p2", createPage("img2.tif", "r2"), new BinaryPageWriter());
+		writer.close();
+		assertTrue(archiveFile.length() > length);
+
+		archive = new PageArchive(archiveFile);
+		try {
+			assertEquals(2, archive.getSize());
+			assertNotNull(archive.readPage("p1"));
+			assertNotNull(archive.readPage("p2"));
+		} finally {
+			archive.close();
+		}
+	}
+
+	@Test
+	public void testReplace() throws Exception {
+		PageArchiveWriter writer = new PageArchiveWriter(archiveFile);
+		writer.addPage("p1", createPage("img1.tif", "r1"), PageXmlInputOutput.getWriterForLastestXmlFormat());
+		writer.addPage("p1", createPage("img1b.tif", "r1"), PageXmlInputOutput.getWriterForLastestXmlFormat());
+		writer.close();
+
+		PageArchive archive = new PageArchive(archiveFile);
+		try {
+			assertEquals(1, archive.getSize());
+			assertEquals("img1b.tif", archive.readPage("p1").getImageFilename());
+		} finally {
+			archive.close();
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.FileInput;
+import org.primaresearch.dla.page.io.FileTarget;
+import org.primaresearch.dla.page.io.xml.PageXmlInputOutput;
+import org.primaresearch.dla.page.io.xml.StreamTarget;
+import org.primaresearch.dla.page.io.xml.XmlPageWriter;
+import org.primaresearch.io.xml.XmlFormatVersion;
+
+public class BinaryPageCodecTest {
+
+	private static final String NS = "http://schema.primaresearch.org/PAGE/gts/pagecontent/2019-07-15";
+
+	private Page page;
+
+	@Before
+	public void setUp() throws Exception {
+		File pageFile = File.createTempFile("binaryCodec", ".xml");
+		pageFile.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(pageFile), "UTF-8");
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+				+ "<PcGts xmlns=\""+NS+"\" pcGtsId=\"pc1\">"
+				+ "<Metadata externalRef=\"ext1\"><Creator>c</Creator><Created>2019-07-15T10:00:00</Created><LastChange>2019-07-16T10:00:00</LastChange>"
+				+ "<UserDefined><UserAttribute name=\"a1\" description=\"d\" type=\"xsd:integer\" value=\"5\"/></UserDefined>"
+				+ "<MetadataItem type=\"processingStep\" name=\"n\" value=\"v\"><Labels externalModel=\"m\" prefix=\"p\"><Label value=\"l1\" type=\"t\"/></Labels></MetadataItem>"
+				+ "</Metadata>"
+				+ "<Page imageFilename=\"img.tif\" imageWidth=\"1000\" imageHeight=\"2000\" type=\"front-cover\">"
+				+ "<AlternativeImage filename=\"bin.png\" comments=\"binarised\" conf=\"0.5\"/>"
+				+ "<Border><Coords points=\"0,0 1000,0 1000,2000 0,2000\"/></Border>"
+				+ "<ReadingOrder conf=\"0.8\"><OrderedGroup id=\"g0\" caption=\"root\"><RegionRefIndexed index=\"0\" regionRef=\"r1\"/>"
+				+ "<UnorderedGroupIndexed id=\"g1\" index=\"1\"><RegionRef regionRef=\"r2\"/></UnorderedGroupIndexed></OrderedGroup></ReadingOrder>"
+				+ "<Layers><Layer id=\"lay1\" zIndex=\"1\"><RegionRef regionRef=\"r1\"/></Layer></Layers>"
+				+ "<Relations><Relation id=\"rel1\" type=\"link\" custom=\"cu\" comments=\"co\"><SourceRegionRef regionRef=\"r1\"/><TargetRegionRef regionRef=\"r2\"/></Relation></Relations>"
+				+ "<UserDefined><UserAttribute name=\"pu\" type=\"xsd:float\" value=\"1.5\"/></UserDefined>"
+				+ "<TextRegion id=\"r1\" orientation=\"1.5\">"
+				+ "<Coords points=\"10,10 500,10 500,200 10,200\" conf=\"0.9\"/>"
+				+ "<Labels><Label value=\"rl\"/></Labels>"
+				+ "<TextRegion id=\"r1n\" type=\"heading\"><Coords points=\"20,20 100,20 100,40\"/></TextRegion>"
+				+ "<TextLine id=\"l1\"><Coords points=\"10,10 500,10 500,50 10,50\"/><Baseline points=\"10,45 500,45\"/>"
+				+ "<Word id=\"w1\"><Coords points=\"10,10 100,10 100,50 10,50\"/>"
+				+ "<Glyph id=\"gl1\"><Coords points=\"10,10 20,10 20,50 10,50\"/>"
+				+ "<Graphemes><Grapheme id=\"gr1\" index=\"0\"><TextEquiv><Unicode>a</Unicode></TextEquiv><Coords points=\"10,10 15,10 15,50\"/></Grapheme>"
+				+ "<GraphemeGroup id=\"gg1\" index=\"1\"><Grapheme id=\"gr2\" index=\"0\"><TextEquiv><Unicode>b</Unicode></TextEquiv><Coords points=\"15,10 20,10 20,50\"/></Grapheme></GraphemeGroup></Graphemes>"
+				+ "<TextEquiv index=\"1\" conf=\"0.6\"><PlainText>ab</PlainText><Unicode>ab</Unicode></TextEquiv><TextEquiv index=\"2\"><Unicode>a&#x0301;</Unicode></TextEquiv></Glyph>"
+				+ "<TextEquiv><Unicode>Word</Unicode></TextEquiv></Word>"
+				+ "<TextEquiv><Unicode>Line text äöü</Unicode></TextEquiv><TextStyle fontSize=\"10\"/></TextLine>"
+				+ "<TextEquiv><Unicode>Region</Unicode></TextEquiv></TextRegion>"
+				+ "<ImageRegion id=\"r2\" colourDepth=\"colour\"><Coords points=\"600,10 900,10 900,300 600,300\"/></ImageRegion>"
+				+ "<TextRegion id=\"cell1\"><Coords points=\"10,300 250,300 250,450\"/><Roles><TableCellRole rowIndex=\"0\" columnIndex=\"0\" header=\"true\"/></Roles></TextRegion>"
+				+ "</Page></PcGts>");
+		writer.close();
+
+		page = PageXmlInputOutput.readPage(pageFile.getAbsolutePath());
+		assertNotNull(page);
+	}
+
+	private static String toXml(Page page) throws Exception {
+		XmlPageWriter writer = PageXmlInputOutput.getWriter((XmlFormatVersion)page.getFormatVersion());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertTrue(writer.write(page, new StreamTarget(out)));
+		return new String(out.toByteArray(), "UTF-8");
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		byte[] data = new BinaryPageWriter().encode(page);
+		Page copy = new BinaryPageReader().decode(data, BinaryPageFormat.SECTION_ALL);
+
+		assertEquals(page.getFormatVersion().toString(), copy.getFormatVersion().toString());
+		assertEquals(toXml(page), toXml(copy));
+	}
+
+	@Test
+	public void testFile() throws Exception {
+		File file = File.createTempFile("binaryCodec", ".bin");
+		file.deleteOnExit();
+		assertTrue(new BinaryPageWriter().write(page, new FileTarget(file)));
+
+		BinaryPageReader reader = new BinaryPageReader();
+		Page copy = reader.read(new FileInput(file));
+		assertNotNull(copy);
+		assertEquals(toXml(page), toXml(copy));
+	}
+
+	@Test
+	public void testSections() throws Exception {
+		byte[] data = new BinaryPageWriter().encode(page);
+		Page copy = new BinaryPageReader().decode(data, BinaryPageFormat.SECTION_PAGE);
+
+		assertEquals("img.tif", copy.getImageFilename());
+		assertEquals(1000, copy.getLayout().getWidth());
+		assertNotNull(copy.getLayout().getBorder());
+		assertEquals(0, copy.getLayout().getRegionCount());
+		assertNull(copy.getLayout().getReadingOrder());
+		assertNull(copy.getMetaData().getCreator());
+	}
+
+	@Test
+	public void testInvalidData() throws Exception {
+		File file = File.createTempFile("binaryCodec", ".bin");
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		writer.write("<PcGts/>");
+		writer.close();
+
+		BinaryPageReader reader = new BinaryPageReader();
+		assertNull(reader.read(new FileInput(file)));
+		assertTrue(reader.getErrors().hasErrors());
+
+		//Warnings are kept separately
+		assertNotSame(reader.getErrors(), reader.getWarnings());
+		assertFalse(reader.getWarnings().hasErrors());
+		assertFalse(reader.getWarnings().hasWarnings());
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.mask;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
+import org.primaresearch.maths.geometry.Polygon;
+
+public class LabelMaskExporterTest {
+
+	private static final int W = 200;
+	private static final int H = 100;
+
+	private static Polygon createRect(int left, int top, int right, int bottom) {
+		Polygon polygon = new Polygon();
+		polygon.addPoint(left, top);
+		polygon.addPoint(right, top);
+		polygon.addPoint(right, bottom);
+		polygon.addPoint(left, bottom);
+		return polygon;
+	}
+
+	/**
+	 * Page with a text region (with text line), an image region overlapping the text region
+	 * and a table region with a nested text region
+	 */
+	private static Page createPage() {
+		Page page = new Page();
+		PageLayout layout = page.getLayout();
+		layout.setSize(W, H);
+
+		TextRegion text = (TextRegion)layout.createRegion(RegionType.TextRegion, "r1");
+		text.setCoords(createRect(0, 0, 100, 50));
+		TextLine line = text.createTextLine("l1");
+		line.setCoords(createRect(10, 10, 90, 20));
+
+		Region image = layout.createRegion(RegionType.ImageRegion, "r2");
+		image.setCoords(createRect(50, 0, 150, 50));
+
+		Region table = layout.createRegion(RegionType.TableRegion, "r3");
+		table.setCoords(createRect(0, 60, 200, 100));
+		Region cell = layout.createRegion(RegionType.TextRegion, "cell1", table);
+		cell.setCoords(createRect(10, 70, 30, 90));
+
+		layout.createReadingOrder().getRoot().addRegionRef("r2");
+		layout.getReadingOrder().getRoot().addRegionRef("r1");
+		return page;
+	}
+
+	private static LabelMaskExporter createExporter() {
+		LabelMaskExporter exporter = new LabelMaskExporter();
+		exporter.setLabel(RegionType.TextRegion, 1);
+		exporter.setLabel(RegionType.ImageRegion, 2);
+		exporter.setLabel(RegionType.TableRegion, 3);
+		return exporter;
+	}
+
+	private static int get(byte[] mask, int x, int y) {
+		return mask[y * W + x];
+	}
+
+	@Test
+	public void testRender() {
+		PageLayout layout = createPage().getLayout();
+		LabelMaskExporter exporter = createExporter();
+		exporter.setBackgroundLabel(9);
+		byte[] mask = exporter.render(layout);
+		assertEquals(W * H, mask.length);
+
+		assertEquals(1, get(mask, 20, 20));
+		assertEquals(2, get(mask, 70, 20)); //Image region over text region (layout order)
+		assertEquals(2, get(mask, 120, 20));
+		assertEquals(9, get(mask, 170, 20));
+		assertEquals(9, get(mask, 20, 55));
+		assertEquals(3, get(mask, 100, 80));
+		assertEquals(1, get(mask, 20, 80)); //Nested region over table
+
+		//Text lines
+		exporter.setLabel(LowLevelTextType.TextLine, 4);
+		mask = exporter.render(layout);
+		assertEquals(4, get(mask, 20, 15));
+		assertEquals(2, get(mask, 70, 15));
+		
+		//Unlabelled types are not drawn
+		exporter.removeLabel(RegionType.ImageRegion);
+		mask = exporter.render(layout);
+		assertEquals(4, get(mask, 70, 15));
+		assertEquals(9, get(mask, 120, 20));
+	}
+
+	@Test
+	public void testZOrder() {
+		PageLayout layout = createPage().getLayout();
+		LabelMaskExporter exporter = createExporter();
+
+		//Text region is after the image region in the reading order
+		exporter.setZOrder(LabelMaskExporter.Z_ORDER_READING_ORDER);
+		byte[] mask = exporter.render(layout);
+		assertEquals(1, get(mask, 70, 20));
+		assertEquals(1, get(mask, 20, 80)); //Table not in reading order, nested region still over table
+
+		//Same size -> layout order
+		exporter.setZOrder(LabelMaskExporter.Z_ORDER_SIZE);
+		mask = exporter.render(layout);
+		assertEquals(2, get(mask, 70, 20));
+		assertEquals(1, get(mask, 20, 80));
+	}
+
+	@Test
+	public void testTilesAndParallel() {
+		Page page = createPage();
+		final LabelMaskExporter exporter = createExporter();
+		exporter.setLabel(LowLevelTextType.TextLine, 4);
+		final byte[] full = exporter.render(page.getLayout());
+
+		//Tiles
+		final int[] pixels = new int[1];
+		exporter.renderTiles(page.getLayout(), 64, 48, new LabelMaskExporter.TileListener() {
+			@Override
+			public void tileRendered(int left, int top, int width, int height, byte[] mask) {
+				for (int y=0; y<height; y++)
+					for (int x=0; x<width; x++)
+						assertEquals(full[(top + y) * W + left + x], mask[y * width + x]);
+				pixels[0] += width * height;
+			}
+		});
+		assertEquals(W * H, pixels[0]);
+		
+		//Part of the page into int buffer
+		int[] part = new int[50 * 30];
+		exporter.render(page.getLayout(), part, 60, 10, 50, 30);
+		for (int y=0; y<30; y++)
+			for (int x=0; x<50; x++)
+				assertEquals(full[(10 + y) * W + 60 + x], part[y * 50 + x]);
+
+		//Image
+		BufferedImage image = exporter.renderImage(page.getLayout());
+		assertEquals(W, image.getWidth());
+		assertEquals(4, image.getRaster().getSample(20, 15, 0));
+
+		//Multiple pages
+		List<Page> pages = new ArrayList<Page>();
+		for (int i=0; i<8; i++)
+			pages.add(i % 2 == 0 ? page : createPage());
+		List<byte[]> masks = exporter.render(pages);
+		assertEquals(8, masks.size());
+		for (byte[] mask : masks)
+			assertArrayEquals(full, mask);
+	}
+}
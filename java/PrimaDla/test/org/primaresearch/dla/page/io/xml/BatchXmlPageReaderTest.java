@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.FileInput;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.maths.geometry.Polygon;
+
+public class BatchXmlPageReaderTest {
+
+	private File folder;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() throws Exception {
+		folder = File.createTempFile("batch", "");
+		folder.delete();
+		folder.mkdir();
+
+		//Pages with 1 to 6 regions
+		for (int i=1; i<=6; i++) {
+			Page page = new Page();
+			page.getLayout().setSize(1000, 1000);
+			for (int r=0; r<i; r++) {
+				Polygon coords = new Polygon();
+				coords.addPoint(10, r*100);
+				coords.addPoint(500, r*100);
+				coords.addPoint(500, r*100+50);
+				page.getLayout().createRegion(RegionType.TextRegion).setCoords(coords);
+			}
+			assertTrue(PageXmlInputOutput.writePage(page, new File(folder, "page"+i+".xml").getPath()));
+		}
+		//Broken file
+		FileWriter writer = new FileWriter(new File(folder, "page7.xml"));
+		writer.write("<PcGts");
+		writer.close();
+		//Other file
+		writer = new FileWriter(new File(folder, "readme.txt"));
+		writer.write("test");
+		writer.close();
+
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdown();
+		for (File file : folder.listFiles())
+			file.delete();
+		folder.delete();
+	}
+
+	@Test
+	public void testReadFolder() throws Exception {
+		BatchXmlPageReader reader = new BatchXmlPageReader(PageXmlInputOutput.getConcurrentReader(), executor);
+		reader.setMaxInFlight(2);
+
+		List<BatchXmlPageReader.Item> items = reader.read(folder, "*.xml").collect(Collectors.toList());
+		assertEquals(7, items.size());
+		for (int i=0; i<6; i++) {
+			BatchXmlPageReader.Item item = items.get(i);
+			assertEquals(i, item.getIndex());
+			assertFalse(item.hasErrors());
+			assertEquals(i+1, item.getPage().getLayout().getRegionCount());
+		}
+		//Broken file
+		assertNull(items.get(6).getPage());
+		assertTrue(items.get(6).hasErrors());
+	}
+
+	@Test
+	public void testReadUnordered() throws Exception {
+		BatchXmlPageReader reader = new BatchXmlPageReader(PageXmlInputOutput.getConcurrentReader(), executor);
+		reader.setOrdered(false);
+
+		final List<Integer> indices = new ArrayList<Integer>();
+		reader.read(BatchXmlPageReader.listFiles(folder, "page[1-6].xml"), new BatchXmlPageReader.Listener() {
+			@Override
+			public void pageRead(BatchXmlPageReader.Item item) {
+				assertNotNull(item.getPage());
+				indices.add(item.getIndex());
+			}
+		});
+		Collections.sort(indices);
+		assertEquals(6, indices.size());
+		for (int i=0; i<6; i++)
+			assertEquals(Integer.valueOf(i), indices.get(i));
+	}
+
+	@Test
+	public void testReadMets() throws Exception {
+		File mets = new File(folder, "mets.xml");
+		FileWriter writer = new FileWriter(mets);
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<mets:mets xmlns:mets=\"http://www.loc.gov/METS/\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">\n"
+				+ "<mets:fileSec>\n"
+				+ "<mets:fileGrp USE=\"IMAGE\"><mets:file ID=\"img1\" MIMETYPE=\"image/tiff\"><mets:FLocat LOCTYPE=\"URL\" xlink:href=\"page1.tif\"/></mets:file></mets:fileGrp>\n"
+				+ "<mets:fileGrp USE=\"PAGE\">\n"
+				+ "<mets:file ID=\"p1\" MIMETYPE=\"application/vnd.prima.page+xml\"><mets:FLocat LOCTYPE=\"URL\" xlink:href=\"page1.xml\"/></mets:file>\n"
+				+ "<mets:file ID=\"p3\" MIMETYPE=\"application/vnd.prima.page+xml\"><mets:FLocat LOCTYPE=\"URL\" xlink:href=\"" + new File(folder, "page3.xml").toURI() + "\"/></mets:file>\n"
+				+ "</mets:fileGrp>\n"
+				+ "<mets:fileGrp USE=\"ALTO\"><mets:file ID=\"a1\" MIMETYPE=\"text/xml\"><mets:FLocat LOCTYPE=\"URL\" xlink:href=\"page1.alto.xml\"/></mets:file></mets:fileGrp>\n"
+				+ "</mets:fileSec>\n"
+				+ "</mets:mets>");
+		writer.close();
+
+		BatchXmlPageReader reader = new BatchXmlPageReader(PageXmlInputOutput.getConcurrentReader(), executor);
+		List<BatchXmlPageReader.Item> items = reader.readMets(new FileInput(mets)).collect(Collectors.toList());
+		assertEquals(2, items.size());
+		assertEquals(1, items.get(0).getPage().getLayout().getRegionCount());
+		assertEquals(3, items.get(1).getPage().getLayout().getRegionCount());
+
+		//Other file groups
+		items = reader.readMets(new FileInput(mets), new String[] { "ALTO" }).collect(Collectors.toList());
+		assertEquals(1, items.size());
+		assertTrue(items.get(0).getSource() instanceof FileInput);
+		assertEquals("page1.alto.xml", ((FileInput)items.get(0).getSource()).getFile().getName());
+		MetsMultiPageReader metsReader = new MetsMultiPageReader();
+		metsReader.setFileGroups((String[])null);
+		assertEquals(3, metsReader.readPageSources(new FileInput(mets)).size());
+	}
+}
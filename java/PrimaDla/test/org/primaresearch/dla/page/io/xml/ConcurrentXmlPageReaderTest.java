@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.FileInput;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
+import org.primaresearch.maths.geometry.Polygon;
+
+public class ConcurrentXmlPageReaderTest {
+
+	private File pageFile;
+
+	@Before
+	public void setUp() throws Exception {
+		Page page = new Page();
+		page.getLayout().setSize(1000, 2000);
+		for (int i=0; i<20; i++) {
+			TextRegion region = (TextRegion)page.getLayout().createRegion(RegionType.TextRegion);
+			region.setCoords(createRect(10, i*100, 900, 90));
+			TextLine line = region.createTextLine();
+			line.setCoords(createRect(10, i*100, 900, 40));
+			line.setText("Line "+i);
+		}
+		pageFile = File.createTempFile("concurrent", ".xml");
+		pageFile.deleteOnExit();
+		assertTrue(PageXmlInputOutput.writePage(page, pageFile.getPath()));
+	}
+
+	private static Polygon createRect(int x, int y, int w, int h) {
+		Polygon polygon = new Polygon();
+		polygon.addPoint(x, y);
+		polygon.addPoint(x+w, y);
+		polygon.addPoint(x+w, y+h);
+		polygon.addPoint(x, y+h);
+		return polygon;
+	}
+
+	@Test
+	public void testRead() throws Exception {
+		final ConcurrentXmlPageReader reader = PageXmlInputOutput.getConcurrentReader();
+		assertNotNull(reader);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<ConcurrentXmlPageReader.Result>> results = new ArrayList<Future<ConcurrentXmlPageReader.Result>>();
+		for (int i=0; i<64; i++) {
+			results.add(executor.submit(new Callable<ConcurrentXmlPageReader.Result>() {
+				@Override
+				public ConcurrentXmlPageReader.Result call() throws Exception {
+					return reader.read(new FileInput(pageFile));
+				}
+			}));
+		}
+		executor.shutdown();
+
+		for (Future<ConcurrentXmlPageReader.Result> future : results) {
+			ConcurrentXmlPageReader.Result result = future.get();
+			assertFalse(result.hasErrors());
+			Page page = result.getPage();
+			assertNotNull(page);
+			assertEquals(20, page.getLayout().getRegionCount());
+			assertEquals("Line 19", ((TextRegion)page.getLayout().getRegion(19)).getTextObject(0).getText());
+		}
+	}
+
+	@Test
+	public void testReadMissingFile() throws Exception {
+		ConcurrentXmlPageReader.Result result = PageXmlInputOutput.getConcurrentReader().read(new FileInput(new File(pageFile.getPath()+".missing")));
+		assertNull(result.getPage());
+		assertTrue(result.hasErrors());
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.primaresearch.dla.page.io.FileInput;
+
+public class PageEventReaderTest {
+
+	private static final String NS = "http://schema.primaresearch.org/PAGE/gts/pagecontent/2019-07-15";
+
+	private static File createFile(String content) throws Exception {
+		File file = File.createTempFile("pageEvents", ".xml");
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		writer.write(content);
+		writer.close();
+		return file;
+	}
+
+	@Test
+	public void testEvents() throws Exception {
+		File file = createFile("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+				+ "<PcGts xmlns=\""+NS+"\" pcGtsId=\"pc1\">"
+				+ "<Metadata><Creator>c</Creator><Created>2019-07-15T10:00:00</Created><LastChange>2019-07-15T10:00:00</LastChange></Metadata>"
+				+ "<Page imageFilename=\"img.tif\" imageWidth=\"1000\" imageHeight=\"2000\">"
+				+ "<Border><Coords points=\"0,0 1000,0 1000,2000\"/></Border>"
+				+ "<ReadingOrder><OrderedGroup id=\"g0\"><RegionRefIndexed index=\"0\" regionRef=\"r1\"/>"
+				+ "<UnorderedGroupIndexed id=\"g1\" index=\"1\"><RegionRef regionRef=\"r2\"/></UnorderedGroupIndexed></OrderedGroup></ReadingOrder>"
+				+ "<TextRegion id=\"r1\" type=\"heading\"><Coords points=\"10,10 500,10 500,200 10,200\"/>"
+				+ "<TextRegion id=\"r1n\"><Coords points=\"20,20 100,20 100,40\"/></TextRegion>"
+				+ "<TextLine id=\"l1\"><Coords points=\"10,10 500,10 500,50 10,50\" conf=\"0.5\"/><Baseline points=\"10,45 500,45\"/>"
+				+ "<Word id=\"w1\"><Coords points=\"10,10 100,10 100,50 10,50\"/>"
+				+ "<Glyph id=\"g1\"><Coords points=\"10,10 20,10 20,50 10,50\"/>"
+				+ "<Graphemes><Grapheme id=\"gr1\" index=\"0\"><TextEquiv><Unicode>x</Unicode></TextEquiv><Coords points=\"10,10 15,10 15,50\"/></Grapheme></Graphemes>"
+				+ "<TextEquiv><Unicode>a</Unicode></TextEquiv></Glyph>"
+				+ "<TextEquiv><Unicode>ab</Unicode></TextEquiv></Word>"
+				+ "<TextEquiv index=\"1\" conf=\"0.9\"><PlainText>ab cd</PlainText><Unicode>ab &amp; cd</Unicode></TextEquiv><TextEquiv index=\"2\"><Unicode>ob cd</Unicode></TextEquiv>"
+				+ "</TextLine>"
+				+ "<TextEquiv><Unicode>region</Unicode></TextEquiv></TextRegion>"
+				+ "<ImageRegion id=\"r2\"><Coords points=\"600,10 900,10 900,300\"/></ImageRegion>"
+				+ "</Page></PcGts>");
+
+		PageEventReader reader = new PageEventReader();
+		assertTrue(reader.open(new FileInput(file)));
+		assertEquals("2019-07-15", reader.getFormatVersion().toString());
+
+		List<String> events = new ArrayList<String>();
+		int event;
+		while ((event = reader.next()) != PageEventReader.END) {
+			switch (event) {
+				case PageEventReader.PAGE:
+					events.add("page "+reader.getImageFilename()+" "+reader.getWidth()+" "+reader.getHeight());
+					break;
+				case PageEventReader.READING_ORDER_ENTRY:
+					events.add("ro "+reader.getId()+" "+reader.getIndex()+" "+reader.getGroupId());
+					break;
+				case PageEventReader.REGION_START:
+					events.add("region "+reader.getId()+" "+reader.getRegionType()+" "+reader.getTypeAttribute());
+					break;
+				case PageEventReader.REGION_END:
+					events.add("/region "+reader.getId());
+					break;
+				case PageEventReader.TEXT_LINE_START:
+					events.add("line "+reader.getId());
+					break;
+				case PageEventReader.TEXT_LINE_END:
+					events.add("/line "+reader.getId());
+					break;
+				case PageEventReader.WORD_START:
+					events.add("word "+reader.getId());
+					break;
+				case PageEventReader.WORD_END:
+					events.add("/word "+reader.getId());
+					break;
+				case PageEventReader.GLYPH_START:
+					events.add("glyph "+reader.getId());
+					break;
+				case PageEventReader.GLYPH_END:
+					events.add("/glyph "+reader.getId());
+					break;
+				case PageEventReader.COORDS:
+					events.add("coords "+reader.getId()+" "+reader.getPolygon().getSize()+" "+reader.getConfidence());
+					break;
+				case PageEventReader.BASELINE:
+					events.add("baseline "+reader.getId()+" "+reader.getPoints());
+					break;
+				case PageEventReader.TEXT_EQUIV:
+					events.add("text "+reader.getId()+" "+reader.getText()+" "+reader.getPlainText()+" "+reader.getIndex());
+					break;
+			}
+		}
+		assertTrue(reader.getErrors().isEmpty());
+
+		String[] expected = new String[] {
+				"page img.tif 1000 2000",
+				"ro r1 0 g0",
+				"ro r2 null g1",
+				"region r1 TextRegion heading",
+				"coords r1 4 null",
+				"region r1n TextRegion null",
+				"coords r1n 3 null",
+				"/region r1n",
+				"line l1",
+				"coords l1 4 0.5",
+				"baseline l1 10,45 500,45",
+				"word w1",
+				"coords w1 4 null",
+				"glyph g1",
+				"coords g1 4 null",
+				"text g1 a null null",
+				"/glyph g1",
+				"text w1 ab null null",
+				"/word w1",
+				"text l1 ab & cd ab cd 1",
+				"text l1 ob cd null 2",
+				"/line l1",
+				"text r1 region null null",
+				"/region r1",
+				"region r2 ImageRegion null",
+				"coords r2 3 null",
+				"/region r2"
+		};
+		assertEquals(expected.length, events.size());
+		for (int i=0; i<expected.length; i++)
+			assertEquals(expected[i], events.get(i));
+
+		//End of document
+		assertEquals(PageEventReader.END, reader.next());
+	}
+
+	@Test
+	public void testObjectType() throws Exception {
+		File file = createFile("<PcGts xmlns=\""+NS+"\"><Page imageFilename=\"i\" imageWidth=\"1\" imageHeight=\"1\">"
+				+ "<TextRegion id=\"r1\"><TextLine id=\"l1\"><TextEquiv><Unicode>t</Unicode></TextEquiv></TextLine></TextRegion></Page></PcGts>");
+		PageEventReader reader = new PageEventReader();
+		assertTrue(reader.open(new FileInput(file)));
+		int event;
+		int lineTexts = 0;
+		while ((event = reader.next()) != PageEventReader.END) {
+			if (event == PageEventReader.TEXT_EQUIV) {
+				assertEquals(PageEventReader.TEXT_LINE_START, reader.getObjectType());
+				lineTexts++;
+			}
+			else if (event == PageEventReader.REGION_END)
+				assertEquals(PageEventReader.REGION_START, reader.getObjectType());
+		}
+		assertEquals(1, lineTexts);
+	}
+
+	@Test
+	public void testNotPage() throws Exception {
+		File file = createFile("<alto xmlns=\"http://www.loc.gov/standards/alto/ns-v2#\"><Layout/></alto>");
+		PageEventReader reader = new PageEventReader();
+		assertFalse(reader.open(new FileInput(file)));
+		assertFalse(reader.getErrors().isEmpty());
+		assertEquals(PageEventReader.END, reader.next());
+		assertNull(reader.getId());
+	}
+}
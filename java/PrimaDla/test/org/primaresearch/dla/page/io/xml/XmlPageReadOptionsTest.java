@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.FileOutputStream;
+import java.io.Writer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.FileInput;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.impl.Glyph;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
+import org.primaresearch.dla.page.layout.physical.text.impl.Word;
+import org.primaresearch.ident.IdRegister.InvalidIdException;
+import org.primaresearch.ident.XmlIdRegister;
+
+public class XmlPageReadOptionsTest {
+
+	private static final String NS = "http://schema.primaresearch.org/PAGE/gts/pagecontent/2019-07-15";
+
+	private File pageFile;
+
+	@Before
+	public void setUp() throws Exception {
+		pageFile = File.createTempFile("readOptions", ".xml");
+		pageFile.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(pageFile), "UTF-8");
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+				+ "<PcGts xmlns=\""+NS+"\" pcGtsId=\"pc1\">"
+				+ "<Metadata><Creator>c</Creator><Created>2019-07-15T10:00:00</Created><LastChange>2019-07-15T10:00:00</LastChange></Metadata>"
+				+ "<Page imageFilename=\"img.tif\" imageWidth=\"1000\" imageHeight=\"1000\">"
+				+ "<AlternativeImage filename=\"bin.png\"/>"
+				+ "<UserDefined><UserAttribute name=\"pu\" type=\"xsd:string\" value=\"x\"/></UserDefined>"
+				+ "<Labels><Label value=\"pagelabel\"/></Labels>"
+				+ "<TextRegion id=\"r1\"><Coords points=\"10,10 500,10 500,200 10,200\"/>"
+				+ "<TextLine id=\"l1\"><Coords points=\"10,10 500,10 500,50 10,50\"/>"
+				+ "<Word id=\"w1\"><Coords points=\"10,10 100,10 100,50 10,50\"/>"
+				+ "<Glyph id=\"g1\"><Coords points=\"10,10 20,10 20,50 10,50\"/>"
+				+ "<Graphemes><Grapheme id=\"gr1\" index=\"0\"><TextEquiv><Unicode>a</Unicode></TextEquiv><Coords points=\"10,10 15,10 15,50\"/></Grapheme></Graphemes>"
+				+ "<TextEquiv><Unicode>a</Unicode></TextEquiv></Glyph>"
+				+ "<TextEquiv><Unicode>ab</Unicode></TextEquiv><TextEquiv><Unicode>ob</Unicode></TextEquiv></Word>"
+				+ "<TextEquiv><Unicode>ab cd</Unicode></TextEquiv><TextEquiv index=\"1\"><Unicode>ob cd</Unicode></TextEquiv>"
+				+ "<TextStyle bold=\"true\"/></TextLine>"
+				+ "<TextEquiv><Unicode>region</Unicode></TextEquiv></TextRegion>"
+				+ "</Page></PcGts>");
+		writer.close();
+	}
+
+	private Page read(XmlPageReadOptions options, boolean singlePass) throws Exception {
+		XmlPageReader reader = PageXmlInputOutput.getReader();
+		reader.setSinglePass(singlePass);
+		reader.setReadOptions(options);
+		Page page = reader.read(new FileInput(pageFile));
+		assertNotNull(page);
+		return page;
+	}
+
+	@Test
+	public void testReadAll() throws Exception {
+		XmlPageReadOptions options = new XmlPageReadOptions();
+		assertFalse(options.isFiltering());
+		Page page = read(options, false);
+
+		TextLine line = (TextLine)((TextRegion)page.getLayout().getRegion("r1")).getTextObject(0);
+		assertEquals(2, line.getTextContentVariantCount());
+		Word word = (Word)line.getTextObject(0);
+		assertEquals(2, word.getTextContentVariantCount());
+		Glyph glyph = (Glyph)word.getTextObject(0);
+		assertEquals(1, glyph.getGraphemes().size());
+		assertEquals(1, page.getAlternativeImages().size());
+		assertNotNull(page.getUserDefinedAttributes(false));
+		assertNotNull(page.getLabels());
+	}
+
+	@Test
+	public void testTextLevels() throws Exception {
+		for (int i=0; i<2; i++) {
+			boolean singlePass = i == 1;
+			XmlPageReadOptions options = new XmlPageReadOptions();
+			options.setDeepestTextLevel(LowLevelTextType.TextLine);
+			assertTrue(options.isFiltering());
+			Page page = read(options, singlePass);
+			TextRegion region = (TextRegion)page.getLayout().getRegion("r1");
+			assertEquals("region", region.getText());
+			TextLine line = (TextLine)region.getTextObject(0);
+			assertEquals("ab cd", line.getText());
+			assertEquals(0, line.getTextObjectCount());
+			assertEquals(Boolean.TRUE, line.isBold());
+			assertNull(page.getLayout().getObject("w1"));
+
+			options.setDeepestTextLevel(LowLevelTextType.Word);
+			page = read(options, singlePass);
+			line = (TextLine)((TextRegion)page.getLayout().getRegion("r1")).getTextObject(0);
+			Word word = (Word)line.getTextObject(0);
+			assertEquals("ab", word.getText());
+			assertEquals(0, word.getTextObjectCount());
+
+			options.setDeepestTextLevel(LowLevelTextType.Glyph);
+			page = read(options, singlePass);
+			Glyph glyph = (Glyph)page.getLayout().getObject("g1");
+			assertNotNull(glyph);
+			assertEquals("a", glyph.getText());
+			assertTrue(glyph.getGraphemes() == null || glyph.getGraphemes().isEmpty());
+		}
+	}
+
+	@Test
+	public void testExcludedElements() throws Exception {
+		XmlPageReadOptions options = new XmlPageReadOptions();
+		options.setReadTextEquivVariants(false);
+		options.setReadUserDefined(false);
+		options.setReadLabels(false);
+		options.setReadAlternativeImages(false);
+		Page page = read(options, true);
+
+		TextLine line = (TextLine)((TextRegion)page.getLayout().getRegion("r1")).getTextObject(0);
+		assertEquals(1, line.getTextContentVariantCount());
+		assertEquals("ab cd", line.getText());
+		Word word = (Word)line.getTextObject(0);
+		assertEquals(1, word.getTextContentVariantCount());
+		assertEquals("ab", word.getText());
+		assertEquals("region", ((TextRegion)page.getLayout().getRegion("r1")).getText());
+		assertTrue(page.getAlternativeImages() == null || page.getAlternativeImages().isEmpty());
+		assertNull(page.getUserDefinedAttributes(false));
+		assertNull(page.getLabels());
+	}
+
+	@Test
+	public void testTrustedIds() throws Exception {
+		XmlPageReadOptions options = new XmlPageReadOptions();
+		options.setTrustedIds(true);
+		assertFalse(options.isFiltering());
+		for (int i=0; i<2; i++) {
+			Page page = read(options, i == 1);
+			TextRegion region = (TextRegion)page.getLayout().getRegion("r1");
+			assertNotNull(region);
+			assertEquals("r1", region.getId().toString());
+			assertNotNull(page.getLayout().getObject("g1"));
+			assertTrue(((XmlIdRegister)region.getIdRegister()).isTrustedInput());
+
+			//Editing switches to checked IDs
+			Region newRegion = page.getLayout().createRegion(RegionType.TextRegion);
+			assertFalse(((XmlIdRegister)region.getIdRegister()).isTrustedInput());
+			assertFalse("r1".equals(newRegion.getId().toString()));
+			try {
+				newRegion.setId("r1");
+				fail("Duplicate ID not detected");
+			} catch (InvalidIdException exc) {
+			}
+		}
+	}
+}
@@ -23,6 +23,9 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -551,6 +554,72 @@ public class XmlPageReaderTest {
 		assertNull(page);
 	}
 	
+	@Test
+	public void testReadSinglePass() {
+		XmlPageReader reader = PageXmlInputOutput.getReader();
+		reader.setSinglePass(true);
+
+		//Different schema versions with the same reader
+		try {
+			Page page = reader.read(new FileInput(xmlPage2019File));
+			assertNotNull(page);
+			assertEquals("2019-07-15", page.getFormatVersion().toString());
+			assertEquals(1000, page.getLayout().getWidth());
+
+			page = reader.read(new FileInput(xmlPage2016File));
+			assertNotNull(page);
+			assertEquals("2016-07-15", page.getFormatVersion().toString());
+
+			page = reader.read(new FileInput(xmlPage2019File));
+			assertNotNull(page);
+			assertEquals("2019-07-15", page.getFormatVersion().toString());
+		} catch (UnsupportedFormatVersionException e) {
+			fail(e.getMessage());
+		}
+
+		//Invalid file (validation errors have to be reported as well)
+		Page page = null;
+		try {
+			page = reader.read(new FileInput(invalidXmlPageFile));
+		} catch (UnsupportedFormatVersionException e) {
+			e.printStackTrace();
+		}
+		assertNull(page);
+		assertFalse(reader.getErrors().isEmpty());
+	}
+
+	@Test
+	public void testSwitchSinglePass() throws Exception {
+		File file2019 = writeMinimalPage("2019-07-15");
+		File file2016 = writeMinimalPage("2016-07-15");
+		XmlPageReader reader = PageXmlInputOutput.getReader();
+
+		Page page = reader.read(new FileInput(file2016));
+		assertEquals("2016-07-15", page.getFormatVersion().toString());
+
+		reader.setSinglePass(true);
+		page = reader.read(new FileInput(file2019));
+		assertEquals("2019-07-15", page.getFormatVersion().toString());
+
+		//Back to two-pass reading with the schema version of the first file
+		reader.setSinglePass(false);
+		page = reader.read(new FileInput(file2016));
+		assertNotNull(page);
+		assertEquals("2016-07-15", page.getFormatVersion().toString());
+	}
+	
+	private File writeMinimalPage(String version) throws Exception {
+		File file = File.createTempFile("page_"+version, ".xml");
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+				+ "<PcGts xmlns=\"http://schema.primaresearch.org/PAGE/gts/pagecontent/"+version+"\" pcGtsId=\"pc1\">"
+				+ "<Metadata><Creator>c</Creator><Created>2016-07-15T10:00:00</Created><LastChange>2016-07-15T10:00:00</LastChange></Metadata>"
+				+ "<Page imageFilename=\"img.tif\" imageWidth=\"100\" imageHeight=\"100\"/></PcGts>");
+		writer.close();
+		return file;
+	}
+
 	@Test
 	public void testValidateLargeFile() {
 		
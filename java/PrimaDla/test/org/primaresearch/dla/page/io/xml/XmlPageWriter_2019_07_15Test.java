@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.FileInput;
+import org.primaresearch.dla.page.io.FileTarget;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
+import org.primaresearch.io.xml.XmlFormatVersion;
+import org.primaresearch.maths.geometry.Polygon;
+import org.primaresearch.shared.variable.StringValue;
+
+public class XmlPageWriter_2019_07_15Test {
+
+	private File outputFile;
+	private Page page;
+
+	@Before
+	public void setUp() throws Exception {
+		outputFile = File.createTempFile("writer2019", ".xml");
+
+		page = new Page();
+		page.getLayout().setSize(1000, 1000);
+		page.getMetaData().setComments("Comments with <markup> & \"quotes\"");
+		TextRegion region = (TextRegion)page.getLayout().createRegion(RegionType.TextRegion);
+		region.setCoords(createRect(10, 10, 500, 100));
+		region.getAttributes().get("custom").setValue(new StringValue("line 1\nline 2\tend"));
+		TextLine line = region.createTextLine();
+		line.setCoords(createRect(10, 10, 500, 50));
+		line.setText("Text & more\r\ntext");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		outputFile.delete();
+	}
+
+	private static Polygon createRect(int x, int y, int w, int h) {
+		Polygon polygon = new Polygon();
+		polygon.addPoint(x, y);
+		polygon.addPoint(x+w, y);
+		polygon.addPoint(x+w, y+h);
+		polygon.addPoint(x, y+h);
+		return polygon;
+	}
+
+	@Test
+	public void testWriteAndRead() throws Exception {
+		XmlPageWriter writer = PageXmlInputOutput.getWriter(new XmlFormatVersion("2019-07-15"));
+		assertTrue(writer instanceof XmlPageWriter_2019_07_15);
+		assertTrue(writer.write(page, new FileTarget(outputFile)));
+
+		Page loaded = PageXmlInputOutput.getReader().read(new FileInput(outputFile));
+		assertNotNull(loaded);
+		assertEquals("Comments with <markup> & \"quotes\"", loaded.getMetaData().getComments());
+		TextRegion region = (TextRegion)loaded.getLayout().getRegion(0);
+		assertEquals("line 1\nline 2\tend", region.getAttributes().get("custom").getValue().toString());
+		assertEquals("Text & more\r\ntext", region.getTextObject(0).getText());
+		assertEquals(4, region.getCoords().getSize());
+	}
+
+	@Test
+	public void testWriteInvalid() throws Exception {
+		XmlPageWriter_2019_07_15 writer = (XmlPageWriter_2019_07_15)PageXmlInputOutput.getWriter(new XmlFormatVersion("2019-07-15"));
+		assertTrue(writer.write(page, new FileTarget(outputFile)));
+		long length = outputFile.length();
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		assertTrue(writer.write(page, new StreamTarget(stream)));
+		assertEquals(length, stream.size());
+
+		//Region without coordinates
+		Region region = page.getLayout().createRegion(RegionType.ImageRegion);
+		assertNotNull(region);
+		assertFalse(writer.validate(page));
+		assertFalse(writer.getErrors().isEmpty());
+
+		//The existing file should not have been touched
+		assertFalse(writer.write(page, new FileTarget(outputFile)));
+		assertEquals(length, outputFile.length());
+		assertNotNull(PageXmlInputOutput.getReader().read(new FileInput(outputFile)));
+
+		//Nothing should have been written to the stream
+		stream = new ByteArrayOutputStream();
+		assertFalse(writer.write(page, new StreamTarget(stream)));
+		assertEquals(0, stream.size());
+		assertFalse(writer.getErrors().isEmpty());
+	}
+
+	@Test
+	public void testWriteStream() throws Exception {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		assertTrue(new XmlPageWriter_2019_07_15(null).write(page, new StreamTarget(stream)));
+		String xml = new String(stream.toByteArray(), "UTF-8");
+		assertTrue(xml.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?><PcGts xmlns=\"http://schema.primaresearch.org/PAGE/gts/pagecontent/2019-07-15\""));
+		assertTrue(xml.contains("custom=\"line 1&#10;line 2&#9;end\""));
+	}
+}
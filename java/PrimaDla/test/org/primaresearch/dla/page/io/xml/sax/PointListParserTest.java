@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.io.xml.sax;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.primaresearch.maths.geometry.Polygon;
+
+public class PointListParserTest {
+
+	@Test
+	public void testParse() {
+		PointListParser parser = new PointListParser();
+
+		Polygon polygon = new Polygon();
+		assertEquals(3, parser.parse("10,20 300,-4  +5,2147483647", polygon));
+		assertArrayEquals(new int[] {10,20, 300,-4, 5,2147483647}, polygon.toArray());
+
+		//Malformed points are skipped
+		polygon = new Polygon();
+		assertEquals(2, parser.parse(" 1,2 3 4,5,6 7,8\n", polygon));
+		assertArrayEquals(new int[] {1,2, 7,8}, polygon.toArray());
+
+		//Empty
+		polygon = new Polygon();
+		assertEquals(0, parser.parse("", polygon));
+		assertEquals(0, polygon.getSize());
+
+		//Char array
+		char[] ch = "xx0,0 10,0 10,10xx".toCharArray();
+		polygon = new Polygon();
+		assertEquals(3, parser.parse(ch, 2, ch.length - 4, polygon));
+		assertArrayEquals(new int[] {0,0, 10,0, 10,10}, polygon.toArray());
+
+		//Long list (buffer has to grow)
+		StringBuilder str = new StringBuilder();
+		for (int i=0; i<1000; i++)
+			str.append(i).append(',').append(-i).append(' ');
+		polygon = new Polygon();
+		assertEquals(1000, parser.parse(str, polygon));
+		assertEquals(999, polygon.getX(999));
+		assertEquals(-999, polygon.getY(999));
+	}
+
+	@Test
+	public void testInvalidNumbers() {
+		PointListParser parser = new PointListParser();
+		String[] invalid = new String[] { "1.5,2", ",2", "-,2", "1,2147483648", "1,a" };
+		for (int i=0; i<invalid.length; i++) {
+			try {
+				parser.parse(invalid[i], new Polygon());
+				fail("NumberFormatException expected for " + invalid[i]);
+			} catch (NumberFormatException exc) {
+			}
+		}
+		Polygon polygon = new Polygon();
+		parser.parse("1,-2147483648", polygon);
+		assertEquals(Integer.MIN_VALUE, polygon.getY(0));
+	}
+
+	@Test
+	public void testBaselineCompatibility() {
+		PointListParser parser = new PointListParser();
+		String[] inputs = new String[] { "x,", "1, 2", "1,2,", "1,2,,", "1,,2", ",", ",,,", "1,", 
+				"1,2 x, 3,4", "1,2  3,4 ", " 1,2", "1,2,3,4", "5,6, 7,8," };
+		for (int i=0; i<inputs.length; i++) {
+			Polygon expected = new Polygon();
+			parseBaseline(inputs[i], expected);
+			Polygon polygon = new Polygon();
+			assertEquals(inputs[i], expected.getSize(), parser.parse(inputs[i], polygon));
+			assertEquals(inputs[i], Arrays.toString(expected.toArray()), Arrays.toString(polygon.toArray()));
+		}
+
+		Polygon polygon = new Polygon();
+		assertEquals(1, parser.parse("1,2,", polygon));
+		assertArrayEquals(new int[] {1,2}, polygon.toArray());
+		polygon = new Polygon();
+		assertEquals(0, parser.parse("x, 1, 2", polygon));
+	}
+
+	/**
+	 * Point list parsing as done by the SAX handlers before PointListParser was introduced
+	 */
+	private static void parseBaseline(String pointList, Polygon polygon) {
+		String[] pointStrings = pointList.split(" ");
+		for (int i = 0; i<pointStrings.length; i++) {
+			String[] coords = pointStrings[i].split(",");
+			if (coords.length == 2) {
+				polygon.addPoint(Integer.valueOf(coords[0]), Integer.valueOf(coords[1]));
+			}
+		}
+	}
+}
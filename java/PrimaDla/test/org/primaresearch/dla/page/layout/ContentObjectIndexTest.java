@@ -0,0 +1,181 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.layout;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.io.xml.PageXmlInputOutput;
+import org.primaresearch.dla.page.layout.logical.ContentObjectRelation;
+import org.primaresearch.dla.page.layout.physical.ContentFactory;
+import org.primaresearch.dla.page.layout.physical.DefaultAttributeFactory;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.impl.Glyph;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
+import org.primaresearch.dla.page.layout.physical.text.impl.Word;
+import org.primaresearch.ident.XmlIdRegister;
+import org.primaresearch.maths.geometry.Polygon;
+
+public class ContentObjectIndexTest {
+
+	private PageLayout layout;
+	private TextRegion region;
+	private Region nested;
+	private TextLine line;
+	private Word word;
+	private Glyph glyph;
+
+	@Before
+	public void setUp() throws Exception {
+		layout = new Page().getLayout();
+		region = (TextRegion)layout.createRegion(RegionType.TextRegion, "r1");
+		nested = layout.createRegion(RegionType.ImageRegion, "r2", region);
+		line = region.createTextLine("l1");
+		word = line.createWord("w1");
+		glyph = word.createGlyph("g1");
+	}
+
+	@Test
+	public void testLookup() {
+		assertSame(region, layout.getObject("r1"));
+		assertSame(nested, layout.getObject("r2"));
+		assertSame(glyph, layout.getObject("g1"));
+		assertNull(layout.getObject("x"));
+		assertNull(layout.getObject(null));
+
+		assertNull(layout.getRegion(nested.getId()));
+		assertSame(nested, layout.getRegion(nested.getId(), true));
+		assertNull(layout.getRegion(line.getId(), true));
+
+		assertSame(word, layout.getObject(LowLevelTextType.Word, "w1"));
+		assertNull(layout.getObject(LowLevelTextType.Glyph, "w1"));
+
+		ContentObjectRelation rel = layout.getParentChildRelation(LowLevelTextType.Glyph, "g1");
+		assertSame(word, rel.getObject1());
+		assertSame(glyph, rel.getObject2());
+		rel = layout.getParentChildRelation(LowLevelTextType.TextLine, "l1");
+		assertSame(region, rel.getObject1());
+		assertNull(layout.getParentChildRelation(LowLevelTextType.TextLine, "w1"));
+	}
+
+	@Test
+	public void testUpdates() throws Exception {
+		assertSame(glyph, layout.getObject("g1"));
+
+		//New objects
+		Glyph glyph2 = word.createGlyph("g2");
+		assertSame(glyph2, layout.getObject("g2"));
+
+		//Changed ID
+		glyph2.setId("g3");
+		assertNull(layout.getObject("g2"));
+		assertSame(glyph2, layout.getObject("g3"));
+
+		//Removed objects
+		word.removeTextObject(glyph.getId());
+		assertNull(layout.getObject("g1"));
+		region.removeRegion(nested);
+		assertNull(layout.getRegion(nested.getId(), true));
+		layout.removeRegion(region.getId());
+		assertNull(layout.getObject(LowLevelTextType.TextLine, "l1"));
+
+		//Moved object
+		TextRegion region2 = (TextRegion)layout.createRegion(RegionType.TextRegion, "r3");
+		region2.addTextObject(line);
+		assertSame(region2, layout.getParentChildRelation(LowLevelTextType.TextLine, "l1").getObject1());
+	}
+
+	@Test
+	public void testUpdatesInPlace() throws Exception {
+		ContentFactory factory = new ContentFactory(new XmlIdRegister(), 
+				DefaultAttributeFactory.getInstance(PageXmlInputOutput.getLatestSchemaModel()));
+		PageLayout layout = new PageLayout(factory);
+		ContentObjectIndex index = new ContentObjectIndex(layout);
+		factory.setStructureListener(index);
+		TextRegion region = (TextRegion)layout.createRegion(RegionType.TextRegion, "r1");
+		TextLine line = region.createTextLine("l1");
+		Glyph glyph = line.createWord("w1").createGlyph("g1");
+		assertSame(glyph, index.get("g1").object);
+		assertEquals(1, index.getBuildCount());
+
+		//Outline changes invalidate the spatial index only
+		int count = factory.getModificationCount();
+		glyph.setCoords(new Polygon());
+		region.setCoords(new Polygon());
+		assertTrue(count != factory.getModificationCount());
+
+		//Structural changes are applied to the existing table
+		glyph.setId("g4");
+		assertNull(index.get("g1"));
+		assertSame(glyph, index.get("g4").object);
+		Word word2 = line.createWord("w2");
+		Glyph glyph2 = word2.createGlyph("g2");
+		assertSame(word2, index.get("g2").parent);
+		Region nested = layout.createRegion(RegionType.ImageRegion, "r2", region);
+		assertSame(region, index.get("r2").parent);
+
+		//Subtree built outside the layout
+		TextLine detached = (TextLine)factory.createContent(LowLevelTextType.TextLine);
+		detached.setId("l2");
+		Glyph glyph3 = detached.createWord("w3").createGlyph("g3");
+		assertNull(index.get("g3"));
+		region.addTextObject(detached);
+		assertSame(glyph3, index.get("g3").object);
+
+		//Move and removal
+		TextRegion region2 = (TextRegion)layout.createRegion(RegionType.TextRegion, "r3");
+		region.removeTextObject(line.getId());
+		assertNull(index.get("g2"));
+		region2.addTextObject(line);
+		assertSame(region2, index.get("l1").parent);
+		assertSame(glyph2, index.get("g2").object);
+		region.removeRegion(nested);
+		assertNull(index.get("r2"));
+		layout.removeRegion(region.getId());
+		assertNull(index.get("g3"));
+		assertSame(glyph, index.get("g4").object);
+		
+		assertEquals(1, index.getBuildCount());
+	}
+
+	@Test
+	public void testDuplicateIds() throws Exception {
+		ContentFactory factory = new ContentFactory(new XmlIdRegister(), 
+				DefaultAttributeFactory.getInstance(PageXmlInputOutput.getLatestSchemaModel()));
+		PageLayout layout = new PageLayout(factory);
+		ContentObjectIndex index = new ContentObjectIndex(layout);
+		factory.setStructureListener(index);
+		TextRegion region = (TextRegion)layout.createRegion(RegionType.TextRegion, "r1");
+		TextLine line1 = region.createTextLine("l1");
+		assertSame(line1, index.get("l1").object);
+
+		//Same ID in another region (bypassing the ID register)
+		TextRegion region2 = (TextRegion)layout.createRegion(RegionType.TextRegion, "r2");
+		TextLine line2 = (TextLine)factory.createContent(LowLevelTextType.TextLine);
+		line2.setId(line1.getId());
+		region2.addTextObject(line2);
+		assertSame(line1, index.get("l1").object);
+
+		//Hidden duplicate becomes visible
+		region.removeTextObject(0);
+		assertSame(line2, index.get("l1").object);
+	}
+}
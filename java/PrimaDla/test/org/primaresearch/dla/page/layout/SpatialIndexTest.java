@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.layout;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.layout.physical.ContentObject;
+import org.primaresearch.dla.page.layout.physical.Region;
+import org.primaresearch.dla.page.layout.physical.shared.LowLevelTextType;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.impl.Glyph;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
+import org.primaresearch.dla.page.layout.physical.text.impl.Word;
+import org.primaresearch.maths.geometry.Polygon;
+import org.primaresearch.maths.geometry.Rect;
+
+public class SpatialIndexTest {
+
+	private PageLayout layout;
+
+	@Before
+	public void setUp() throws Exception {
+		Page page = new Page();
+		layout = page.getLayout();
+		layout.setSize(2000, 3000);
+
+		//Text regions with lines, words and glyphs
+		for (int r=0; r<6; r++) {
+			int top = r * 450 + 50;
+			TextRegion region = (TextRegion)layout.createRegion(RegionType.TextRegion);
+			region.setCoords(createRect(100, top, 1800, 400));
+			for (int l=0; l<5; l++) {
+				TextLine line = region.createTextLine();
+				line.setCoords(createRect(100, top + l * 80, 1800, 70));
+				for (int w=0; w<10; w++) {
+					Word word = line.createWord();
+					word.setCoords(createRect(100 + w * 180, top + l * 80, 170, 70));
+					for (int g=0; g<5; g++) {
+						Glyph glyph = word.createGlyph();
+						glyph.setCoords(createRect(100 + w * 180 + g * 34, top + l * 80, 30, 70));
+					}
+				}
+			}
+		}
+		//Overlapping regions (nested and not nested)
+		Region image = layout.createRegion(RegionType.ImageRegion);
+		image.setCoords(createRect(0, 0, 2000, 3000));
+		Region nested = layout.createRegion(RegionType.GraphicRegion, null, (TextRegion)layout.getRegion(0));
+		nested.setCoords(createRect(120, 60, 50, 50));
+		//Triangle
+		Region triangle = layout.createRegion(RegionType.SeparatorRegion);
+		Polygon coords = new Polygon();
+		coords.addPoint(1000, 1000);
+		coords.addPoint(1500, 1500);
+		coords.addPoint(500, 1500);
+		triangle.setCoords(coords);
+		//No coordinates
+		layout.createRegion(RegionType.NoiseRegion).setCoords(null);
+	}
+
+	private static Polygon createRect(int x, int y, int w, int h) {
+		Polygon polygon = new Polygon();
+		polygon.addPoint(x, y);
+		polygon.addPoint(x+w-1, y);
+		polygon.addPoint(x+w-1, y+h-1);
+		polygon.addPoint(x, y+h-1);
+		return polygon;
+	}
+
+	@Test
+	public void testPointQueries() {
+		Random random = new Random(42);
+		int[][] points = new int[2000][];
+		for (int i=0; i<points.length; i++)
+			points[i] = new int[] { random.nextInt(2200) - 100, random.nextInt(3200) - 100 };
+
+		//Results without index
+		ContentObject[][] expected = new ContentObject[points.length][];
+		for (int i=0; i<points.length; i++) {
+			expected[i] = new ContentObject[] {
+					layout.getRegionAt(points[i][0], points[i][1]),
+					layout.getObjectAt(points[i][0], points[i][1], LowLevelTextType.TextLine),
+					layout.getObjectAt(points[i][0], points[i][1], LowLevelTextType.Word),
+					layout.getObjectAt(points[i][0], points[i][1], LowLevelTextType.Glyph) };
+		}
+
+		layout.setSpatialIndexEnabled(true);
+		assertTrue(layout.isSpatialIndexEnabled());
+		for (int i=0; i<points.length; i++) {
+			assertSame(expected[i][0], layout.getRegionAt(points[i][0], points[i][1]));
+			assertSame(expected[i][1], layout.getObjectAt(points[i][0], points[i][1], LowLevelTextType.TextLine));
+			assertSame(expected[i][2], layout.getObjectAt(points[i][0], points[i][1], LowLevelTextType.Word));
+			assertSame(expected[i][3], layout.getObjectAt(points[i][0], points[i][1], LowLevelTextType.Glyph));
+		}
+
+		//Smallest region wins
+		assertEquals(RegionType.GraphicRegion, layout.getRegionAt(130, 70).getType());
+		assertEquals(RegionType.SeparatorRegion, layout.getRegionAt(1000, 1200).getType());
+		assertNull(layout.getRegionAt(-5, -5));
+	}
+
+	@Test
+	public void testRangeQueries() {
+		Rect[] areas = new Rect[] { new Rect(0, 0, 2000, 3000), new Rect(90, 40, 500, 140),
+									new Rect(300, 1000, 700, 1100), new Rect(-100, -100, -10, -10) };
+		for (int i=0; i<areas.length; i++) {
+			for (int o=0; o<2; o++) {
+				layout.setSpatialIndexEnabled(false);
+				List<ContentObject> glyphs = layout.getObjectsIn(areas[i], LowLevelTextType.Glyph, o == 0);
+				List<ContentObject> regions = layout.getObjectsIn(areas[i], null, o == 0);
+				layout.setSpatialIndexEnabled(true);
+				assertEquals(glyphs, layout.getObjectsIn(areas[i], LowLevelTextType.Glyph, o == 0));
+				assertEquals(regions, layout.getObjectsIn(areas[i], null, o == 0));
+			}
+		}
+
+		layout.setSpatialIndexEnabled(true);
+		assertEquals(300 * 5, layout.getObjectsIn(new Rect(0, 0, 2000, 3000), LowLevelTextType.Glyph, false).size());
+		//First five glyphs of the first line
+		List<ContentObject> glyphs = layout.getObjectsIn(new Rect(90, 40, 275, 130), LowLevelTextType.Glyph, false);
+		assertEquals(5, glyphs.size());
+		assertSame(((Word)((TextLine)((TextRegion)layout.getRegion(0)).getTextObject(0)).getTextObject(0)).getTextObject(0), glyphs.get(0));
+		//Region type filter
+		assertEquals(6, layout.getObjectsIn(new Rect(0, 0, 2000, 3000), RegionType.TextRegion, true).size());
+
+		//Polygon
+		Polygon area = new Polygon();
+		area.addPoint(1000, 1050);
+		area.addPoint(1050, 1100);
+		area.addPoint(950, 1100);
+		List<ContentObject> regions = layout.getObjectsIn(area, null, true);
+		assertEquals(3, regions.size()); //Text region, image, separator
+		regions = layout.getObjectsIn(area, null, false);
+		assertEquals(0, regions.size());
+		regions = layout.getObjectsIn(createRect(400, 900, 1200, 700), RegionType.SeparatorRegion, false);
+		assertEquals(1, regions.size());
+	}
+
+	@Test
+	public void testInvalidation() {
+		layout.setSpatialIndexEnabled(true);
+		assertNotNull(layout.getRegionAt(1000, 1200));
+
+		//Remove regions
+		while (layout.getRegionCount() > 0)
+			layout.removeRegion(0);
+		assertNull(layout.getRegionAt(1000, 1200));
+
+		//New region
+		Region region = layout.createRegion(RegionType.TableRegion);
+		region.setCoords(createRect(10, 10, 10, 10));
+		assertSame(region, layout.getRegionAt(15, 15));
+
+		//New outline
+		region.setCoords(createRect(100, 100, 10, 10));
+		assertNull(layout.getRegionAt(15, 15));
+		assertSame(region, layout.getRegionAt(105, 105));
+
+		//Direct modification of the polygon
+		region.getCoords().setPoint(2, 500, 500);
+		layout.invalidateSpatialIndex();
+		assertSame(region, layout.getRegionAt(300, 300));
+
+		//Text objects
+		TextRegion textRegion = (TextRegion)layout.createRegion(RegionType.TextRegion);
+		textRegion.setCoords(createRect(1000, 1000, 100, 100));
+		assertNull(layout.getObjectAt(1010, 1010, LowLevelTextType.TextLine));
+		TextLine line = textRegion.createTextLine();
+		line.setCoords(createRect(1000, 1000, 100, 20));
+		assertSame(line, layout.getObjectAt(1010, 1010, LowLevelTextType.TextLine));
+		textRegion.removeTextObject(0);
+		assertNull(layout.getObjectAt(1010, 1010, LowLevelTextType.TextLine));
+	}
+}
@@ -28,6 +28,7 @@ import org.junit.Test;
 import org.primaresearch.dla.page.Page;
 import org.primaresearch.dla.page.io.xml.PageXmlInputOutput;
 import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.physical.Region;
 import org.primaresearch.dla.page.layout.physical.shared.RegionType;
 import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
 import org.primaresearch.io.UnsupportedFormatVersionException;
@@ -162,4 +163,60 @@ public class ConverterHubTest {
 		assertNotNull(textType.getValue());
 	}
 
+	@Test
+	public void testFindConverter() {
+		ConverterHub hub = ConverterHub.getInstance();
+		
+		String[] versions = new String[] { "2009-03-16", "2010-01-12", "2010-03-19", "2013-07-15", 
+											"2016-07-15", "2017-07-15", "2018-07-15", "2019-07-15" };
+		
+		//All versions can be reached from all versions
+		for (int i=0; i<versions.length; i++) {
+			for (int j=0; j<versions.length; j++) {
+				if (i == j)
+					continue;
+				LayoutConverter conv = hub.findConverter(new XmlFormatVersion(versions[i]), new XmlFormatVersion(versions[j]));
+				assertNotNull(conv);
+				assertEquals(new XmlFormatVersion(versions[i]), conv.getSourceVersion());
+				assertEquals(new XmlFormatVersion(versions[j]), conv.getTargetVersion());
+			}
+		}
+		
+		//Direct converter
+		assertTrue(hub.findConverter(new XmlFormatVersion("2019-07-15"), new XmlFormatVersion("2018-07-15")) instanceof Converter_2019_07_15_to_2018_07_15);
+		
+		//Shortest chain
+		LayoutConverter conv = hub.findConverter(new XmlFormatVersion("2013-07-15"), new XmlFormatVersion("2009-03-16"));
+		assertTrue(conv instanceof ChainConverter);
+		assertEquals(3, ((ChainConverter)conv).getConverters().size());
+		
+		//Unknown version
+		assertNull(hub.findConverter(new XmlFormatVersion("2019-07-15"), new XmlFormatVersion("2000-01-01")));
+	}
+
+	@Test
+	public void testConvertNestedRegions() {
+		//Convert from 2019-07-15 to 2010-03-19 (music region is not supported)
+		Page page = new Page();
+		PageLayout layout =	page.getLayout();
+		
+		TextRegion parent = (TextRegion)layout.createRegion(RegionType.TextRegion);
+		Region music = layout.createRegion(RegionType.MusicRegion, null, parent);
+		String musicId = music.getId().toString();
+		
+		List<ConversionMessage> messages = null;
+		try {
+			messages = ConverterHub.convert(page, PageXmlInputOutput.getInstance().getFormatModel(new XmlFormatVersion("2010-03-19")));
+		} catch (UnsupportedFormatVersionException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+		assertNotNull(messages);
+		assertEquals(1, messages.size());
+		assertEquals(1, layout.getRegionCount());
+		assertEquals(1, parent.getRegionCount());
+		assertEquals(RegionType.UnknownRegion, parent.getRegion(0).getType());
+		assertEquals(musicId, parent.getRegion(0).getId().toString());
+	}
+
 }
@@ -15,8 +15,14 @@
  */
 package org.primaresearch.dla.page.layout.physical;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 import org.primaresearch.dla.page.Page;
@@ -438,4 +444,80 @@ public class PageIteratorTest {
 		assertTrue("Glyph iterator with layer filter created (no match)", it != null && it instanceof LowLevelTextObjectIterator);
 		assertFalse("End it with layer filter (no match)", it.hasNext());
 	}
+
+	@SuppressWarnings("unused")
+	@Test
+	public void testContentStream() {
+		//Create a few regions with text lines and words: tr1, cr2 (tr3,tr4), tr5 (tr6), plus some more top-level regions
+		Page page = new Page();
+		PageLayout pageLayout = page.getLayout();
+		TextRegion r1 = (TextRegion)pageLayout.createRegion(RegionType.TextRegion);
+		TextLine t11 = r1.createTextLine();
+		Word w111 = t11.createWord();
+		
+		Region r2 = pageLayout.createRegion(RegionType.ChartRegion);
+		TextRegion r3 = (TextRegion)pageLayout.createRegion(RegionType.TextRegion, null, r2);
+		TextRegion r4 = (TextRegion)pageLayout.createRegion(RegionType.TextRegion, null, r2);
+		TextLine t41 = r4.createTextLine();
+		Word w411 = t41.createWord();
+		Word w412 = t41.createWord();
+		
+		TextRegion r5 = (TextRegion)pageLayout.createRegion(RegionType.TextRegion);
+		TextRegion r6 = (TextRegion)pageLayout.createRegion(RegionType.TextRegion, null, r5);
+		TextLine t61 = r6.createTextLine();
+		Word w611 = t61.createWord();
+		
+		for (int i=0; i<20; i++) {
+			Region r = pageLayout.createRegion(i % 2 == 0 ? RegionType.TextRegion : RegionType.ImageRegion);
+			if (r instanceof TextRegion)
+				((TextRegion)r).createTextLine().createWord();
+		}
+		
+		pageLayout.createLayers();
+		Layer layer = pageLayout.getLayers().createLayer();
+		layer.addRegionRef(r2.getId().toString());
+		layer.addRegionRef(r4.getId().toString());
+		layer.addRegionRef(r5.getId().toString());
+
+		//Same objects and order as the iterators (sequential and parallel)
+		assertEquals("All regions", toList(pageLayout.iterator(null)), pageLayout.stream(null).collect(Collectors.toList()));
+		assertEquals("All regions (parallel)", toList(pageLayout.iterator(null)), pageLayout.stream(null).parallel().collect(Collectors.toList()));
+		assertEquals("Text regions", toList(pageLayout.iterator(RegionType.TextRegion)), 
+				pageLayout.stream(RegionType.TextRegion).parallel().collect(Collectors.toList()));
+		assertEquals("Text lines", toList(pageLayout.iterator(LowLevelTextType.TextLine)), 
+				pageLayout.stream(LowLevelTextType.TextLine).parallel().collect(Collectors.toList()));
+		assertEquals("Words", toList(pageLayout.iterator(LowLevelTextType.Word)), 
+				pageLayout.stream(LowLevelTextType.Word).parallel().collect(Collectors.toList()));
+		assertEquals("Regions in layer", toList(pageLayout.iterator(null, layer)), 
+				pageLayout.stream(null, layer).parallel().collect(Collectors.toList()));
+		assertEquals("Words in layer", toList(pageLayout.iterator(LowLevelTextType.Word, layer)), 
+				pageLayout.stream(LowLevelTextType.Word, layer).parallel().collect(Collectors.toList()));
+
+		assertEquals("Number of regions", 26, pageLayout.stream(null).count());
+		assertEquals("Number of words", 14, pageLayout.stream(LowLevelTextType.Word).count());
+		assertEquals("Words in layer", 2, pageLayout.stream(LowLevelTextType.Word, layer).count());
+		assertTrue("First word", pageLayout.stream(LowLevelTextType.Word).findFirst().get() == w111);
+	}
+
+	@Test
+	public void testContentStreamUnsupportedTypes() {
+		PageLayout pageLayout = new Page().getLayout();
+		LowLevelTextType[] unsupported = new LowLevelTextType[] { LowLevelTextType.Grapheme, 
+				LowLevelTextType.GraphemeGroup, LowLevelTextType.NonPrintingCharacter };
+		for (int i=0; i<unsupported.length; i++) {
+			try {
+				pageLayout.stream(unsupported[i]);
+				fail("IllegalArgumentException expected for " + unsupported[i]);
+			} catch (IllegalArgumentException exc) {
+			}
+		}
+		assertEquals(0, pageLayout.stream(LowLevelTextType.Glyph).count());
+	}
+	
+	private static List<ContentObject> toList(ContentIterator it) {
+		List<ContentObject> list = new ArrayList<ContentObject>();
+		while (it.hasNext())
+			list.add(it.next());
+		return list;
+	}
 }
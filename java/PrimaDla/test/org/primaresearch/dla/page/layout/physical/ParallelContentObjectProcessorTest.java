@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.dla.page.layout.physical;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.primaresearch.dla.page.Page;
+import org.primaresearch.dla.page.layout.PageLayout;
+import org.primaresearch.dla.page.layout.physical.shared.RegionType;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextLine;
+import org.primaresearch.dla.page.layout.physical.text.impl.TextRegion;
+import org.primaresearch.dla.page.layout.physical.text.impl.Word;
+
+public class ParallelContentObjectProcessorTest {
+
+	private Page page;
+
+	@Before
+	public void setUp() throws Exception {
+		page = new Page();
+		PageLayout layout = page.getLayout();
+		for (int r=0; r<40; r++) {
+			TextRegion region = (TextRegion)layout.createRegion(RegionType.TextRegion, "r"+r);
+			if (r % 10 == 0)
+				layout.createRegion(RegionType.ImageRegion, "r"+r+"n", region);
+			int lineCount = r == 0 ? 100 : 3;
+			for (int l=0; l<lineCount; l++) {
+				TextLine line = region.createTextLine("r"+r+"l"+l);
+				for (int w=0; w<5; w++) {
+					Word word = line.createWord("r"+r+"l"+l+"w"+w);
+					for (int g=0; g<3; g++)
+						word.createGlyph("r"+r+"l"+l+"w"+w+"g"+g);
+				}
+			}
+		}
+	}
+
+	private List<String> runSequential(Page page, boolean includeLowLevelTextObjects) {
+		final List<String> ids = new ArrayList<String>();
+		ContentObjectProcessor processor = new ContentObjectProcessor() {
+			@Override
+			public void doProcess(ContentObject contentObject) {
+				ids.add(contentObject.getId().toString());
+			}
+		};
+		processor.setIncludeLowLevelTextObjects(includeLowLevelTextObjects);
+		processor.run(page);
+		return ids;
+	}
+
+	private static ParallelContentObjectProcessor<String> createProcessor(ForkJoinPool pool) {
+		return new ParallelContentObjectProcessor<String>(pool) {
+			@Override
+			public String doProcess(ContentObject contentObject) {
+				return contentObject.getId().toString();
+			}
+		};
+	}
+
+	@Test
+	public void testOrdered() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			List<String> expected = runSequential(page, true);
+			for (int granularity : new int[] { 1, 2, 16, 1000 }) {
+				ParallelContentObjectProcessor<String> processor = createProcessor(pool);
+				processor.setGranularity(granularity);
+				assertEquals(expected, processor.run(page));
+			}
+
+			ParallelContentObjectProcessor<String> processor = createProcessor(pool);
+			processor.setIncludeLowLevelTextObjects(false);
+			assertEquals(runSequential(page, false), processor.run(page));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testUnordered() {
+		List<String> expected = runSequential(page, true);
+		Collections.sort(expected);
+
+		ParallelContentObjectProcessor<String> processor = createProcessor(ForkJoinPool.commonPool());
+		processor.setOrderedResults(false);
+		processor.setGranularity(2);
+		List<String> results = new ArrayList<String>(processor.run(page));
+		Collections.sort(results);
+		assertEquals(expected, results);
+	}
+
+	@Test
+	public void testMultiplePages() throws Exception {
+		Page page2 = new Page();
+		page2.getLayout().createRegion(RegionType.TextRegion, "x1");
+
+		List<Page> pages = new ArrayList<Page>();
+		pages.add(page);
+		pages.add(page2);
+		List<List<String>> results = createProcessor(ForkJoinPool.commonPool()).run(pages);
+		assertEquals(2, results.size());
+		assertEquals(runSequential(page, true), results.get(0));
+		assertEquals(1, results.get(1).size());
+		assertEquals("x1", results.get(1).get(0));
+	}
+
+	@Test
+	public void testSeveralNestedRegions() {
+		Page page = new Page();
+		PageLayout layout = page.getLayout();
+		TextRegion region = (TextRegion)layout.createRegion(RegionType.TextRegion, "r0");
+		for (int l=0; l<5; l++)
+			region.createTextLine("l"+l);
+		for (int n=0; n<3; n++) {
+			TextRegion nested = (TextRegion)layout.createRegion(RegionType.TextRegion, "n"+n, region);
+			for (int l=0; l<2; l++)
+				nested.createTextLine("n"+n+"l"+l);
+		}
+		layout.createRegion(RegionType.ImageRegion, "r1");
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			List<String> expected = runSequential(page, true);
+			assertEquals(16, expected.size());
+			for (int granularity : new int[] { 1, 2 }) {
+				ParallelContentObjectProcessor<String> processor = createProcessor(pool);
+				processor.setGranularity(granularity);
+				assertEquals(expected, processor.run(page));
+				processor.setIncludeLowLevelTextObjects(false);
+				assertEquals(runSequential(page, false), processor.run(page));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testNullResults() {
+		ParallelContentObjectProcessor<Object> processor = new ParallelContentObjectProcessor<Object>() {
+			@Override
+			public Object doProcess(ContentObject contentObject) {
+				return null;
+			}
+		};
+		assertEquals(0, processor.run(page).size());
+	}
+}
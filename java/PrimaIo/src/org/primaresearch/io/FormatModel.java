@@ -29,7 +29,8 @@ public interface FormatModel {
 	public Map<String, VariableMap> getTypeAttributeTemplates();
 	
 	/**
-	 * Filters the given attributes and returns only the ones for the specified type filter. 
+	 * Filters the given attributes and returns only the ones for the specified type filter.
+	 * The returned variables are intended for reading (they might be shared). 
 	 * @param typeFilter E.g. 'TextStyleType'
 	 * @return Variable map with attributes
 	 */
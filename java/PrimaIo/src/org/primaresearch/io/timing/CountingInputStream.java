@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.io.timing;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream counting the bytes read from the underlying stream.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class CountingInputStream extends FilterInputStream {
+
+	private long count = 0;
+	private long mark = 0;
+	
+	/**
+	 * Constructor
+	 * @param in Underlying stream
+	 */
+	public CountingInputStream(InputStream in) {
+		super(in);
+	}
+	
+	/**
+	 * Returns the number of bytes read (or skipped) so far
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = in.read();
+		if (b >= 0)
+			count++;
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int n = in.read(b, off, len);
+		if (n > 0)
+			count += n;
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = in.skip(n);
+		count += skipped;
+		return skipped;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+		in.mark(readlimit);
+		mark = count;
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		in.reset();
+		count = mark;
+	}
+}
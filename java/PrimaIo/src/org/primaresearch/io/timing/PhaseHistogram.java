@@ -0,0 +1,231 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.io.timing;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Phase listener aggregating the durations of each phase in a histogram 
+ * (count, total, minimum, maximum and percentiles), plus the total number of bytes and objects.<br>
+ * <br>
+ * The histogram buckets are log-linear (eight buckets per power of two), so percentiles
+ * are accurate to about 12.5%. Maximum durations are exact. All methods are thread-safe.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class PhaseHistogram implements PhaseListener {
+
+	/** Sub-buckets per power of two (as bit count) */
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	/** Buckets per phase (covers all positive long values) */
+	static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+	
+	private static final int COUNT = 0;
+	private static final int TOTAL_TIME = 1;
+	private static final int MIN_TIME = 2;
+	private static final int MAX_TIME = 3;
+	private static final int BYTES = 4;
+	private static final int OBJECTS = 5;
+	private static final int STATS_SIZE = 6;
+	
+	/** Histogram buckets of all phases [phase * BUCKET_COUNT + bucket] */
+	private final AtomicLongArray buckets;
+	/** Statistics of all phases [phase * STATS_SIZE + statistic] */
+	private final AtomicLongArray stats;
+	private final int phaseCount;
+	
+	/**
+	 * Constructor for all phases defined in {@link PhaseTiming}
+	 */
+	public PhaseHistogram() {
+		this(PhaseTiming.PHASE_COUNT);
+	}
+	
+	/**
+	 * Constructor
+	 * @param phaseCount Number of phases (phase IDs from 0 to phaseCount-1; others are ignored)
+	 */
+	public PhaseHistogram(int phaseCount) {
+		this.phaseCount = phaseCount;
+		buckets = new AtomicLongArray(phaseCount * BUCKET_COUNT);
+		stats = new AtomicLongArray(phaseCount * STATS_SIZE);
+		reset();
+	}
+	
+	@Override
+	public void phaseCompleted(int phase, long startTime, long duration, long bytes, long objects) {
+		if (phase < 0 || phase >= phaseCount)
+			return;
+		if (duration < 0)
+			duration = 0;
+		
+		buckets.incrementAndGet(phase * BUCKET_COUNT + getBucket(duration));
+		
+		int offset = phase * STATS_SIZE;
+		stats.incrementAndGet(offset + COUNT);
+		stats.addAndGet(offset + TOTAL_TIME, duration);
+		stats.addAndGet(offset + BYTES, bytes);
+		stats.addAndGet(offset + OBJECTS, objects);
+		long current;
+		while (duration < (current = stats.get(offset + MIN_TIME)) 
+				&& !stats.compareAndSet(offset + MIN_TIME, current, duration))
+			;
+		while (duration > (current = stats.get(offset + MAX_TIME)) 
+				&& !stats.compareAndSet(offset + MAX_TIME, current, duration))
+			;
+	}
+	
+	/**
+	 * Clears all data
+	 */
+	public void reset() {
+		for (int i=0; i<buckets.length(); i++)
+			buckets.set(i, 0L);
+		for (int p=0; p<phaseCount; p++) {
+			for (int s=0; s<STATS_SIZE; s++)
+				stats.set(p * STATS_SIZE + s, s == MIN_TIME ? Long.MAX_VALUE : 0L);
+		}
+	}
+	
+	/**
+	 * Returns the number of times the given phase has been completed
+	 */
+	public long getCount(int phase) {
+		return stats.get(phase * STATS_SIZE + COUNT);
+	}
+	
+	/**
+	 * Returns the accumulated duration of the given phase in nanoseconds
+	 */
+	public long getTotalTime(int phase) {
+		return stats.get(phase * STATS_SIZE + TOTAL_TIME);
+	}
+
+	/**
+	 * Returns the shortest duration of the given phase in nanoseconds (0 if there is no data)
+	 */
+	public long getMinTime(int phase) {
+		return getCount(phase) > 0 ? stats.get(phase * STATS_SIZE + MIN_TIME) : 0L;
+	}
+
+	/**
+	 * Returns the longest duration of the given phase in nanoseconds (0 if there is no data)
+	 */
+	public long getMaxTime(int phase) {
+		return stats.get(phase * STATS_SIZE + MAX_TIME);
+	}
+	
+	/**
+	 * Returns the mean duration of the given phase in nanoseconds (0 if there is no data)
+	 */
+	public double getMeanTime(int phase) {
+		long count = getCount(phase);
+		return count > 0 ? (double)getTotalTime(phase) / count : 0.0;
+	}
+	
+	/**
+	 * Returns the accumulated number of bytes of the given phase
+	 */
+	public long getTotalBytes(int phase) {
+		return stats.get(phase * STATS_SIZE + BYTES);
+	}
+
+	/**
+	 * Returns the accumulated number of objects of the given phase
+	 */
+	public long getTotalObjects(int phase) {
+		return stats.get(phase * STATS_SIZE + OBJECTS);
+	}
+	
+	/**
+	 * Returns the duration below which the given percentage of the recorded durations lie.
+	 * @param phase Phase ID
+	 * @param percentile Percentile (0 to 100, e.g. 99.9)
+	 * @return Duration in nanoseconds (upper bound of the histogram bucket, but not more than the maximum); 0 if there is no data
+	 */
+	public long getPercentile(int phase, double percentile) {
+		long count = getCount(phase);
+		if (count == 0)
+			return 0L;
+		long rank = (long)Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+		if (rank < 1)
+			rank = 1;
+		long seen = 0;
+		int offset = phase * BUCKET_COUNT;
+		for (int b=0; b<BUCKET_COUNT; b++) {
+			seen += buckets.get(offset + b);
+			if (seen >= rank)
+				return Math.min(getBucketUpperBound(b), getMaxTime(phase));
+		}
+		return getMaxTime(phase);
+	}
+	
+	/**
+	 * Returns the histogram bucket for the given duration
+	 */
+	static int getBucket(long value) {
+		if (value < SUB_BUCKETS)
+			return (int)value;
+		int msb = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int)(value >>> (msb - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (msb - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+	}
+	
+	/**
+	 * Returns the largest value of the given histogram bucket
+	 */
+	static long getBucketUpperBound(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int msb = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long sub = bucket % SUB_BUCKETS;
+		long lower = (SUB_BUCKETS + sub) << (msb - SUB_BUCKET_BITS);
+		return lower + (1L << (msb - SUB_BUCKET_BITS)) - 1;
+	}
+	
+	/**
+	 * Returns a report with one line per phase that has data (times in milliseconds)
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("phase\tcount\ttotal\tmean\tmin\tp50\tp90\tp99\tp99.9\tmax\tbytes\tobjects\n");
+		for (int p=0; p<phaseCount; p++) {
+			if (getCount(p) == 0)
+				continue;
+			sb.append(PhaseTiming.getPhaseName(p)).append('\t').append(getCount(p));
+			sb.append('\t').append(toMillis(getTotalTime(p)));
+			sb.append('\t').append(toMillis(getMeanTime(p)));
+			sb.append('\t').append(toMillis(getMinTime(p)));
+			sb.append('\t').append(toMillis(getPercentile(p, 50.0)));
+			sb.append('\t').append(toMillis(getPercentile(p, 90.0)));
+			sb.append('\t').append(toMillis(getPercentile(p, 99.0)));
+			sb.append('\t').append(toMillis(getPercentile(p, 99.9)));
+			sb.append('\t').append(toMillis(getMaxTime(p)));
+			sb.append('\t').append(getTotalBytes(p));
+			sb.append('\t').append(getTotalObjects(p));
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+	
+	private static String toMillis(double nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1000000.0);
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.io.timing;
+
+/**
+ * Receiver of timing information for the phases of reading, writing and converting documents
+ * (see {@link PhaseTiming} for the phases and for registering a listener).<br>
+ * <br>
+ * Listeners are called from the threads doing the work and have to be thread-safe.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public interface PhaseListener {
+
+	/**
+	 * Called when a phase has been completed.
+	 * @param phase Phase ID (see constants in {@link PhaseTiming})
+	 * @param startTime Start of the phase in nanoseconds (as returned by <code>System.nanoTime()</code>)
+	 * @param duration Duration of the phase in nanoseconds. For phases that are interleaved with 
+	 *                 another phase (e.g. model building during parsing), this is the accumulated time
+	 *                 and the start time is the one of the enclosing phase.
+	 * @param bytes Number of bytes read or written (0 if not applicable)
+	 * @param objects Number of objects processed (e.g. XML elements or page content objects; 0 if not applicable)
+	 */
+	public void phaseCompleted(int phase, long startTime, long duration, long bytes, long objects);
+	
+}
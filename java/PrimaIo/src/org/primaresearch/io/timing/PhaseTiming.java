@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.io.timing;
+
+/**
+ * Process-wide registration of a {@link PhaseListener} and helpers for timing phases.<br>
+ * <br>
+ * By default no listener is set and timing is disabled: {@link #start()} only reads a field
+ * and {@link #finish(int, long, long, long)} returns immediately, so that the instrumented code
+ * runs at full speed. Usage in instrumented code:
+ * <pre>
+ * long time = PhaseTiming.start();
+ * ... 
+ * PhaseTiming.finish(PhaseTiming.PARSING, time, bytes, objects);
+ * </pre>
+ * 
+ * @author Christian Clausner
+ *
+ */
+public final class PhaseTiming {
+
+	/** Finding out the format/schema version of a document (pre-parsing of the root element) */
+	public static final int SCHEMA_VERSION_DETECTION = 0;
+	/** Loading and compiling an XML schema */
+	public static final int SCHEMA_COMPILATION = 1;
+	/** Parsing a document (including model building and validation while parsing) */
+	public static final int PARSING = 2;
+	/** Creating the page objects from the parser events (accumulated time within parsing) */
+	public static final int MODEL_BUILDING = 3;
+	/** Validating a document against the schema (separate from parsing or writing) */
+	public static final int VALIDATION = 4;
+	/** Converting a page to another format version */
+	public static final int CONVERSION = 5;
+	/** Creating the XML document (DOM) from a page */
+	public static final int DOCUMENT_BUILDING = 6;
+	/** Writing the XML output */
+	public static final int SERIALIZATION = 7;
+	
+	/** Number of phases */
+	public static final int PHASE_COUNT = 8;
+	
+	/** Start time value if timing is disabled */
+	public static final long OFF = Long.MIN_VALUE;
+	
+	private static final String[] PHASE_NAMES = new String[] {
+		"SchemaVersionDetection", "SchemaCompilation", "Parsing", "ModelBuilding", 
+		"Validation", "Conversion", "DocumentBuilding", "Serialization"
+	};
+	
+	private static volatile PhaseListener listener = null;
+	
+	private PhaseTiming() {
+	}
+	
+	/**
+	 * Sets the listener receiving the timing information of all readers, writers and converters.
+	 * @param listener Listener object or <code>null</code> to disable timing
+	 */
+	public static void setListener(PhaseListener listener) {
+		PhaseTiming.listener = listener;
+	}
+	
+	/**
+	 * Returns the current listener
+	 * @return Listener object or <code>null</code> if timing is disabled
+	 */
+	public static PhaseListener getListener() {
+		return listener;
+	}
+	
+	/**
+	 * Returns <code>true</code> if a listener is set
+	 */
+	public static boolean isEnabled() {
+		return listener != null;
+	}
+
+	/**
+	 * Returns the start time for a phase.
+	 * @return Current value of <code>System.nanoTime()</code> or {@link #OFF} if timing is disabled
+	 */
+	public static long start() {
+		return listener != null ? System.nanoTime() : OFF;
+	}
+	
+	/**
+	 * Reports a completed phase to the listener (does nothing if the start time is {@link #OFF}).
+	 * @param phase Phase ID (see constants)
+	 * @param startTime Time returned by {@link #start()}
+	 * @param bytes Number of bytes read or written (0 if not applicable)
+	 * @param objects Number of objects processed (0 if not applicable)
+	 */
+	public static void finish(int phase, long startTime, long bytes, long objects) {
+		if (startTime == OFF)
+			return;
+		report(phase, startTime, System.nanoTime() - startTime, bytes, objects);
+	}
+	
+	/**
+	 * Reports a phase with given duration to the listener (if set).
+	 * @param phase Phase ID (see constants)
+	 * @param startTime Start time in nanoseconds
+	 * @param duration Duration in nanoseconds
+	 * @param bytes Number of bytes read or written (0 if not applicable)
+	 * @param objects Number of objects processed (0 if not applicable)
+	 */
+	public static void report(int phase, long startTime, long duration, long bytes, long objects) {
+		PhaseListener l = listener;
+		if (l == null)
+			return;
+		try {
+			l.phaseCompleted(phase, startTime, duration, bytes, objects);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Returns the name of the given phase (e.g. 'Parsing')
+	 */
+	public static String getPhaseName(int phase) {
+		if (phase < 0 || phase >= PHASE_NAMES.length)
+			return "Phase" + phase;
+		return PHASE_NAMES[phase];
+	}
+}
@@ -114,7 +114,7 @@ public class DefaultSchemaParser implements SchemaModelParser {
 		
 		if (templates != null) {
 			for (int i=0; i<allAttributes.getSize(); i++) {
-				Variable attr = allAttributes.get(i);
+				Variable attr = allAttributes.peek(i); //Read-only (no copy for copy-on-write maps)
 				if (templates.get(attr.getName()) != null)
 					filtered.add(attr);
 			}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.io.xml;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * SAX content handler that serialises the received events straight to a character stream
+ * (no intermediate document tree).<br>
+ * <br>
+ * Elements without content are written as empty-element tags. Line breaks and tabs
+ * in attribute values are written as character references, so that they survive
+ * attribute value normalisation when the document is read again.
+ *
+ * @author Christian Clausner
+ *
+ */
+public class SaxXmlSerializer extends DefaultHandler {
+
+	private Writer writer;
+	private String encoding;
+	/** Prefix mappings for the next element [prefix, uri] */
+	private List<String[]> pendingPrefixMappings = new ArrayList<String[]>();
+	/** Start tag that has not been closed yet (written as empty-element tag if no content follows) */
+	private String pendingElement = null;
+	private AttributesImpl pendingAttributes = new AttributesImpl();
+
+	/**
+	 * Constructor
+	 * @param writer Target stream (should be buffered)
+	 * @param encoding Encoding name for the XML declaration (has to match the encoding of the writer)
+	 */
+	public SaxXmlSerializer(Writer writer, String encoding) {
+		this.writer = writer;
+		this.encoding = encoding;
+	}
+
+	@Override
+	public void startDocument() throws SAXException {
+		try {
+			writer.write("<?xml version=\"1.0\" encoding=\"");
+			writer.write(encoding);
+			writer.write("\"?>");
+		} catch (IOException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	@Override
+	public void endDocument() throws SAXException {
+		try {
+			closePendingElement(false);
+			writer.flush();
+		} catch (IOException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	@Override
+	public void startPrefixMapping(String prefix, String uri) throws SAXException {
+		pendingPrefixMappings.add(new String[] {prefix, uri});
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+		try {
+			closePendingElement(false);
+		} catch (IOException e) {
+			throw new SAXException(e);
+		}
+		pendingElement = qName != null && !qName.isEmpty() ? qName : localName;
+		pendingAttributes.setAttributes(atts);
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) throws SAXException {
+		try {
+			if (pendingElement != null)
+				closePendingElement(true);
+			else {
+				writer.write("</");
+				writer.write(qName != null && !qName.isEmpty() ? qName : localName);
+				writer.write('>');
+			}
+		} catch (IOException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+		try {
+			closePendingElement(false);
+			writeText(ch, start, length);
+		} catch (IOException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+		characters(ch, start, length);
+	}
+
+	@Override
+	public void processingInstruction(String target, String data) throws SAXException {
+		try {
+			closePendingElement(false);
+			writer.write("<?");
+			writer.write(target);
+			if (data != null && !data.isEmpty()) {
+				writer.write(' ');
+				writer.write(data);
+			}
+			writer.write("?>");
+		} catch (IOException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	/**
+	 * Writes the start tag that is still open (if any).
+	 * @param empty Write as empty-element tag
+	 */
+	private void closePendingElement(boolean empty) throws IOException {
+		if (pendingElement == null)
+			return;
+
+		writer.write('<');
+		writer.write(pendingElement);
+
+		//Namespace declarations
+		for (int i=0; i<pendingPrefixMappings.size(); i++) {
+			String[] mapping = pendingPrefixMappings.get(i);
+			if (mapping[0] == null || mapping[0].isEmpty())
+				writer.write(" xmlns");
+			else {
+				writer.write(" xmlns:");
+				writer.write(mapping[0]);
+			}
+			writeAttributeValue(mapping[1]);
+		}
+		pendingPrefixMappings.clear();
+
+		//Attributes
+		for (int i=0; i<pendingAttributes.getLength(); i++) {
+			String name = pendingAttributes.getQName(i);
+			writer.write(' ');
+			writer.write(name != null && !name.isEmpty() ? name : pendingAttributes.getLocalName(i));
+			writeAttributeValue(pendingAttributes.getValue(i));
+		}
+		pendingAttributes.clear();
+
+		writer.write(empty ? "/>" : ">");
+		pendingElement = null;
+	}
+
+	private void writeAttributeValue(String value) throws IOException {
+		writer.write("=\"");
+		if (value != null) {
+			int length = value.length();
+			int last = 0; //Start of the characters that have not been written yet
+			for (int i=0; i<length; i++) {
+				String replacement = getReplacement(value.charAt(i), true);
+				if (replacement != null) {
+					if (i > last)
+						writer.write(value, last, i - last);
+					writer.write(replacement);
+					last = i + 1;
+				}
+			}
+			if (length > last)
+				writer.write(value, last, length - last);
+		}
+		writer.write('"');
+	}
+
+	/**
+	 * Writes the given text characters, replacing markup characters by entity or character references.
+	 */
+	private void writeText(char[] ch, int start, int length) throws IOException {
+		int end = start + length;
+		int last = start; //Start of the characters that have not been written yet
+		for (int i=start; i<end; i++) {
+			String replacement = getReplacement(ch[i], false);
+			if (replacement != null) {
+				if (i > last)
+					writer.write(ch, last, i - last);
+				writer.write(replacement);
+				last = i + 1;
+			}
+		}
+		if (end > last)
+			writer.write(ch, last, end - last);
+	}
+
+	/**
+	 * Returns the entity or character reference for the given character.
+	 * @param attribute Escape for an attribute value (quotes, line breaks and tabs)
+	 * @return Reference or <code>null</code> if the character can be written as it is
+	 */
+	private static String getReplacement(char c, boolean attribute) {
+		switch (c) {
+			case '&': return "&amp;";
+			case '<': return "&lt;";
+			case '>': return "&gt;";
+			case '\r': return "&#13;";
+			case '"': return attribute ? "&quot;" : null;
+			case '\n': return attribute ? "&#10;" : null;
+			case '\t': return attribute ? "&#9;" : null;
+			default: return null;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.io.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.primaresearch.io.timing.CountingInputStream;
+import org.primaresearch.io.timing.PhaseTiming;
+import org.xml.sax.SAXException;
+
+/**
+ * Process-wide cache for compiled XML schemas and schema model parsers (attribute templates).<br>
+ * <br>
+ * Schemas are identified by their location, schema parsers by location and format version.
+ * Each schema is compiled and parsed only once, no matter how many validators or
+ * model and validator providers are created for it. All methods can be called from multiple threads.
+ * If compiling or parsing fails, nothing is cached and the next request tries again.
+ *
+ * @author Christian Clausner
+ *
+ */
+public class SchemaCache {
+
+	/** Map [schema location, compiled schema] */
+	private static final ConcurrentMap<String, Holder<Schema>> schemas = new ConcurrentHashMap<String, Holder<Schema>>();
+
+	/** Map [schema location and version, schema parser] */
+	private static final ConcurrentMap<String, Holder<SchemaModelParser>> parsers = new ConcurrentHashMap<String, Holder<SchemaModelParser>>();
+
+	private SchemaCache() {
+	}
+
+	/**
+	 * Returns the compiled schema for the given location (compiles it on first request).
+	 * @param schemaSource Schema location
+	 * @return Schema object or <code>null</code> if the schema could not be loaded
+	 */
+	public static Schema getSchema(URL schemaSource) {
+		if (schemaSource == null)
+			return null;
+		Holder<Schema> holder = getHolder(schemas, schemaSource.toExternalForm());
+		synchronized (holder) { //Only one thread compiles a specific schema
+			if (holder.value == null)
+				holder.value = compileSchema(schemaSource);
+			return holder.value;
+		}
+	}
+
+	/**
+	 * Returns the schema parser for the given location and version (parses the schema on first request).
+	 * @param schemaSource Schema location
+	 * @param version Format version of the schema
+	 * @return Schema parser or <code>null</code> if no location was specified
+	 */
+	public static SchemaModelParser getSchemaParser(URL schemaSource, XmlFormatVersion version) {
+		if (schemaSource == null)
+			return null;
+		Holder<SchemaModelParser> holder = getHolder(parsers, schemaSource.toExternalForm() + " " + version);
+		synchronized (holder) {
+			if (holder.value == null) {
+				//TODO Different parsers?
+				DefaultSchemaParser schemaParser = new DefaultSchemaParser(version);
+				schemaParser.parse(schemaSource);
+				holder.value = schemaParser;
+			}
+			return holder.value;
+		}
+	}
+
+	/**
+	 * Checks if the schema for the given location has been compiled already
+	 */
+	public static boolean isSchemaCached(URL schemaSource) {
+		if (schemaSource == null)
+			return false;
+		Holder<Schema> holder = schemas.get(schemaSource.toExternalForm());
+		if (holder == null)
+			return false;
+		synchronized (holder) {
+			return holder.value != null;
+		}
+	}
+
+	/**
+	 * Removes all schemas and schema parsers from the cache.
+	 */
+	public static void clear() {
+		schemas.clear();
+		parsers.clear();
+	}
+
+	private static <T> Holder<T> getHolder(ConcurrentMap<String, Holder<T>> map, String key) {
+		Holder<T> holder = map.get(key);
+		if (holder == null) {
+			Holder<T> newHolder = new Holder<T>();
+			holder = map.putIfAbsent(key, newHolder);
+			if (holder == null)
+				holder = newHolder;
+		}
+		return holder;
+	}
+
+	private static Schema compileSchema(URL schemaSource) {
+		long time = PhaseTiming.start();
+		//Schema factories are not thread-safe (new one for each schema)
+		SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+		InputStream inputStream = null;
+		try {
+			inputStream = schemaSource.openStream();
+			if (time != PhaseTiming.OFF)
+				inputStream = new CountingInputStream(inputStream);
+			Schema schema = schemaFactory.newSchema(new StreamSource(inputStream, schemaSource.toExternalForm()));
+			PhaseTiming.finish(PhaseTiming.SCHEMA_COMPILATION, time, 
+					inputStream instanceof CountingInputStream ? ((CountingInputStream)inputStream).getCount() : 0L, 1L);
+			return schema;
+		} catch (SAXException e) {
+			e.printStackTrace();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			if (inputStream != null) {
+				try {
+					inputStream.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Lazily filled cache slot
+	 */
+	private static final class Holder<T> {
+		T value;
+	}
+}
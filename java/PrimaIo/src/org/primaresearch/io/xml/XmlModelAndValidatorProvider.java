@@ -19,6 +19,7 @@ import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -28,7 +29,8 @@ import java.util.Map;
 import org.primaresearch.io.UnsupportedFormatVersionException;
 
 /**
- * Provides access to models and validators for different schema versions.
+ * Provides access to models and validators for different schema versions.<br>
+ * Models and validators are created on demand and can be requested from multiple threads.
  *  
  * @author Christian Clausner
  *
@@ -161,7 +163,7 @@ public abstract class XmlModelAndValidatorProvider {
 	/**
 	 * Returns the latest schema version of this provider (based on version format 'yyyy-mm-dd').
 	 */
-	public XmlFormatVersion getLatestSchemaVersion() {
+	public synchronized XmlFormatVersion getLatestSchemaVersion() {
 		if (latestSchemaVersion == null)
 			latestSchemaVersion = findLatestSchemaVersion();
 		return latestSchemaVersion;
@@ -202,7 +204,7 @@ public abstract class XmlModelAndValidatorProvider {
 	/**
 	 * Returns the validator for the specified schema version.
 	 */
-	public XmlValidator getValidator(XmlFormatVersion schemaVersion) throws UnsupportedSchemaVersionException {
+	public synchronized XmlValidator getValidator(XmlFormatVersion schemaVersion) throws UnsupportedSchemaVersionException {
 		if (schemaVersion == null)
 			return null;
 		if (!schemaSources.containsKey(schemaVersion))
@@ -225,7 +227,7 @@ public abstract class XmlModelAndValidatorProvider {
 	 * @return The parser
 	 * @throws UnsupportedSchemaVersionException
 	 */
-	public SchemaModelParser getSchemaParser(XmlFormatVersion schemaVersion) throws UnsupportedSchemaVersionException {
+	public synchronized SchemaModelParser getSchemaParser(XmlFormatVersion schemaVersion) throws UnsupportedSchemaVersionException {
 		if (schemaVersion == null)
 			return null;
 		if (!schemaSources.containsKey(schemaVersion))
@@ -234,15 +236,41 @@ public abstract class XmlModelAndValidatorProvider {
 		SchemaModelParser schemaParser = schemaParsers.get(schemaVersion);
 		if (schemaParser == null) { //Not yet created
 			if (schemaSources.get(schemaVersion) != null) {
-				//Create schema parser
-				//TODO Different parsers?
-				schemaParser = new DefaultSchemaParser(schemaVersion);
-				schemaParser.parse(schemaSources.get(schemaVersion));
+				//Get schema parser (parsed only once per process)
+				schemaParser = SchemaCache.getSchemaParser(schemaSources.get(schemaVersion), schemaVersion);
 				schemaParsers.put(schemaVersion, schemaParser);
 			}
 		}
 		return schemaParser;
 	}
+	
+	/**
+	 * Compiles the schemas and parses the attribute templates of the given versions in advance
+	 * (e.g. at application start-up), so that the first read or write operation does not have to wait for it.
+	 * The results are kept in the process-wide {@link SchemaCache}.
+	 * @param schemaVersions Versions to prepare (all default schemas if none specified)
+	 */
+	public void warmUp(XmlFormatVersion... schemaVersions) {
+		List<XmlFormatVersion> versions;
+		if (schemaVersions == null || schemaVersions.length == 0) {
+			synchronized (this) {
+				versions = new ArrayList<XmlFormatVersion>(defaultSchemas);
+			}
+		}
+		else
+			versions = Arrays.asList(schemaVersions);
+		
+		for (int i=0; i<versions.size(); i++) {
+			try {
+				XmlValidator validator = getValidator(versions.get(i));
+				if (validator != null)
+					validator.getSchema();
+				getSchemaParser(versions.get(i));
+			} catch (UnsupportedSchemaVersionException e) {
+				e.printStackTrace();
+			}
+		}
+	}
 
 	
 	
@@ -15,17 +15,9 @@
  */
 package org.primaresearch.io.xml;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 
-import javax.xml.XMLConstants;
-import javax.xml.transform.Source;
-import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
-
-import org.xml.sax.SAXException;
 
 /**
  * XML validator for a specific schema.<br>
@@ -54,23 +46,14 @@ public class XmlValidator {
 	}
 	
 	/**
-	 * Returns the schema object that can be used for validating XML (e.g. DOM or SAX). 
+	 * Returns the schema object that can be used for validating XML (e.g. DOM or SAX).
+	 * The schema is compiled on first access and can be shared between threads.
+	 * Compiled schemas are kept in the process-wide {@link SchemaCache}, so validators 
+	 * for the same schema location share one schema object. 
 	 */
-	public Schema getSchema() {
-		if (schema == null) {
-    		//SchemaFactory schemaFactory = SchemaFactory.newInstance("http://www.w3.org/2001/XMLSchema");
-    		SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-			try {
-				URL schemaSource = getSchemaSource();
-				InputStream inputStream = schemaSource.openStream();
-				Source src = new StreamSource(inputStream);
-				schema = schemaFactory.newSchema(src);
-			} catch (SAXException e) {
-				e.printStackTrace();
-			} catch (IOException e) {
-				e.printStackTrace();
-			} 
-		}
+	public synchronized Schema getSchema() {
+		if (schema == null)
+			schema = SchemaCache.getSchema(getSchemaSource());
 		return schema;
 	}
 	
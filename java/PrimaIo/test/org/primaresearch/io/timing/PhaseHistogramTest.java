@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.io.timing;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PhaseHistogramTest {
+
+	@After
+	public void tearDown() {
+		PhaseTiming.setListener(null);
+	}
+	
+	@Test
+	public void testBuckets() {
+		//Buckets are contiguous and each value lies within the bounds of its bucket
+		long[] values = new long[] { 0, 1, 7, 8, 9, 15, 16, 17, 100, 1000, 123456789L, Long.MAX_VALUE };
+		for (long value : values) {
+			int bucket = PhaseHistogram.getBucket(value);
+			assertTrue("Bucket range " + value, bucket >= 0 && bucket < PhaseHistogram.BUCKET_COUNT);
+			assertTrue("Upper bound " + value, PhaseHistogram.getBucketUpperBound(bucket) >= value);
+			if (bucket > 0)
+				assertTrue("Lower bound " + value, PhaseHistogram.getBucketUpperBound(bucket - 1) < value);
+			//Relative error of 12.5% at most
+			assertTrue("Precision " + value, PhaseHistogram.getBucketUpperBound(bucket) - value <= value / 8);
+		}
+		assertEquals(Long.MAX_VALUE, PhaseHistogram.getBucketUpperBound(PhaseHistogram.BUCKET_COUNT - 1));
+	}
+
+	@Test
+	public void testStatistics() {
+		PhaseHistogram histogram = new PhaseHistogram();
+		
+		//1000 durations of 1 to 1000 microseconds
+		for (int i=1; i<=1000; i++)
+			histogram.phaseCompleted(PhaseTiming.PARSING, 0L, i * 1000L, 10L, 2L);
+		histogram.phaseCompleted(PhaseTiming.CONVERSION, 0L, 5L, 0L, 0L);
+		
+		assertEquals(1000L, histogram.getCount(PhaseTiming.PARSING));
+		assertEquals(1000L, histogram.getMinTime(PhaseTiming.PARSING));
+		assertEquals(1000000L, histogram.getMaxTime(PhaseTiming.PARSING));
+		assertEquals(500500000L, histogram.getTotalTime(PhaseTiming.PARSING));
+		assertEquals(500500.0, histogram.getMeanTime(PhaseTiming.PARSING), 0.001);
+		assertEquals(10000L, histogram.getTotalBytes(PhaseTiming.PARSING));
+		assertEquals(2000L, histogram.getTotalObjects(PhaseTiming.PARSING));
+
+		long p50 = histogram.getPercentile(PhaseTiming.PARSING, 50.0);
+		assertTrue("Median", p50 >= 500000L && p50 <= 500000L * 9 / 8);
+		long p99 = histogram.getPercentile(PhaseTiming.PARSING, 99.0);
+		assertTrue("99th percentile", p99 >= 990000L && p99 <= 1000000L);
+		assertEquals(1000000L, histogram.getPercentile(PhaseTiming.PARSING, 100.0));
+		
+		assertEquals(1L, histogram.getCount(PhaseTiming.CONVERSION));
+		assertEquals(5L, histogram.getPercentile(PhaseTiming.CONVERSION, 50.0));
+		assertEquals(0L, histogram.getCount(PhaseTiming.SERIALIZATION));
+		assertEquals(0L, histogram.getPercentile(PhaseTiming.SERIALIZATION, 50.0));
+		
+		assertTrue("Report", histogram.toString().contains("Parsing\t1000\t"));
+		
+		histogram.reset();
+		assertEquals(0L, histogram.getCount(PhaseTiming.PARSING));
+		assertEquals(0L, histogram.getMaxTime(PhaseTiming.PARSING));
+	}
+	
+	@Test
+	public void testTiming() {
+		//Disabled by default
+		assertFalse(PhaseTiming.isEnabled());
+		assertEquals(PhaseTiming.OFF, PhaseTiming.start());
+		
+		PhaseHistogram histogram = new PhaseHistogram();
+		PhaseTiming.setListener(histogram);
+		assertTrue(PhaseTiming.isEnabled());
+		
+		long time = PhaseTiming.start();
+		assertTrue(time != PhaseTiming.OFF);
+		PhaseTiming.finish(PhaseTiming.VALIDATION, time, 1L, 2L);
+		
+		//Ignored
+		PhaseTiming.finish(PhaseTiming.VALIDATION, PhaseTiming.OFF, 1L, 2L);
+		
+		assertEquals(1L, histogram.getCount(PhaseTiming.VALIDATION));
+		assertEquals(1L, histogram.getTotalBytes(PhaseTiming.VALIDATION));
+		assertEquals(2L, histogram.getTotalObjects(PhaseTiming.VALIDATION));
+	}
+}
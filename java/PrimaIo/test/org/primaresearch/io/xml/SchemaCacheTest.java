@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.io.xml;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.validation.Schema;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.primaresearch.io.xml.XmlModelAndValidatorProvider.NoSchemasException;
+
+public class SchemaCacheTest {
+
+	private static final XmlFormatVersion VERSION = new XmlFormatVersion("2019-07-15");
+
+	private File schemaFile;
+	private URL schemaUrl;
+
+	@Before
+	public void setUp() throws Exception {
+		schemaFile = File.createTempFile("schemaCacheTest", ".xsd");
+		FileWriter writer = new FileWriter(schemaFile);
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<schema xmlns=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"test\" xmlns:t=\"test\">\n"
+				+ "  <element name=\"Root\" type=\"t:RootType\"/>\n"
+				+ "  <complexType name=\"RootType\">\n"
+				+ "    <attribute name=\"id\" type=\"string\" use=\"required\"/>\n"
+				+ "  </complexType>\n"
+				+ "</schema>\n");
+		writer.close();
+		schemaUrl = schemaFile.toURI().toURL();
+		SchemaCache.clear();
+	}
+
+	@After
+	public void tearDown() {
+		SchemaCache.clear();
+		schemaFile.delete();
+	}
+
+	@Test
+	public void testSharedSchema() throws Exception {
+		assertFalse(SchemaCache.isSchemaCached(schemaUrl));
+		assertNull(SchemaCache.getSchema(null));
+
+		XmlValidator validator1 = new XmlValidator(schemaUrl, VERSION);
+		XmlValidator validator2 = new XmlValidator(schemaUrl, VERSION);
+		Schema schema = validator1.getSchema();
+		assertNotNull(schema);
+		assertTrue(SchemaCache.isSchemaCached(schemaUrl));
+		assertSame(schema, validator2.getSchema());
+	}
+
+	@Test
+	public void testSharedParser() throws Exception {
+		TestProvider provider1 = new TestProvider();
+		TestProvider provider2 = new TestProvider();
+		SchemaModelParser parser = provider1.getSchemaParser(VERSION);
+		assertNotNull(parser);
+		assertSame(parser, provider2.getSchemaParser(VERSION));
+		assertNotSame(parser, SchemaCache.getSchemaParser(schemaUrl, new XmlFormatVersion("2018-07-15")));
+	}
+
+	@Test
+	public void testWarmUp() throws Exception {
+		TestProvider provider = new TestProvider();
+		provider.warmUp();
+		assertTrue(SchemaCache.isSchemaCached(schemaUrl));
+		assertSame(SchemaCache.getSchemaParser(schemaUrl, VERSION), provider.getSchemaParser(VERSION));
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		final Schema[] results = new Schema[8];
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i=0; i<results.length; i++) {
+			final int index = i;
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					results[index] = new XmlValidator(schemaUrl, VERSION).getSchema();
+				}
+			}));
+		}
+		for (Thread thread : threads)
+			thread.start();
+		for (Thread thread : threads)
+			thread.join();
+
+		assertNotNull(results[0]);
+		for (int i=1; i<results.length; i++)
+			assertSame(results[0], results[i]);
+	}
+
+
+	private class TestProvider extends XmlModelAndValidatorProvider {
+
+		public TestProvider() throws NoSchemasException {
+			super();
+		}
+
+		@Override
+		protected void addDefaultSchemas() {
+			addSchemaSource(VERSION, schemaUrl, true);
+		}
+	}
+}
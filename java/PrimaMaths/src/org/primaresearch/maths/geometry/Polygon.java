@@ -16,195 +16,628 @@
 package org.primaresearch.maths.geometry;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 
 /**
- * Polygon class holding a list of points and providing some geometric operations.
- * 
+ * Polygon class holding a list of points and providing some geometric operations.<br>
+ * <br>
+ * The coordinates are stored in a packed array of interleaved x/y values. Use the primitive
+ * accessors ({@link #getX(int)}, {@link #getY(int)}, {@link #setPoint(int, int, int)}, {@link #toArray()})
+ * where possible. The point object methods ({@link #getPoint(int)}, {@link #addPoint(Point)},
+ * {@link #insertPoint(int, Point)}, {@link #removePoint(Point)}) are still supported and work with
+ * point objects that are linked to the polygon (changes to the point change the polygon). On the first
+ * call of one of these methods the polygon switches to storing point objects, which needs considerably more memory.<br>
+ * <br>
+ * All methods are synchronised by default. Use {@link #setThreadSafe(boolean)} to turn this off
+ * for polygons that are only accessed by one thread.
+ *
  * @author Christian Clausner
  *
  */
 public class Polygon implements Serializable {
 
-	private static final long serialVersionUID = 1L;
+	private static final long serialVersionUID = 2L;
+
+	private static final int[] EMPTY = new int[0];
+
+	/** Coordinates and properties (shared with read-only views) */
+	private Data data;
+
+	private boolean readOnly = false;
 
-	private List<Point> points = new ArrayList<Point>();
-	
-	private Rect boundingBox = null;
-	
-	private Double confidence = null;
-	
+	/**
+	 * Constructor for empty polygon
+	 */
 	public Polygon() {
-		
+		data = new Data(0);
+	}
+
+	/**
+	 * Constructor for empty polygon with preallocated space
+	 * @param capacity Number of points the polygon can hold without growing
+	 */
+	public Polygon(int capacity) {
+		data = new Data(capacity);
 	}
-	
+
+	/**
+	 * Constructor for polygon with the given coordinates
+	 * @param xy Interleaved x/y values (x0, y0, x1, y1, ...)
+	 * @param offset Start index in xy
+	 * @param count Number of points
+	 */
+	public Polygon(int[] xy, int offset, int count) {
+		data = new Data(count);
+		System.arraycopy(xy, offset, data.coords, 0, count * 2);
+		data.size = count;
+	}
+
+	/**
+	 * Constructor for read-only view
+	 */
+	private Polygon(Data data) {
+		this.data = data;
+		this.readOnly = true;
+	}
+
+	/**
+	 * Returns a read-only view of this polygon. The view reflects all changes
+	 * of this polygon but throws an UnsupportedOperationException for all modifications.
+	 * {@link #getPoint(int)} returns detached point objects for views.
+	 */
+	public Polygon asReadOnly() {
+		if (readOnly)
+			return this;
+		return new Polygon(data);
+	}
+
+	/**
+	 * Returns an immutable copy of this polygon. The bounding box of the copy is calculated in advance
+	 * and access is not synchronised. The copy can therefore be shared between threads without locking
+	 * (provided it is published safely, e.g. via a final field). All modifications throw an
+	 * UnsupportedOperationException.
+	 */
+	public Polygon immutableCopy() {
+		Data copy;
+		if (!data.threadSafe)
+			copy = data.immutableCopy();
+		else synchronized (data) {
+			copy = data.immutableCopy();
+		}
+		return new Polygon(copy);
+	}
+
+	/**
+	 * Checks if this is a read-only view
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * Checks if access to this polygon is synchronised (default is <code>true</code>).
+	 */
+	public boolean isThreadSafe() {
+		return data.threadSafe;
+	}
+
+	/**
+	 * Enables or disables synchronised access (applies to read-only views as well).
+	 * @param threadSafe Set to <code>false</code> if the polygon is only used by one thread.
+	 */
+	public void setThreadSafe(boolean threadSafe) {
+		if (data.immutable)
+			throw new UnsupportedOperationException("Immutable polygon");
+		data.threadSafe = threadSafe;
+	}
+
+	private void checkWritable() {
+		if (readOnly)
+			throw new UnsupportedOperationException("Read-only polygon");
+	}
+
 	/**
 	 * Returns the number of points of this polygon.
 	 */
 	public int getSize() {
-		synchronized (this) {
-			return points.size();
+		return data.size;
+	}
+
+	/**
+	 * Returns the x coordinate of the point at the given index.
+	 */
+	public int getX(int index) {
+		if (!data.threadSafe)
+			return data.getX(index);
+		synchronized (data) {
+			return data.getX(index);
 		}
 	}
 
 	/**
-	 * Returns the polygon point at the given index.
+	 * Returns the y coordinate of the point at the given index.
+	 */
+	public int getY(int index) {
+		if (!data.threadSafe)
+			return data.getY(index);
+		synchronized (data) {
+			return data.getY(index);
+		}
+	}
+
+	/**
+	 * Returns the polygon point at the given index.<br>
+	 * The point is linked to the polygon (changes of the point coordinates change the polygon;
+	 * call {@link #setBoundingBoxOutdated() setBoundingBoxOutdated} afterwards).
+	 * For read-only views, a copy of the point is returned.
 	 */
 	public Point getPoint(int index) {
-		synchronized (this) {
-			return points.get(index);
+		if (!data.threadSafe)
+			return getPointImpl(index);
+		synchronized (data) {
+			return getPointImpl(index);
+		}
+	}
+
+	private Point getPointImpl(int index) {
+		data.checkIndex(index);
+		if (readOnly)
+			return new Point(data.getX(index), data.getY(index));
+		data.switchToPointObjects();
+		return data.points[index];
+	}
+
+	/**
+	 * Changes the coordinates of the point at the given index.
+	 */
+	public void setPoint(int index, int x, int y) {
+		checkWritable();
+		if (!data.threadSafe)
+			data.set(index, x, y);
+		else synchronized (data) {
+			data.set(index, x, y);
 		}
 	}
 
 	/**
-	 * Adds a point at the end of the polygon.
+	 * Adds a point at the end of the polygon.<br>
+	 * The point object itself is stored (changes of the point coordinates change the polygon).
+	 * Use {@link #addPoint(int, int)} to keep the compact coordinate storage.
 	 */
 	public void addPoint(Point p) {
-		synchronized (this) {
-			points.add(p);
-			setBoundingBoxOutdated();
+		checkWritable();
+		if (!data.threadSafe)
+			data.insert(data.size, p);
+		else synchronized (data) {
+			data.insert(data.size, p);
 		}
 	}
-	
+
 	/**
 	 * Adds a point at the end of the polygon.
 	 */
 	public void addPoint(int x, int y) {
-		synchronized (this) {
-			points.add(new Point(x,y));
-			setBoundingBoxOutdated();
+		checkWritable();
+		if (!data.threadSafe)
+			data.insert(data.size, x, y);
+		else synchronized (data) {
+			data.insert(data.size, x, y);
 		}
 	}
 
 	/**
-	 * Inserts a polygon point at the given position.
+	 * Adds multiple points at the end of the polygon.
+	 * @param xy Interleaved x/y values (x0, y0, x1, y1, ...)
+	 * @param offset Start index in xy
+	 * @param count Number of points
+	 */
+	public void addPoints(int[] xy, int offset, int count) {
+		checkWritable();
+		if (!data.threadSafe)
+			data.addAll(xy, offset, count);
+		else synchronized (data) {
+			data.addAll(xy, offset, count);
+		}
+	}
+
+	/**
+	 * Inserts a polygon point at the given position.<br>
+	 * The point object itself is stored (changes of the point coordinates change the polygon).
 	 * @param insertAfter Index of point before the new point.
 	 * @param p New point
 	 */
 	public void insertPoint(int insertAfter, Point p) {
-		synchronized (this) {
-			points.add(insertAfter+1, p);
-			setBoundingBoxOutdated();
+		checkWritable();
+		if (insertAfter+1 < 0 || insertAfter+1 > data.size)
+			throw new IndexOutOfBoundsException("Index: "+(insertAfter+1)+", Size: "+data.size);
+		if (!data.threadSafe)
+			data.insert(insertAfter+1, p);
+		else synchronized (data) {
+			data.insert(insertAfter+1, p);
 		}
 	}
-	
+
 	/**
-	 * Removes the given point from the polygon.
+	 * Removes the given point object from the polygon (has to be the object itself, as
+	 * obtained via getPoint() or passed to addPoint(); points are not compared by coordinates).
 	 */
 	public void removePoint(Point p) {
-		synchronized (this) {
-			points.remove(p);
-			setBoundingBoxOutdated();
+		checkWritable();
+		if (!data.threadSafe)
+			data.remove(p);
+		else synchronized (data) {
+			data.remove(p);
 		}
 	}
-	
+
+	/**
+	 * Removes the point at the given index.
+	 */
+	public void removePoint(int index) {
+		checkWritable();
+		if (!data.threadSafe)
+			data.remove(index);
+		else synchronized (data) {
+			data.remove(index);
+		}
+	}
+
+	/**
+	 * Returns a copy of all coordinates.
+	 * @return Interleaved x/y values (x0, y0, x1, y1, ...)
+	 */
+	public int[] toArray() {
+		if (!data.threadSafe)
+			return data.toArray();
+		synchronized (data) {
+			return data.toArray();
+		}
+	}
+
 	/**
 	 * Returns the bounding box of the polygon (the user has to make sure that
 	 * {@link #setBoundingBoxOutdated() setBoundingBoxOutdated} is called when points are changed manually).
-	 * 
+	 * For immutable copies, a new rectangle is returned with every call (the precomputed box is shared between threads).
+	 *
 	 * @return Rectangle
 	 */
 	public Rect getBoundingBox() {
-		synchronized (this) {
-			if (boundingBox == null)
-				updateBoundingBox();
-			return boundingBox;
+		if (data.immutable) {
+			Rect box = data.boundingBox;
+			return new Rect(box.left, box.top, box.right, box.bottom);
 		}
-	}
-	
-	private void updateBoundingBox() {
-		int left = Integer.MAX_VALUE;
-		int top = Integer.MAX_VALUE;
-		int right = Integer.MIN_VALUE;
-		int bottom = Integer.MIN_VALUE;
-		
-		synchronized (this) {
-			Point p;
-			for (int i=0; i<points.size(); i++) {
-				p = points.get(i);
-				if (p.x < left)
-					left = p.x;
-				if (p.y < top)
-					top = p.y;
-				if (p.x > right)
-					right = p.x;
-				if (p.y > bottom)
-					bottom = p.y;
-			}
-			
-			this.boundingBox = new Rect(left, top, right, bottom);
+		if (!data.threadSafe)
+			return data.getBoundingBox();
+		synchronized (data) {
+			return data.getBoundingBox();
 		}
 	}
-	
+
 	/**
 	 * Mark the bounding box as 'to be updated'.
 	 */
 	public void setBoundingBoxOutdated() {
-		this.boundingBox = null;
+		if (!data.immutable) //Cannot be outdated
+			data.boundingBox = null;
 	}
-	
+
 	//TODO Check polygon line as well (add parameter)
 	/**
 	 * Checks if the given point is inside the polygon. Note that the polygon line does not count as inside.
 	 */
 	public boolean isPointInside(int x, int y) {
-		
-		synchronized (this) {
+		if (!data.threadSafe)
+			return data.isPointInside(x, y);
+		synchronized (data) {
+			return data.isPointInside(x, y);
+		}
+	}
+
+	/**
+	 * Calculates the perimeter of this polygon
+	 * @return Length (0.0 if not a polygon)
+	 */
+	public double calculateLength() {
+		if (!data.threadSafe)
+			return data.calculateLength();
+		synchronized (data) {
+			return data.calculateLength();
+		}
+	}
+
+	/**
+	 * Calculates the area enclosed by this polygon (shoelace formula). The result is exact for
+	 * simple polygons, including concave and self-touching outlines. For self-intersecting outlines,
+	 * this is the absolute value of the signed area (e.g. 0.0 for a symmetric bowtie); use
+	 * {@link PolygonOverlap#getArea(Polygon)} for the area according to the even-odd rule.
+	 * @return Area (0.0 if less than three points)
+	 */
+	public double calculateArea() {
+		if (!data.threadSafe)
+			return data.calculateArea();
+		synchronized (data) {
+			return data.calculateArea();
+		}
+	}
+
+	/**
+	 * Creates a deep copy of this polygon (the copy is not read-only).
+	 */
+	public Polygon clone() {
+		int[] coords = toArray();
+		return new Polygon(coords, 0, coords.length / 2);
+	}
+
+	/**
+	 * E.g. polygon recognition confidence
+	 * @return 0.0..1.0
+	 */
+	public Double getConfidence() {
+		return data.confidence;
+	}
+
+	/**
+	 * E.g. polygon recognition confidence
+	 * @param confidence 0.0..1.0
+	 */
+	public void setConfidence(Double confidence) {
+		checkWritable();
+		data.confidence = confidence;
+	}
+
+
+	/**
+	 * Polygon coordinates and properties.<br>
+	 * The coordinates are either stored in a packed int array or, after getPoint() has been called,
+	 * as point objects.
+	 *
+	 * @author Christian Clausner
+	 *
+	 */
+	private static final class Data implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		/** Interleaved x/y values (null if point objects are used) */
+		int[] coords;
+		/** Point objects (null if packed coordinates are used) */
+		Point[] points = null;
+		int size = 0;
+		Rect boundingBox = null;
+		Double confidence = null;
+		boolean threadSafe = true;
+		/** Set for immutable copies (not synchronised, bounding box always up to date) */
+		boolean immutable = false;
+
+		/**
+		 * Constructor for serialisation (e.g. GWT-RPC)
+		 */
+		Data() {
+			this(0);
+		}
+
+		Data(int capacity) {
+			coords = capacity > 0 ? new int[capacity * 2] : EMPTY;
+		}
+
+		/**
+		 * Creates an immutable copy with packed coordinates and precomputed bounding box
+		 */
+		Data immutableCopy() {
+			Data copy = new Data(0);
+			copy.coords = toArray();
+			copy.size = size;
+			copy.confidence = confidence;
+			copy.updateBoundingBox();
+			copy.threadSafe = false;
+			copy.immutable = true;
+			return copy;
+		}
+
+		void checkIndex(int index) {
+			if (index < 0 || index >= size)
+				throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+		}
+
+		int getX(int index) {
+			checkIndex(index);
+			return points != null ? points[index].x : coords[index * 2];
+		}
+
+		int getY(int index) {
+			checkIndex(index);
+			return points != null ? points[index].y : coords[index * 2 + 1];
+		}
+
+		void set(int index, int x, int y) {
+			checkIndex(index);
+			if (points != null) {
+				points[index].x = x;
+				points[index].y = y;
+			} else {
+				coords[index * 2] = x;
+				coords[index * 2 + 1] = y;
+			}
+			boundingBox = null;
+		}
+
+		/**
+		 * Switches from packed coordinates to point objects
+		 */
+		void switchToPointObjects() {
+			if (points != null)
+				return;
+			points = new Point[Math.max(size, 4)];
+			for (int i=0; i<size; i++)
+				points[i] = new Point(coords[i * 2], coords[i * 2 + 1]);
+			coords = null;
+		}
+
+		/**
+		 * Makes sure there is space for the given number of points
+		 */
+		void ensureCapacity(int capacity) {
+			if (points != null) {
+				if (capacity > points.length) {
+					Point[] newPoints = new Point[Math.max(capacity, points.length + points.length / 2)];
+					System.arraycopy(points, 0, newPoints, 0, size);
+					points = newPoints;
+				}
+			} else {
+				if (capacity * 2 > coords.length) {
+					int[] newCoords = new int[Math.max(capacity * 2, Math.max(8, coords.length + coords.length / 2))];
+					System.arraycopy(coords, 0, newCoords, 0, size * 2);
+					coords = newCoords;
+				}
+			}
+		}
+
+		void insert(int index, int x, int y) {
+			ensureCapacity(size + 1);
+			if (points != null) {
+				System.arraycopy(points, index, points, index + 1, size - index);
+				points[index] = new Point(x, y);
+			} else {
+				System.arraycopy(coords, index * 2, coords, index * 2 + 2, (size - index) * 2);
+				coords[index * 2] = x;
+				coords[index * 2 + 1] = y;
+			}
+			size++;
+			boundingBox = null;
+		}
+
+		/**
+		 * Inserts the given point object (switches to point objects)
+		 */
+		void insert(int index, Point p) {
+			switchToPointObjects();
+			ensureCapacity(size + 1);
+			System.arraycopy(points, index, points, index + 1, size - index);
+			points[index] = p;
+			size++;
+			boundingBox = null;
+		}
+
+		void addAll(int[] xy, int offset, int count) {
+			ensureCapacity(size + count);
+			if (points != null) {
+				for (int i=0; i<count; i++)
+					points[size + i] = new Point(xy[offset + i * 2], xy[offset + i * 2 + 1]);
+			} else
+				System.arraycopy(xy, offset, coords, size * 2, count * 2);
+			size += count;
+			boundingBox = null;
+		}
+
+		void remove(int index) {
+			checkIndex(index);
+			if (points != null) {
+				System.arraycopy(points, index + 1, points, index, size - index - 1);
+				points[size - 1] = null;
+			} else
+				System.arraycopy(coords, index * 2 + 2, coords, index * 2, (size - index - 1) * 2);
+			size--;
+			boundingBox = null;
+		}
+
+		void remove(Point p) {
+			if (p == null || points == null)
+				return;
+			for (int i=0; i<size; i++) {
+				if (points[i] == p) {
+					remove(i);
+					return;
+				}
+			}
+		}
+
+		int[] toArray() {
+			int[] ret = new int[size * 2];
+			if (points != null) {
+				for (int i=0; i<size; i++) {
+					ret[i * 2] = points[i].x;
+					ret[i * 2 + 1] = points[i].y;
+				}
+			} else
+				System.arraycopy(coords, 0, ret, 0, size * 2);
+			return ret;
+		}
+
+		Rect getBoundingBox() {
+			if (boundingBox == null)
+				updateBoundingBox();
+			return boundingBox;
+		}
+
+		private void updateBoundingBox() {
+			int left = Integer.MAX_VALUE;
+			int top = Integer.MAX_VALUE;
+			int right = Integer.MIN_VALUE;
+			int bottom = Integer.MIN_VALUE;
+
+			int x, y;
+			for (int i=0; i<size; i++) {
+				x = getX(i);
+				y = getY(i);
+				if (x < left)
+					left = x;
+				if (y < top)
+					top = y;
+				if (x > right)
+					right = x;
+				if (y > bottom)
+					bottom = y;
+			}
+
+			this.boundingBox = new Rect(left, top, right, bottom);
+		}
+
+		boolean isPointInside(int x, int y) {
 			//Check bounding box first
 			if (!getBoundingBox().isPointInside(x, y))
 				return false;
-			
+
 			//Is point inside algorithm:
 			// (See http://www.codeproject.com/KB/recipes/geometry.aspx )
-	
+
 			int  	j, inside_flag;
 			double 	dv0 ;
 			int     crossings;
 			boolean xflag0, yflag0, yflag1 = false;
 			double	 vertex0x, vertex0y, vertex1x = 0, vertex1y = 0;
-			Point 	vertex0, vertex1, P;
-		 
-			vertex0 = points.get(points.size()-1);
-			vertex0x = vertex0.x;
-			vertex0y = vertex0.y;
-		 
-		    //Get test bit for above/below Y axis 
+
+			vertex0x = getX(size-1);
+			vertex0y = getY(size-1);
+
+		    //Get test bit for above/below Y axis
 		    yflag0 = ( dv0 = vertex0y - y ) >= 0.0;
-		 
+
 		    crossings = 0;
-			j = 0;
-			for (Iterator<Point> it = points.iterator(); it.hasNext(); )
+			for (j=0; j<size; j++)
 			{
-				P = it.next();
 		        // cleverness:  bobble between filling endpoints of edges, so
 				// that the previous edge's shared endpoint is maintained.
-				if ( (j & 0x1) != 0 ) 
+				if ( (j & 0x1) != 0 )
 				{
-					vertex0 = P;
-					vertex0x = vertex0.x;
-					vertex0y = vertex0.y;
+					vertex0x = getX(j);
+					vertex0y = getY(j);
 					yflag0 = ( dv0 = vertex0y - y ) >= 0.0 ;
-				} 
-				else 
+				}
+				else
 				{
-					vertex1 = P;
-					vertex1x = vertex1.x;
-					vertex1y = vertex1.y;
+					vertex1x = getX(j);
+					vertex1y = getY(j);
 					yflag1 = ( vertex1y >= y ) ;
 				}
-		 
-				// check if points not both above/below X axis - can't hit ray 
-				if (yflag0 != yflag1) 
+
+				// check if points not both above/below X axis - can't hit ray
+				if (yflag0 != yflag1)
 				{
-		            // check if points on same side of Y axis 
-		            if ( ( xflag0 = ( vertex0x >= x ) ) == ( vertex1x >= x ) ) 
+		            // check if points on same side of Y axis
+		            if ( ( xflag0 = ( vertex0x >= x ) ) == ( vertex1x >= x ) )
 					{
-		                if ( xflag0 ) 
+		                if ( xflag0 )
 							crossings++;
-		            } 
-					else 
+		            }
+					else
 					{
 		                // compute intersection of pgon segment with X ray, note
 		                // if > point's X.
@@ -212,67 +645,51 @@ public class Polygon implements Serializable {
 		                crossings += (vertex0x - dv0 * (vertex1x-vertex0x)/(vertex1y-vertex0y)) >= x ? 1 : 0;
 		            }
 		        }
-				j++;
 		    }
-		 
+
 		    // test if crossings is odd
 		    // if all we care about is winding number > 0, then just:
 		    //       inside_flag = crossings > 0;
-		 
+
 			inside_flag = crossings & 0x01;
-		 
+
 		    return inside_flag != 0;
 		}
-	}
-	
-	/**
-	 * Calculates the perimeter of this polygon
-	 * @return Length (0.0 if not a polygon)
-	 */
-	public double calculateLength() {
-		if (points.size() <= 1)
-			return 0.0;
-		
-		double length = 0.0;
-		Point a = null;
-		Point b = points.get(points.size()-1);
-		for (int i=0; i<points.size(); i++) {
-			a = b;
-			b = points.get(i);
-			if (a == null || b == null)
-				continue;
-			length += a.calculateDistance(b.x, b.y);
-		}
-		return length;
-	}
-	
-	/**
-	 * Creates a deep copy of this polygon.
-	 */
-	public Polygon clone() {
-		Polygon copy = new Polygon();
-		synchronized (this) {
-			for (int i=0; i<points.size(); i++)
-				copy.addPoint(points.get(i).x, points.get(i).y);
+
+		double calculateLength() {
+			if (size <= 1)
+				return 0.0;
+
+			double length = 0.0;
+			int ax, ay;
+			int bx = getX(size-1);
+			int by = getY(size-1);
+			for (int i=0; i<size; i++) {
+				ax = bx;
+				ay = by;
+				bx = getX(i);
+				by = getY(i);
+				length += Math.sqrt(Math.pow((double)(bx - ax),2) + Math.pow((double)(by - ay),2));
+			}
+			return length;
 		}
-		return copy;
-	}
 
-	/**
-	 * E.g. polygon recognition confidence
-	 * @return 0.0..1.0
-	 */
-	public Double getConfidence() {
-		return confidence;
-	}
+		double calculateArea() {
+			if (size < 3)
+				return 0.0;
 
-	/**
-	 * E.g. polygon recognition confidence
-	 * @param confidence 0.0..1.0
-	 */
-	public void setConfidence(Double confidence) {
-		this.confidence = confidence;
+			long twiceArea = 0;
+			long ax, ay;
+			long bx = getX(size-1);
+			long by = getY(size-1);
+			for (int i=0; i<size; i++) {
+				ax = bx;
+				ay = by;
+				bx = getX(i);
+				by = getY(i);
+				twiceArea += ax * by - bx * ay;
+			}
+			return Math.abs(twiceArea) / 2.0;
+		}
 	}
-	
-	
 }
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.maths.geometry;
+
+import java.util.Arrays;
+
+/**
+ * Calculates intersection area, union area and intersection over union (IoU) of polygon pairs.<br>
+ * <br>
+ * The intersection is determined by a sweep over vertical slabs. The slab boundaries are the
+ * x coordinates of all vertices and edge crossings within the overlap of the two bounding boxes.
+ * Since no edges cross inside a slab, the shared area of each slab consists of trapezoids that
+ * can be measured directly. No clipped polygons are constructed. This works for concave and
+ * self-touching outlines and for polygons with shared or collinear edges. Points are considered
+ * inside a polygon according to the even-odd rule (as in {@link Polygon#isPointInside(int, int)}).
+ * The areas of the individual polygons (for union and IoU) are calculated with the same sweep,
+ * so that the intersection is never larger than either area, even for self-intersecting outlines.<br>
+ * <br>
+ * The vertices are integers, but slab boundaries at edge crossings are generally not. All calculations
+ * are therefore carried out in double precision (not with exact integer arithmetic); the relative error
+ * of the results is in the order of the floating-point precision.<br>
+ * <br>
+ * Polygons with disjoint bounding boxes are rejected without further calculation. All working
+ * memory is kept in the object and reused. Instances are therefore not thread-safe; use one instance per thread.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class PolygonOverlap {
+
+	//Edges (only edges that are not vertical; x1 < x2)
+	private double[] edgeX1 = new double[32];
+	private double[] edgeY1 = new double[32];
+	private double[] edgeX2 = new double[32];
+	private double[] edgeY2 = new double[32];
+	private boolean[] edgeOfA = new boolean[32];
+	private int edgeCount;
+
+	//Slab boundaries
+	private double[] slabX = new double[64];
+	private int slabCount;
+
+	//Edges crossing the current slab
+	private int[] active = new int[32];
+	private double[] activeMid = new double[32];
+
+	/**
+	 * Constructor
+	 */
+	public PolygonOverlap() {
+	}
+
+	/**
+	 * Calculates the area enclosed by the given polygon according to the even-odd rule.
+	 * For simple polygons, this is the same as {@link Polygon#calculateArea()}. For self-intersecting
+	 * outlines, areas that are enclosed twice don't count.
+	 * @return Area (0.0 if less than three points)
+	 */
+	public double getArea(Polygon p) {
+		if (p == null || p.getSize() < 3)
+			return 0.0;
+		return getArea(p.toArray(), p.getSize(), p.getBoundingBox());
+	}
+
+	/**
+	 * Calculates the area of the intersection of the two given polygons.
+	 * @return Area (0.0 if the polygons don't overlap)
+	 */
+	public double getIntersectionArea(Polygon a, Polygon b) {
+		if (a == null || b == null || a.getSize() < 3 || b.getSize() < 3)
+			return 0.0;
+		int[] ca = a.toArray();
+		int[] cb = b.toArray();
+		return getIntersectionArea(ca, a.getSize(), a.getBoundingBox(), cb, b.getSize(), b.getBoundingBox());
+	}
+
+	/**
+	 * Calculates the area of the union of the two given polygons.
+	 * @return Area
+	 */
+	public double getUnionArea(Polygon a, Polygon b) {
+		return getArea(a) + getArea(b) - getIntersectionArea(a, b);
+	}
+
+	/**
+	 * Calculates the intersection over union (Jaccard index) of the two given polygons.
+	 * @return Value between 0.0 (no overlap) and 1.0 (same area)
+	 */
+	public double getIntersectionOverUnion(Polygon a, Polygon b) {
+		double intersection = getIntersectionArea(a, b);
+		return iou(intersection, getArea(a) + getArea(b) - intersection);
+	}
+
+	/**
+	 * Calculates the intersection areas of all combinations of the given polygons.
+	 * The coordinates and bounding boxes of all polygons are retrieved only once.
+	 * @param a First set of polygons
+	 * @param b Second set of polygons
+	 * @return Matrix with intersection areas (result[i][j] is the intersection of a[i] and b[j])
+	 */
+	public double[][] getIntersectionAreas(Polygon[] a, Polygon[] b) {
+		return calculateBatch(a, b, false);
+	}
+
+	/**
+	 * Calculates the intersection over union (Jaccard index) for all combinations of the given polygons.
+	 * The coordinates, bounding boxes and areas of all polygons are calculated only once.
+	 * @param a First set of polygons
+	 * @param b Second set of polygons
+	 * @return Matrix with IoU values (result[i][j] is the IoU of a[i] and b[j])
+	 */
+	public double[][] getIntersectionOverUnion(Polygon[] a, Polygon[] b) {
+		return calculateBatch(a, b, true);
+	}
+
+	private double[][] calculateBatch(Polygon[] a, Polygon[] b, boolean iou) {
+		int[][] coordsB = new int[b.length][];
+		Rect[] boxB = new Rect[b.length];
+		double[] areaB = new double[b.length];
+		for (int j=0; j<b.length; j++) {
+			if (b[j] != null && b[j].getSize() >= 3) {
+				coordsB[j] = b[j].toArray();
+				boxB[j] = b[j].getBoundingBox();
+				areaB[j] = iou ? getArea(coordsB[j], coordsB[j].length / 2, boxB[j]) : 0.0;
+			}
+		}
+
+		double[][] result = new double[a.length][b.length];
+		for (int i=0; i<a.length; i++) {
+			if (a[i] == null || a[i].getSize() < 3)
+				continue;
+			int[] coordsA = a[i].toArray();
+			Rect boxA = a[i].getBoundingBox();
+			double areaA = iou ? getArea(coordsA, coordsA.length / 2, boxA) : 0.0;
+			for (int j=0; j<b.length; j++) {
+				if (coordsB[j] == null)
+					continue;
+				double intersection = getIntersectionArea(coordsA, coordsA.length / 2, boxA, coordsB[j], coordsB[j].length / 2, boxB[j]);
+				result[i][j] = iou ? iou(intersection, areaA + areaB[j] - intersection) : intersection;
+			}
+		}
+		return result;
+	}
+
+	private static double iou(double intersection, double union) {
+		if (union <= 0.0 || intersection <= 0.0)
+			return 0.0;
+		return Math.min(1.0, intersection / union);
+	}
+
+	/**
+	 * Calculates the even-odd area of a polygon given as interleaved x/y coordinates
+	 */
+	private double getArea(int[] coords, int size, Rect box) {
+		if (box.left >= box.right || box.top >= box.bottom)
+			return 0.0;
+		edgeCount = 0;
+		slabCount = 0;
+		addSlabBoundary(box.left);
+		addSlabBoundary(box.right);
+		addEdges(coords, size, true, box.left, box.right);
+		addCrossings(box.left, box.right);
+		return sweep(false);
+	}
+
+	/**
+	 * Calculates the intersection area of two polygons given as interleaved x/y coordinates
+	 */
+	private double getIntersectionArea(int[] a, int sizeA, Rect boxA, int[] b, int sizeB, Rect boxB) {
+		//Bounding box early-out
+		double left = Math.max(boxA.left, boxB.left);
+		double right = Math.min(boxA.right, boxB.right);
+		if (left >= right || Math.max(boxA.top, boxB.top) >= Math.min(boxA.bottom, boxB.bottom))
+			return 0.0;
+
+		edgeCount = 0;
+		slabCount = 0;
+		addSlabBoundary(left);
+		addSlabBoundary(right);
+		addEdges(a, sizeA, true, left, right);
+		addEdges(b, sizeB, false, left, right);
+		addCrossings(left, right);
+		return sweep(true);
+	}
+
+	/**
+	 * Sums up the areas of all slabs
+	 * @param intersection If <code>true</code>, the area inside both polygons is calculated, otherwise the area inside polygon A
+	 */
+	private double sweep(boolean intersection) {
+		Arrays.sort(slabX, 0, slabCount);
+
+		double area = 0.0;
+		for (int s=0; s+1<slabCount; s++) {
+			double x0 = slabX[s];
+			double x1 = slabX[s+1];
+			if (x1 > x0)
+				area += getSlabArea(x0, x1, intersection);
+		}
+		return area;
+	}
+
+	/**
+	 * Adds all non-vertical edges of the given polygon that overlap the x range and the x coordinates of their end points
+	 */
+	private void addEdges(int[] coords, int size, boolean ofA, double left, double right) {
+		int bx = coords[size * 2 - 2];
+		int by = coords[size * 2 - 1];
+		for (int i=0; i<size; i++) {
+			int ax = bx;
+			int ay = by;
+			bx = coords[i * 2];
+			by = coords[i * 2 + 1];
+			if (ax == bx)
+				continue;
+			if (bx > left && bx < right)
+				addSlabBoundary(bx);
+			if (Math.max(ax, bx) <= left || Math.min(ax, bx) >= right)
+				continue;
+			if (edgeCount == edgeX1.length)
+				growEdges();
+			if (ax < bx) {
+				edgeX1[edgeCount] = ax;
+				edgeY1[edgeCount] = ay;
+				edgeX2[edgeCount] = bx;
+				edgeY2[edgeCount] = by;
+			} else {
+				edgeX1[edgeCount] = bx;
+				edgeY1[edgeCount] = by;
+				edgeX2[edgeCount] = ax;
+				edgeY2[edgeCount] = ay;
+			}
+			edgeOfA[edgeCount] = ofA;
+			edgeCount++;
+		}
+	}
+
+	/**
+	 * Adds the x coordinates of all proper edge crossings as slab boundaries
+	 */
+	private void addCrossings(double left, double right) {
+		for (int i=0; i<edgeCount; i++) {
+			for (int j=i+1; j<edgeCount; j++) {
+				double x0 = Math.max(Math.max(edgeX1[i], edgeX1[j]), left);
+				double x1 = Math.min(Math.min(edgeX2[i], edgeX2[j]), right);
+				if (x0 >= x1)
+					continue;
+				double d0 = getY(i, x0) - getY(j, x0);
+				double d1 = getY(i, x1) - getY(j, x1);
+				if ((d0 < 0.0 && d1 > 0.0) || (d0 > 0.0 && d1 < 0.0))
+					addSlabBoundary(x0 + (x1 - x0) * d0 / (d0 - d1));
+			}
+		}
+	}
+
+	/**
+	 * Calculates the area covered by both polygons (or by polygon A) between the two given x coordinates
+	 * (no edge crossings or vertices inside the slab)
+	 */
+	private double getSlabArea(double x0, double x1, boolean intersection) {
+		double xm = (x0 + x1) / 2.0;
+
+		//Active edges sorted by y at the centre of the slab (insertion sort, there are usually only few)
+		int count = 0;
+		for (int e=0; e<edgeCount; e++) {
+			if (edgeX1[e] > x0 || edgeX2[e] < x1)
+				continue;
+			if (count == active.length) {
+				active = Arrays.copyOf(active, count * 2);
+				activeMid = Arrays.copyOf(activeMid, count * 2);
+			}
+			double y = getY(e, xm);
+			int k = count;
+			while (k > 0 && activeMid[k-1] > y) {
+				active[k] = active[k-1];
+				activeMid[k] = activeMid[k-1];
+				k--;
+			}
+			active[k] = e;
+			activeMid[k] = y;
+			count++;
+		}
+
+		//Walk upwards and sum up the trapezoids inside both polygons (or polygon A)
+		double sumOfHeights = 0.0;
+		boolean insideA = false;
+		boolean insideB = false;
+		for (int k=0; k<count; k++) {
+			int e = active[k];
+			if (insideA && (insideB || !intersection)) {
+				int below = active[k-1];
+				sumOfHeights += (getY(e, x0) - getY(below, x0)) + (getY(e, x1) - getY(below, x1));
+			}
+			if (edgeOfA[e])
+				insideA = !insideA;
+			else
+				insideB = !insideB;
+		}
+		return sumOfHeights * (x1 - x0) / 2.0;
+	}
+
+	/**
+	 * Returns the y coordinate of the given edge at the given x position
+	 */
+	private double getY(int edge, double x) {
+		double x1 = edgeX1[edge];
+		double y1 = edgeY1[edge];
+		return y1 + (edgeY2[edge] - y1) * (x - x1) / (edgeX2[edge] - x1);
+	}
+
+	private void addSlabBoundary(double x) {
+		if (slabCount == slabX.length)
+			slabX = Arrays.copyOf(slabX, slabCount * 2);
+		slabX[slabCount++] = x;
+	}
+
+	private void growEdges() {
+		int capacity = edgeX1.length * 2;
+		edgeX1 = Arrays.copyOf(edgeX1, capacity);
+		edgeY1 = Arrays.copyOf(edgeY1, capacity);
+		edgeX2 = Arrays.copyOf(edgeX2, capacity);
+		edgeY2 = Arrays.copyOf(edgeY2, capacity);
+		edgeOfA = Arrays.copyOf(edgeOfA, capacity);
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.maths.geometry;
+
+import java.util.Arrays;
+
+/**
+ * Scanline polygon fill into caller-provided rasters (e.g. for label masks).<br>
+ * <br>
+ * A raster is a row-major array that covers the area (left, top, width, height) in polygon coordinates.
+ * Pixel (x, y) is filled if its centre (x+0.5, y+0.5) is inside the polygon according to the even-odd
+ * rule. Adjacent polygons that share an edge therefore never fill the same pixel twice and never leave
+ * a gap. Pixels outside the raster area are clipped, so large images can be rendered tile by tile.<br>
+ * <br>
+ * Edges are sorted once per polygon and only the edges crossing the current row are evaluated.
+ * The working memory is kept in the object and reused. Instances are therefore not thread-safe; 
+ * use one instance per thread.
+ * 
+ * @author Christian Clausner
+ *
+ */
+public class PolygonRasterizer {
+
+	//Edges (only edges that are not horizontal; y0 < y1)
+	private double[] edgeX0 = new double[32];
+	private int[] edgeY0 = new int[32];
+	private int[] edgeY1 = new int[32];
+	private double[] edgeSlope = new double[32];
+	private int edgeCount;
+	
+	/** Sort keys: y0 (upper 32 bits) and edge index (lower 32 bits) */
+	private long[] sortedEdges = new long[32];
+	private int nextEdge;
+	
+	//Edges crossing the current row
+	private int[] active = new int[32];
+	private int activeCount;
+
+	//Sorted x positions where the current row crosses the outline
+	private double[] crossings = new double[32];
+
+	//Rows to scan
+	private int firstRow;
+	private int endRow;
+
+	/**
+	 * Constructor
+	 */
+	public PolygonRasterizer() {
+	}
+
+	/**
+	 * Fills the given polygon into the raster.
+	 * @param polygon Outline
+	 * @param raster Row-major raster with at least width * height elements
+	 * @param left Left of the raster area (in polygon coordinates)
+	 * @param top Top of the raster area (in polygon coordinates)
+	 * @param width Width of the raster area
+	 * @param height Height of the raster area
+	 * @param value Fill value
+	 */
+	public void fill(Polygon polygon, byte[] raster, int left, int top, int width, int height, byte value) {
+		int[] xy = polygon.toArray();
+		fill(xy, xy.length / 2, raster, left, top, width, height, value);
+	}
+
+	/**
+	 * Fills the given polygon into the raster.
+	 * @param polygon Outline
+	 * @param raster Row-major raster with at least width * height elements
+	 * @param left Left of the raster area (in polygon coordinates)
+	 * @param top Top of the raster area (in polygon coordinates)
+	 * @param width Width of the raster area
+	 * @param height Height of the raster area
+	 * @param value Fill value
+	 */
+	public void fill(Polygon polygon, int[] raster, int left, int top, int width, int height, int value) {
+		int[] xy = polygon.toArray();
+		fill(xy, xy.length / 2, raster, left, top, width, height, value);
+	}
+
+	/**
+	 * Fills the given outline into the raster.
+	 * @param xy Interleaved x/y values of the outline (x0, y0, x1, y1, ...)
+	 * @param size Number of points
+	 * @param raster Row-major raster with at least width * height elements
+	 * @param left Left of the raster area (in polygon coordinates)
+	 * @param top Top of the raster area (in polygon coordinates)
+	 * @param width Width of the raster area
+	 * @param height Height of the raster area
+	 * @param value Fill value
+	 */
+	public void fill(int[] xy, int size, byte[] raster, int left, int top, int width, int height, byte value) {
+		if (!prepare(xy, size, left, top, width, height))
+			return;
+		for (int y=firstRow; y<endRow; y++) {
+			int count = scanRow(y);
+			int offset = (y - top) * width - left;
+			for (int i=0; i+1<count; i+=2) {
+				int x0 = Math.max(firstPixel(crossings[i]), left);
+				int x1 = Math.min(firstPixel(crossings[i+1]), left + width);
+				if (x0 < x1)
+					Arrays.fill(raster, offset + x0, offset + x1, value);
+			}
+		}
+	}
+
+	/**
+	 * Fills the given outline into the raster.
+	 * @param xy Interleaved x/y values of the outline (x0, y0, x1, y1, ...)
+	 * @param size Number of points
+	 * @param raster Row-major raster with at least width * height elements
+	 * @param left Left of the raster area (in polygon coordinates)
+	 * @param top Top of the raster area (in polygon coordinates)
+	 * @param width Width of the raster area
+	 * @param height Height of the raster area
+	 * @param value Fill value
+	 */
+	public void fill(int[] xy, int size, int[] raster, int left, int top, int width, int height, int value) {
+		if (!prepare(xy, size, left, top, width, height))
+			return;
+		for (int y=firstRow; y<endRow; y++) {
+			int count = scanRow(y);
+			int offset = (y - top) * width - left;
+			for (int i=0; i+1<count; i+=2) {
+				int x0 = Math.max(firstPixel(crossings[i]), left);
+				int x1 = Math.min(firstPixel(crossings[i+1]), left + width);
+				if (x0 < x1)
+					Arrays.fill(raster, offset + x0, offset + x1, value);
+			}
+		}
+	}
+
+	/**
+	 * Returns the first pixel with a centre at or right of the given x position
+	 */
+	private static int firstPixel(double x) {
+		return (int)Math.ceil(x - 0.5);
+	}
+
+	/**
+	 * Builds the sorted edge table and determines the rows to scan
+	 * @return <code>false</code> if the outline doesn't cover any pixel of the raster area
+	 */
+	private boolean prepare(int[] xy, int size, int left, int top, int width, int height) {
+		if (size < 3 || width <= 0 || height <= 0)
+			return false;
+		
+		//Bounding box
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		for (int i=0; i<size; i++) {
+			int x = xy[i * 2];
+			int y = xy[i * 2 + 1];
+			if (x < minX) minX = x;
+			if (x > maxX) maxX = x;
+			if (y < minY) minY = y;
+			if (y > maxY) maxY = y;
+		}
+		//Rows and columns with the pixel centre in [min, max)
+		firstRow = Math.max(top, minY);
+		endRow = Math.min(top + height, maxY);
+		if (firstRow >= endRow || Math.max(left, minX) >= Math.min(left + width, maxX))
+			return false;
+		
+		//Edge table
+		if (size > edgeY0.length)
+			growEdges(size);
+		edgeCount = 0;
+		int bx = xy[size * 2 - 2];
+		int by = xy[size * 2 - 1];
+		for (int i=0; i<size; i++) {
+			int ax = bx;
+			int ay = by;
+			bx = xy[i * 2];
+			by = xy[i * 2 + 1];
+			if (ay == by)
+				continue;
+			if (ay < by) {
+				edgeX0[edgeCount] = ax;
+				edgeY0[edgeCount] = ay;
+				edgeY1[edgeCount] = by;
+			} else {
+				edgeX0[edgeCount] = bx;
+				edgeY0[edgeCount] = by;
+				edgeY1[edgeCount] = ay;
+			}
+			edgeSlope[edgeCount] = (double)(bx - ax) / (double)(by - ay);
+			sortedEdges[edgeCount] = ((long)edgeY0[edgeCount] << 32) | edgeCount;
+			edgeCount++;
+		}
+		Arrays.sort(sortedEdges, 0, edgeCount);
+		nextEdge = 0;
+		activeCount = 0;
+		return true;
+	}
+
+	/**
+	 * Updates the active edges for the given row and calculates the sorted crossings of the row centre with the outline.
+	 * Rows have to be scanned from top to bottom.
+	 * @return Number of crossings
+	 */
+	private int scanRow(int y) {
+		double centre = y + 0.5;
+		
+		//Add edges starting above the row centre
+		while (nextEdge < edgeCount && (int)(sortedEdges[nextEdge] >> 32) < centre)
+			active[activeCount++] = (int)sortedEdges[nextEdge++];
+		
+		//Remove edges ending above the row centre and calculate the crossings of the others
+		int count = 0;
+		for (int i=0; i<activeCount; i++) {
+			int e = active[i];
+			if (edgeY1[e] < centre) {
+				active[i--] = active[--activeCount];
+				continue;
+			}
+			double x = edgeX0[e] + (centre - edgeY0[e]) * edgeSlope[e];
+			int k = count;
+			while (k > 0 && crossings[k-1] > x) {
+				crossings[k] = crossings[k-1];
+				k--;
+			}
+			crossings[k] = x;
+			count++;
+		}
+		return count;
+	}
+
+	private void growEdges(int capacity) {
+		edgeX0 = new double[capacity];
+		edgeY0 = new int[capacity];
+		edgeY1 = new int[capacity];
+		edgeSlope = new double[capacity];
+		sortedEdges = new long[capacity];
+		active = new int[capacity];
+		crossings = new double[capacity];
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.maths.geometry;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PolygonOverlapTest {
+
+	private static final double EPS = 0.0001;
+
+	private static Polygon create(int... xy) {
+		return new Polygon(xy, 0, xy.length / 2);
+	}
+
+	private static Polygon createRect(int left, int top, int right, int bottom) {
+		return create(left, top, right, top, right, bottom, left, bottom);
+	}
+
+	@Test
+	public void testArea() {
+		assertEquals(10000.0, createRect(0, 0, 100, 100).calculateArea(), EPS);
+		//Counter-clockwise
+		assertEquals(5000.0, create(0, 0, 0, 100, 100, 0).calculateArea(), EPS);
+		assertEquals(0.0, create(0, 0, 100, 100).calculateArea(), EPS);
+	}
+
+	@Test
+	public void testRectangles() {
+		PolygonOverlap overlap = new PolygonOverlap();
+		Polygon a = createRect(0, 0, 100, 100);
+		Polygon b = createRect(50, 50, 150, 150);
+		assertEquals(2500.0, overlap.getIntersectionArea(a, b), EPS);
+		assertEquals(17500.0, overlap.getUnionArea(a, b), EPS);
+		assertEquals(1.0 / 7.0, overlap.getIntersectionOverUnion(a, b), EPS);
+		assertEquals(1.0, overlap.getIntersectionOverUnion(a, a), EPS);
+
+		//Shared edges
+		assertEquals(5000.0, overlap.getIntersectionArea(a, createRect(0, 0, 100, 50)), EPS);
+		//Touching and disjoint
+		assertEquals(0.0, overlap.getIntersectionArea(a, createRect(100, 0, 200, 100)), EPS);
+		assertEquals(0.0, overlap.getIntersectionArea(a, createRect(300, 300, 400, 400)), EPS);
+		assertEquals(0.0, overlap.getIntersectionOverUnion(a, createRect(300, 300, 400, 400)), EPS);
+	}
+
+	@Test
+	public void testSlantedEdges() {
+		PolygonOverlap overlap = new PolygonOverlap();
+		Polygon diamond = create(50, 0, 100, 50, 50, 100, 0, 50);
+		assertEquals(5000.0, overlap.getIntersectionArea(diamond, createRect(0, 0, 100, 100)), EPS);
+		assertEquals(0.5, overlap.getIntersectionOverUnion(diamond, createRect(0, 0, 100, 100)), EPS);
+
+		//Edges crossing between vertices
+		Polygon shifted = create(100, 0, 150, 50, 100, 100, 50, 50);
+		assertEquals(1250.0, overlap.getIntersectionArea(diamond, shifted), EPS);
+
+		//Triangle containing a square
+		Polygon triangle = create(0, 0, 100, 0, 0, 100);
+		assertEquals(2500.0, overlap.getIntersectionArea(triangle, createRect(0, 0, 50, 50)), EPS);
+	}
+
+	@Test
+	public void testConcaveAndSelfTouching() {
+		PolygonOverlap overlap = new PolygonOverlap();
+		Polygon u = create(0, 0, 30, 0, 30, 70, 70, 70, 70, 0, 100, 0, 100, 100, 0, 100);
+		assertEquals(7200.0, u.calculateArea(), EPS);
+		assertEquals(3000.0, overlap.getIntersectionArea(u, createRect(0, 0, 100, 50)), EPS);
+		assertEquals(0.0, overlap.getIntersectionArea(u, createRect(40, 10, 60, 60)), EPS);
+
+		//Two squares touching at one vertex
+		Polygon touching = create(0, 0, 50, 0, 50, 50, 100, 50, 100, 100, 50, 100, 50, 50, 0, 50);
+		assertEquals(5000.0, touching.calculateArea(), EPS);
+		assertEquals(5000.0, overlap.getIntersectionArea(touching, createRect(0, 0, 100, 100)), EPS);
+		assertEquals(1250.0, overlap.getIntersectionArea(touching, createRect(25, 25, 75, 75)), EPS);
+		assertEquals(1.0, overlap.getIntersectionOverUnion(touching, touching), EPS);
+	}
+
+	@Test
+	public void testSelfIntersecting() {
+		PolygonOverlap overlap = new PolygonOverlap();
+		Polygon bowtie = create(0, 0, 100, 100, 100, 0, 0, 100);
+		assertEquals(0.0, bowtie.calculateArea(), EPS); //Signed areas cancel out
+		assertEquals(5000.0, overlap.getArea(bowtie), EPS);
+		assertEquals(5000.0, overlap.getIntersectionArea(bowtie, bowtie), EPS);
+		assertEquals(5000.0, overlap.getUnionArea(bowtie, bowtie), EPS);
+		assertEquals(1.0, overlap.getIntersectionOverUnion(bowtie, bowtie), EPS);
+		assertEquals(0.5, overlap.getIntersectionOverUnion(bowtie, createRect(0, 0, 100, 100)), EPS);
+
+		//Pentagram (the centre is enclosed twice and therefore outside according to the even-odd rule)
+		Polygon star = create(50, 0, 79, 90, 2, 35, 98, 35, 21, 90);
+		double area = overlap.getArea(star);
+		assertTrue(area < star.calculateArea());
+		assertEquals(area, overlap.getIntersectionArea(star, star), EPS);
+		assertEquals(1.0, overlap.getIntersectionOverUnion(star, star), EPS);
+		assertEquals(0.0, overlap.getIntersectionArea(star, createRect(45, 45, 55, 55)), EPS);
+
+		//Intersection never larger than the areas
+		Polygon[] polygons = new Polygon[] { bowtie, star, createRect(0, 0, 60, 60), create(0, 0, 100, 0, 0, 100) };
+		double[][] iou = overlap.getIntersectionOverUnion(polygons, polygons);
+		for (int i=0; i<polygons.length; i++) {
+			assertEquals(1.0, iou[i][i], EPS);
+			for (int j=0; j<polygons.length; j++) {
+				double intersection = overlap.getIntersectionArea(polygons[i], polygons[j]);
+				assertTrue(intersection <= overlap.getArea(polygons[i]) + EPS);
+				assertTrue(intersection <= overlap.getArea(polygons[j]) + EPS);
+			}
+		}
+	}
+
+	@Test
+	public void testBatch() {
+		Polygon[] a = new Polygon[] { createRect(0, 0, 100, 100), create(50, 0, 100, 50, 50, 100, 0, 50), null };
+		Polygon[] b = new Polygon[] { createRect(50, 50, 150, 150), createRect(0, 0, 50, 50) };
+		PolygonOverlap overlap = new PolygonOverlap();
+		double[][] areas = overlap.getIntersectionAreas(a, b);
+		double[][] iou = overlap.getIntersectionOverUnion(a, b);
+		assertEquals(3, areas.length);
+		for (int i=0; i<2; i++) {
+			for (int j=0; j<b.length; j++) {
+				assertEquals(overlap.getIntersectionArea(a[i], b[j]), areas[i][j], EPS);
+				assertEquals(overlap.getIntersectionOverUnion(a[i], b[j]), iou[i][j], EPS);
+			}
+		}
+		assertEquals(0.0, areas[2][0], EPS);
+		assertEquals(1250.0, areas[1][1], EPS);
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 PRImA Research Lab, University of Salford, United Kingdom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primaresearch.maths.geometry;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PolygonRasterizerTest {
+
+	private static Polygon create(int... xy) {
+		return new Polygon(xy, 0, xy.length / 2);
+	}
+
+	private static int count(byte[] raster, byte value) {
+		int count = 0;
+		for (int i=0; i<raster.length; i++)
+			if (raster[i] == value)
+				count++;
+		return count;
+	}
+
+	@Test
+	public void testRectangle() {
+		byte[] raster = new byte[30 * 30];
+		new PolygonRasterizer().fill(create(10, 10, 20, 10, 20, 20, 10, 20), raster, 0, 0, 30, 30, (byte)1);
+		assertEquals(100, count(raster, (byte)1));
+		assertEquals(1, raster[10 * 30 + 10]);
+		assertEquals(1, raster[19 * 30 + 19]);
+		assertEquals(0, raster[20 * 30 + 20]);
+		assertEquals(0, raster[9 * 30 + 10]);
+	}
+
+	@Test
+	public void testSharedEdges() {
+		//Two triangles forming a square: no overlap, no gap
+		int[] raster = new int[100 * 100];
+		PolygonRasterizer rasterizer = new PolygonRasterizer();
+		rasterizer.fill(create(0, 0, 100, 0, 0, 100), raster, 0, 0, 100, 100, 1);
+		rasterizer.fill(create(100, 0, 100, 100, 0, 100), raster, 0, 0, 100, 100, 2);
+		int ones = 0, twos = 0;
+		for (int i=0; i<raster.length; i++) {
+			assertTrue(raster[i] != 0);
+			if (raster[i] == 1) ones++;
+			else twos++;
+		}
+		assertEquals(10000, ones + twos);
+		assertEquals(4950, ones); //Pixels with the centre on the diagonal belong to the right triangle
+	}
+
+	@Test
+	public void testConcave() {
+		byte[] raster = new byte[100 * 100];
+		Polygon u = create(0, 0, 30, 0, 30, 70, 70, 70, 70, 0, 100, 0, 100, 100, 0, 100);
+		new PolygonRasterizer().fill(u, raster, 0, 0, 100, 100, (byte)1);
+		assertEquals(7200, count(raster, (byte)1));
+		assertEquals(0, raster[10 * 100 + 50]);
+		assertEquals(1, raster[80 * 100 + 50]);
+		
+		//Matches point in polygon test (for pixels away from the outline)
+		for (int y=1; y<100; y+=7)
+			for (int x=1; x<100; x+=7)
+				if (x != 30 && x != 70 && y != 70)
+					assertEquals(u.isPointInside(x, y), raster[y * 100 + x] == 1);
+	}
+
+	@Test
+	public void testClipping() {
+		Polygon polygon = create(-20, 5, 60, -10, 90, 80, 30, 120, 10, 40);
+		PolygonRasterizer rasterizer = new PolygonRasterizer();
+		byte[] full = new byte[100 * 100];
+		rasterizer.fill(polygon, full, 0, 0, 100, 100, (byte)1);
+
+		//Render in tiles of 30 x 40 and compare
+		byte[] tile = new byte[30 * 40];
+		for (int top=0; top<100; top+=40) {
+			for (int left=0; left<100; left+=30) {
+				int width = Math.min(30, 100 - left);
+				int height = Math.min(40, 100 - top);
+				Arrays.fill(tile, (byte)0);
+				rasterizer.fill(polygon, tile, left, top, width, height, (byte)1);
+				for (int y=0; y<height; y++)
+					for (int x=0; x<width; x++)
+						assertEquals(full[(top + y) * 100 + left + x], tile[y * width + x]);
+			}
+		}
+		
+		//Outside the raster
+		byte[] raster = new byte[10 * 10];
+		rasterizer.fill(polygon, raster, 500, 500, 10, 10, (byte)1);
+		assertEquals(0, count(raster, (byte)1));
+	}
+}
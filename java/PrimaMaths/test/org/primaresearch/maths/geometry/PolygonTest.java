@@ -42,4 +42,170 @@ public class PolygonTest {
 		assertTrue(bb.bottom == 200);
 	}
 
+	private static Polygon createRect() {
+		Polygon polygon = new Polygon();
+		polygon.addPoint(10, 20);
+		polygon.addPoint(110, 20);
+		polygon.addPoint(110, 70);
+		polygon.addPoint(10, 70);
+		return polygon;
+	}
+
+	@Test
+	public void testPackedAccess() {
+		Polygon polygon = createRect();
+		assertEquals(4, polygon.getSize());
+		assertEquals(110, polygon.getX(1));
+		assertEquals(70, polygon.getY(2));
+		assertArrayEquals(new int[] {10,20, 110,20, 110,70, 10,70}, polygon.toArray());
+
+		Rect box = polygon.getBoundingBox();
+		assertEquals(10, box.left);
+		assertEquals(110, box.right);
+
+		polygon.setPoint(1, 200, 20);
+		assertEquals(200, polygon.getBoundingBox().right);
+
+		polygon.insertPoint(0, new Point(50, 0));
+		assertEquals(5, polygon.getSize());
+		assertEquals(50, polygon.getX(1));
+		assertEquals(0, polygon.getBoundingBox().top);
+
+		polygon.removePoint(1);
+		assertArrayEquals(new int[] {10,20, 200,20, 110,70, 10,70}, polygon.toArray());
+
+		polygon.removePoint(2);
+		assertEquals(3, polygon.getSize());
+
+		Polygon bulk = new Polygon(2);
+		bulk.addPoints(new int[] {0,0, 10,0, 10,10, 0,10}, 2, 3);
+		assertArrayEquals(new int[] {10,0, 10,10, 0,10}, bulk.toArray());
+
+		try {
+			polygon.getX(3);
+			fail("Index out of bounds expected");
+		} catch (IndexOutOfBoundsException exc) {
+		}
+	}
+
+	@Test
+	public void testPointObjects() {
+		Polygon polygon = createRect();
+
+		//Changes to point objects are reflected in the polygon
+		Point p = polygon.getPoint(1);
+		p.x = 300;
+		polygon.setBoundingBoxOutdated();
+		assertEquals(300, polygon.getX(1));
+		assertEquals(300, polygon.getBoundingBox().right);
+		assertTrue(p == polygon.getPoint(1));
+
+		//Modification after switching to point objects
+		polygon.addPoint(5, 5);
+		polygon.setPoint(0, 1, 2);
+		assertEquals(1, polygon.getPoint(0).x);
+		polygon.removePoint(p);
+		assertArrayEquals(new int[] {1,2, 110,70, 10,70, 5,5}, polygon.toArray());
+
+		Polygon copy = polygon.clone();
+		copy.setPoint(0, 0, 0);
+		assertEquals(1, polygon.getX(0));
+	}
+
+	@Test
+	public void testPointObjectsPassedIn() {
+		//Added and inserted point objects are kept (as with the original list-based polygon)
+		Polygon polygon = createRect();
+		Point added = new Point(0, 100);
+		polygon.addPoint(added);
+		Point inserted = new Point(50, 0);
+		polygon.insertPoint(0, inserted);
+		assertTrue(added == polygon.getPoint(5));
+		assertTrue(inserted == polygon.getPoint(1));
+		inserted.y = -10;
+		polygon.setBoundingBoxOutdated();
+		assertEquals(-10, polygon.getY(1));
+		assertEquals(-10, polygon.getBoundingBox().top);
+
+		//Points are removed by identity only
+		polygon.removePoint(new Point(0, 100));
+		assertEquals(6, polygon.getSize());
+		polygon.removePoint(added);
+		assertEquals(5, polygon.getSize());
+		polygon.removePoint(inserted);
+		assertArrayEquals(new int[] {10,20, 110,20, 110,70, 10,70}, polygon.toArray());
+
+		//Packed polygon: point objects that are not part of it are ignored
+		polygon = createRect();
+		polygon.removePoint(new Point(10, 20));
+		assertEquals(4, polygon.getSize());
+	}
+
+	@Test
+	public void testReadOnlyView() {
+		Polygon polygon = createRect();
+		Polygon view = polygon.asReadOnly();
+		assertTrue(view.isReadOnly());
+		assertFalse(polygon.isReadOnly());
+
+		polygon.setPoint(0, 0, 0);
+		assertEquals(0, view.getX(0));
+		assertEquals(0, view.getBoundingBox().left);
+
+		//Points of views are copies
+		view.getPoint(0).x = 5;
+		assertEquals(0, polygon.getX(0));
+
+		try {
+			view.addPoint(1, 1);
+			fail("Read-only view should not be modifiable");
+		} catch (UnsupportedOperationException exc) {
+		}
+		assertEquals(4, polygon.getSize());
+		assertFalse(view.clone().isReadOnly());
+	}
+
+	@Test
+	public void testImmutableCopy() {
+		Polygon polygon = createRect();
+		polygon.setConfidence(0.5);
+		Polygon copy = polygon.immutableCopy();
+		assertTrue(copy.isReadOnly());
+		assertFalse(copy.isThreadSafe());
+		assertEquals(0.5, copy.getConfidence(), 0.0001);
+
+		//Independent of the original
+		polygon.setPoint(0, 0, 0);
+		assertEquals(10, copy.getX(0));
+		assertEquals(10, copy.getBoundingBox().left);
+		copy.setBoundingBoxOutdated();
+		assertTrue(copy.isPointInside(50, 50));
+
+		//Changes to the returned bounding box do not affect the copy
+		copy.getBoundingBox().left = 60;
+		assertEquals(10, copy.getBoundingBox().left);
+		assertTrue(copy.isPointInside(50, 50));
+
+		try {
+			copy.setPoint(0, 2, 2);
+			fail("Immutable polygon should not be modifiable");
+		} catch (UnsupportedOperationException exc) {
+		}
+		try {
+			copy.setThreadSafe(true);
+			fail("Immutable polygon should not be modifiable");
+		} catch (UnsupportedOperationException exc) {
+		}
+	}
+
+	@Test
+	public void testPointInside() {
+		Polygon polygon = createRect();
+		polygon.setThreadSafe(false);
+		assertFalse(polygon.isThreadSafe());
+		assertTrue(polygon.isPointInside(50, 50));
+		assertFalse(polygon.isPointInside(5, 50));
+		assertFalse(polygon.isPointInside(50, 80));
+		assertEquals(300.0, polygon.calculateLength(), 0.0001);
+	}
 }